@@ -0,0 +1,81 @@
+package com.rvg.stocktradingbenchmarks;
+
+import com.rvg.grpc.OrderSummary;
+import com.rvg.grpc.StockOrder;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * BulkStockOrder throughput in orders per second: one stream of
+ * {@value #ORDERS_PER_STREAM} orders per invocation, until its summary arrives.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkStockOrderBenchmark {
+
+    static final int ORDERS_PER_STREAM = 1_000;
+
+    private StockTradingServiceGrpc.StockTradingServiceStub stub;
+    private List<StockOrder> orders;
+
+    @Setup
+    public void prepare(TradingServer tradingServer) {
+        stub = StockTradingServiceGrpc.newStub(tradingServer.channel());
+        orders = IntStream.range(0, ORDERS_PER_STREAM)
+                .mapToObj(i -> StockOrder.newBuilder()
+                        .setOrderId("bulk-" + i)
+                        .setStockSymbol(TradingServer.STOCK_SYMBOLS.get(i % TradingServer.STOCK_SYMBOLS.size()))
+                        .setOrderType(i % 2 == 0 ? "BUY" : "SELL")
+                        .setQuantity(1 + i % 100)
+                        .setPrice(100.0 + i % 50)
+                        .build())
+                .toList();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_STREAM)
+    public OrderSummary bulkStockOrder() throws InterruptedException, ExecutionException {
+        CompletableFuture<OrderSummary> summary = new CompletableFuture<>();
+        StreamObserver<StockOrder> requests = stub.bulkStockOrder(new StreamObserver<>() {
+            @Override
+            public void onNext(OrderSummary value) {
+                summary.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                summary.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        for (StockOrder order : orders) {
+            requests.onNext(order);
+        }
+        requests.onCompleted();
+        return summary.get();
+    }
+}
@@ -0,0 +1,149 @@
+package com.rvg.stocktradingbenchmarks;
+
+import com.rvg.grpc.StockRequest;
+import com.rvg.grpc.StockResponse;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import com.rvg.stocktradingserver.cache.StockCacheProperties;
+import com.rvg.stocktradingserver.cache.StockPriceCache;
+import com.rvg.stocktradingserver.execution.DatabaseGate;
+import com.rvg.stocktradingserver.execution.ExecutionMode;
+import com.rvg.stocktradingserver.execution.ExecutionProperties;
+import com.rvg.stocktradingserver.logging.OrderLogProperties;
+import com.rvg.stocktradingserver.service.StockTradingImpl;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * {@code calls} concurrent GetStockPrice calls over Netty, every one of them a cache
+ * miss that blocks on the database, with the gRPC server running on platform or
+ * on virtual threads.
+ *
+ * The repository sleeps {@code databaseLatency} milliseconds per lookup, and the
+ * {@link DatabaseGate} admits {@code databaseCalls} lookups at once, as the Hikari
+ * pool would. Reports the time until all calls have completed; calls the gate
+ * rejected are returned by the benchmark method, so JMH keeps them visible.
+ * Run with {@code -prof gc} to compare allocation, and watch the thread count:
+ * in platform mode gRPC's cached pool grows a thread per waiting call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    @Param({"10000"})
+    public int calls;
+
+    @Param({"64"})
+    public int databaseCalls;
+
+    @Param({"1"})
+    public int databaseLatency;
+
+    private DatabaseGate databaseGate;
+    private StockPriceCache stockPriceCache;
+    private ExecutorService serverExecutor;
+    private Server server;
+    private ManagedChannel channel;
+    private StockTradingServiceGrpc.StockTradingServiceStub stub;
+    private List<StockRequest> requests;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        ExecutionMode mode = ExecutionMode.valueOf(executor.toUpperCase());
+        List<String> stockSymbols = IntStream.range(0, calls).mapToObj(i -> "S" + i).toList();
+        requests = stockSymbols.stream()
+                .map(stockSymbol -> StockRequest.newBuilder().setStockSymbol(stockSymbol).build())
+                .toList();
+
+        // Admission timeout well above a run, so calls queue rather than fail
+        databaseGate = new DatabaseGate(new ExecutionProperties(mode, databaseCalls, Duration.ofMinutes(1)));
+        // Size 0: every call misses, so every call waits on the database
+        stockPriceCache = new StockPriceCache(
+                InMemoryRepositories.stocks(stockSymbols, Duration.ofMillis(databaseLatency)),
+                new StockCacheProperties(0, Duration.ofHours(1)), databaseGate);
+        // Only the unary path is exercised, so the streaming engines are left out
+        StockTradingImpl service = new StockTradingImpl(stockPriceCache, null, null, null, null,
+                new OrderLogProperties(Map.of()));
+
+        NettyServerBuilder serverBuilder = NettyServerBuilder.forPort(0).addService(service);
+        if (mode == ExecutionMode.VIRTUAL) {
+            serverExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("grpc-", 0).factory());
+            serverBuilder.executor(serverExecutor);
+        }
+        server = serverBuilder.build().start();
+        channel = NettyChannelBuilder.forAddress("localhost", server.getPort()).usePlaintext().build();
+        stub = StockTradingServiceGrpc.newStub(channel);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        if (serverExecutor != null) {
+            serverExecutor.shutdownNow();
+        }
+        stockPriceCache.shutdown();
+        databaseGate.shutdown();
+    }
+
+    @Benchmark
+    public int getStockPrice() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(calls);
+        AtomicInteger failed = new AtomicInteger();
+        StreamObserver<StockResponse> responseObserver = new StreamObserver<>() {
+            @Override
+            public void onNext(StockResponse stockResponse) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                failed.incrementAndGet();
+                done.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                done.countDown();
+            }
+        };
+
+        for (StockRequest request : requests) {
+            stub.getStockPrice(request, responseObserver);
+        }
+        done.await();
+        return failed.get();
+    }
+}
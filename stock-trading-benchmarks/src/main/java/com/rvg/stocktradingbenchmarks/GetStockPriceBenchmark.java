@@ -0,0 +1,52 @@
+package com.rvg.stocktradingbenchmarks;
+
+import com.rvg.grpc.StockRequest;
+import com.rvg.grpc.StockResponse;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import com.rvg.grpc.v2.StockQuote;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unary GetStockPrice round trip, served from the price cache, on the v1 and the
+ * v2 schema. Run with {@code -t N} to measure it under concurrent callers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GetStockPriceBenchmark {
+
+    private static final StockRequest REQUEST = StockRequest.newBuilder().setStockSymbol("AAPL").build();
+
+    private StockTradingServiceGrpc.StockTradingServiceBlockingStub stub;
+    private com.rvg.grpc.v2.StockTradingServiceGrpc.StockTradingServiceBlockingStub stubV2;
+
+    @Setup
+    public void connect(TradingServer tradingServer) {
+        stub = StockTradingServiceGrpc.newBlockingStub(tradingServer.channel());
+        stubV2 = com.rvg.grpc.v2.StockTradingServiceGrpc.newBlockingStub(tradingServer.channel());
+    }
+
+    @Benchmark
+    public StockResponse getStockPrice() {
+        return stub.getStockPrice(REQUEST);
+    }
+
+    @Benchmark
+    public StockQuote getStockPriceV2() {
+        return stubV2.getStockPrice(REQUEST);
+    }
+}
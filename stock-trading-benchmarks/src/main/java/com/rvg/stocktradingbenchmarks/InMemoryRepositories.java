@@ -0,0 +1,144 @@
+package com.rvg.stocktradingbenchmarks;
+
+import com.rvg.stocktradingserver.entity.Stock;
+import com.rvg.stocktradingserver.execution.ExecutionMode;
+import com.rvg.stocktradingserver.execution.ExecutionProperties;
+import com.rvg.stocktradingserver.matching.OrderRequest;
+import com.rvg.stocktradingserver.persistence.BulkOrderWriter;
+import com.rvg.stocktradingserver.persistence.OrderPersistenceProperties;
+import com.rvg.stocktradingserver.repository.StockRepository;
+import com.rvg.stocktradingserver.repository.TradeRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory stand-ins for the database-backed collaborators of the server, so the
+ * benchmarks measure the gRPC and engine paths rather than MySQL.
+ *
+ * Repositories are dynamic proxies implementing just the query methods the
+ * server calls on its hot paths; anything else fails loudly.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    /**
+     * Stock repository holding one stock per symbol, with a random price.
+     */
+    static StockRepository stocks(Collection<String> stockSymbols) {
+        return stocks(stockSymbols, Duration.ZERO);
+    }
+
+    /**
+     * Stock repository whose single-symbol lookup blocks for {@code latency}, like a
+     * round trip to MySQL would.
+     */
+    static StockRepository stocks(Collection<String> stockSymbols, Duration latency) {
+        Map<String, Stock> stocks = stockSymbols.stream()
+                .collect(Collectors.toMap(Function.identity(), InMemoryRepositories::stock));
+        return repository(StockRepository.class, (method, args) -> switch (method) {
+            case "findByStockSymbol" -> {
+                sleep(latency);
+                yield stocks.get((String) args[0]);
+            }
+            case "findByStockSymbolIn" -> ((Collection<?>) args[0]).stream()
+                    .map(stocks::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            case "findAll" -> List.copyOf(stocks.values());
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * Trade repository that only counts the trades saved by the journal writer.
+     */
+    static TradeRepository trades(LongAdder savedTrades) {
+        return repository(TradeRepository.class, (method, args) -> switch (method) {
+            case "saveAll" -> {
+                List<Object> saved = new ArrayList<>();
+                ((Iterable<?>) args[0]).forEach(saved::add);
+                savedTrades.add(saved.size());
+                yield saved;
+            }
+            case "findMaxJournalSequence" -> 0L;
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * Bulk order writer that only counts the orders it is handed.
+     */
+    static BulkOrderWriter bulkOrders(LongAdder savedOrders) {
+        return new BulkOrderWriter(null, null,
+                new ExecutionProperties(ExecutionMode.PLATFORM, 8, Duration.ofSeconds(2)),
+                new OrderPersistenceProperties(500, 2)) {
+            @Override
+            public OrderStream open() {
+                return new OrderStream(500) {
+                    private int received;
+
+                    @Override
+                    public void add(OrderRequest orderRequest) {
+                        received++;
+                    }
+
+                    @Override
+                    public void complete() {
+                        savedOrders.add(received);
+                    }
+
+                    @Override
+                    public void abort() {
+                    }
+                };
+            }
+        };
+    }
+
+    private static Stock stock(String stockSymbol) {
+        Stock stock = new Stock();
+        stock.setStockSymbol(stockSymbol);
+        stock.setPrice(Math.round(ThreadLocalRandom.current().nextDouble(50, 500) * 100) / 100.0);
+        stock.setLastUpdated(LocalDateTime.now());
+        return stock;
+    }
+
+    private static void sleep(Duration latency) {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T repository(Class<T> type, Handler handler) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) ->
+                switch (method.getName()) {
+                    case "toString" -> "InMemory" + type.getSimpleName();
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    default -> handler.invoke(method.getName(), args);
+                });
+        return type.cast(proxy);
+    }
+}
@@ -0,0 +1,83 @@
+package com.rvg.stocktradingbenchmarks;
+
+import com.rvg.grpc.StockOrder;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import com.rvg.grpc.TradeStatus;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LiveTrading round trip: time from sending an order on an open stream until its
+ * own first status (PENDING or a fill) comes back. Each thread alternates a buy
+ * and a crossing sell at the same price, so half the orders rest and half trade,
+ * and the book does not grow.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LiveTradingBenchmark {
+
+    private final BlockingQueue<TradeStatus> statuses = new LinkedBlockingQueue<>();
+    private StreamObserver<StockOrder> orders;
+    private long sequence;
+
+    @Setup
+    public void openStream(TradingServer tradingServer) {
+        orders = StockTradingServiceGrpc.newStub(tradingServer.channel()).liveTrading(new StreamObserver<>() {
+            @Override
+            public void onNext(TradeStatus value) {
+                statuses.add(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+    }
+
+    @TearDown
+    public void closeStream() {
+        orders.onCompleted();
+    }
+
+    @Benchmark
+    public TradeStatus roundTrip() throws InterruptedException {
+        long id = ++sequence;
+        String orderId = Thread.currentThread().getName() + "-" + id;
+        orders.onNext(StockOrder.newBuilder()
+                .setOrderId(orderId)
+                .setStockSymbol("AAPL")
+                .setOrderType(id % 2 == 0 ? "SELL" : "BUY")
+                .setQuantity(1)
+                .setPrice(100.0)
+                .build());
+
+        // Fills of this thread's earlier resting orders may arrive first
+        TradeStatus status;
+        do {
+            status = statuses.take();
+        } while (!status.getOrderId().equals(orderId));
+        return status;
+    }
+}
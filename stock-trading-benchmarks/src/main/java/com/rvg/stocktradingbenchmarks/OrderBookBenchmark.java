@@ -0,0 +1,71 @@
+package com.rvg.stocktradingbenchmarks;
+
+import com.rvg.stocktradingserver.matching.FillListener;
+import com.rvg.stocktradingserver.matching.OrderBook;
+import com.rvg.stocktradingserver.matching.Prices;
+import com.rvg.stocktradingserver.matching.Side;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the hot {@link OrderBook} operations on a book pre-filled to a
+ * realistic depth: resting an order, cancelling it, and an aggressive order
+ * sweeping one level. No gRPC involved.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBookBenchmark {
+
+    private static final long MID = Prices.toTicks(100.0);
+    private static final FillListener<Object> NO_OP = (maker, taker, price, quantity, makerRemaining, takerRemaining) -> {
+    };
+
+    @Param({"1000", "100000"})
+    private int restingOrders;
+
+    private OrderBook<Object> book;
+    private long nextRef;
+
+    @Setup(Level.Iteration)
+    public void fillBook() {
+        book = new OrderBook<>("BENCH");
+        nextRef = 0;
+        for (int i = 0; i < restingOrders; i++) {
+            int offset = 1 + i % 100;
+            book.submit(++nextRef, Side.BUY, MID - offset, 10, null, NO_OP);
+            book.submit(++nextRef, Side.SELL, MID + offset, 10, null, NO_OP);
+        }
+    }
+
+    @Benchmark
+    public int insertAndCancel() {
+        long ref = ++nextRef;
+        book.submit(ref, Side.BUY, MID - 50, 10, null, NO_OP);
+        return book.cancel(ref);
+    }
+
+    @Benchmark
+    public void matchAndReplenish(Blackhole blackhole) {
+        // Take the best ask and put the same liquidity back, so depth stays constant
+        long bestAsk = book.bestAsk();
+        blackhole.consume(book.submit(++nextRef, Side.BUY, bestAsk, 10, null, NO_OP));
+        blackhole.consume(book.submit(++nextRef, Side.SELL, bestAsk, 10, null, NO_OP));
+    }
+}
@@ -0,0 +1,93 @@
+package com.rvg.stocktradingbenchmarks;
+
+import com.rvg.grpc.StockResponse;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import com.rvg.grpc.SubscriptionRequest;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming fan-out: price updates delivered per second to {@code subscribers}
+ * concurrent StreamStockPrices streams, each subscribed to all benchmark symbols.
+ *
+ * Every symbol ticks once per millisecond, so the ceiling is
+ * {@code subscribers * symbols * 1000} updates/s; falling short of it means the
+ * server conflated updates for streams that could not keep up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamFanOutBenchmark {
+
+    @Param({"1", "100"})
+    public int subscribers;
+
+    private final Semaphore delivered = new Semaphore(0);
+    private final List<StreamObserver<SubscriptionRequest>> streams = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void subscribe(TradingServer tradingServer) {
+        StockTradingServiceGrpc.StockTradingServiceStub stub =
+                StockTradingServiceGrpc.newStub(tradingServer.channel());
+        SubscriptionRequest subscribeAll = SubscriptionRequest.newBuilder()
+                .setAction(SubscriptionRequest.Action.SUBSCRIBE)
+                .addAllStockSymbols(TradingServer.STOCK_SYMBOLS)
+                .build();
+        for (int i = 0; i < subscribers; i++) {
+            StreamObserver<SubscriptionRequest> requests = stub.streamStockPrices(new StreamObserver<>() {
+                @Override
+                public void onNext(StockResponse value) {
+                    delivered.release();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                }
+            });
+            requests.onNext(subscribeAll);
+            streams.add(requests);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void discardBacklog() {
+        delivered.drainPermits();
+    }
+
+    @TearDown(Level.Trial)
+    public void unsubscribe() {
+        for (StreamObserver<SubscriptionRequest> requests : streams) {
+            requests.onCompleted();
+        }
+        streams.clear();
+    }
+
+    @Benchmark
+    public void receiveUpdate() throws InterruptedException {
+        delivered.acquire();
+    }
+}
@@ -0,0 +1,143 @@
+package com.rvg.stocktradingbenchmarks;
+
+import com.rvg.stocktradingserver.cache.StockCacheProperties;
+import com.rvg.stocktradingserver.cache.StockPriceCache;
+import com.rvg.stocktradingserver.execution.DatabaseGate;
+import com.rvg.stocktradingserver.execution.ExecutionMode;
+import com.rvg.stocktradingserver.execution.ExecutionProperties;
+import com.rvg.stocktradingserver.journal.TradeJournal;
+import com.rvg.stocktradingserver.journal.TradeJournalProperties;
+import com.rvg.stocktradingserver.journal.TradeJournalWriter;
+import com.rvg.stocktradingserver.logging.OrderLogProperties;
+import com.rvg.stocktradingserver.market.MarketDataEngine;
+import com.rvg.stocktradingserver.market.MarketDataProperties;
+import com.rvg.stocktradingserver.market.StreamMetrics;
+import com.rvg.stocktradingserver.matching.MatchingEngine;
+import com.rvg.stocktradingserver.matching.MatchingProperties;
+import com.rvg.stocktradingserver.metrics.GrpcServerMetricsInterceptor;
+import com.rvg.stocktradingserver.persistence.BulkOrderWriter;
+import com.rvg.stocktradingserver.risk.RiskEngine;
+import com.rvg.stocktradingserver.risk.RiskProperties;
+import com.rvg.stocktradingserver.service.StockTradingImpl;
+import com.rvg.stocktradingserver.service.StockTradingV2Impl;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The real {@link StockTradingImpl} wired by hand, without Spring, behind either an
+ * in-process or a Netty (loopback TCP) gRPC transport. Shared by all threads of a
+ * benchmark run.
+ *
+ * The repositories are replaced by {@link InMemoryRepositories}; the market-data
+ * engine ticks every millisecond with no update budget, and the trade journal lives
+ * in a temporary directory, drained by its regular background writer. Run with
+ * {@code -p metrics=false,true} to measure the cost of the RPC metrics interceptor.
+ */
+@State(Scope.Benchmark)
+public class TradingServer {
+
+    static final List<String> STOCK_SYMBOLS = List.of("AAPL", "GOOGL", "MSFT", "AMZN", "TSLA");
+
+    @Param({"in-process", "netty"})
+    public String transport;
+
+    @Param({"false"})
+    public boolean metrics;
+
+    private final LongAdder savedTrades = new LongAdder();
+    private final LongAdder savedOrders = new LongAdder();
+    private Path journalDirectory;
+    private TradeJournal tradeJournal;
+    private TradeJournalWriter tradeJournalWriter;
+    private StockPriceCache stockPriceCache;
+    private MarketDataEngine marketDataEngine;
+    private MatchingEngine matchingEngine;
+    private Server server;
+    private ManagedChannel channel;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        stockPriceCache = new StockPriceCache(InMemoryRepositories.stocks(STOCK_SYMBOLS),
+                new StockCacheProperties(10_000, Duration.ofHours(1)),
+                new DatabaseGate(new ExecutionProperties(ExecutionMode.PLATFORM, 8, Duration.ofSeconds(2))));
+        // Loaded up front, as the application does once it is ready
+        stockPriceCache.reload();
+        marketDataEngine = new MarketDataEngine(stockPriceCache,
+                new MarketDataProperties(Duration.ofMillis(1), 0, 1), new StreamMetrics());
+
+        journalDirectory = Files.createTempDirectory("trade-journal");
+        TradeJournalProperties journalProperties = new TradeJournalProperties(
+                journalDirectory.resolve("trade-journal.dat"), DataSize.ofMegabytes(64), Duration.ofMillis(50), 500);
+        tradeJournal = new TradeJournal(journalProperties);
+        tradeJournalWriter = new TradeJournalWriter(tradeJournal, InMemoryRepositories.trades(savedTrades),
+                journalProperties);
+        // Limits off: the benchmark measures the engine, not the throttle
+        matchingEngine = new MatchingEngine(new MatchingProperties(4, 4096), tradeJournal,
+                new RiskEngine(stockPriceCache, new RiskProperties(0, 0, 0, 0)));
+
+        BulkOrderWriter bulkOrderWriter = InMemoryRepositories.bulkOrders(savedOrders);
+        // Same order log sampling as application.yml
+        OrderLogProperties orderLog = new OrderLogProperties(Map.of(
+                "bulk-stock-order", new OrderLogProperties.Sampling(1000, 10),
+                "live-trading", new OrderLogProperties.Sampling(1, 100)));
+        // UpdateStockPrice is not benchmarked, so there is no price writer
+        ServerServiceDefinition service = new StockTradingImpl(stockPriceCache, marketDataEngine, matchingEngine,
+                bulkOrderWriter, null, orderLog).bindService();
+        ServerServiceDefinition serviceV2 = new StockTradingV2Impl(stockPriceCache, marketDataEngine, matchingEngine,
+                bulkOrderWriter, null, orderLog).bindService();
+        if (metrics) {
+            GrpcServerMetricsInterceptor interceptor = new GrpcServerMetricsInterceptor(new SimpleMeterRegistry());
+            service = ServerInterceptors.intercept(service, interceptor);
+            serviceV2 = ServerInterceptors.intercept(serviceV2, interceptor);
+        }
+
+        if ("netty".equals(transport)) {
+            server = NettyServerBuilder.forPort(0).addService(service).addService(serviceV2).build().start();
+            channel = NettyChannelBuilder.forAddress("localhost", server.getPort()).usePlaintext().build();
+        } else {
+            String name = InProcessServerBuilder.generateName();
+            server = InProcessServerBuilder.forName(name).addService(service).addService(serviceV2).build().start();
+            channel = InProcessChannelBuilder.forName(name).build();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        marketDataEngine.shutdown();
+        matchingEngine.shutdown();
+        stockPriceCache.shutdown();
+        tradeJournalWriter.shutdown();
+        tradeJournal.close();
+        Files.deleteIfExists(tradeJournal.getFile());
+        Files.deleteIfExists(journalDirectory);
+    }
+
+    ManagedChannel channel() {
+        return channel;
+    }
+}
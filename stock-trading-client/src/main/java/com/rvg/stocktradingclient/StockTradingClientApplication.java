@@ -1,31 +1,28 @@
 package com.rvg.stocktradingclient;
 
-import com.rvg.stocktradingclient.service.StockClientService;
+import com.rvg.stocktradingclient.loadgen.LoadGenerator;
+import com.rvg.stocktradingclient.loadgen.LoadProperties;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class StockTradingClientApplication implements CommandLineRunner {
 
-     private final StockClientService stockClientService;
+    private final LoadProperties loadProperties;
 
-    public StockTradingClientApplication(StockClientService stockClientService) {
-        this.stockClientService = stockClientService;
+    public StockTradingClientApplication(LoadProperties loadProperties) {
+        this.loadProperties = loadProperties;
     }
 
     @Override
     public void run(String... args) throws Exception {
-        // Example usage of the StockClientService to demonstrate gRPC calls
-        String stockSymbol = "GOOGL";
-        var stockResponse = stockClientService.getStockPrice(stockSymbol);
-        System.out.println("Stock Symbol: " + stockResponse.getStockSymbol());
-        System.out.println("Price: " + stockResponse.getPrice());
-        System.out.println("Timestamp: " + stockResponse.getTimestamp());
-
-        stockClientService.subscribeStockPrice("AAPL");
-        stockClientService.placeBulkOrders();
-        stockClientService.startTrading();
+        // With stock.load.enabled, measure the server's capacity before serving the UI
+        if (loadProperties.enabled()) {
+            System.out.print(new LoadGenerator(loadProperties).run().format());
+        }
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,34 @@
+package com.rvg.stocktradingclient.balancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration properties for the connection pool behind the gRPC client channels.
+ * Server addresses come from {@code grpc.client.<name>.address}, e.g.
+ * {@code static://10.0.0.1:9090,10.0.0.2:9090}.
+ *
+ * @param connectionsPerAddress HTTP/2 connections opened to every server address; each carries
+ *                              up to the server's max-concurrent-streams calls
+ * @param policy                How a call picks one of the ready connections
+ * @param healthCheck           Watch the gRPC health service of every connection and stop sending
+ *                              calls to one whose server reports NOT_SERVING
+ */
+@ConfigurationProperties(prefix = "stock.channel-pool")
+public record ChannelPoolProperties(
+        @DefaultValue("2") int connectionsPerAddress,
+        @DefaultValue("least-requests") Policy policy,
+        @DefaultValue("true") boolean healthCheck) {
+
+    /**
+     * Balancing policy across the pooled connections.
+     */
+    public enum Policy {
+
+        /** Every ready connection in turn. */
+        ROUND_ROBIN,
+
+        /** The ready connection with the fewest calls in flight. */
+        LEAST_REQUESTS
+    }
+}
@@ -0,0 +1,232 @@
+package com.rvg.stocktradingclient.balancer;
+
+import io.grpc.ClientStreamTracer;
+import io.grpc.ConnectivityState;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.LoadBalancer;
+import io.grpc.Metadata;
+import io.grpc.Status;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load balancer that keeps a pool of connections to every resolved server address
+ * and spreads calls over those that are ready.
+ *
+ * Each address gets {@code connectionsPerAddress} subchannels, each its own HTTP/2
+ * connection, so the calls to one server are not capped by a single connection's
+ * max-concurrent-streams. A call goes to the next ready subchannel in turn
+ * (ROUND_ROBIN) or to the ready subchannel with the fewest calls in flight
+ * (LEAST_REQUESTS), counted from stream creation until the stream closes.
+ *
+ * A subchannel that is not READY takes no calls. With health checking wrapped
+ * around the balancer (see {@link PooledLoadBalancerProvider}) that includes a
+ * connected server reporting NOT_SERVING; it takes calls again once it reports
+ * SERVING. Idle subchannels are reconnected right away so the pool stays warm.
+ *
+ * Like every load balancer, runs only in the channel's synchronization context,
+ * except for pickers, which are called from any thread.
+ */
+final class PooledLoadBalancer extends LoadBalancer {
+
+    private final Helper helper;
+    private Map<EquivalentAddressGroup, List<PooledSubchannel>> pools = new LinkedHashMap<>();
+    private PooledLoadBalancerProvider.Config config;
+    private ConnectivityState currentState;
+    private Status lastFailure = Status.UNAVAILABLE.withDescription("No connection attempted yet");
+
+    PooledLoadBalancer(Helper helper) {
+        this.helper = helper;
+    }
+
+    @Override
+    public Status acceptResolvedAddresses(ResolvedAddresses resolvedAddresses) {
+        List<EquivalentAddressGroup> addresses = resolvedAddresses.getAddresses();
+        if (addresses.isEmpty()) {
+            Status unavailable = Status.UNAVAILABLE.withDescription("Name resolver returned no addresses");
+            handleNameResolutionError(unavailable);
+            return unavailable;
+        }
+        config = (PooledLoadBalancerProvider.Config) resolvedAddresses.getLoadBalancingPolicyConfig();
+
+        // Pools are keyed by address alone; the resolver's attributes may change between updates
+        Map<EquivalentAddressGroup, List<PooledSubchannel>> updated = new LinkedHashMap<>();
+        for (EquivalentAddressGroup group : addresses) {
+            EquivalentAddressGroup key = new EquivalentAddressGroup(group.getAddresses());
+            List<PooledSubchannel> pool = pools.remove(key);
+            if (pool == null) {
+                pool = new ArrayList<>();
+            }
+            for (PooledSubchannel pooled : pool) {
+                pooled.subchannel.updateAddresses(List.of(group));
+            }
+            while (pool.size() > config.connectionsPerAddress()) {
+                pool.remove(pool.size() - 1).shutdown();
+            }
+            while (pool.size() < config.connectionsPerAddress()) {
+                pool.add(createSubchannel(group));
+            }
+            updated.put(key, pool);
+        }
+        for (List<PooledSubchannel> removed : pools.values()) {
+            removed.forEach(PooledSubchannel::shutdown);
+        }
+        pools = updated;
+        updateBalancingState();
+        return Status.OK;
+    }
+
+    @Override
+    public void handleNameResolutionError(Status error) {
+        if (currentState != ConnectivityState.READY) {
+            currentState = ConnectivityState.TRANSIENT_FAILURE;
+            helper.updateBalancingState(ConnectivityState.TRANSIENT_FAILURE,
+                    new FixedResultPicker(PickResult.withError(error)));
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        for (List<PooledSubchannel> pool : pools.values()) {
+            pool.forEach(PooledSubchannel::shutdown);
+        }
+        pools = new LinkedHashMap<>();
+    }
+
+    private PooledSubchannel createSubchannel(EquivalentAddressGroup group) {
+        Subchannel subchannel = helper.createSubchannel(CreateSubchannelArgs.newBuilder()
+                .setAddresses(group)
+                .build());
+        PooledSubchannel pooled = new PooledSubchannel(subchannel);
+        subchannel.start(stateInfo -> onStateChange(pooled, stateInfo));
+        subchannel.requestConnection();
+        return pooled;
+    }
+
+    private void onStateChange(PooledSubchannel pooled, ConnectivityStateInfo stateInfo) {
+        if (pooled.shutdown) {
+            return;
+        }
+        if (stateInfo.getState() == ConnectivityState.IDLE) {
+            pooled.subchannel.requestConnection();
+        }
+        if (stateInfo.getState() == ConnectivityState.TRANSIENT_FAILURE) {
+            lastFailure = stateInfo.getStatus();
+        }
+        pooled.state = stateInfo.getState();
+        updateBalancingState();
+    }
+
+    /**
+     * Publishes a picker over the ready subchannels; while there are none, calls wait
+     * for a connection or, once every connection has failed, fail fast.
+     */
+    private void updateBalancingState() {
+        List<PooledSubchannel> ready = new ArrayList<>();
+        boolean connecting = false;
+        for (List<PooledSubchannel> pool : pools.values()) {
+            for (PooledSubchannel pooled : pool) {
+                if (pooled.state == ConnectivityState.READY) {
+                    ready.add(pooled);
+                } else if (pooled.state != ConnectivityState.TRANSIENT_FAILURE) {
+                    connecting = true;
+                }
+            }
+        }
+
+        if (!ready.isEmpty()) {
+            currentState = ConnectivityState.READY;
+            helper.updateBalancingState(ConnectivityState.READY, config.policy() == ChannelPoolProperties.Policy.ROUND_ROBIN
+                    ? new RoundRobinPicker(ready)
+                    : new LeastRequestsPicker(ready));
+        } else if (connecting) {
+            currentState = ConnectivityState.CONNECTING;
+            helper.updateBalancingState(ConnectivityState.CONNECTING, new FixedResultPicker(PickResult.withNoResult()));
+        } else {
+            currentState = ConnectivityState.TRANSIENT_FAILURE;
+            helper.updateBalancingState(ConnectivityState.TRANSIENT_FAILURE,
+                    new FixedResultPicker(PickResult.withError(lastFailure)));
+        }
+    }
+
+    /**
+     * One connection of a pool, with the number of calls in flight on it.
+     */
+    private static final class PooledSubchannel extends ClientStreamTracer.Factory {
+
+        final Subchannel subchannel;
+        final AtomicInteger activeRequests = new AtomicInteger();
+        ConnectivityState state = ConnectivityState.IDLE;
+        boolean shutdown;
+
+        PooledSubchannel(Subchannel subchannel) {
+            this.subchannel = subchannel;
+        }
+
+        void shutdown() {
+            shutdown = true;
+            subchannel.shutdown();
+        }
+
+        @Override
+        public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+            activeRequests.incrementAndGet();
+            return new ClientStreamTracer() {
+                @Override
+                public void streamClosed(Status status) {
+                    activeRequests.decrementAndGet();
+                }
+            };
+        }
+    }
+
+    private static final class RoundRobinPicker extends SubchannelPicker {
+
+        private final PooledSubchannel[] ready;
+        private final AtomicInteger next = new AtomicInteger();
+
+        RoundRobinPicker(List<PooledSubchannel> ready) {
+            this.ready = ready.toArray(PooledSubchannel[]::new);
+        }
+
+        @Override
+        public PickResult pickSubchannel(PickSubchannelArgs args) {
+            return PickResult.withSubchannel(ready[Math.floorMod(next.getAndIncrement(), ready.length)].subchannel);
+        }
+    }
+
+    /**
+     * Scans every ready subchannel; pools are small, so this is cheaper than the
+     * calls it balances. Each scan starts one further along, so ties take turns.
+     */
+    private static final class LeastRequestsPicker extends SubchannelPicker {
+
+        private final PooledSubchannel[] ready;
+        private final AtomicInteger next = new AtomicInteger();
+
+        LeastRequestsPicker(List<PooledSubchannel> ready) {
+            this.ready = ready.toArray(PooledSubchannel[]::new);
+        }
+
+        @Override
+        public PickResult pickSubchannel(PickSubchannelArgs args) {
+            int start = Math.floorMod(next.getAndIncrement(), ready.length);
+            PooledSubchannel least = ready[start];
+            int fewest = least.activeRequests.get();
+            for (int i = 1; i < ready.length && fewest > 0; i++) {
+                PooledSubchannel candidate = ready[(start + i) % ready.length];
+                int active = candidate.activeRequests.get();
+                if (active < fewest) {
+                    least = candidate;
+                    fewest = active;
+                }
+            }
+            return PickResult.withSubchannel(least.subchannel, least);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.rvg.stocktradingclient.balancer;
+
+import io.grpc.LoadBalancer;
+import io.grpc.LoadBalancerProvider;
+import io.grpc.NameResolver.ConfigOrError;
+import io.grpc.Status;
+import io.grpc.protobuf.services.HealthCheckingLoadBalancerUtil;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Registers {@link PooledLoadBalancer} as the {@value #POLICY_NAME} load-balancing policy
+ * and builds the service config that selects it.
+ *
+ * The balancer is wrapped in gRPC's health-checking balancer, which watches the
+ * standard {@code grpc.health.v1.Health} service of every connection when the service
+ * config has a {@code healthCheckConfig}, and reports a connection to a server that is
+ * not SERVING as TRANSIENT_FAILURE. A server without the health service is treated as
+ * healthy.
+ */
+public final class PooledLoadBalancerProvider extends LoadBalancerProvider {
+
+    /** Name the policy is selected by in a service config. */
+    public static final String POLICY_NAME = "stock_pool";
+
+    private static final String CONNECTIONS_PER_ADDRESS = "connectionsPerAddress";
+    private static final String POLICY = "policy";
+
+    /**
+     * Service config selecting this policy, for {@code ManagedChannelBuilder.defaultServiceConfig}.
+     * Numbers are doubles, as in parsed JSON.
+     *
+     * @param properties Pool size, policy and whether to health-check connections
+     */
+    public static Map<String, ?> serviceConfig(ChannelPoolProperties properties) {
+        Map<String, ?> balancing = Map.of(POLICY_NAME, Map.of(
+                CONNECTIONS_PER_ADDRESS, (double) properties.connectionsPerAddress(),
+                POLICY, properties.policy().name()));
+        if (!properties.healthCheck()) {
+            return Map.of("loadBalancingConfig", List.of(balancing));
+        }
+        // The empty service name is the health of the whole server
+        return Map.of("loadBalancingConfig", List.of(balancing),
+                "healthCheckConfig", Map.of("serviceName", ""));
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public int getPriority() {
+        return 5;
+    }
+
+    @Override
+    public String getPolicyName() {
+        return POLICY_NAME;
+    }
+
+    @Override
+    public LoadBalancer newLoadBalancer(LoadBalancer.Helper helper) {
+        return HealthCheckingLoadBalancerUtil.newHealthCheckingLoadBalancer(new LoadBalancer.Factory() {
+            @Override
+            public LoadBalancer newLoadBalancer(LoadBalancer.Helper healthCheckingHelper) {
+                return new PooledLoadBalancer(healthCheckingHelper);
+            }
+        }, helper);
+    }
+
+    @Override
+    public ConfigOrError parseLoadBalancingPolicyConfig(Map<String, ?> rawConfig) {
+        try {
+            Object connections = rawConfig.get(CONNECTIONS_PER_ADDRESS);
+            Object policy = rawConfig.get(POLICY);
+            int connectionsPerAddress = connections == null ? 1 : ((Number) connections).intValue();
+            if (connectionsPerAddress < 1) {
+                return ConfigOrError.fromError(Status.INVALID_ARGUMENT
+                        .withDescription(CONNECTIONS_PER_ADDRESS + " must be at least 1"));
+            }
+            return ConfigOrError.fromConfig(new Config(connectionsPerAddress,
+                    policy == null
+                            ? ChannelPoolProperties.Policy.ROUND_ROBIN
+                            : ChannelPoolProperties.Policy.valueOf(policy.toString().toUpperCase(Locale.ROOT))));
+        } catch (RuntimeException e) {
+            return ConfigOrError.fromError(Status.INVALID_ARGUMENT
+                    .withDescription("Invalid " + POLICY_NAME + " config: " + rawConfig).withCause(e));
+        }
+    }
+
+    /**
+     * Parsed policy config.
+     *
+     * @param connectionsPerAddress Subchannels per server address
+     * @param policy                How calls pick a ready subchannel
+     */
+    record Config(int connectionsPerAddress, ChannelPoolProperties.Policy policy) {
+    }
+}
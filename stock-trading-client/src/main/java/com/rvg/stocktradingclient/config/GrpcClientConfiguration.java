@@ -0,0 +1,41 @@
+package com.rvg.stocktradingclient.config;
+
+import com.rvg.stocktradingclient.balancer.ChannelPoolProperties;
+import com.rvg.stocktradingclient.balancer.PooledLoadBalancerProvider;
+import net.devh.boot.grpc.client.channelfactory.GrpcChannelConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * gRPC client channel settings.
+ *
+ * Response callbacks run on virtual threads. They write to SSE connections, and a
+ * write to a slow browser blocks; on a virtual thread that parks instead of holding
+ * a pool thread, so tens of thousands of open SSE clients need no thread pool sizing.
+ *
+ * Calls are spread over a pool of connections to every address of the channel
+ * (see {@link ChannelPoolProperties}), so several server instances can be listed
+ * and no single connection's stream limit caps the client.
+ */
+@Configuration(proxyBeanMethods = false)
+public class GrpcClientConfiguration {
+
+    @Bean
+    GrpcChannelConfigurer virtualThreadCallbacks() {
+        // Thread per task, nothing pooled, so there is nothing to shut down
+        Executor executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("grpc-callback-", 0).factory());
+        return (channelBuilder, name) -> channelBuilder.executor(executor);
+    }
+
+    @Bean
+    GrpcChannelConfigurer pooledConnections(ChannelPoolProperties channelPoolProperties) {
+        // The policy itself is registered with gRPC through META-INF/services
+        Map<String, ?> serviceConfig = PooledLoadBalancerProvider.serviceConfig(channelPoolProperties);
+        return (channelBuilder, name) -> channelBuilder.defaultServiceConfig(serviceConfig);
+    }
+}
@@ -0,0 +1,308 @@
+package com.rvg.stocktradingclient.controller;
+
+import com.rvg.grpc.StockRequest;
+import com.rvg.grpc.StockResponse;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares one SubscribeStockPrice call per symbol among all browsers watching it.
+ *
+ * The first viewer of a symbol opens the upstream call; later viewers attach to it
+ * and receive the latest update right away. Each update is serialized to an SSE
+ * frame once per format in use and the same frame is handed to every viewer of
+ * that format. When the last viewer disconnects the upstream call is cancelled;
+ * when the server ends the stream, all of its viewers are completed and the next
+ * viewer opens a new call.
+ *
+ * The gRPC callback never writes to a browser itself. Each viewer keeps only the
+ * newest frame it has not been sent yet, and a task of its own on a virtual thread
+ * writes it. A slow browser therefore skips intermediate prices instead of holding
+ * up the other viewers of the symbol.
+ */
+@Component
+public class PriceFanOut {
+
+    @GrpcClient("stockService")
+    private StockTradingServiceGrpc.StockTradingServiceStub stockServiceStub;
+
+    private final Map<String, SharedFeed> feeds = new ConcurrentHashMap<>();
+    private final Executor senders;
+
+    public PriceFanOut() {
+        // Thread per task, nothing pooled, so there is nothing to shut down
+        this(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-sender-", 0).factory()));
+    }
+
+    PriceFanOut(Executor senders) {
+        this.senders = senders;
+    }
+
+    /**
+     * Adds a browser to the shared feed of a symbol, opening the upstream call if
+     * it is the first one.
+     *
+     * @param stockSymbol Stock symbol to watch
+     * @param emitter     SSE connection of the browser
+     * @param format      Payload format the browser asked for
+     */
+    public void attach(String stockSymbol, SseEmitter emitter, SseFormat format) {
+        while (true) {
+            SharedFeed feed = feeds.get(stockSymbol);
+            boolean opened = false;
+            if (feed == null) {
+                SharedFeed created = new SharedFeed(stockSymbol);
+                feed = feeds.putIfAbsent(stockSymbol, created);
+                if (feed == null) {
+                    feed = created;
+                    opened = true;
+                }
+            }
+            if (feed.attach(new Viewer(feed, emitter, format))) {
+                if (opened) {
+                    stockServiceStub.subscribeStockPrice(
+                            StockRequest.newBuilder().setStockSymbol(stockSymbol).build(), feed);
+                }
+                return;
+            }
+            // The feed ended between lookup and attach
+            feeds.remove(stockSymbol, feed);
+        }
+    }
+
+    /**
+     * Number of browsers attached to the feed of a symbol.
+     */
+    public int viewerCount(String stockSymbol) {
+        SharedFeed feed = feeds.get(stockSymbol);
+        return feed == null ? 0 : feed.viewers.size();
+    }
+
+    /**
+     * Number of symbols with an open upstream call.
+     */
+    public int feedCount() {
+        return feeds.size();
+    }
+
+    /**
+     * SSE connection of one browser, the format it receives and the newest frame
+     * not yet written to it. Writes happen in {@link #drain()}, one task at a time.
+     */
+    private final class Viewer {
+
+        private final SharedFeed feed;
+        private final SseEmitter emitter;
+        private final SseFormat format;
+        private final AtomicReference<Set<DataWithMediaType>> pending = new AtomicReference<>();
+        private final AtomicInteger work = new AtomicInteger();
+        private volatile boolean ended;
+        private volatile Throwable error;
+
+        Viewer(SharedFeed feed, SseEmitter emitter, SseFormat format) {
+            this.feed = feed;
+            this.emitter = emitter;
+            this.format = format;
+        }
+
+        /**
+         * Replaces the frame waiting for this viewer, if any, with a newer one.
+         */
+        void offer(Set<DataWithMediaType> frame) {
+            pending.set(frame);
+            schedule();
+        }
+
+        /**
+         * Completes the browser's connection once the waiting frame is written.
+         */
+        void end(Throwable t) {
+            error = t;
+            ended = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (work.getAndIncrement() == 0) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                Set<DataWithMediaType> frame = pending.getAndSet(null);
+                if (frame != null && !send(frame)) {
+                    return;
+                }
+                if (ended) {
+                    // A frame offered just before the end may have been missed above
+                    Set<DataWithMediaType> last = pending.getAndSet(null);
+                    if (last == null || send(last)) {
+                        if (error != null) {
+                            emitter.completeWithError(error);
+                        } else {
+                            emitter.complete();
+                        }
+                    }
+                    return;
+                }
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private boolean send(Set<DataWithMediaType> frame) {
+            try {
+                emitter.send(frame);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // Browser disconnected or its emitter is already complete
+                emitter.completeWithError(e);
+                feed.detach(this);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Upstream call of one symbol and the browsers it is multicast to.
+     * Broadcasts, attaches and the end of the call are serialized by the feed's lock;
+     * writes to the browsers happen outside of it.
+     */
+    private final class SharedFeed implements ClientResponseObserver<StockRequest, StockResponse> {
+
+        private final String stockSymbol;
+        private final Set<Viewer> viewers = ConcurrentHashMap.newKeySet();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final SseFrameEncoder encoder = new SseFrameEncoder();
+        /** Latest update's frame per format, encoded on first use. */
+        @SuppressWarnings("unchecked")
+        private final Set<DataWithMediaType>[] frames = new Set[SseFormat.values().length];
+        private ClientCallStreamObserver<StockRequest> requestStream;
+        private StockResponse latest;
+        private boolean closed;
+
+        SharedFeed(String stockSymbol) {
+            this.stockSymbol = stockSymbol;
+        }
+
+        boolean attach(Viewer viewer) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                viewers.add(viewer);
+                SseEmitter emitter = viewer.emitter;
+                emitter.onCompletion(() -> detach(viewer));
+                emitter.onTimeout(() -> detach(viewer));
+                emitter.onError(t -> detach(viewer));
+                if (latest != null) {
+                    viewer.offer(frame(viewer.format));
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void detach(Viewer viewer) {
+            lock.lock();
+            try {
+                if (viewers.remove(viewer) && viewers.isEmpty()) {
+                    close();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<StockRequest> requestStream) {
+            lock.lock();
+            try {
+                this.requestStream = requestStream;
+                if (closed) {
+                    // Every viewer left before the call was started
+                    requestStream.cancel("No SSE clients left", null);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void onNext(StockResponse response) {
+            lock.lock();
+            try {
+                latest = response;
+                Arrays.fill(frames, null);
+                for (Viewer viewer : viewers) {
+                    viewer.offer(frame(viewer.format));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            endAll(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            endAll(null);
+        }
+
+        private void endAll(Throwable t) {
+            lock.lock();
+            try {
+                end();
+                viewers.forEach(viewer -> viewer.end(t));
+                viewers.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Latest update as a frame of the given format, encoded on first use.
+         */
+        private Set<DataWithMediaType> frame(SseFormat format) {
+            int index = format.ordinal();
+            if (frames[index] == null) {
+                frames[index] = encoder.encode(latest, format);
+            }
+            return frames[index];
+        }
+
+        private void close() {
+            end();
+            if (requestStream != null) {
+                requestStream.cancel("No SSE clients left", null);
+            }
+        }
+
+        private void end() {
+            closed = true;
+            feeds.remove(stockSymbol, this);
+        }
+    }
+}
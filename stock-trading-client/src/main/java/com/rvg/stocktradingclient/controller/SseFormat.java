@@ -0,0 +1,26 @@
+package com.rvg.stocktradingclient.controller;
+
+/**
+ * Payload format of price events on the SSE endpoints, chosen per connection
+ * with the {@code format} request parameter.
+ */
+public enum SseFormat {
+
+    /**
+     * StockResponse as a JSON object (default).
+     */
+    JSON,
+
+    /**
+     * StockResponse in protobuf binary encoding, base64 encoded. About a third smaller than the JSON;
+     * index.html decodes it when opened with {@code ?format=protobuf}.
+     */
+    PROTOBUF;
+
+    /**
+     * Format named by a request parameter; anything unknown falls back to JSON.
+     */
+    public static SseFormat of(String name) {
+        return PROTOBUF.name().equalsIgnoreCase(name) ? PROTOBUF : JSON;
+    }
+}
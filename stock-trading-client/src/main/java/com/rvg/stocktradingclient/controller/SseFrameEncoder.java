@@ -0,0 +1,119 @@
+package com.rvg.stocktradingclient.controller;
+
+import com.google.protobuf.CodedOutputStream;
+import com.rvg.grpc.StockResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Writes a StockResponse as one complete SSE frame ({@code data:...\n\n}).
+ *
+ * JSON is written by hand instead of through protobuf-util's reflective printer,
+ * and both formats are built in buffers the encoder keeps, so encoding a frame
+ * allocates little more than the frame's String. The output is a single item, so
+ * the emitter does one write per frame.
+ *
+ * Not thread-safe: each stream or shared feed owns one encoder and encodes from
+ * its serialized gRPC callbacks.
+ */
+final class SseFrameEncoder {
+
+    private static final MediaType TEXT_PLAIN = new MediaType("text", "plain", StandardCharsets.UTF_8);
+    private static final char[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    private final StringBuilder text = new StringBuilder(128);
+    private byte[] bytes = new byte[64];
+
+    /**
+     * Encodes one price update as an SSE frame.
+     *
+     * @param response Price update
+     * @param format   Payload format of the connection
+     * @return Frame to hand to {@code ResponseBodyEmitter.send(Set)}
+     */
+    Set<DataWithMediaType> encode(StockResponse response, SseFormat format) {
+        text.setLength(0);
+        text.append("data:");
+        if (format == SseFormat.PROTOBUF) {
+            appendBase64(response);
+        } else {
+            appendJson(response);
+        }
+        text.append("\n\n");
+        return Set.of(new DataWithMediaType(text.toString(), TEXT_PLAIN));
+    }
+
+    private void appendJson(StockResponse response) {
+        text.append("{\"stockSymbol\":");
+        appendString(response.getStockSymbol());
+        text.append(",\"price\":");
+        double price = response.getPrice();
+        if (Double.isFinite(price)) {
+            text.append(price);
+        } else {
+            // Proto3 JSON writes NaN and the infinities as strings
+            text.append('"').append(price).append('"');
+        }
+        text.append(",\"timestamp\":");
+        appendString(response.getTimestamp());
+        text.append('}');
+    }
+
+    private void appendString(String value) {
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> text.append("\\\"");
+                case '\\' -> text.append("\\\\");
+                case '\n' -> text.append("\\n");
+                case '\r' -> text.append("\\r");
+                case '\t' -> text.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        text.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        text.append(c);
+                    }
+                }
+            }
+        }
+        text.append('"');
+    }
+
+    private void appendBase64(StockResponse response) {
+        int size = response.getSerializedSize();
+        if (bytes.length < size) {
+            bytes = new byte[Math.max(size, bytes.length * 2)];
+        }
+        try {
+            CodedOutputStream output = CodedOutputStream.newInstance(bytes, 0, size);
+            response.writeTo(output);
+            output.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int i = 0;
+        for (; i + 2 < size; i += 3) {
+            int group = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
+            text.append(BASE64[group >>> 18])
+                    .append(BASE64[group >>> 12 & 0x3f])
+                    .append(BASE64[group >>> 6 & 0x3f])
+                    .append(BASE64[group & 0x3f]);
+        }
+        int remaining = size - i;
+        if (remaining > 0) {
+            int group = (bytes[i] & 0xff) << 16 | (remaining == 2 ? (bytes[i + 1] & 0xff) << 8 : 0);
+            text.append(BASE64[group >>> 18])
+                    .append(BASE64[group >>> 12 & 0x3f])
+                    .append(remaining == 2 ? BASE64[group >>> 6 & 0x3f] : '=')
+                    .append('=');
+        }
+    }
+}
@@ -1,17 +1,21 @@
 package com.rvg.stocktradingclient.controller;
 
-import com.rvg.grpc.StockRequest;
 import com.rvg.grpc.StockResponse;
 import com.rvg.grpc.StockTradingServiceGrpc;
+import com.rvg.stocktradingclient.service.MultiSymbolSubscription;
 import io.grpc.stub.StreamObserver;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import com.google.protobuf.util.JsonFormat;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * REST controller for handling stock price streaming via Server-Sent Events (SSE).
@@ -26,44 +30,128 @@ public class StockStreamingController {
     @GrpcClient("stockService")
     private StockTradingServiceGrpc.StockTradingServiceStub stockServiceStub;
 
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final PriceFanOut priceFanOut;
+
+    /** Longest a single-symbol SSE connection stays open. */
+    @Value("${stock.sse.timeout:30m}")
+    private Duration sseTimeout = Duration.ofMinutes(30);
+
+    /** Open multiplexed streams, keyed by the id sent to the browser. */
+    private final Map<String, MultiSymbolSubscription> streams = new ConcurrentHashMap<>();
+
+    public StockStreamingController(PriceFanOut priceFanOut) {
+        this.priceFanOut = priceFanOut;
+    }
 
     /**
      * Endpoint to subscribe to real-time stock price updates for a given stock symbol.
-     * Uses Server-Sent Events (SSE) to stream updates to the client.
+     * Uses Server-Sent Events (SSE) to stream updates to the client. All browsers
+     * watching a symbol share one upstream gRPC call (see {@link PriceFanOut}).
      *
      * @param symbol Stock symbol to subscribe to
+     * @param format Event payload: "json" (default) or "protobuf" (base64 protobuf)
      * @return SseEmitter for streaming stock price updates
      */
     @GetMapping(value = "/subscribe/{symbol}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter subscribeStockPrice(@PathVariable String symbol) {
-        SseEmitter emitter = new SseEmitter();
-        executor.execute(() -> {
-            StockRequest request = StockRequest.newBuilder().setStockSymbol(symbol).build();
-
-            stockServiceStub.subscribeStockPrice(request, new StreamObserver<>() {
-                @Override
-                public void onNext(StockResponse response) {
-                    try {
-                        String jsonResponse = JsonFormat.printer().print(response);
-                        emitter.send(jsonResponse);
-                    } catch (IOException e) {
-                        emitter.completeWithError(e);
+    public SseEmitter subscribeStockPrice(@PathVariable String symbol,
+                                          @RequestParam(defaultValue = "json") String format) {
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        priceFanOut.attach(symbol, emitter, SseFormat.of(format));
+        return emitter;
+    }
+
+    /**
+     * Endpoint to stream real-time price updates for many symbols over a single SSE connection.
+     * The first event ("subscription") carries the stream id used to add or remove symbols later.
+     * Every following event is a StockResponse; the browser routes it by its stockSymbol.
+     *
+     * @param symbols Initial stock symbols to subscribe to
+     * @param format  Event payload: "json" (default) or "protobuf" (base64 protobuf)
+     * @return SseEmitter for streaming the combined price updates
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockPrices(@RequestParam(defaultValue = "") List<String> symbols,
+                                        @RequestParam(defaultValue = "json") String format) {
+        SseEmitter emitter = new SseEmitter(0L);
+        String streamId = UUID.randomUUID().toString();
+        SseFormat sseFormat = SseFormat.of(format);
+        // Callbacks of one call are serialized, so the stream can own one encoder
+        SseFrameEncoder encoder = new SseFrameEncoder();
+
+        MultiSymbolSubscription subscription = new MultiSymbolSubscription(
+                stockServiceStub.streamStockPrices(new StreamObserver<>() {
+                    @Override
+                    public void onNext(StockResponse response) {
+                        try {
+                            emitter.send(encoder.encode(response, sseFormat));
+                        } catch (IOException e) {
+                            emitter.completeWithError(e);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        emitter.completeWithError(t);
                     }
-                }
 
-                @Override
-                public void onError(Throwable t) {
-                    emitter.completeWithError(t);
-                }
+                    @Override
+                    public void onCompleted() {
+                        emitter.complete();
+                    }
+                }));
+        streams.put(streamId, subscription);
 
-                @Override
-                public void onCompleted() {
-                    emitter.complete();
-                }
-            });
-        });
+        // Release the upstream stream once the browser goes away or the stream ends
+        emitter.onCompletion(() -> closeStream(streamId));
+        emitter.onTimeout(() -> closeStream(streamId));
+        emitter.onError(t -> closeStream(streamId));
 
+        try {
+            emitter.send(SseEmitter.event().name("subscription").data(streamId));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        subscription.subscribe(symbols);
         return emitter;
     }
+
+    /**
+     * Adds a symbol to an open multiplexed stream.
+     *
+     * @param streamId Id received in the stream's "subscription" event
+     * @param symbol   Stock symbol to add
+     */
+    @PostMapping("/stream/{streamId}/{symbol}")
+    public ResponseEntity<Void> addSymbol(@PathVariable String streamId, @PathVariable String symbol) {
+        MultiSymbolSubscription subscription = streams.get(streamId);
+        if (subscription == null) {
+            return ResponseEntity.notFound().build();
+        }
+        subscription.subscribe(List.of(symbol));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Removes a symbol from an open multiplexed stream.
+     *
+     * @param streamId Id received in the stream's "subscription" event
+     * @param symbol   Stock symbol to remove
+     */
+    @DeleteMapping("/stream/{streamId}/{symbol}")
+    public ResponseEntity<Void> removeSymbol(@PathVariable String streamId, @PathVariable String symbol) {
+        MultiSymbolSubscription subscription = streams.get(streamId);
+        if (subscription == null) {
+            return ResponseEntity.notFound().build();
+        }
+        subscription.unsubscribe(List.of(symbol));
+        return ResponseEntity.noContent().build();
+    }
+
+    private void closeStream(String streamId) {
+        MultiSymbolSubscription subscription = streams.remove(streamId);
+        if (subscription != null) {
+            // Nobody reads the updates any more, so do not wait for the server to complete
+            subscription.cancel();
+        }
+    }
 }
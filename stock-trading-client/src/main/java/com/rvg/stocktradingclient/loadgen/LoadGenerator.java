@@ -0,0 +1,442 @@
+package com.rvg.stocktradingclient.loadgen;
+
+import com.rvg.grpc.StockListRequest;
+import com.rvg.grpc.StockOrder;
+import com.rvg.grpc.StockRequest;
+import com.rvg.grpc.StockResponse;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import com.rvg.grpc.TradeStatus;
+import io.grpc.Channel;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for the stock trading server.
+ *
+ * Operations start on a fixed schedule: the i-th is due at i / rate seconds into the
+ * run, however long the ones before it take. Latency is measured from when an
+ * operation was due, not from when it was actually sent, so time the server (or the
+ * generator) spends behind schedule is charged to every operation waiting on it. A
+ * closed loop of "send, wait for the answer, send" would instead slow down with the
+ * server and record a stall as a single slow call (coordinated omission).
+ *
+ * Every channel is driven by one pacer thread, which starts its share of the
+ * operations and is the only writer of the LiveTrading streams on that channel. An
+ * order is answered by its first status (PENDING, a fill or FAILED), a cancel by
+ * CANCELLED or FAILED, and a quote by its response; latencies are recorded into one
+ * HdrHistogram per operation.
+ */
+public class LoadGenerator {
+
+    /** Time given to the streams to open before the first operation is due. */
+    private static final Duration START_DELAY = Duration.ofMillis(100);
+
+    /** Time waited after the last operation for answers still in flight. */
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(10);
+
+    /** Limit prices are spread up to this many cents around the reference price, so about half the orders cross. */
+    private static final int PRICE_SPREAD_CENTS = 5;
+
+    private static final int MAX_QUANTITY = 10;
+
+    private final LoadProperties properties;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    /**
+     * @param properties Load to generate
+     * @throws IllegalArgumentException if the properties describe no load
+     */
+    public LoadGenerator(LoadProperties properties) {
+        if (properties.channels() < 1 || properties.streams() < properties.channels()) {
+            throw new IllegalArgumentException("stock.load needs at least one channel and one stream per channel");
+        }
+        if (properties.rate() < 1 || properties.symbols().isEmpty()) {
+            throw new IllegalArgumentException("stock.load needs a positive rate and at least one symbol");
+        }
+        List<Operation> mixed = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        int total = 0;
+        for (Operation operation : Operation.values()) {
+            int weight = weight(properties.mix(), operation);
+            if (weight < 0) {
+                throw new IllegalArgumentException("stock.load.mix weights must not be negative");
+            }
+            if (weight > 0) {
+                total += weight;
+                mixed.add(operation);
+                weights.add(total);
+            }
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("stock.load.mix needs at least one operation");
+        }
+        this.properties = properties;
+        this.operations = mixed.toArray(Operation[]::new);
+        this.cumulativeWeights = weights.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Opens {@code stock.load.channels} plaintext channels to the target, runs the load
+     * over them and closes them.
+     *
+     * @return Latencies and counts of the operations due after the warmup
+     * @throws InterruptedException if interrupted while the load runs
+     */
+    public LoadReport run() throws InterruptedException {
+        List<ManagedChannel> channels = new ArrayList<>();
+        try {
+            for (int i = 0; i < properties.channels(); i++) {
+                channels.add(ManagedChannelBuilder.forTarget(properties.target()).usePlaintext().build());
+            }
+            return run(channels);
+        } finally {
+            for (ManagedChannel channel : channels) {
+                channel.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Runs the load over the given channels, one pacer thread per channel.
+     *
+     * @param channels Channels to the server, at most {@code stock.load.streams}
+     * @return Latencies and counts of the operations due after the warmup
+     * @throws InterruptedException if interrupted while the load runs
+     */
+    public LoadReport run(List<? extends Channel> channels) throws InterruptedException {
+        return new Run(channels).execute();
+    }
+
+    private static int weight(LoadProperties.Mix mix, Operation operation) {
+        return switch (operation) {
+            case BUY -> mix.buy();
+            case SELL -> mix.sell();
+            case CANCEL -> mix.cancel();
+            case QUOTE -> mix.quote();
+        };
+    }
+
+    /**
+     * Counters and latencies of one operation, written from pacer and callback threads.
+     */
+    private static final class Stats {
+
+        final Recorder latency = new Recorder(3);
+        final LongAdder sent = new LongAdder();
+        final LongAdder answered = new LongAdder();
+        final LongAdder failed = new LongAdder();
+    }
+
+    /**
+     * An operation started and not answered yet.
+     *
+     * @param operation Operation, CANCEL for a cancel even though it carries the order's id
+     * @param due       System.nanoTime() the operation was due at
+     * @param measured  Whether it was due after the warmup
+     * @param order     Order sent, null for a quote
+     */
+    private record Sent(Operation operation, long due, boolean measured, StockOrder order) {
+    }
+
+    /**
+     * State of one run: schedule, reference prices, pacers and counters.
+     */
+    private final class Run {
+
+        private final List<? extends Channel> channels;
+        private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        private final String[] symbols;
+        private final double[] referencePrices;
+        private final StockRequest[] quoteRequests;
+        private final List<Pacer> pacers = new ArrayList<>();
+        private final double nanosPerOperation = 1e9 / properties.rate();
+        private long start;
+        private long measureFrom;
+        private long end;
+
+        Run(List<? extends Channel> channels) {
+            this.channels = channels;
+            this.symbols = properties.symbols().toArray(String[]::new);
+            this.referencePrices = new double[symbols.length];
+            this.quoteRequests = new StockRequest[symbols.length];
+            for (Operation operation : operations) {
+                stats.put(operation, new Stats());
+            }
+        }
+
+        LoadReport execute() throws InterruptedException {
+            loadReferencePrices();
+            for (int i = 0; i < channels.size(); i++) {
+                pacers.add(new Pacer(i, StockTradingServiceGrpc.newStub(channels.get(i))));
+            }
+            for (int i = 0; i < properties.streams(); i++) {
+                pacers.get(i % pacers.size()).open();
+            }
+
+            start = System.nanoTime() + START_DELAY.toNanos();
+            measureFrom = start + properties.warmup().toNanos();
+            end = measureFrom + properties.duration().toNanos();
+            List<Thread> threads = new ArrayList<>();
+            for (Pacer pacer : pacers) {
+                Thread thread = new Thread(pacer, "load-pacer-" + threads.size());
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+            try {
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                awaitAnswers(System.nanoTime() + DRAIN_TIMEOUT.toNanos());
+            } finally {
+                threads.forEach(Thread::interrupt);
+            }
+            // Pacers are done, so their streams have no other writer left
+            for (Pacer pacer : pacers) {
+                pacer.close();
+            }
+            return report();
+        }
+
+        /**
+         * Fetches the stored price of every symbol; limit orders are priced around it
+         * to stay inside the server's price band.
+         */
+        private void loadReferencePrices() {
+            List<StockResponse> prices = StockTradingServiceGrpc.newBlockingStub(channels.get(0))
+                    .withDeadlineAfter(DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                    .getStockPrices(StockListRequest.newBuilder().addAllStockSymbols(properties.symbols()).build())
+                    .getPricesList();
+            Map<String, Double> bySymbol = new HashMap<>();
+            for (StockResponse price : prices) {
+                bySymbol.put(price.getStockSymbol(), price.getPrice());
+            }
+            for (int i = 0; i < symbols.length; i++) {
+                Double price = bySymbol.get(symbols[i]);
+                if (price == null) {
+                    throw new IllegalStateException("Unknown stock symbol: " + symbols[i]);
+                }
+                referencePrices[i] = price;
+                quoteRequests[i] = StockRequest.newBuilder().setStockSymbol(symbols[i]).build();
+            }
+        }
+
+        private void awaitAnswers(long deadline) throws InterruptedException {
+            while (System.nanoTime() < deadline
+                    && stats.values().stream().anyMatch(s -> s.answered.sum() < s.sent.sum())) {
+                Thread.sleep(10);
+            }
+        }
+
+        private LoadReport report() {
+            long maxSendLag = pacers.stream().mapToLong(pacer -> pacer.maxLag).max().orElse(0);
+            Map<Operation, LoadReport.Result> results = new EnumMap<>(Operation.class);
+            stats.forEach((operation, s) -> results.put(operation,
+                    new LoadReport.Result(s.sent.sum(), s.failed.sum(), s.latency.getIntervalHistogram())));
+            return new LoadReport(properties.rate(), properties.duration(), Duration.ofNanos(maxSendLag), results);
+        }
+
+        /**
+         * Records the answer to an operation due after the warmup.
+         */
+        private void answer(Sent sent, boolean failed) {
+            if (!sent.measured()) {
+                return;
+            }
+            Stats s = stats.get(sent.operation());
+            s.latency.recordValue(Math.max(0, System.nanoTime() - sent.due()));
+            if (failed) {
+                s.failed.increment();
+            }
+            s.answered.increment();
+        }
+
+        /**
+         * Starts every {@code channels}-th operation of the schedule on one channel.
+         */
+        private final class Pacer implements Runnable {
+
+            private final int index;
+            private final StockTradingServiceGrpc.StockTradingServiceStub stub;
+            private final List<TradingStream> streams = new ArrayList<>();
+            private final SplittableRandom random;
+            private int nextStream;
+            private volatile long maxLag;
+
+            Pacer(int index, StockTradingServiceGrpc.StockTradingServiceStub stub) {
+                this.index = index;
+                this.stub = stub;
+                this.random = new SplittableRandom(index);
+            }
+
+            void open() {
+                TradingStream stream = new TradingStream();
+                stream.requests = stub.liveTrading(stream);
+                streams.add(stream);
+            }
+
+            void close() {
+                for (TradingStream stream : streams) {
+                    stream.requests.onCompleted();
+                }
+            }
+
+            @Override
+            public void run() {
+                long lag = 0;
+                for (long i = index; ; i += pacers.size()) {
+                    long due = start + (long) (i * nanosPerOperation);
+                    if (due >= end) {
+                        break;
+                    }
+                    long wait;
+                    while ((wait = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                        if (Thread.interrupted()) {
+                            return;
+                        }
+                    }
+                    if (-wait > lag) {
+                        lag = -wait;
+                        maxLag = lag;
+                    }
+                    start(due, due >= measureFrom);
+                }
+            }
+
+            private void start(long due, boolean measured) {
+                Operation operation = nextOperation();
+                int symbol = random.nextInt(symbols.length);
+                if (operation == Operation.QUOTE) {
+                    quote(new Sent(operation, due, measured, null), quoteRequests[symbol]);
+                    return;
+                }
+
+                TradingStream stream = streams.get(nextStream);
+                nextStream = (nextStream + 1) % streams.size();
+                StockOrder order = null;
+                if (operation == Operation.CANCEL) {
+                    StockOrder resting = stream.resting.poll();
+                    if (resting != null) {
+                        order = resting.toBuilder().setOrderType("CANCEL").build();
+                    } else {
+                        operation = Operation.BUY;
+                    }
+                }
+                if (order == null) {
+                    long cents = Math.round(referencePrices[symbol] * 100)
+                            + random.nextInt(-PRICE_SPREAD_CENTS, PRICE_SPREAD_CENTS + 1);
+                    order = StockOrder.newBuilder()
+                            .setOrderId(Long.toString(++stream.sequence))
+                            .setStockSymbol(symbols[symbol])
+                            .setOrderType(operation.name())
+                            .setPrice(cents / 100.0)
+                            .setQuantity(1 + random.nextInt(MAX_QUANTITY))
+                            .build();
+                }
+                stream.send(new Sent(operation, due, measured, order));
+            }
+
+            private Operation nextOperation() {
+                int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+                int i = 0;
+                while (draw >= cumulativeWeights[i]) {
+                    i++;
+                }
+                return operations[i];
+            }
+
+            private void quote(Sent sent, StockRequest request) {
+                count(sent);
+                stub.getStockPrice(request, new StreamObserver<>() {
+                    @Override
+                    public void onNext(StockResponse stockResponse) {
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        answer(sent, true);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        answer(sent, false);
+                    }
+                });
+            }
+
+            private void count(Sent sent) {
+                if (sent.measured()) {
+                    stats.get(sent.operation()).sent.increment();
+                }
+            }
+
+            /**
+             * One LiveTrading stream. Orders are written by the pacer only; statuses
+             * arrive on gRPC callback threads, one at a time.
+             */
+            private final class TradingStream implements StreamObserver<TradeStatus> {
+
+                private final Map<String, Sent> pending = new ConcurrentHashMap<>();
+                private final Queue<StockOrder> resting = new ConcurrentLinkedQueue<>();
+                private StreamObserver<StockOrder> requests;
+                private long sequence;
+
+                void send(Sent sent) {
+                    count(sent);
+                    pending.put(sent.order().getOrderId(), sent);
+                    requests.onNext(sent.order());
+                }
+
+                @Override
+                public void onNext(TradeStatus tradeStatus) {
+                    String orderId = tradeStatus.getOrderId();
+                    Sent sent = pending.get(orderId);
+                    if (sent == null) {
+                        // Later fill of an order that was answered already
+                        return;
+                    }
+                    boolean failed = "FAILED".equals(tradeStatus.getStatus());
+                    boolean cancelled = "CANCELLED".equals(tradeStatus.getStatus());
+                    if (sent.operation() == Operation.CANCEL && !failed && !cancelled) {
+                        // A fill that overtook the cancel
+                        return;
+                    }
+                    // Removed before the order is offered for cancelling, which reuses its id
+                    pending.remove(orderId);
+                    if (sent.operation() != Operation.CANCEL && !failed && tradeStatus.getRemainingQuantity() > 0) {
+                        resting.add(sent.order());
+                    }
+                    answer(sent, failed);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    // Orders still pending on this stream are reported as lost
+                    System.err.println("Load stream failed: " + t.getMessage());
+                }
+
+                @Override
+                public void onCompleted() {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.rvg.stocktradingclient.loadgen;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration properties for the load generator.
+ *
+ * @param enabled  Run the load generator on startup
+ * @param target   Server address, as host:port
+ * @param channels Channels (HTTP/2 connections) opened to the server, each driven by its own pacer thread
+ * @param streams  LiveTrading streams kept open across all channels; the server checks each as its own account
+ * @param rate     Operations started per second across all channels, whatever the server's response time
+ * @param warmup   Time run at the full rate before latencies are recorded
+ * @param duration Time latencies are recorded for
+ * @param symbols  Symbols traded and quoted; each must exist on the server
+ * @param mix      Relative weight of each operation
+ */
+@ConfigurationProperties(prefix = "stock.load")
+public record LoadProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("127.0.0.1:9090") String target,
+        @DefaultValue("4") int channels,
+        @DefaultValue("64") int streams,
+        @DefaultValue("10000") int rate,
+        @DefaultValue("10s") Duration warmup,
+        @DefaultValue("60s") Duration duration,
+        @DefaultValue({"AAPL", "GOOGL", "TSLA"}) List<String> symbols,
+        @DefaultValue Mix mix) {
+
+    /**
+     * Relative weight of each operation; 0 leaves it out.
+     *
+     * @param buy    BUY limit order on a LiveTrading stream
+     * @param sell   SELL limit order on a LiveTrading stream
+     * @param cancel CANCEL of an order resting from the same stream, or a BUY while none rests
+     * @param quote  GetStockPrice call
+     */
+    public record Mix(
+            @DefaultValue("40") int buy,
+            @DefaultValue("40") int sell,
+            @DefaultValue("10") int cancel,
+            @DefaultValue("10") int quote) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.rvg.stocktradingclient.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Outcome of a load run, counting only operations due after the warmup.
+ *
+ * @param rate        Operations per second the run was configured to start
+ * @param duration    Time latencies were recorded for
+ * @param maxSendLag  Longest time an operation was started after it was due; if this
+ *                    approaches the latencies, the generator, not the server, was the limit
+ * @param operations  Result per operation in the mix
+ */
+public record LoadReport(int rate, Duration duration, Duration maxSendLag, Map<Operation, Result> operations) {
+
+    private static final double NANOS_PER_MICRO = 1_000.0;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    /**
+     * Operations answered per second, failed ones included.
+     */
+    public double throughput() {
+        long answered = operations.values().stream().mapToLong(Result::answered).sum();
+        return answered / (duration.toNanos() / 1e9);
+    }
+
+    /**
+     * Renders the report as a table, latencies in microseconds.
+     */
+    public String format() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT,
+                "Target %,d ops/s for %s: %,.1f ops/s answered, max send lag %,.1f us%n",
+                rate, duration, throughput(), maxSendLag.toNanos() / NANOS_PER_MICRO));
+        report.append(String.format(Locale.ROOT, "%-8s %12s %10s %10s %10s %10s %10s %10s %10s %10s%n",
+                "op", "sent", "failed", "lost", "p50", "p90", "p99", "p99.9", "p99.99", "max"));
+        operations.forEach((operation, result) -> {
+            report.append(String.format(Locale.ROOT, "%-8s %,12d %,10d %,10d",
+                    operation.name().toLowerCase(Locale.ROOT), result.sent(), result.failed(), result.unanswered()));
+            for (double percentile : PERCENTILES) {
+                report.append(String.format(Locale.ROOT, " %,10.1f",
+                        result.latency().getValueAtPercentile(percentile) / NANOS_PER_MICRO));
+            }
+            report.append(String.format(Locale.ROOT, " %,10.1f%n", result.latency().getMaxValue() / NANOS_PER_MICRO));
+        });
+        return report.toString();
+    }
+
+    /**
+     * Result of one operation.
+     *
+     * @param sent    Operations started
+     * @param failed  Answered operations that failed: FAILED statuses and error responses
+     * @param latency Nanoseconds from when each answered operation was due until its answer
+     */
+    public record Result(long sent, long failed, Histogram latency) {
+
+        /** Operations answered, successfully or not. */
+        public long answered() {
+            return latency.getTotalCount();
+        }
+
+        /** Operations started that were not answered by the end of the run. */
+        public long unanswered() {
+            return sent - answered();
+        }
+    }
+}
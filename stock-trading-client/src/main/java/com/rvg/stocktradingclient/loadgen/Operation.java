@@ -0,0 +1,19 @@
+package com.rvg.stocktradingclient.loadgen;
+
+/**
+ * Operations the load generator mixes.
+ */
+public enum Operation {
+
+    /** BUY limit order, answered by its first status. */
+    BUY,
+
+    /** SELL limit order, answered by its first status. */
+    SELL,
+
+    /** CANCEL of a resting order, answered by CANCELLED or FAILED. */
+    CANCEL,
+
+    /** GetStockPrice call, answered by its response. */
+    QUOTE
+}
@@ -0,0 +1,91 @@
+package com.rvg.stocktradingclient.metrics;
+
+import com.rvg.grpc.metrics.MethodMeters;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.devh.boot.grpc.client.interceptor.GrpcGlobalClientInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records Micrometer metrics for every call made through the gRPC client channels:
+ *
+ * <ul>
+ *   <li>{@code grpc.client.calls}: latency timer per method and status code; its count
+ *       is the number of calls that ended with that status</li>
+ *   <li>{@code grpc.client.calls.active}: calls and streams in flight</li>
+ *   <li>{@code grpc.client.call.messages}: messages sent and received per call</li>
+ *   <li>{@code grpc.client.message.size}: serialized message size in bytes</li>
+ * </ul>
+ *
+ * Same meters as the server records as {@code grpc.server.*}, from the same
+ * {@link MethodMeters}, so both ends of a method can be compared; the difference
+ * in latency is the network and queueing.
+ */
+@Component
+@GrpcGlobalClientInterceptor
+public class GrpcClientMetricsInterceptor implements ClientInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, MethodMeters> methods = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param meterRegistry Registry the meters are published to
+     */
+    public GrpcClientMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        MethodMeters meters = methods.computeIfAbsent(method.getFullMethodName(),
+                name -> new MethodMeters(meterRegistry, "grpc.client", method));
+
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+
+            private MethodMeters.Call recorder;
+
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                recorder = meters.start();
+                try {
+                    super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                        @Override
+                        public void onMessage(RespT message) {
+                            recorder.received(message);
+                            super.onMessage(message);
+                        }
+
+                        @Override
+                        public void onClose(Status status, Metadata trailers) {
+                            recorder.closed(status.getCode());
+                            super.onClose(status, trailers);
+                        }
+                    }, headers);
+                } catch (RuntimeException e) {
+                    recorder.closed(Status.Code.UNKNOWN);
+                    throw e;
+                }
+            }
+
+            @Override
+            public void sendMessage(ReqT message) {
+                recorder.sent(message);
+                super.sendMessage(message);
+            }
+        };
+    }
+}
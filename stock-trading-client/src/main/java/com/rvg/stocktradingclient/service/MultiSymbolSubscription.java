@@ -0,0 +1,76 @@
+package com.rvg.stocktradingclient.service;
+
+import com.rvg.grpc.SubscriptionRequest;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+
+import java.util.Collection;
+
+/**
+ * Handle for a multiplexed StreamStockPrices call.
+ * Symbols can be added and removed while the stream is open; all updates arrive
+ * on the single response observer the stream was opened with.
+ *
+ * gRPC request observers are not thread-safe, so every write is serialized.
+ */
+public class MultiSymbolSubscription {
+
+    private final StreamObserver<SubscriptionRequest> requestObserver;
+    private boolean closed;
+
+    public MultiSymbolSubscription(StreamObserver<SubscriptionRequest> requestObserver) {
+        this.requestObserver = requestObserver;
+    }
+
+    /**
+     * Starts receiving updates for the given symbols.
+     *
+     * @param stockSymbols Stock ticker symbols to add
+     */
+    public void subscribe(Collection<String> stockSymbols) {
+        send(SubscriptionRequest.Action.SUBSCRIBE, stockSymbols);
+    }
+
+    /**
+     * Stops receiving updates for the given symbols.
+     *
+     * @param stockSymbols Stock ticker symbols to remove
+     */
+    public void unsubscribe(Collection<String> stockSymbols) {
+        send(SubscriptionRequest.Action.UNSUBSCRIBE, stockSymbols);
+    }
+
+    /**
+     * Half-closes the stream; the server completes the update stream in response.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        requestObserver.onCompleted();
+    }
+
+    /**
+     * Cancels the stream without waiting for the server to complete it; the server
+     * drops the stream's subscriptions as soon as the cancellation reaches it.
+     */
+    public synchronized void cancel() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // onError on a client call's request observer cancels the call
+        requestObserver.onError(Status.CANCELLED.withDescription("Subscription cancelled").asRuntimeException());
+    }
+
+    private synchronized void send(SubscriptionRequest.Action action, Collection<String> stockSymbols) {
+        if (closed || stockSymbols.isEmpty()) {
+            return;
+        }
+        requestObserver.onNext(SubscriptionRequest.newBuilder()
+                .setAction(action)
+                .addAllStockSymbols(stockSymbols)
+                .build());
+    }
+}
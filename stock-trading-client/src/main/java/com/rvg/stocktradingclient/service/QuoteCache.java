@@ -0,0 +1,218 @@
+package com.rvg.stocktradingclient.service;
+
+import com.rvg.grpc.StockResponse;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import io.grpc.stub.StreamObserver;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Near cache of the latest price of every symbol this client reads, kept current
+ * by a StreamStockPrices call of its own.
+ *
+ * The first read of a symbol misses and starts watching it over the cache's
+ * stream, which pushes the stored price and then every change of it, so later
+ * reads are answered from memory. A price is served for at most {@code maxAge}
+ * after it arrived; a symbol whose price has not changed for longer is refetched
+ * by the caller, so a stalled stream cannot serve old prices for long. When the
+ * stream ends every entry is dropped and the next miss opens a new stream.
+ *
+ * A symbol that has not been read for {@code idleTimeout} is unsubscribed from the
+ * stream and dropped, and the stream is closed once no symbol is left. There is no
+ * timer: reads and pushed prices check, at most every half {@code idleTimeout},
+ * whether a sweep is due.
+ *
+ * Reads are a map lookup and take no lock; starting and ending the stream, and
+ * sweeping idle symbols, are serialized on the cache.
+ */
+@Component
+public class QuoteCache {
+
+    @GrpcClient("stockService")
+    private StockTradingServiceGrpc.StockTradingServiceStub stockServiceStub;
+
+    private final boolean enabled;
+    private final long maxAgeNanos;
+    private final int maxSymbols;
+    private final long idleNanos;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    /** Symbols subscribed on the current stream. */
+    private final Map<String, Watch> watched = new ConcurrentHashMap<>();
+    private volatile long nextSweepAt;
+    private Feed feed;
+
+    public QuoteCache(QuoteCacheProperties properties) {
+        this.enabled = properties.enabled();
+        this.maxAgeNanos = properties.maxAge().toNanos();
+        this.maxSymbols = properties.maxSymbols();
+        this.idleNanos = properties.idleTimeout().toNanos();
+        this.nextSweepAt = System.nanoTime() + idleNanos / 2;
+    }
+
+    /**
+     * Latest price of a symbol if it is fresh; otherwise null, and the symbol is
+     * watched from now on so the next read can hit.
+     *
+     * @param stockSymbol Stock ticker symbol
+     * @return Cached price no older than {@code maxAge}, or null on a miss
+     */
+    public StockResponse get(String stockSymbol) {
+        if (!enabled) {
+            return null;
+        }
+        long now = System.nanoTime();
+        Watch watch = watched.get(stockSymbol);
+        if (watch != null) {
+            watch.touch(now);
+        }
+        sweepIfDue(now);
+        Entry entry = entries.get(stockSymbol);
+        if (entry != null && now - entry.receivedAt() <= maxAgeNanos) {
+            return entry.response();
+        }
+        if (watch == null) {
+            watch(stockSymbol);
+        }
+        return null;
+    }
+
+    /**
+     * Stores a price fetched after a miss, unless the stream delivered one after
+     * the fetch was sent; of the two, the stream's is the newer.
+     *
+     * @param response    Price returned by GetStockPrice
+     * @param requestedAt {@link System#nanoTime()} just before the call was sent
+     */
+    public void put(StockResponse response, long requestedAt) {
+        String stockSymbol = response.getStockSymbol();
+        if (!enabled || !watched.containsKey(stockSymbol)) {
+            return;
+        }
+        long now = System.nanoTime();
+        entries.compute(stockSymbol, (symbol, entry) ->
+                entry != null && entry.receivedAt() - requestedAt > 0 ? entry : new Entry(response, now));
+    }
+
+    /**
+     * Number of symbols watched over the price stream.
+     */
+    public int watchedCount() {
+        return watched.size();
+    }
+
+    private synchronized void watch(String stockSymbol) {
+        if (watched.containsKey(stockSymbol) || watched.size() >= maxSymbols) {
+            return;
+        }
+        if (feed == null) {
+            feed = new Feed();
+            feed.subscription = new MultiSymbolSubscription(stockServiceStub.streamStockPrices(feed));
+        }
+        watched.put(stockSymbol, new Watch(System.nanoTime()));
+        feed.subscription.subscribe(List.of(stockSymbol));
+    }
+
+    private void sweepIfDue(long now) {
+        if (now - nextSweepAt >= 0) {
+            sweep(now);
+        }
+    }
+
+    /**
+     * Unsubscribes and drops the symbols not read for {@code idleTimeout}, and closes
+     * the stream if none is left.
+     */
+    private synchronized void sweep(long now) {
+        if (now - nextSweepAt < 0) {
+            return;
+        }
+        nextSweepAt = now + idleNanos / 2;
+        List<String> idle = new ArrayList<>();
+        watched.forEach((symbol, watch) -> {
+            if (now - watch.lastReadAt > idleNanos) {
+                idle.add(symbol);
+            }
+        });
+        if (idle.isEmpty() || feed == null) {
+            return;
+        }
+        idle.forEach(symbol -> {
+            watched.remove(symbol);
+            entries.remove(symbol);
+        });
+        if (watched.isEmpty()) {
+            feed.subscription.close();
+            feed = null;
+        } else {
+            feed.subscription.unsubscribe(idle);
+        }
+    }
+
+    private synchronized void end(Feed ended) {
+        if (feed == ended) {
+            feed = null;
+            watched.clear();
+            entries.clear();
+        }
+    }
+
+    /**
+     * Cached price and the {@link System#nanoTime()} it arrived at.
+     */
+    private record Entry(StockResponse response, long receivedAt) {
+    }
+
+    /**
+     * When a watched symbol was last read. Hits only write the time once it is an
+     * eighth of {@code idleTimeout} old, so readers of a hot symbol rarely share a
+     * write.
+     */
+    private final class Watch {
+
+        private volatile long lastReadAt;
+
+        Watch(long now) {
+            this.lastReadAt = now;
+        }
+
+        void touch(long now) {
+            if (now - lastReadAt > idleNanos / 8) {
+                lastReadAt = now;
+            }
+        }
+    }
+
+    /**
+     * Response side of one price stream. gRPC calls it from one thread at a time.
+     */
+    private final class Feed implements StreamObserver<StockResponse> {
+
+        private MultiSymbolSubscription subscription;
+
+        @Override
+        public void onNext(StockResponse response) {
+            long now = System.nanoTime();
+            // Prices still in flight for a symbol just unsubscribed are not kept
+            if (watched.containsKey(response.getStockSymbol())) {
+                entries.put(response.getStockSymbol(), new Entry(response, now));
+            }
+            sweepIfDue(now);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            end(this);
+        }
+
+        @Override
+        public void onCompleted() {
+            end(this);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.rvg.stocktradingclient.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the client-side quote cache ({@link QuoteCache}).
+ *
+ * @param enabled     Serve GetStockPrice from the cache while it is fresh
+ * @param maxAge      Oldest a cached price may be and still be served; a quiet symbol
+ *                    is refetched once per this period
+ * @param maxSymbols  Most symbols watched over the cache's price stream; others are
+ *                    always fetched
+ * @param idleTimeout Symbols not read for this long are unsubscribed and dropped
+ */
+@ConfigurationProperties(prefix = "stock.quote-cache")
+public record QuoteCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("5s") Duration maxAge,
+        @DefaultValue("1000") int maxSymbols,
+        @DefaultValue("5m") Duration idleTimeout) {
+}
@@ -1,20 +1,54 @@
 package com.rvg.stocktradingclient.service;
 
 import com.rvg.grpc.*;
+import io.grpc.Context;
+import io.grpc.Status;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import io.grpc.stub.StreamObserver;
 import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Client service for gRPC-based stock trading operations.
  * Communicates with StockTradingService using both blocking and async stubs.
  *
  * - Blocking stub: Used for unary calls requiring an immediate response.
- * - Async stub: Used for streaming calls (server, client, and bidirectional).
+ * - Async stub: Used for streaming calls (server, client, and bidirectional), and for the
+ *   {@link CompletableFuture}, {@link Mono} and {@link Flux} variants, which never
+ *   block the calling thread.
+ *
+ * Every unary call has a deadline ({@code stock.client.deadline} unless given), so a
+ * server that stops answering costs a caller at most that long; streams have none
+ * and are cancelled instead. Unary async calls are also single-flight: a call for
+ * the same symbols as one still in flight joins it instead of starting another RPC,
+ * so a burst of identical quote requests costs one round trip. Every caller gets its
+ * own future, so cancelling one does not cancel the shared call, and a caller that
+ * joins is still held to its own deadline.
+ *
+ * Single-symbol quotes, blocking or not, are first looked up in the {@link QuoteCache}
+ * and only go to the server on a miss.
  */
 @Service
 public class StockClientService {
 
+    private static final Logger log = LoggerFactory.getLogger(StockClientService.class);
+
     /** Blocking stub for synchronous unary gRPC calls. */
     @GrpcClient("stockService")
     private StockTradingServiceGrpc.StockTradingServiceBlockingStub stockTradingServiceBlockingStub;
@@ -23,80 +57,174 @@ public class StockClientService {
     @GrpcClient("stockService")
     private StockTradingServiceGrpc.StockTradingServiceStub stockTradingServiceStub;
 
+    /** Deadline of unary calls that are not given one. */
+    @Value("${stock.client.deadline:5s}")
+    private Duration deadline = Duration.ofSeconds(5);
+
+    /** GetStockPrice calls in flight, by symbol. */
+    private final Map<String, CompletableFuture<StockResponse>> quotesInFlight = new ConcurrentHashMap<>();
+
+    /** GetStockPrices calls in flight, by symbol list. */
+    private final Map<List<String>, CompletableFuture<List<StockResponse>>> quoteListsInFlight = new ConcurrentHashMap<>();
+
+    private final QuoteCache quoteCache;
+
+    public StockClientService(QuoteCache quoteCache) {
+        this.quoteCache = quoteCache;
+    }
+
     /**
-     * Unary RPC: Fetches the current price for a given stock symbol.
+     * Unary RPC: Fetches the current price for a given stock symbol, unless the
+     * quote cache holds a fresh one.
      *
      * @param stockSymbol The stock ticker symbol (e.g., "AAPL")
      * @return StockResponse with symbol, price, and timestamp
      */
     public StockResponse getStockPrice(String stockSymbol) {
+        StockResponse cached = quoteCache.get(stockSymbol);
+        if (cached != null) {
+            return cached;
+        }
+
         StockRequest stockRequest = StockRequest.newBuilder()
                 .setStockSymbol(stockSymbol)
                 .build();
 
-        return stockTradingServiceBlockingStub.getStockPrice(stockRequest);
+        long requestedAt = System.nanoTime();
+        StockResponse stockResponse = stockTradingServiceBlockingStub
+                .withDeadlineAfter(deadline.toNanos(), TimeUnit.NANOSECONDS)
+                .getStockPrice(stockRequest);
+        quoteCache.put(stockResponse, requestedAt);
+        return stockResponse;
+    }
+
+    /**
+     * Unary RPC: Fetches the current prices for several stock symbols in a single call.
+     *
+     * @param stockSymbols The stock ticker symbols (e.g., a watchlist)
+     * @return StockResponse per known symbol, in request order
+     */
+    public List<StockResponse> getStockPrices(List<String> stockSymbols) {
+        StockListRequest stockListRequest = StockListRequest.newBuilder()
+                .addAllStockSymbols(stockSymbols)
+                .build();
+
+        return stockTradingServiceBlockingStub
+                .withDeadlineAfter(deadline.toNanos(), TimeUnit.NANOSECONDS)
+                .getStockPrices(stockListRequest)
+                .getPricesList();
+    }
+
+    /**
+     * Server-streaming RPC: Subscribes to real-time price updates for a stock and logs
+     * each of them. See {@link #subscribeStockPrice(String, Consumer)}.
+     *
+     * @param stockSymbol The stock ticker symbol to subscribe to
+     * @return Context the call runs in; cancel it to end the subscription
+     */
+    public Context.CancellableContext subscribeStockPrice(String stockSymbol) {
+        return subscribeStockPrice(stockSymbol, stockResponse -> log.atInfo()
+                .addKeyValue("symbol", stockResponse.getStockSymbol())
+                .addKeyValue("price", stockResponse.getPrice())
+                .addKeyValue("timestamp", stockResponse.getTimestamp())
+                .log("Stock price update"));
     }
 
     /**
      * Server-streaming RPC: Subscribes to real-time price updates for a stock.
-     * Server pushes multiple StockResponse messages until stream completes.
+     * Server pushes multiple StockResponse messages until stream completes, or until
+     * the returned context is cancelled, which cancels the call on the server too.
      *
      * @param stockSymbol The stock ticker symbol to subscribe to
+     * @param onUpdate    Receives each price update, on a gRPC callback thread
+     * @return Context the call runs in; cancel it to end the subscription
      */
-    public void subscribeStockPrice(String stockSymbol) {
+    public Context.CancellableContext subscribeStockPrice(String stockSymbol, Consumer<StockResponse> onUpdate) {
         StockRequest stockRequest = StockRequest.newBuilder()
                 .setStockSymbol(stockSymbol)
                 .build();
 
-        stockTradingServiceStub.subscribeStockPrice(stockRequest, new StreamObserver<StockResponse>() {
+        StreamObserver<StockResponse> responseObserver = new StreamObserver<StockResponse>() {
 
-            /** Prints each incoming price update from the server. */
             @Override
             public void onNext(StockResponse stockResponse) {
-                System.out.println("Stock Symbol: " + stockResponse.getStockSymbol());
-                System.out.println("Price: " + stockResponse.getPrice());
-                System.out.println("Timestamp: " + stockResponse.getTimestamp());
+                onUpdate.accept(stockResponse);
             }
 
             @Override
             public void onError(Throwable t) {
-                System.err.println("Error receiving stock price updates: " + t.getMessage());
+                log.warn("Error receiving stock price updates for {}: {}", stockSymbol, t.getMessage());
             }
 
             @Override
             public void onCompleted() {
-                System.out.println("Completed receiving stock price updates.");
+                log.debug("Completed receiving stock price updates for {}", stockSymbol);
             }
-        });
+        };
+
+        // A call started in a cancellable context is cancelled along with it
+        Context.CancellableContext subscription = Context.current().withCancellation();
+        subscription.run(() -> stockTradingServiceStub.subscribeStockPrice(stockRequest, responseObserver));
+        return subscription;
     }
 
     /**
-     * Client-streaming RPC: Sends multiple stock orders to the server in a single stream.
+     * Bidirectional streaming RPC: Opens a multiplexed price stream.
+     * Symbols are added and removed through the returned handle and all their
+     * updates are delivered to the given observer over a single HTTP/2 stream.
+     *
+     * @param stockSymbols   Initial stock ticker symbols to subscribe to
+     * @param updateObserver Receives price updates of all subscribed symbols
+     * @return Handle used to subscribe, unsubscribe and close the stream
+     */
+    public MultiSymbolSubscription streamStockPrices(List<String> stockSymbols,
+                                                     StreamObserver<StockResponse> updateObserver) {
+        MultiSymbolSubscription subscription =
+                new MultiSymbolSubscription(stockTradingServiceStub.streamStockPrices(updateObserver));
+        subscription.subscribe(stockSymbols);
+        return subscription;
+    }
+
+    /**
+     * Client-streaming RPC: Sends stock orders to the server in a single stream and
+     * logs the OrderSummary it answers with. See {@link #placeBulkOrders(List, Consumer)}.
+     *
+     * @param orders Orders to place, in sending order
+     */
+    public void placeBulkOrders(List<StockOrder> orders) {
+        placeBulkOrders(orders, orderSummary -> log.atInfo()
+                .addKeyValue("totalOrders", orderSummary.getTotalOrders())
+                .addKeyValue("totalAmount", orderSummary.getTotalAmount())
+                .addKeyValue("successCount", orderSummary.getSuccessCount())
+                .log("Order summary"));
+    }
+
+    /**
+     * Client-streaming RPC: Sends stock orders to the server in a single stream.
      * Server processes all orders and responds with a single OrderSummary on completion.
      * If any order fails to send, signals the server with onError.
+     *
+     * @param orders    Orders to place, in sending order
+     * @param onSummary Receives the OrderSummary, on a gRPC callback thread
      */
-    public void placeBulkOrders() {
+    public void placeBulkOrders(List<StockOrder> orders, Consumer<OrderSummary> onSummary) {
 
         // Response observer receives the final OrderSummary from the server
         StreamObserver<OrderSummary> responseObserver = new StreamObserver<OrderSummary>() {
 
-            /** Prints the order summary received after all orders are processed. */
             @Override
             public void onNext(OrderSummary orderSummary) {
-                System.out.println("Received order summary from server:");
-                System.out.println("Total Orders: " + orderSummary.getTotalOrders());
-                System.out.println("Total Amount: " + orderSummary.getTotalAmount());
-                System.out.println("Success Count: " + orderSummary.getSuccessCount());
+                onSummary.accept(orderSummary);
             }
 
             @Override
             public void onError(Throwable t) {
-                System.err.println("Error receiving order summary: " + t.getMessage());
+                log.warn("Error receiving order summary: {}", t.getMessage());
             }
 
             @Override
             public void onCompleted() {
-                System.out.println("Completed receiving order summary.");
+                log.debug("Completed receiving order summary");
             }
         };
 
@@ -104,89 +232,334 @@ public class StockClientService {
         StreamObserver<StockOrder> requestObserver = stockTradingServiceStub.bulkStockOrder(responseObserver);
         try {
             // Send each order individually through the stream
-            requestObserver.onNext(
-                    StockOrder.newBuilder()
-                            .setOrderId("1")
-                            .setStockSymbol("AAPL")
-                            .setOrderType("BUY")
-                            .setPrice(150.5)
-                            .setQuantity(10)
-                            .build()
-            );
-
-            requestObserver.onNext(
-                    StockOrder.newBuilder()
-                            .setOrderId("2")
-                            .setStockSymbol("GOOGL")
-                            .setOrderType("SELL")
-                            .setPrice(2500.5)
-                            .setQuantity(7)
-                            .build()
-            );
-
-            requestObserver.onNext(
-                    StockOrder.newBuilder()
-                            .setOrderId("3")
-                            .setStockSymbol("TSLA")
-                            .setOrderType("BUY")
-                            .setPrice(300.0)
-                            .setQuantity(5)
-                            .build()
-            );
+            orders.forEach(requestObserver::onNext);
 
             // Signal server that all orders have been sent
             requestObserver.onCompleted();
 
-        } catch (Exception ex) {
+        } catch (RuntimeException ex) {
             // Propagate error to server to cancel the stream
             requestObserver.onError(ex);
         }
     }
 
+    /**
+     * Bidirectional streaming RPC: Opens a live trading session, sends the given
+     * orders and logs every TradeStatus the server answers with. See
+     * {@link #startTrading(List, Consumer)}.
+     *
+     * @param orders Orders to send, in sending order
+     */
+    public void startTrading(List<StockOrder> orders) {
+        startTrading(orders, tradeStatus -> log.atInfo()
+                .addKeyValue("orderId", tradeStatus.getOrderId())
+                .addKeyValue("status", tradeStatus.getStatus())
+                .addKeyValue("message", tradeStatus.getMessage())
+                .log("Trade status"));
+    }
+
     /**
      * Bidirectional streaming RPC: Opens a live trading session.
-     * Client sends 10 stock orders (one per second) and receives a TradeStatus
-     * response per order from the server.
+     * Client sends the given orders and then half-closes the stream; the server
+     * responds with one or more TradeStatus messages per order.
      *
-     * @throws InterruptedException if the thread is interrupted during sleep between orders
+     * @param orders   Orders to send, in sending order
+     * @param onStatus Receives each TradeStatus, on a gRPC callback thread
      */
-    public void startTrading() throws InterruptedException {
+    public void startTrading(List<StockOrder> orders, Consumer<TradeStatus> onStatus) {
 
         // Open bidirectional stream; server responds with TradeStatus per order
         StreamObserver<StockOrder> requestObserver = stockTradingServiceStub.liveTrading(new StreamObserver<TradeStatus>() {
 
-            /** Prints the trade status response for each order. */
             @Override
             public void onNext(TradeStatus tradeStatus) {
-                System.out.println("Server response: " + tradeStatus);
+                onStatus.accept(tradeStatus);
             }
 
             @Override
             public void onError(Throwable throwable) {
-                System.out.println("Error in live trading: " + throwable.getMessage());
+                log.warn("Error in live trading: {}", throwable.getMessage());
             }
 
             @Override
             public void onCompleted() {
-                System.out.println("Live trading completed.");
+                log.debug("Live trading completed");
             }
         });
 
-        // Send 10 orders at 1-second intervals to simulate live trading
-        for (int i = 1; i <= 10; i++) {
-            StockOrder order = StockOrder.newBuilder()
-                    .setOrderId("Order-" + i)
-                    .setStockSymbol("AAPL")
-                    .setOrderType("BUY")
-                    .setPrice(150.0 + i)
-                    .setQuantity(10 * i)
+        try {
+            orders.forEach(requestObserver::onNext);
+
+            // Signal server that no more orders will be sent
+            requestObserver.onCompleted();
+
+        } catch (RuntimeException ex) {
+            requestObserver.onError(ex);
+        }
+    }
+
+    /**
+     * Unary RPC without blocking: fetches the current price for a stock symbol, joining
+     * a call for the same symbol that is already in flight. A fresh cached quote
+     * completes the future at once.
+     *
+     * @param stockSymbol The stock ticker symbol (e.g., "AAPL")
+     * @return Completes with the StockResponse, or with a StatusRuntimeException
+     */
+    public CompletableFuture<StockResponse> getStockPriceAsync(String stockSymbol) {
+        return getStockPriceAsync(stockSymbol, deadline);
+    }
+
+    /**
+     * Unary RPC without blocking, with the given deadline.
+     *
+     * @param stockSymbol The stock ticker symbol (e.g., "AAPL")
+     * @param deadline    Longest to wait for the response
+     * @return Completes with the StockResponse, or with a StatusRuntimeException
+     */
+    public CompletableFuture<StockResponse> getStockPriceAsync(String stockSymbol, Duration deadline) {
+        StockResponse cached = quoteCache.get(stockSymbol);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return singleFlight(quotesInFlight, stockSymbol, deadline, response -> {
+            StockRequest stockRequest = StockRequest.newBuilder()
+                    .setStockSymbol(stockSymbol)
                     .build();
+            long requestedAt = System.nanoTime();
+            response.thenAccept(stockResponse -> quoteCache.put(stockResponse, requestedAt));
+            stockTradingServiceStub.withDeadlineAfter(deadline.toNanos(), TimeUnit.NANOSECONDS)
+                    .getStockPrice(stockRequest, completing(response));
+        });
+    }
 
-            requestObserver.onNext(order);
-            Thread.sleep(1000);
+    /**
+     * Unary RPC without blocking: fetches the current prices for several stock symbols
+     * in a single call, joining a call for the same symbols that is already in flight.
+     *
+     * @param stockSymbols The stock ticker symbols (e.g., a watchlist)
+     * @return Completes with a StockResponse per known symbol, in request order
+     */
+    public CompletableFuture<List<StockResponse>> getStockPricesAsync(List<String> stockSymbols) {
+        return getStockPricesAsync(stockSymbols, deadline);
+    }
+
+    /**
+     * Unary RPC without blocking for several symbols, with the given deadline.
+     *
+     * @param stockSymbols The stock ticker symbols (e.g., a watchlist)
+     * @param deadline     Longest to wait for the response
+     * @return Completes with a StockResponse per known symbol, in request order
+     */
+    public CompletableFuture<List<StockResponse>> getStockPricesAsync(List<String> stockSymbols, Duration deadline) {
+        return singleFlight(quoteListsInFlight, List.copyOf(stockSymbols), deadline, prices -> {
+            StockListRequest stockListRequest = StockListRequest.newBuilder()
+                    .addAllStockSymbols(stockSymbols)
+                    .build();
+            CompletableFuture<StockListResponse> response = new CompletableFuture<>();
+            response.whenComplete((list, error) -> {
+                if (error != null) {
+                    prices.completeExceptionally(error);
+                } else {
+                    prices.complete(list.getPricesList());
+                }
+            });
+            stockTradingServiceStub.withDeadlineAfter(deadline.toNanos(), TimeUnit.NANOSECONDS)
+                    .getStockPrices(stockListRequest, completing(response));
+        });
+    }
+
+    /**
+     * Reactive {@link #getStockPriceAsync(String)}; the call starts on subscription.
+     *
+     * @param stockSymbol The stock ticker symbol (e.g., "AAPL")
+     * @return Emits the StockResponse
+     */
+    public Mono<StockResponse> getStockPriceMono(String stockSymbol) {
+        return Mono.fromFuture(() -> getStockPriceAsync(stockSymbol));
+    }
+
+    /**
+     * Reactive {@link #getStockPricesAsync(List)}; the call starts on subscription.
+     *
+     * @param stockSymbols The stock ticker symbols (e.g., a watchlist)
+     * @return Emits a StockResponse per known symbol, in request order
+     */
+    public Mono<List<StockResponse>> getStockPricesMono(List<String> stockSymbols) {
+        return Mono.fromFuture(() -> getStockPricesAsync(stockSymbols));
+    }
+
+    /**
+     * Reactive server-streaming RPC: price updates for a stock. The call starts on
+     * subscription and is cancelled when the subscriber cancels. Updates are pulled
+     * from the server only as the subscriber requests them.
+     *
+     * @param stockSymbol The stock ticker symbol to subscribe to
+     * @return Emits price updates until the server completes the stream
+     */
+    public Flux<StockResponse> subscribeStockPriceFlux(String stockSymbol) {
+        StockRequest stockRequest = StockRequest.newBuilder()
+                .setStockSymbol(stockSymbol)
+                .build();
+        return responses(observer -> stockTradingServiceStub.subscribeStockPrice(stockRequest, observer));
+    }
+
+    /**
+     * Reactive bidirectional streaming RPC: price updates of several symbols over a
+     * single stream, started on subscription and cancelled with it.
+     *
+     * @param stockSymbols The stock ticker symbols to subscribe to
+     * @return Emits price updates of all the symbols
+     */
+    public Flux<StockResponse> streamStockPricesFlux(List<String> stockSymbols) {
+        return StockClientService.<SubscriptionRequest, StockResponse>responses(observer ->
+                new MultiSymbolSubscription(stockTradingServiceStub.streamStockPrices(observer)).subscribe(stockSymbols));
+    }
+
+    /**
+     * Client-streaming RPC without blocking: sends stock orders in a single stream and
+     * completes with the OrderSummary the server answers with.
+     *
+     * @param orders Orders to place, in sending order
+     * @return Completes with the OrderSummary, or with a StatusRuntimeException
+     */
+    public CompletableFuture<OrderSummary> bulkStockOrderAsync(List<StockOrder> orders) {
+        return bulkStockOrderAsync(orders, deadline);
+    }
+
+    /**
+     * Client-streaming RPC without blocking, with the given deadline. The stream has a
+     * single answer, so like a unary call it is bounded by a deadline.
+     *
+     * @param orders   Orders to place, in sending order
+     * @param deadline Longest to wait for the summary
+     * @return Completes with the OrderSummary, or with a StatusRuntimeException
+     */
+    public CompletableFuture<OrderSummary> bulkStockOrderAsync(List<StockOrder> orders, Duration deadline) {
+        CompletableFuture<OrderSummary> summary = new CompletableFuture<>();
+        StreamObserver<StockOrder> requestObserver = stockTradingServiceStub
+                .withDeadlineAfter(deadline.toNanos(), TimeUnit.NANOSECONDS)
+                .bulkStockOrder(completing(summary));
+        try {
+            orders.forEach(requestObserver::onNext);
+            requestObserver.onCompleted();
+        } catch (RuntimeException ex) {
+            requestObserver.onError(ex);
+            summary.completeExceptionally(ex);
+        }
+        return summary;
+    }
+
+    /**
+     * Reactive {@link #bulkStockOrderAsync(List)}; the orders are sent on subscription.
+     *
+     * @param orders Orders to place, in sending order
+     * @return Emits the OrderSummary
+     */
+    public Mono<OrderSummary> bulkStockOrderMono(List<StockOrder> orders) {
+        return Mono.fromFuture(() -> bulkStockOrderAsync(orders));
+    }
+
+    /**
+     * Reactive bidirectional streaming RPC: a live trading session that sends the
+     * given orders on subscription and half-closes the stream. The call is cancelled
+     * when the subscriber cancels, and statuses are pulled from the server only as
+     * the subscriber requests them.
+     *
+     * @param orders Orders to send, in sending order
+     * @return Emits every TradeStatus of the orders until the server completes the stream
+     */
+    public Flux<TradeStatus> liveTradingFlux(List<StockOrder> orders) {
+        return StockClientService.<StockOrder, TradeStatus>responses(observer -> {
+            StreamObserver<StockOrder> requestObserver = stockTradingServiceStub.liveTrading(observer);
+            orders.forEach(requestObserver::onNext);
+            requestObserver.onCompleted();
+        });
+    }
+
+    /**
+     * Returns the caller's view of the call in flight for {@code key}, starting it
+     * with {@code call} if there is none. The call is forgotten once it completes.
+     */
+    private static <K, V> CompletableFuture<V> singleFlight(Map<K, CompletableFuture<V>> inFlight, K key,
+                                                            Duration deadline, Consumer<CompletableFuture<V>> call) {
+        CompletableFuture<V> started = new CompletableFuture<>();
+        CompletableFuture<V> shared = inFlight.putIfAbsent(key, started);
+        if (shared == null) {
+            started.whenComplete((value, error) -> inFlight.remove(key, started));
+            try {
+                call.accept(started);
+            } catch (RuntimeException e) {
+                started.completeExceptionally(e);
+            }
+            return started.copy();
         }
 
-        // Signal server that no more orders will be sent
-        requestObserver.onCompleted();
+        // The shared call runs to its starter's deadline; this caller waits no longer than its own.
+        // orTimeout drops its timer as soon as the shared call completes.
+        return shared.copy()
+                .orTimeout(deadline.toNanos(), TimeUnit.NANOSECONDS)
+                .exceptionallyCompose(error -> CompletableFuture.failedFuture(error instanceof TimeoutException
+                        ? Status.DEADLINE_EXCEEDED
+                                .withDescription("Deadline of " + deadline + " exceeded waiting for a call in flight")
+                                .asRuntimeException()
+                        : error));
+    }
+
+    private static <T> StreamObserver<T> completing(CompletableFuture<T> future) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(T value) {
+                future.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                future.completeExceptionally(Status.INTERNAL.withDescription("No response").asRuntimeException());
+            }
+        };
+    }
+
+    /**
+     * Flux over the responses of the streaming call started by {@code call}. gRPC's
+     * automatic flow control is off, so messages are requested from the server as the
+     * subscriber requests them and an unread backlog stays in the server's send window.
+     */
+    private static <ReqT, RespT> Flux<RespT> responses(Consumer<ClientResponseObserver<ReqT, RespT>> call) {
+        return Flux.create(sink -> {
+            AtomicReference<ClientCallStreamObserver<ReqT>> requestStream = new AtomicReference<>();
+            call.accept(new ClientResponseObserver<ReqT, RespT>() {
+                @Override
+                public void beforeStart(ClientCallStreamObserver<ReqT> stream) {
+                    stream.disableAutoRequestWithInitial(0);
+                    requestStream.set(stream);
+                }
+
+                @Override
+                public void onNext(RespT response) {
+                    sink.next(response);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    sink.error(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                    sink.complete();
+                }
+            });
+            // The call has started; only now may messages be requested
+            ClientCallStreamObserver<ReqT> stream = requestStream.get();
+            sink.onRequest(n -> stream.request((int) Math.min(n, Integer.MAX_VALUE)));
+            sink.onCancel(() -> stream.cancel("Cancelled by subscriber", null));
+        });
     }
-}
\ No newline at end of file
+}
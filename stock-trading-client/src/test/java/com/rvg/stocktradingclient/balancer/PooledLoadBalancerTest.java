@@ -0,0 +1,237 @@
+package com.rvg.stocktradingclient.balancer;
+
+import com.rvg.grpc.StockRequest;
+import com.rvg.grpc.StockResponse;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.health.v1.HealthCheckResponse.ServingStatus;
+import io.grpc.protobuf.services.HealthStatusManager;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PooledLoadBalancerTest {
+
+    private TestServer serverA;
+    private TestServer serverB;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverA = new TestServer("A");
+        serverB = new TestServer("B");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        serverA.server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        serverB.server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void roundRobin_shouldSpreadCallsOverEveryConnectionToEveryServer() throws InterruptedException {
+        // Given - two servers, two connections to each
+        connect(new ChannelPoolProperties(2, ChannelPoolProperties.Policy.ROUND_ROBIN, false));
+        awaitConnections(2);
+
+        // When
+        for (int i = 0; i < 40; i++) {
+            call();
+        }
+
+        // Then
+        assertThat(serverA.callsByConnection.values()).extracting(AtomicInteger::get).containsOnly(10);
+        assertThat(serverB.callsByConnection.values()).extracting(AtomicInteger::get).containsOnly(10);
+    }
+
+    @Test
+    void leastRequests_shouldSendCallsAwayFromAConnectionWithAStreamInFlight() throws InterruptedException {
+        // Given - a subscription that stays open on one of the two servers
+        connect(new ChannelPoolProperties(1, ChannelPoolProperties.Policy.LEAST_REQUESTS, false));
+        awaitConnections(1);
+        StockTradingServiceGrpc.newStub(channel).subscribeStockPrice(request(), new NoOpObserver());
+        TestServer busy = awaitSubscription();
+        TestServer idle = busy == serverA ? serverB : serverA;
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            call();
+        }
+
+        // Then
+        assertThat(idle.calls()).isEqualTo(10);
+        assertThat(busy.calls()).isZero();
+    }
+
+    @Test
+    void healthCheck_shouldEjectAServerWhileItIsNotServing() throws InterruptedException {
+        // Given
+        connect(new ChannelPoolProperties(1, ChannelPoolProperties.Policy.ROUND_ROBIN, true));
+        awaitConnections(1);
+
+        // When - B reports NOT_SERVING over its health watch
+        serverB.health.setStatus(HealthStatusManager.SERVICE_NAME_ALL_SERVICES, ServingStatus.NOT_SERVING);
+
+        // Then - calls stop reaching B, then reach it again once it is back
+        assertThat(awaitEjected(serverB)).isTrue();
+        serverB.health.setStatus(HealthStatusManager.SERVICE_NAME_ALL_SERVICES, ServingStatus.SERVING);
+        assertThat(awaitReached(serverB)).isTrue();
+    }
+
+    private void connect(ChannelPoolProperties properties) {
+        channel = ManagedChannelBuilder.forTarget("static://127.0.0.1:" + serverA.port() + ",127.0.0.1:" + serverB.port())
+                .usePlaintext()
+                .defaultServiceConfig(PooledLoadBalancerProvider.serviceConfig(properties))
+                .build();
+    }
+
+    private StockResponse call() {
+        return StockTradingServiceGrpc.newBlockingStub(channel)
+                .withDeadlineAfter(5, TimeUnit.SECONDS)
+                .getStockPrice(request());
+    }
+
+    private static StockRequest request() {
+        return StockRequest.newBuilder().setStockSymbol("AAPL").build();
+    }
+
+    /**
+     * Calls until every expected connection to both servers has served one, so all of
+     * them are in the picker, then forgets those calls.
+     */
+    private void awaitConnections(int perServer) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((serverA.callsByConnection.size() < perServer || serverB.callsByConnection.size() < perServer)
+                && System.nanoTime() < deadline) {
+            call();
+            Thread.sleep(5);
+        }
+        assertThat(serverA.callsByConnection).hasSize(perServer);
+        assertThat(serverB.callsByConnection).hasSize(perServer);
+        serverA.callsByConnection.values().forEach(calls -> calls.set(0));
+        serverB.callsByConnection.values().forEach(calls -> calls.set(0));
+    }
+
+    private TestServer awaitSubscription() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (serverA.subscriptions.get() + serverB.subscriptions.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return serverA.subscriptions.get() > 0 ? serverA : serverB;
+    }
+
+    /**
+     * Whether ten calls in a row miss {@code server} within five seconds.
+     */
+    private boolean awaitEjected(TestServer server) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        int missed = 0;
+        while (missed < 10 && System.nanoTime() < deadline) {
+            int before = server.calls();
+            call();
+            missed = server.calls() == before ? missed + 1 : 0;
+            Thread.sleep(5);
+        }
+        return missed == 10;
+    }
+
+    /**
+     * Whether a call reaches {@code server} within five seconds.
+     */
+    private boolean awaitReached(TestServer server) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        int before = server.calls();
+        while (server.calls() == before && System.nanoTime() < deadline) {
+            call();
+            Thread.sleep(5);
+        }
+        return server.calls() > before;
+    }
+
+    /**
+     * Server answering GetStockPrice and holding SubscribeStockPrice open, which
+     * counts calls per client connection.
+     */
+    private static final class TestServer {
+
+        final HealthStatusManager health = new HealthStatusManager();
+        final Map<SocketAddress, AtomicInteger> callsByConnection = new ConcurrentHashMap<>();
+        final AtomicInteger subscriptions = new AtomicInteger();
+        final Server server;
+
+        TestServer(String name) throws IOException {
+            StockTradingServiceGrpc.StockTradingServiceImplBase service = new StockTradingServiceGrpc.StockTradingServiceImplBase() {
+                @Override
+                public void getStockPrice(StockRequest request, StreamObserver<StockResponse> responseObserver) {
+                    responseObserver.onNext(StockResponse.newBuilder().setStockSymbol(name).build());
+                    responseObserver.onCompleted();
+                }
+
+                @Override
+                public void subscribeStockPrice(StockRequest request, StreamObserver<StockResponse> responseObserver) {
+                    subscriptions.incrementAndGet();
+                }
+            };
+            ServerInterceptor countCalls = new ServerInterceptor() {
+                @Override
+                public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                             ServerCallHandler<ReqT, RespT> next) {
+                    if (call.getMethodDescriptor().equals(StockTradingServiceGrpc.getGetStockPriceMethod())) {
+                        SocketAddress client = call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+                        callsByConnection.computeIfAbsent(client, address -> new AtomicInteger()).incrementAndGet();
+                    }
+                    return next.startCall(call, headers);
+                }
+            };
+            server = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                    .addService(ServerInterceptors.intercept(service, countCalls))
+                    .addService(health.getHealthService())
+                    .build()
+                    .start();
+        }
+
+        int port() {
+            return ((InetSocketAddress) server.getListenSockets().get(0)).getPort();
+        }
+
+        int calls() {
+            return callsByConnection.values().stream().mapToInt(AtomicInteger::get).sum();
+        }
+    }
+
+    private static final class NoOpObserver implements StreamObserver<StockResponse> {
+
+        @Override
+        public void onNext(StockResponse value) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
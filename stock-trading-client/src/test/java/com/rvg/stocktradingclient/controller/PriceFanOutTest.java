@@ -0,0 +1,199 @@
+package com.rvg.stocktradingclient.controller;
+
+import com.rvg.grpc.StockRequest;
+import com.rvg.grpc.StockResponse;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceFanOutTest {
+
+    @Mock
+    private StockTradingServiceGrpc.StockTradingServiceStub stockServiceStub;
+
+    @Mock
+    private ClientCallStreamObserver<StockRequest> requestStream;
+
+    private PriceFanOut priceFanOut;
+
+    @BeforeEach
+    void setUp() {
+        // Frames are written on the calling thread, so each step's writes are done when it returns
+        priceFanOut = withStub(new PriceFanOut(Runnable::run));
+    }
+
+    @Test
+    void attach_shouldShareOneUpstreamCallAmongAllViewersOfASymbol() {
+        // When
+        priceFanOut.attach("AAPL", new SseEmitter(), SseFormat.JSON);
+        priceFanOut.attach("AAPL", new SseEmitter(), SseFormat.JSON);
+        priceFanOut.attach("AAPL", new SseEmitter(), SseFormat.JSON);
+        priceFanOut.attach("TSLA", new SseEmitter(), SseFormat.JSON);
+
+        // Then
+        verify(stockServiceStub, times(2)).subscribeStockPrice(any(), any(StreamObserver.class));
+        assertThat(priceFanOut.viewerCount("AAPL")).isEqualTo(3);
+        assertThat(priceFanOut.feedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void onNext_shouldCancelUpstreamCallOnlyWhenTheLastViewerIsGone() {
+        // Given
+        SseEmitter leaving = new SseEmitter();
+        SseEmitter staying = new SseEmitter();
+        priceFanOut.attach("AAPL", leaving, SseFormat.JSON);
+        priceFanOut.attach("AAPL", staying, SseFormat.JSON);
+        ClientResponseObserver<StockRequest, StockResponse> feed = captureFeed();
+        feed.beforeStart(requestStream);
+
+        // When - the first browser is gone, so the next write to it fails
+        leaving.complete();
+        feed.onNext(quote(150.5));
+
+        // Then
+        assertThat(priceFanOut.viewerCount("AAPL")).isEqualTo(1);
+        verify(requestStream, never()).cancel(any(), any());
+
+        // When - the last browser is gone too
+        staying.complete();
+        feed.onNext(quote(151.0));
+
+        // Then
+        assertThat(priceFanOut.feedCount()).isZero();
+        verify(requestStream, times(1)).cancel(any(), any());
+    }
+
+    @Test
+    void onCompleted_shouldEndTheFeedSoTheNextViewerOpensANewCall() {
+        // Given
+        priceFanOut.attach("AAPL", new SseEmitter(), SseFormat.JSON);
+        ClientResponseObserver<StockRequest, StockResponse> feed = captureFeed();
+        feed.beforeStart(requestStream);
+
+        // When
+        feed.onNext(quote(150.5));
+        feed.onCompleted();
+        priceFanOut.attach("AAPL", new SseEmitter(), SseFormat.JSON);
+
+        // Then
+        verify(stockServiceStub, times(2)).subscribeStockPrice(any(), any(StreamObserver.class));
+        verify(requestStream, never()).cancel(any(), any());
+        assertThat(priceFanOut.viewerCount("AAPL")).isEqualTo(1);
+    }
+
+    @Test
+    void onNext_shouldNotHoldUpOtherViewersBehindASlowBrowser() throws InterruptedException {
+        // Given - one browser whose writes block until released
+        PriceFanOut asyncFanOut = withStub(new PriceFanOut(Executors.newVirtualThreadPerTaskExecutor()));
+        CountDownLatch released = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(released);
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        asyncFanOut.attach("AAPL", slow, SseFormat.JSON);
+        asyncFanOut.attach("AAPL", fast, SseFormat.JSON);
+        ClientResponseObserver<StockRequest, StockResponse> feed = captureFeed();
+        feed.beforeStart(requestStream);
+
+        // When - the slow browser is stuck writing the first price, and the fast one
+        // has taken each price before the next one comes
+        feed.onNext(quote(150.5));
+        assertThat(slow.awaitSending()).isTrue();
+        assertThat(fast.awaitFrame()).isTrue();
+        for (double price : new double[]{151.0, 151.5}) {
+            feed.onNext(quote(price));
+            assertThat(fast.awaitFrame()).isTrue();
+        }
+
+        // Then - it got every price while the slow one is stuck on the first
+        assertThat(fast.frames).hasSize(3);
+        assertThat(slow.frames).isEmpty();
+
+        // When
+        released.countDown();
+
+        // Then - the slow browser skips to the newest price
+        assertThat(slow.awaitFrame()).isTrue();
+        assertThat(slow.awaitFrame()).isTrue();
+        assertThat(slow.frames).hasSize(2);
+        assertThat(slow.frames.get(0)).contains("150.5");
+        assertThat(slow.frames.get(1)).contains("151.5");
+    }
+
+    private PriceFanOut withStub(PriceFanOut fanOut) {
+        try {
+            var field = PriceFanOut.class.getDeclaredField("stockServiceStub");
+            field.setAccessible(true);
+            field.set(fanOut, stockServiceStub);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to inject stockServiceStub", e);
+        }
+        return fanOut;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ClientResponseObserver<StockRequest, StockResponse> captureFeed() {
+        ArgumentCaptor<StreamObserver> captor = ArgumentCaptor.forClass(StreamObserver.class);
+        verify(stockServiceStub).subscribeStockPrice(any(), captor.capture());
+        return (ClientResponseObserver<StockRequest, StockResponse>) captor.getValue();
+    }
+
+    private static StockResponse quote(double price) {
+        return StockResponse.newBuilder().setStockSymbol("AAPL").setPrice(price).build();
+    }
+
+    /**
+     * Emitter that records the frames written to it, each write waiting for a latch.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+        private final Semaphore sending = new Semaphore(0);
+        private final Semaphore received = new Semaphore(0);
+        private final CountDownLatch writable;
+
+        RecordingEmitter(CountDownLatch writable) {
+            this.writable = writable;
+        }
+
+        boolean awaitSending() throws InterruptedException {
+            return sending.tryAcquire(5, TimeUnit.SECONDS);
+        }
+
+        boolean awaitFrame() throws InterruptedException {
+            return received.tryAcquire(5, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            sending.release();
+            try {
+                writable.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            items.forEach(item -> frames.add(item.getData().toString()));
+            received.release();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.rvg.stocktradingclient.controller;
+
+import com.google.protobuf.util.JsonFormat;
+import com.rvg.grpc.StockResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+import java.util.Base64;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseFrameEncoderTest {
+
+    private final SseFrameEncoder encoder = new SseFrameEncoder();
+
+    @Test
+    void encode_shouldWriteTheSameJsonAsTheProtobufPrinter() throws Exception {
+        // Given
+        StockResponse response = StockResponse.newBuilder()
+                .setStockSymbol("BRK\"B\\\n")
+                .setPrice(1.0E7)
+                .setTimestamp("2026-01-01T10:15:30")
+                .build();
+
+        // When
+        String frame = frameText(encoder.encode(response, SseFormat.JSON));
+
+        // Then
+        assertThat(frame).isEqualTo("data:"
+                + JsonFormat.printer().omittingInsignificantWhitespace().print(response) + "\n\n");
+    }
+
+    @Test
+    void encode_shouldWriteBase64ProtobufThatParsesBack() throws Exception {
+        // Given - symbols of different lengths cover every base64 padding case
+        for (String stockSymbol : new String[]{"A", "AB", "ABC", "GOOGL"}) {
+            StockResponse response = StockResponse.newBuilder()
+                    .setStockSymbol(stockSymbol)
+                    .setPrice(150.25)
+                    .setTimestamp("2026-01-01T10:15:30")
+                    .build();
+
+            // When
+            String frame = frameText(encoder.encode(response, SseFormat.PROTOBUF));
+
+            // Then
+            String payload = frame.substring("data:".length(), frame.length() - 2);
+            assertThat(payload).isEqualTo(Base64.getEncoder().encodeToString(response.toByteArray()));
+            assertThat(StockResponse.parseFrom(Base64.getDecoder().decode(payload))).isEqualTo(response);
+        }
+    }
+
+    @Test
+    void of_shouldFallBackToJsonForUnknownFormats() {
+        assertThat(SseFormat.of("PROTOBUF")).isEqualTo(SseFormat.PROTOBUF);
+        assertThat(SseFormat.of("xml")).isEqualTo(SseFormat.JSON);
+    }
+
+    private static String frameText(Set<DataWithMediaType> frame) {
+        assertThat(frame).hasSize(1);
+        return (String) frame.iterator().next().getData();
+    }
+}
@@ -3,6 +3,7 @@ package com.rvg.stocktradingclient.controller;
 import com.rvg.grpc.StockRequest;
 import com.rvg.grpc.StockResponse;
 import com.rvg.grpc.StockTradingServiceGrpc;
+import com.rvg.grpc.SubscriptionRequest;
 import io.grpc.stub.StreamObserver;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,9 +11,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.concurrent.ExecutorService;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -24,34 +26,26 @@ class StockStreamingControllerTest {
     @Mock
     private StockTradingServiceGrpc.StockTradingServiceStub stockServiceStub;
 
-    @Mock
-    private ExecutorService executor;
-
     private StockStreamingController controller;
 
     @BeforeEach
     void setUp() {
-        controller = new StockStreamingController();
+        PriceFanOut priceFanOut = new PriceFanOut();
+        injectField(priceFanOut, "stockServiceStub", stockServiceStub);
+        controller = new StockStreamingController(priceFanOut);
         injectField(controller, "stockServiceStub", stockServiceStub);
-        injectField(controller, "executor", executor);
-
-        // Run Runnables synchronously so gRPC calls happen immediately
-        doAnswer(invocation -> {
-            ((Runnable) invocation.getArgument(0)).run();
-            return null;
-        }).when(executor).execute(any(Runnable.class));
     }
 
     @Test
     void subscribeStockPrice_shouldReturnEmitter() {
-        SseEmitter result = controller.subscribeStockPrice("AAPL");
+        SseEmitter result = controller.subscribeStockPrice("AAPL", "json");
         assertThat(result).isNotNull();
     }
 
     @Test
     void subscribeStockPrice_shouldCallGrpcWithCorrectSymbol() {
         // When
-        controller.subscribeStockPrice("AAPL");
+        controller.subscribeStockPrice("AAPL", "json");
 
         // Then
         ArgumentCaptor<StockRequest> captor = ArgumentCaptor.forClass(StockRequest.class);
@@ -62,7 +56,7 @@ class StockStreamingControllerTest {
     @Test
     void subscribeStockPrice_onCompleted_shouldCompleteEmitter() {
         // When
-        controller.subscribeStockPrice("AAPL");
+        controller.subscribeStockPrice("AAPL", "json");
 
         // Capture and fire onCompleted
         ArgumentCaptor<StreamObserver> captor = ArgumentCaptor.forClass(StreamObserver.class);
@@ -75,7 +69,7 @@ class StockStreamingControllerTest {
     @Test
     void subscribeStockPrice_onError_shouldCompleteEmitterWithError() {
         // When
-        controller.subscribeStockPrice("AAPL");
+        controller.subscribeStockPrice("AAPL", "json");
 
         // Capture and fire onError
         ArgumentCaptor<StreamObserver> captor = ArgumentCaptor.forClass(StreamObserver.class);
@@ -88,7 +82,7 @@ class StockStreamingControllerTest {
     @Test
     void subscribeStockPrice_shouldCallGrpcWithGoogleSymbol() {
         // When
-        controller.subscribeStockPrice("GOOGL");
+        controller.subscribeStockPrice("GOOGL", "json");
 
         // Then
         ArgumentCaptor<StockRequest> captor = ArgumentCaptor.forClass(StockRequest.class);
@@ -99,7 +93,7 @@ class StockStreamingControllerTest {
     @Test
     void subscribeStockPrice_shouldCallGrpcWithTslaSymbol() {
         // When
-        controller.subscribeStockPrice("TSLA");
+        controller.subscribeStockPrice("TSLA", "json");
 
         // Then
         ArgumentCaptor<StockRequest> captor = ArgumentCaptor.forClass(StockRequest.class);
@@ -110,7 +104,7 @@ class StockStreamingControllerTest {
     @Test
     void subscribeStockPrice_onCompleted_shouldNotThrow() {
         // When
-        controller.subscribeStockPrice("AAPL");
+        controller.subscribeStockPrice("AAPL", "json");
 
         // Simulate stream completion
         ArgumentCaptor<StreamObserver> captor = ArgumentCaptor.forClass(StreamObserver.class);
@@ -123,7 +117,7 @@ class StockStreamingControllerTest {
     @Test
     void subscribeStockPrice_onError_shouldNotThrow() {
         // When
-        controller.subscribeStockPrice("AAPL");
+        controller.subscribeStockPrice("AAPL", "json");
 
         // Simulate stream error
         ArgumentCaptor<StreamObserver> captor = ArgumentCaptor.forClass(StreamObserver.class);
@@ -136,7 +130,7 @@ class StockStreamingControllerTest {
     @Test
     void subscribeStockPrice_onNext_shouldNotThrow() {
         // When
-        controller.subscribeStockPrice("AAPL");
+        controller.subscribeStockPrice("AAPL", "json");
 
         // Simulate incoming message
         ArgumentCaptor<StreamObserver> captor = ArgumentCaptor.forClass(StreamObserver.class);
@@ -149,6 +143,60 @@ class StockStreamingControllerTest {
                 .build());
     }
 
+    @Test
+    void streamStockPrices_shouldSubscribeInitialSymbolsOnOneStream() {
+        // Given
+        StreamObserver<SubscriptionRequest> requestObserver = mock(StreamObserver.class);
+        when(stockServiceStub.streamStockPrices(any())).thenReturn(requestObserver);
+
+        // When
+        SseEmitter result = controller.streamStockPrices(List.of("AAPL", "TSLA"), "json");
+
+        // Then
+        assertThat(result).isNotNull();
+        verify(stockServiceStub, times(1)).streamStockPrices(any());
+        ArgumentCaptor<SubscriptionRequest> captor = ArgumentCaptor.forClass(SubscriptionRequest.class);
+        verify(requestObserver).onNext(captor.capture());
+        assertThat(captor.getValue().getAction()).isEqualTo(SubscriptionRequest.Action.SUBSCRIBE);
+        assertThat(captor.getValue().getStockSymbolsList()).containsExactly("AAPL", "TSLA");
+    }
+
+    @Test
+    void addAndRemoveSymbol_shouldSendControlMessagesOnExistingStream() {
+        // Given
+        StreamObserver<SubscriptionRequest> requestObserver = mock(StreamObserver.class);
+        when(stockServiceStub.streamStockPrices(any())).thenReturn(requestObserver);
+        controller.streamStockPrices(List.of(), "json");
+        String streamId = openStreamIds().get(0);
+
+        // When
+        controller.addSymbol(streamId, "GOOGL");
+        controller.removeSymbol(streamId, "GOOGL");
+
+        // Then
+        ArgumentCaptor<SubscriptionRequest> captor = ArgumentCaptor.forClass(SubscriptionRequest.class);
+        verify(requestObserver, times(2)).onNext(captor.capture());
+        assertThat(captor.getAllValues())
+                .extracting(SubscriptionRequest::getAction)
+                .containsExactly(SubscriptionRequest.Action.SUBSCRIBE, SubscriptionRequest.Action.UNSUBSCRIBE);
+    }
+
+    @Test
+    void addSymbol_shouldReturnNotFoundForUnknownStream() {
+        assertThat(controller.addSymbol("missing", "AAPL").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> openStreamIds() {
+        try {
+            var field = StockStreamingController.class.getDeclaredField("streams");
+            field.setAccessible(true);
+            return List.copyOf(((java.util.Map<String, ?>) field.get(controller)).keySet());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read streams", e);
+        }
+    }
+
     private void injectField(Object target, String fieldName, Object value) {
         try {
             var field = target.getClass().getDeclaredField(fieldName);
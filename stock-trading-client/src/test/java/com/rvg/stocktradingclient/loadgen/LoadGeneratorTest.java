@@ -0,0 +1,167 @@
+package com.rvg.stocktradingclient.loadgen;
+
+import com.rvg.grpc.StockListRequest;
+import com.rvg.grpc.StockListResponse;
+import com.rvg.grpc.StockOrder;
+import com.rvg.grpc.StockRequest;
+import com.rvg.grpc.StockResponse;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import com.rvg.grpc.TradeStatus;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadGeneratorTest {
+
+    private final AtomicBoolean stallNextOrder = new AtomicBoolean();
+    private final List<ManagedChannel> channels = new ArrayList<>();
+    private Server server;
+    private String serverName;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StockTradingServiceGrpc.StockTradingServiceImplBase service = new StockTradingServiceGrpc.StockTradingServiceImplBase() {
+            @Override
+            public void getStockPrices(StockListRequest request, StreamObserver<StockListResponse> responseObserver) {
+                StockListResponse.Builder response = StockListResponse.newBuilder();
+                for (String symbol : request.getStockSymbolsList()) {
+                    response.addPrices(StockResponse.newBuilder().setStockSymbol(symbol).setPrice(150.0));
+                }
+                responseObserver.onNext(response.build());
+                responseObserver.onCompleted();
+            }
+
+            @Override
+            public void getStockPrice(StockRequest request, StreamObserver<StockResponse> responseObserver) {
+                responseObserver.onNext(StockResponse.newBuilder().setStockSymbol(request.getStockSymbol()).build());
+                responseObserver.onCompleted();
+            }
+
+            @Override
+            public StreamObserver<StockOrder> liveTrading(StreamObserver<TradeStatus> responseObserver) {
+                return new StreamObserver<>() {
+                    @Override
+                    public void onNext(StockOrder order) {
+                        if (stallNextOrder.compareAndSet(true, false)) {
+                            sleep(300);
+                        }
+                        // Every new order rests; a cancel finds it
+                        boolean cancel = order.getOrderType().equals("CANCEL");
+                        responseObserver.onNext(TradeStatus.newBuilder()
+                                .setOrderId(order.getOrderId())
+                                .setStatus(cancel ? "CANCELLED" : "PENDING")
+                                .setRemainingQuantity(cancel ? 0 : order.getQuantity())
+                                .build());
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        responseObserver.onCompleted();
+                    }
+                };
+            }
+        };
+
+        serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName).addService(service).build().start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (ManagedChannel channel : channels) {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void run_shouldStartTheConfiguredRateAndAnswerEveryOperationOfTheMix() throws InterruptedException {
+        // Given - 2,000 ops/s for half a second after a short warmup
+        LoadProperties properties = properties(2, 4, 2_000, Duration.ofMillis(100),
+                new LoadProperties.Mix(40, 30, 20, 10));
+
+        // When
+        LoadReport report = new LoadGenerator(properties).run(channels(2));
+
+        // Then - operations due during the warmup are not counted
+        assertThat(report.operations().values().stream().mapToLong(LoadReport.Result::sent).sum())
+                .isEqualTo(1_000);
+        assertThat(report.operations()).containsOnlyKeys(Operation.values());
+        assertThat(report.operations().values()).allSatisfy(result -> {
+            assertThat(result.sent()).isPositive();
+            assertThat(result.unanswered()).isZero();
+            assertThat(result.failed()).isZero();
+        });
+        assertThat(report.throughput()).isEqualTo(2_000.0);
+        assertThat(report.format()).contains("cancel", "p99.9");
+    }
+
+    @Test
+    void run_shouldChargeAStallToEveryOrderDueDuringIt() throws InterruptedException {
+        // Given - one stream at 1,000 orders/s whose server stalls 300 ms on the first order
+        LoadProperties properties = properties(1, 1, 1_000, Duration.ZERO, new LoadProperties.Mix(1, 0, 0, 0));
+        stallNextOrder.set(true);
+
+        // When
+        LoadReport report = new LoadGenerator(properties).run(channels(1));
+
+        // Then - the generator kept its rate, and every order queued behind the stall
+        // reports its wait; a closed loop would have recorded a single slow order
+        LoadReport.Result buys = report.operations().get(Operation.BUY);
+        Histogram latency = buys.latency();
+        assertThat(report.operations()).containsOnlyKeys(Operation.BUY);
+        assertThat(buys.sent()).isEqualTo(500);
+        assertThat(buys.answered()).isEqualTo(500);
+        assertThat(latency.getCountBetweenValues(TimeUnit.MILLISECONDS.toNanos(100), latency.getMaxValue()))
+                .isGreaterThanOrEqualTo(150);
+    }
+
+    @Test
+    void constructor_shouldRejectAMixWithoutOperations() {
+        // Given
+        LoadProperties properties = properties(1, 1, 1_000, Duration.ZERO, new LoadProperties.Mix(0, 0, 0, 0));
+
+        // When / Then
+        assertThatThrownBy(() -> new LoadGenerator(properties)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private LoadProperties properties(int channels, int streams, int rate, Duration warmup, LoadProperties.Mix mix) {
+        return new LoadProperties(true, serverName, channels, streams, rate,
+                warmup, Duration.ofMillis(500), List.of("AAPL", "GOOGL"), mix);
+    }
+
+    private List<ManagedChannel> channels(int count) {
+        for (int i = 0; i < count; i++) {
+            channels.add(InProcessChannelBuilder.forName(serverName).build());
+        }
+        return channels;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
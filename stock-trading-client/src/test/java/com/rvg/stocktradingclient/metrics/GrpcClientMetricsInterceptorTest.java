@@ -0,0 +1,154 @@
+package com.rvg.stocktradingclient.metrics;
+
+import com.rvg.grpc.OrderSummary;
+import com.rvg.grpc.StockOrder;
+import com.rvg.grpc.StockRequest;
+import com.rvg.grpc.StockResponse;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import io.grpc.Channel;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GrpcClientMetricsInterceptorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Server server;
+    private ManagedChannel channel;
+    private Channel recordedChannel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StockTradingServiceGrpc.StockTradingServiceImplBase service = new StockTradingServiceGrpc.StockTradingServiceImplBase() {
+            @Override
+            public void getStockPrice(StockRequest request, StreamObserver<StockResponse> responseObserver) {
+                if (request.getStockSymbol().isEmpty()) {
+                    responseObserver.onError(Status.INVALID_ARGUMENT.asRuntimeException());
+                    return;
+                }
+                responseObserver.onNext(StockResponse.newBuilder().setStockSymbol(request.getStockSymbol()).build());
+                responseObserver.onCompleted();
+            }
+
+            @Override
+            public StreamObserver<StockOrder> bulkStockOrder(StreamObserver<OrderSummary> responseObserver) {
+                return new StreamObserver<>() {
+                    private int orders;
+
+                    @Override
+                    public void onNext(StockOrder order) {
+                        orders++;
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        responseObserver.onNext(OrderSummary.newBuilder().setTotalOrders(orders).build());
+                        responseObserver.onCompleted();
+                    }
+                };
+            }
+        };
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).addService(service).build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        recordedChannel = ClientInterceptors.intercept(channel, new GrpcClientMetricsInterceptor(meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void interceptCall_shouldRecordLatencyPerStatusCode() {
+        // Given
+        var stub = StockTradingServiceGrpc.newBlockingStub(recordedChannel);
+
+        // When
+        stub.getStockPrice(StockRequest.newBuilder().setStockSymbol("AAPL").build());
+        assertThatThrownBy(() -> stub.getStockPrice(StockRequest.getDefaultInstance()))
+                .isInstanceOf(StatusRuntimeException.class);
+
+        // Then
+        assertThat(meterRegistry.get("grpc.client.calls")
+                .tag("method", "GetStockPrice").tag("status", "OK").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("grpc.client.calls")
+                .tag("method", "GetStockPrice").tag("status", "INVALID_ARGUMENT").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("grpc.client.calls.active")
+                .tag("method", "GetStockPrice").gauge().value()).isZero();
+    }
+
+    @Test
+    void interceptCall_shouldCountAndSizeTheMessagesOfAStream() throws Exception {
+        // Given
+        var stub = StockTradingServiceGrpc.newStub(recordedChannel);
+        CompletableFuture<OrderSummary> summary = new CompletableFuture<>();
+        StockOrder order = StockOrder.newBuilder().setStockSymbol("AAPL").setQuantity(10).build();
+
+        // When
+        StreamObserver<StockOrder> orders = stub.bulkStockOrder(new StreamObserver<>() {
+            @Override
+            public void onNext(OrderSummary orderSummary) {
+                summary.complete(orderSummary);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                summary.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            orders.onNext(order);
+        }
+        orders.onCompleted();
+        summary.get(5, TimeUnit.SECONDS);
+
+        // Then - the call is recorded when it closes, right after the summary arrives
+        DistributionSummary sent = awaitSentMessages();
+        assertThat(sent.count()).isEqualTo(1);
+        assertThat(sent.totalAmount()).isEqualTo(3);
+        assertThat(meterRegistry.get("grpc.client.message.size")
+                .tag("method", "BulkStockOrder").tag("direction", "sent").summary().totalAmount())
+                .isEqualTo(3 * order.getSerializedSize());
+    }
+
+    private DistributionSummary awaitSentMessages() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            DistributionSummary messages = meterRegistry.get("grpc.client.call.messages")
+                    .tag("method", "BulkStockOrder").tag("direction", "sent").summary();
+            if (messages.count() > 0 || System.nanoTime() > deadline) {
+                return messages;
+            }
+            Thread.sleep(10);
+        }
+    }
+}
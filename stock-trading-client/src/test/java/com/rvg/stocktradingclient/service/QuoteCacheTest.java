@@ -0,0 +1,252 @@
+package com.rvg.stocktradingclient.service;
+
+import com.rvg.grpc.StockResponse;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import com.rvg.grpc.SubscriptionRequest;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuoteCacheTest {
+
+    /** Open server sides of the cache's price streams, latest last. */
+    private final List<StreamObserver<StockResponse>> streams = new CopyOnWriteArrayList<>();
+    /** Every subscription request received, in order. */
+    private final List<SubscriptionRequest> requests = new CopyOnWriteArrayList<>();
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Pushes the stored price, 100.0, of every symbol on subscribe
+        StockTradingServiceGrpc.StockTradingServiceImplBase service = new StockTradingServiceGrpc.StockTradingServiceImplBase() {
+            @Override
+            public StreamObserver<SubscriptionRequest> streamStockPrices(StreamObserver<StockResponse> responseObserver) {
+                streams.add(responseObserver);
+                return new StreamObserver<>() {
+                    @Override
+                    public void onNext(SubscriptionRequest request) {
+                        requests.add(request);
+                        if (request.getAction() != SubscriptionRequest.Action.SUBSCRIBE) {
+                            return;
+                        }
+                        request.getStockSymbolsList().forEach(symbol -> responseObserver.onNext(price(symbol, 100.0)));
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        responseObserver.onCompleted();
+                    }
+                };
+            }
+        };
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).addService(service).build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void get_shouldMissFirstThenServeThePushedPrice() throws InterruptedException {
+        // Given
+        QuoteCache cache = cache(Duration.ofSeconds(30), 10);
+
+        // When
+        StockResponse first = cache.get("AAPL");
+
+        // Then
+        assertThat(first).isNull();
+        assertThat(await(() -> cache.get("AAPL"))).isEqualTo(price("AAPL", 100.0));
+        assertThat(streams).hasSize(1);
+    }
+
+    @Test
+    void get_shouldServeEveryChangePushedOverTheStream() throws InterruptedException {
+        // Given
+        QuoteCache cache = cache(Duration.ofSeconds(30), 10);
+        cache.get("AAPL");
+        await(() -> cache.get("AAPL"));
+
+        // When
+        streams.get(0).onNext(price("AAPL", 101.0));
+
+        // Then
+        assertThat(await(() -> {
+            StockResponse cached = cache.get("AAPL");
+            return cached != null && cached.getPrice() == 101.0 ? cached : null;
+        })).isNotNull();
+    }
+
+    @Test
+    void get_shouldMissOnceThePriceIsOlderThanMaxAge() throws InterruptedException {
+        // Given
+        QuoteCache cache = cache(Duration.ofMillis(50), 10);
+        cache.get("AAPL");
+        await(() -> cache.get("AAPL"));
+
+        // When
+        Thread.sleep(100);
+
+        // Then - a miss, after which a fetched price is served again
+        assertThat(cache.get("AAPL")).isNull();
+        cache.put(price("AAPL", 102.0), System.nanoTime());
+        assertThat(cache.get("AAPL")).isEqualTo(price("AAPL", 102.0));
+    }
+
+    @Test
+    void endOfStream_shouldDropEveryEntryAndReopenOnTheNextMiss() throws InterruptedException {
+        // Given
+        QuoteCache cache = cache(Duration.ofSeconds(30), 10);
+        cache.get("AAPL");
+        await(() -> cache.get("AAPL"));
+
+        // When
+        streams.get(0).onCompleted();
+
+        // Then
+        assertThat(await(() -> cache.watchedCount() == 0 ? Boolean.TRUE : null)).isTrue();
+        assertThat(cache.get("AAPL")).isNull();
+        assertThat(await(() -> cache.get("AAPL"))).isNotNull();
+        assertThat(streams).hasSize(2);
+    }
+
+    @Test
+    void put_shouldNotReplaceAPricePushedAfterTheFetchWasSent() throws InterruptedException {
+        // Given - a fetch sent before the stream's price arrived
+        QuoteCache cache = cache(Duration.ofSeconds(30), 10);
+        long requestedAt = System.nanoTime();
+        cache.get("AAPL");
+        await(() -> cache.get("AAPL"));
+
+        // When
+        cache.put(price("AAPL", 99.0), requestedAt);
+
+        // Then
+        assertThat(cache.get("AAPL").getPrice()).isEqualTo(100.0);
+    }
+
+    @Test
+    void get_shouldWatchNoMoreThanMaxSymbols() {
+        // Given
+        QuoteCache cache = cache(Duration.ofSeconds(30), 2);
+
+        // When
+        cache.get("AAPL");
+        cache.get("GOOGL");
+        cache.get("TSLA");
+
+        // Then
+        assertThat(cache.watchedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void get_shouldUnsubscribeSymbolsNotReadWithinTheIdleTimeout() throws InterruptedException {
+        // Given
+        QuoteCache cache = cache(Duration.ofSeconds(30), 10, Duration.ofMillis(50));
+        cache.get("AAPL");
+        await(() -> cache.get("AAPL"));
+        cache.get("GOOGL");
+
+        // When - only GOOGL is read past the idle timeout
+        Thread.sleep(100);
+        cache.get("GOOGL");
+
+        // Then
+        assertThat(cache.watchedCount()).isEqualTo(1);
+        assertThat(await(() -> requests.stream()
+                .filter(request -> request.getAction() == SubscriptionRequest.Action.UNSUBSCRIBE)
+                .findFirst()
+                .orElse(null))
+                .getStockSymbolsList()).containsExactly("AAPL");
+        assertThat(cache.get("AAPL")).isNull();
+        assertThat(streams).hasSize(1);
+    }
+
+    @Test
+    void get_shouldCloseTheStreamOnceEverySymbolIsIdle() throws InterruptedException {
+        // Given
+        QuoteCache cache = cache(Duration.ofSeconds(30), 10, Duration.ofMillis(50));
+        cache.get("AAPL");
+        await(() -> cache.get("AAPL"));
+
+        // When
+        Thread.sleep(100);
+        cache.get("GOOGL");
+
+        // Then - the idle stream is closed and GOOGL is watched on a new one
+        assertThat(await(() -> streams.size() == 2 ? Boolean.TRUE : null)).isTrue();
+        assertThat(cache.watchedCount()).isEqualTo(1);
+        assertThat(await(() -> cache.get("GOOGL"))).isEqualTo(price("GOOGL", 100.0));
+    }
+
+    @Test
+    void disabledCache_shouldAlwaysMissAndOpenNoStream() {
+        // Given
+        QuoteCache cache = new QuoteCache(new QuoteCacheProperties(false, Duration.ofSeconds(30), 10, Duration.ofMinutes(5)));
+
+        // When
+        StockResponse result = cache.get("AAPL");
+
+        // Then
+        assertThat(result).isNull();
+        assertThat(cache.watchedCount()).isZero();
+        assertThat(streams).isEmpty();
+    }
+
+    private QuoteCache cache(Duration maxAge, int maxSymbols) {
+        return cache(maxAge, maxSymbols, Duration.ofMinutes(5));
+    }
+
+    private QuoteCache cache(Duration maxAge, int maxSymbols, Duration idleTimeout) {
+        QuoteCache cache = new QuoteCache(new QuoteCacheProperties(true, maxAge, maxSymbols, idleTimeout));
+        try {
+            var field = QuoteCache.class.getDeclaredField("stockServiceStub");
+            field.setAccessible(true);
+            field.set(cache, StockTradingServiceGrpc.newStub(channel));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to inject stub", e);
+        }
+        return cache;
+    }
+
+    private static StockResponse price(String symbol, double price) {
+        return StockResponse.newBuilder().setStockSymbol(symbol).setPrice(price).build();
+    }
+
+    /**
+     * Polls {@code read} for up to five seconds until it returns non-null.
+     */
+    private static <T> T await(Supplier<T> read) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        T value = read.get();
+        while (value == null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            value = read.get();
+        }
+        return value;
+    }
+}
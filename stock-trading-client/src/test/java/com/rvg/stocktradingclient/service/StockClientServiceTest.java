@@ -1,7 +1,15 @@
 package com.rvg.stocktradingclient.service;
 
 import com.rvg.grpc.*;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,8 +17,20 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,20 +42,35 @@ class StockClientServiceTest {
     @Mock
     private StockTradingServiceGrpc.StockTradingServiceStub asyncStub;
 
+    @Mock
+    private QuoteCache quoteCache;
+
     private StockClientService service;
 
+    private Server server;
+    private ManagedChannel channel;
+
     @BeforeEach
     void setUp() {
-        service = new StockClientService();
+        service = new StockClientService(quoteCache);
         injectField(service, "stockTradingServiceBlockingStub", blockingStub);
         injectField(service, "stockTradingServiceStub", asyncStub);
     }
 
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (channel != null) {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
     // ─── getStockPrice ───────────────────────────────────────────────────────────
 
     @Test
     void getStockPrice_shouldReturnResponseFromBlockingStub() {
         // Given
+        when(blockingStub.withDeadlineAfter(anyLong(), any())).thenReturn(blockingStub);
         StockResponse expected = StockResponse.newBuilder()
                 .setStockSymbol("AAPL")
                 .setPrice(150.5)
@@ -53,6 +88,7 @@ class StockClientServiceTest {
     @Test
     void getStockPrice_shouldCallBlockingStubWithCorrectSymbol() {
         // Given
+        when(blockingStub.withDeadlineAfter(anyLong(), any())).thenReturn(blockingStub);
         when(blockingStub.getStockPrice(any())).thenReturn(StockResponse.getDefaultInstance());
 
         // When
@@ -64,6 +100,70 @@ class StockClientServiceTest {
         assertThat(captor.getValue().getStockSymbol()).isEqualTo("GOOGL");
     }
 
+    @Test
+    void getStockPrice_shouldServeAFreshCachedQuoteWithoutACall() {
+        // Given
+        StockResponse cached = StockResponse.newBuilder().setStockSymbol("AAPL").setPrice(150.5).build();
+        when(quoteCache.get("AAPL")).thenReturn(cached);
+
+        // When
+        StockResponse result = service.getStockPrice("AAPL");
+
+        // Then
+        assertThat(result).isSameAs(cached);
+        verifyNoInteractions(blockingStub);
+    }
+
+    @Test
+    void getStockPrice_onCacheMiss_shouldStoreTheFetchedQuote() {
+        // Given
+        when(blockingStub.withDeadlineAfter(anyLong(), any())).thenReturn(blockingStub);
+        StockResponse fetched = StockResponse.newBuilder().setStockSymbol("AAPL").build();
+        when(blockingStub.getStockPrice(any())).thenReturn(fetched);
+
+        // When
+        service.getStockPrice("AAPL");
+
+        // Then
+        verify(quoteCache).put(eq(fetched), anyLong());
+    }
+
+    @Test
+    void getStockPrice_shouldSetTheConfiguredDeadline() {
+        // Given
+        injectField(service, "deadline", Duration.ofMillis(300));
+        when(blockingStub.withDeadlineAfter(anyLong(), any())).thenReturn(blockingStub);
+        when(blockingStub.getStockPrice(any())).thenReturn(StockResponse.getDefaultInstance());
+
+        // When
+        service.getStockPrice("AAPL");
+
+        // Then
+        verify(blockingStub).withDeadlineAfter(TimeUnit.MILLISECONDS.toNanos(300), TimeUnit.NANOSECONDS);
+    }
+
+    // ─── getStockPrices ──────────────────────────────────────────────────────────
+
+    @Test
+    void getStockPrices_shouldSendAllSymbolsInOneCall() {
+        // Given
+        when(blockingStub.withDeadlineAfter(anyLong(), any())).thenReturn(blockingStub);
+        StockListResponse expected = StockListResponse.newBuilder()
+                .addPrices(StockResponse.newBuilder().setStockSymbol("AAPL").setPrice(150.5))
+                .addPrices(StockResponse.newBuilder().setStockSymbol("TSLA").setPrice(300.0))
+                .build();
+        when(blockingStub.getStockPrices(any(StockListRequest.class))).thenReturn(expected);
+
+        // When
+        List<StockResponse> result = service.getStockPrices(List.of("AAPL", "TSLA"));
+
+        // Then
+        ArgumentCaptor<StockListRequest> captor = ArgumentCaptor.forClass(StockListRequest.class);
+        verify(blockingStub, times(1)).getStockPrices(captor.capture());
+        assertThat(captor.getValue().getStockSymbolsList()).containsExactly("AAPL", "TSLA");
+        assertThat(result).extracting(StockResponse::getStockSymbol).containsExactly("AAPL", "TSLA");
+    }
+
     // ─── subscribeStockPrice ─────────────────────────────────────────────────────
 
     @Test
@@ -77,6 +177,22 @@ class StockClientServiceTest {
         assertThat(captor.getValue().getStockSymbol()).isEqualTo("AAPL");
     }
 
+    @Test
+    void subscribeStockPrice_shouldHandEachUpdateToTheConsumer() {
+        // Given
+        List<StockResponse> updates = new ArrayList<>();
+        service.subscribeStockPrice("AAPL", updates::add);
+        ArgumentCaptor<StreamObserver> captor = ArgumentCaptor.forClass(StreamObserver.class);
+        verify(asyncStub).subscribeStockPrice(any(), captor.capture());
+        StockResponse update = StockResponse.newBuilder().setStockSymbol("AAPL").setPrice(150.5).build();
+
+        // When
+        captor.getValue().onNext(update);
+
+        // Then
+        assertThat(updates).containsExactly(update);
+    }
+
     @Test
     void subscribeStockPrice_onError_shouldNotThrow() {
         // When
@@ -103,6 +219,72 @@ class StockClientServiceTest {
         captor.getValue().onCompleted();
     }
 
+    @Test
+    void subscribeStockPrice_cancellingTheReturnedContext_shouldCancelTheCallOnTheServer() throws Exception {
+        // Given - a server holding the subscription open
+        CountDownLatch subscribed = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        connectInProcess(new StockTradingServiceGrpc.StockTradingServiceImplBase() {
+            @Override
+            public void subscribeStockPrice(StockRequest request, StreamObserver<StockResponse> responseObserver) {
+                ((ServerCallStreamObserver<StockResponse>) responseObserver).setOnCancelHandler(cancelled::countDown);
+                subscribed.countDown();
+            }
+        });
+        var subscription = service.subscribeStockPrice("AAPL");
+        assertThat(subscribed.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        subscription.cancel(null);
+
+        // Then
+        assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    // ─── streamStockPrices ───────────────────────────────────────────────────────
+
+    @Test
+    void streamStockPrices_shouldSendSubscribeAndUnsubscribeOnOneStream() {
+        // Given
+        StreamObserver<SubscriptionRequest> requestObserver = mock(StreamObserver.class);
+        when(asyncStub.streamStockPrices(any())).thenReturn(requestObserver);
+
+        // When
+        MultiSymbolSubscription subscription =
+                service.streamStockPrices(List.of("AAPL", "GOOGL"), mock(StreamObserver.class));
+        subscription.unsubscribe(List.of("GOOGL"));
+        subscription.close();
+
+        // Then
+        ArgumentCaptor<SubscriptionRequest> captor = ArgumentCaptor.forClass(SubscriptionRequest.class);
+        verify(asyncStub, times(1)).streamStockPrices(any());
+        verify(requestObserver, times(2)).onNext(captor.capture());
+        verify(requestObserver).onCompleted();
+        assertThat(captor.getAllValues().get(0).getStockSymbolsList()).containsExactly("AAPL", "GOOGL");
+        assertThat(captor.getAllValues().get(1).getAction()).isEqualTo(SubscriptionRequest.Action.UNSUBSCRIBE);
+    }
+
+    @Test
+    void streamStockPrices_cancel_shouldCancelTheCallAndSendNothingMore() {
+        // Given
+        StreamObserver<SubscriptionRequest> requestObserver = mock(StreamObserver.class);
+        when(asyncStub.streamStockPrices(any())).thenReturn(requestObserver);
+        MultiSymbolSubscription subscription =
+                service.streamStockPrices(List.of("AAPL"), mock(StreamObserver.class));
+
+        // When
+        subscription.cancel();
+        subscription.subscribe(List.of("GOOGL"));
+        subscription.close();
+
+        // Then
+        ArgumentCaptor<Throwable> captor = ArgumentCaptor.forClass(Throwable.class);
+        verify(requestObserver).onError(captor.capture());
+        assertThat(Status.fromThrowable(captor.getValue()).getCode()).isEqualTo(Status.Code.CANCELLED);
+        verify(requestObserver, times(1)).onNext(any());
+        verify(requestObserver, never()).onCompleted();
+    }
+
     // ─── placeBulkOrders ─────────────────────────────────────────────────────────
 
     @Test
@@ -112,7 +294,7 @@ class StockClientServiceTest {
         when(asyncStub.bulkStockOrder(any())).thenReturn(requestObserver);
 
         // When
-        service.placeBulkOrders();
+        service.placeBulkOrders(orders("AAPL", "GOOGL", "TSLA"));
 
         // Then
         verify(requestObserver, times(3)).onNext(any(StockOrder.class));
@@ -125,7 +307,7 @@ class StockClientServiceTest {
         when(asyncStub.bulkStockOrder(any())).thenReturn(requestObserver);
 
         // When
-        service.placeBulkOrders();
+        service.placeBulkOrders(orders("AAPL", "GOOGL", "TSLA"));
 
         // Then
         verify(requestObserver).onCompleted();
@@ -139,7 +321,7 @@ class StockClientServiceTest {
         when(asyncStub.bulkStockOrder(any())).thenReturn(requestObserver);
 
         // When
-        service.placeBulkOrders();
+        service.placeBulkOrders(orders("AAPL", "GOOGL", "TSLA"));
 
         // Then
         ArgumentCaptor<StockOrder> captor = ArgumentCaptor.forClass(StockOrder.class);
@@ -149,25 +331,470 @@ class StockClientServiceTest {
                 .containsExactly("AAPL", "GOOGL", "TSLA");
     }
 
+    @Test
+    void placeBulkOrders_shouldHandTheSummaryToTheConsumer() {
+        // Given
+        when(asyncStub.bulkStockOrder(any())).thenReturn(mock(StreamObserver.class));
+        List<OrderSummary> summaries = new ArrayList<>();
+        service.placeBulkOrders(orders("AAPL"), summaries::add);
+        ArgumentCaptor<StreamObserver<OrderSummary>> captor = ArgumentCaptor.forClass(StreamObserver.class);
+        verify(asyncStub).bulkStockOrder(captor.capture());
+
+        // When
+        captor.getValue().onNext(OrderSummary.newBuilder().setTotalOrders(1).setSuccessCount(1).build());
+
+        // Then
+        assertThat(summaries).extracting(OrderSummary::getSuccessCount).containsExactly(1);
+    }
+
     // ─── startTrading ────────────────────────────────────────────────────────────
 
     @Test
-    void startTrading_shouldCallLiveTradingOnStub() throws InterruptedException {
+    void startTrading_shouldCallLiveTradingOnStub() {
         // Given
         StreamObserver<StockOrder> requestObserver = mock(StreamObserver.class);
         when(asyncStub.liveTrading(any())).thenReturn(requestObserver);
 
-        // When - NOTE: this test takes ~10s due to Thread.sleep in the loop
-        service.startTrading();
+        // When
+        service.startTrading(orders("AAPL", "AAPL", "MSFT"));
 
         // Then
         verify(asyncStub).liveTrading(any(StreamObserver.class));
-        verify(requestObserver, times(10)).onNext(any(StockOrder.class));
+        verify(requestObserver, times(3)).onNext(any(StockOrder.class));
         verify(requestObserver).onCompleted();
     }
 
+    @Test
+    void startTrading_shouldHandEachStatusToTheConsumer() {
+        // Given
+        when(asyncStub.liveTrading(any())).thenReturn(mock(StreamObserver.class));
+        List<TradeStatus> statuses = new ArrayList<>();
+        service.startTrading(orders("AAPL"), statuses::add);
+        ArgumentCaptor<StreamObserver<TradeStatus>> captor = ArgumentCaptor.forClass(StreamObserver.class);
+        verify(asyncStub).liveTrading(captor.capture());
+
+        // When
+        captor.getValue().onNext(TradeStatus.newBuilder().setOrderId("order-0").setStatus("PENDING").build());
+        captor.getValue().onNext(TradeStatus.newBuilder().setOrderId("order-0").setStatus("EXECUTED").build());
+
+        // Then
+        assertThat(statuses).extracting(TradeStatus::getStatus).containsExactly("PENDING", "EXECUTED");
+    }
+
+    // ─── getStockPriceAsync / getStockPricesAsync ────────────────────────────────
+
+    @Test
+    void getStockPriceAsync_shouldCoalesceConcurrentRequestsForOneSymbolIntoOneCall() throws Exception {
+        // Given
+        when(asyncStub.withDeadlineAfter(anyLong(), any())).thenReturn(asyncStub);
+        StockResponse expected = StockResponse.newBuilder().setStockSymbol("AAPL").setPrice(150.5).build();
+
+        // When - three requests while the first call is in flight
+        CompletableFuture<StockResponse> first = service.getStockPriceAsync("AAPL");
+        CompletableFuture<StockResponse> second = service.getStockPriceAsync("AAPL");
+        CompletableFuture<StockResponse> third = service.getStockPriceAsync("AAPL");
+        ArgumentCaptor<StreamObserver<StockResponse>> captor = ArgumentCaptor.forClass(StreamObserver.class);
+        verify(asyncStub, times(1)).getStockPrice(any(), captor.capture());
+        captor.getValue().onNext(expected);
+        captor.getValue().onCompleted();
+
+        // Then - all answered by the one call, and the next request starts a new one
+        assertThat(first.get()).isEqualTo(expected);
+        assertThat(second.get()).isEqualTo(expected);
+        assertThat(third.get()).isEqualTo(expected);
+        service.getStockPriceAsync("AAPL");
+        verify(asyncStub, times(2)).getStockPrice(any(), any());
+    }
+
+    @Test
+    void getStockPriceAsync_shouldNotCoalesceDifferentSymbols() {
+        // Given
+        when(asyncStub.withDeadlineAfter(anyLong(), any())).thenReturn(asyncStub);
+
+        // When
+        service.getStockPriceAsync("AAPL");
+        service.getStockPriceAsync("TSLA");
+
+        // Then
+        ArgumentCaptor<StockRequest> captor = ArgumentCaptor.forClass(StockRequest.class);
+        verify(asyncStub, times(2)).getStockPrice(captor.capture(), any());
+        assertThat(captor.getAllValues()).extracting(StockRequest::getStockSymbol).containsExactly("AAPL", "TSLA");
+    }
+
+    @Test
+    void getStockPriceAsync_shouldFailEveryCallerWithTheCallsError() {
+        // Given
+        when(asyncStub.withDeadlineAfter(anyLong(), any())).thenReturn(asyncStub);
+        CompletableFuture<StockResponse> first = service.getStockPriceAsync("AAPL");
+        CompletableFuture<StockResponse> second = service.getStockPriceAsync("AAPL");
+        ArgumentCaptor<StreamObserver<StockResponse>> captor = ArgumentCaptor.forClass(StreamObserver.class);
+        verify(asyncStub).getStockPrice(any(), captor.capture());
+
+        // When
+        captor.getValue().onError(Status.UNAVAILABLE.asRuntimeException());
+
+        // Then
+        assertThatThrownBy(first::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(StatusRuntimeException.class);
+        assertThatThrownBy(second::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(StatusRuntimeException.class);
+    }
+
+    @Test
+    void getStockPriceAsync_shouldApplyTheDeadlineToTheCall() {
+        // Given
+        when(asyncStub.withDeadlineAfter(anyLong(), any())).thenReturn(asyncStub);
+
+        // When
+        service.getStockPriceAsync("AAPL", Duration.ofMillis(250));
+
+        // Then
+        verify(asyncStub).withDeadlineAfter(TimeUnit.MILLISECONDS.toNanos(250), TimeUnit.NANOSECONDS);
+    }
+
+    @Test
+    void getStockPriceAsync_shouldHoldAJoiningCallerToItsOwnDeadline() {
+        // Given - a call in flight with a long deadline
+        when(asyncStub.withDeadlineAfter(anyLong(), any())).thenReturn(asyncStub);
+        CompletableFuture<StockResponse> first = service.getStockPriceAsync("AAPL", Duration.ofSeconds(30));
+
+        // When
+        CompletableFuture<StockResponse> joined = service.getStockPriceAsync("AAPL", Duration.ofMillis(20));
+
+        // Then
+        assertThatThrownBy(() -> joined.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(StatusRuntimeException.class)
+                .cause().hasMessageContaining("DEADLINE_EXCEEDED");
+        assertThat(first).isNotDone();
+    }
+
+    @Test
+    void getStockPriceAsync_cancellingOneCaller_shouldNotCancelTheSharedCall() throws Exception {
+        // Given
+        when(asyncStub.withDeadlineAfter(anyLong(), any())).thenReturn(asyncStub);
+        CompletableFuture<StockResponse> first = service.getStockPriceAsync("AAPL");
+        CompletableFuture<StockResponse> second = service.getStockPriceAsync("AAPL");
+        ArgumentCaptor<StreamObserver<StockResponse>> captor = ArgumentCaptor.forClass(StreamObserver.class);
+        verify(asyncStub).getStockPrice(any(), captor.capture());
+
+        // When
+        first.cancel(true);
+        captor.getValue().onNext(StockResponse.newBuilder().setStockSymbol("AAPL").build());
+
+        // Then
+        assertThat(second.get().getStockSymbol()).isEqualTo("AAPL");
+    }
+
+    @Test
+    void getStockPricesAsync_shouldCoalesceRequestsForTheSameSymbols() throws Exception {
+        // Given
+        when(asyncStub.withDeadlineAfter(anyLong(), any())).thenReturn(asyncStub);
+        StockListResponse expected = StockListResponse.newBuilder()
+                .addPrices(StockResponse.newBuilder().setStockSymbol("AAPL"))
+                .addPrices(StockResponse.newBuilder().setStockSymbol("TSLA"))
+                .build();
+
+        // When
+        CompletableFuture<List<StockResponse>> first = service.getStockPricesAsync(List.of("AAPL", "TSLA"));
+        CompletableFuture<List<StockResponse>> second = service.getStockPricesAsync(List.of("AAPL", "TSLA"));
+        ArgumentCaptor<StreamObserver<StockListResponse>> captor = ArgumentCaptor.forClass(StreamObserver.class);
+        verify(asyncStub, times(1)).getStockPrices(any(), captor.capture());
+        captor.getValue().onNext(expected);
+
+        // Then
+        assertThat(first.get()).isEqualTo(expected.getPricesList());
+        assertThat(second.get()).isEqualTo(expected.getPricesList());
+    }
+
+    @Test
+    void getStockPriceAsync_shouldCompleteAtOnceFromAFreshCachedQuote() {
+        // Given
+        StockResponse cached = StockResponse.newBuilder().setStockSymbol("AAPL").build();
+        when(quoteCache.get("AAPL")).thenReturn(cached);
+
+        // When
+        CompletableFuture<StockResponse> result = service.getStockPriceAsync("AAPL");
+
+        // Then
+        assertThat(result).isCompletedWithValue(cached);
+        verifyNoInteractions(asyncStub);
+    }
+
+    // ─── Reactive variants ───────────────────────────────────────────────────────
+
+    @Test
+    void getStockPriceMono_shouldCallOnlyOnSubscription() {
+        // Given
+        when(asyncStub.withDeadlineAfter(anyLong(), any())).thenReturn(asyncStub);
+        doAnswer(invocation -> {
+            StreamObserver<StockResponse> observer = invocation.getArgument(1);
+            observer.onNext(StockResponse.newBuilder().setStockSymbol("AAPL").build());
+            observer.onCompleted();
+            return null;
+        }).when(asyncStub).getStockPrice(any(), any());
+
+        // When
+        var mono = service.getStockPriceMono("AAPL");
+        verify(asyncStub, never()).getStockPrice(any(), any());
+        StockResponse result = mono.block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(result.getStockSymbol()).isEqualTo("AAPL");
+    }
+
+    @Test
+    void subscribeStockPriceFlux_shouldCancelTheCallWhenTheSubscriberCancels() throws Exception {
+        // Given - a server that pushes more updates than are read, then holds the stream open
+        CountDownLatch cancelled = new CountDownLatch(1);
+        connectInProcess(new StockTradingServiceGrpc.StockTradingServiceImplBase() {
+            @Override
+            public void subscribeStockPrice(StockRequest request, StreamObserver<StockResponse> responseObserver) {
+                ((ServerCallStreamObserver<StockResponse>) responseObserver).setOnCancelHandler(cancelled::countDown);
+                for (int i = 0; i < 100; i++) {
+                    responseObserver.onNext(StockResponse.newBuilder()
+                            .setStockSymbol(request.getStockSymbol()).setPrice(i).build());
+                }
+            }
+        });
+
+        // When
+        List<StockResponse> updates = service.subscribeStockPriceFlux("AAPL")
+                .take(3)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(updates).extracting(StockResponse::getPrice).containsExactly(0.0, 1.0, 2.0);
+        assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void streamStockPricesFlux_shouldSubscribeEverySymbolOnOneStream() {
+        // Given - a server answering each subscribed symbol with one update
+        connectInProcess(new StockTradingServiceGrpc.StockTradingServiceImplBase() {
+            @Override
+            public StreamObserver<SubscriptionRequest> streamStockPrices(StreamObserver<StockResponse> responseObserver) {
+                return new StreamObserver<>() {
+                    @Override
+                    public void onNext(SubscriptionRequest request) {
+                        request.getStockSymbolsList().forEach(symbol ->
+                                responseObserver.onNext(StockResponse.newBuilder().setStockSymbol(symbol).build()));
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        responseObserver.onCompleted();
+                    }
+                };
+            }
+        });
+
+        // When
+        List<StockResponse> updates = service.streamStockPricesFlux(List.of("AAPL", "GOOGL"))
+                .take(2)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(updates).extracting(StockResponse::getStockSymbol).containsExactly("AAPL", "GOOGL");
+    }
+
+    @Test
+    void bulkStockOrderAsync_shouldCompleteWithTheSummaryOfAllOrders() throws Exception {
+        // Given - a server summing up the orders of the stream
+        connectInProcess(new StockTradingServiceGrpc.StockTradingServiceImplBase() {
+            @Override
+            public StreamObserver<StockOrder> bulkStockOrder(StreamObserver<OrderSummary> responseObserver) {
+                return new StreamObserver<>() {
+                    private int count;
+
+                    @Override
+                    public void onNext(StockOrder order) {
+                        count++;
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        responseObserver.onNext(OrderSummary.newBuilder()
+                                .setTotalOrders(count).setSuccessCount(count).build());
+                        responseObserver.onCompleted();
+                    }
+                };
+            }
+        });
+
+        // When
+        OrderSummary summary = service.bulkStockOrderAsync(orders("AAPL", "GOOGL", "TSLA")).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(summary.getTotalOrders()).isEqualTo(3);
+    }
+
+    @Test
+    void bulkStockOrderAsync_shouldFailWithDeadlineExceededWhenNoSummaryComes() {
+        // Given - a server that never answers
+        connectInProcess(new StockTradingServiceGrpc.StockTradingServiceImplBase() {
+            @Override
+            public StreamObserver<StockOrder> bulkStockOrder(StreamObserver<OrderSummary> responseObserver) {
+                return new StreamObserver<>() {
+                    @Override
+                    public void onNext(StockOrder order) {
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                };
+            }
+        });
+
+        // When
+        CompletableFuture<OrderSummary> summary = service.bulkStockOrderAsync(orders("AAPL"), Duration.ofMillis(100));
+
+        // Then
+        assertThatThrownBy(() -> summary.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(StatusRuntimeException.class)
+                .cause()
+                .satisfies(e -> assertThat(Status.fromThrowable(e).getCode()).isEqualTo(Status.Code.DEADLINE_EXCEEDED));
+    }
+
+    @Test
+    void bulkStockOrderMono_shouldSendOnlyOnSubscription() {
+        // Given
+        StreamObserver<StockOrder> requestObserver = mock(StreamObserver.class);
+        when(asyncStub.withDeadlineAfter(anyLong(), any())).thenReturn(asyncStub);
+        when(asyncStub.bulkStockOrder(any())).thenAnswer(invocation -> {
+            StreamObserver<OrderSummary> observer = invocation.getArgument(0);
+            observer.onNext(OrderSummary.newBuilder().setTotalOrders(1).build());
+            observer.onCompleted();
+            return requestObserver;
+        });
+
+        // When
+        var mono = service.bulkStockOrderMono(orders("AAPL"));
+        verify(asyncStub, never()).bulkStockOrder(any());
+        OrderSummary result = mono.block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(result.getTotalOrders()).isEqualTo(1);
+        verify(requestObserver).onNext(any(StockOrder.class));
+        verify(requestObserver).onCompleted();
+    }
+
+    @Test
+    void liveTradingFlux_shouldEmitTheStatusesOfEveryOrder() {
+        // Given - a server answering each order with PENDING and closing after the last
+        connectInProcess(new StockTradingServiceGrpc.StockTradingServiceImplBase() {
+            @Override
+            public StreamObserver<StockOrder> liveTrading(StreamObserver<TradeStatus> responseObserver) {
+                return new StreamObserver<>() {
+                    @Override
+                    public void onNext(StockOrder order) {
+                        responseObserver.onNext(TradeStatus.newBuilder()
+                                .setOrderId(order.getOrderId()).setStatus("PENDING").build());
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        responseObserver.onCompleted();
+                    }
+                };
+            }
+        });
+
+        // When
+        List<TradeStatus> statuses = service.liveTradingFlux(orders("AAPL", "MSFT"))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(statuses).extracting(TradeStatus::getOrderId).containsExactly("order-0", "order-1");
+    }
+
+    @Test
+    void liveTradingFlux_shouldCancelTheCallWhenTheSubscriberCancels() throws Exception {
+        // Given - a server that pushes more statuses than are read, then holds the stream open
+        CountDownLatch cancelled = new CountDownLatch(1);
+        connectInProcess(new StockTradingServiceGrpc.StockTradingServiceImplBase() {
+            @Override
+            public StreamObserver<StockOrder> liveTrading(StreamObserver<TradeStatus> responseObserver) {
+                ((ServerCallStreamObserver<TradeStatus>) responseObserver).setOnCancelHandler(cancelled::countDown);
+                for (int i = 0; i < 100; i++) {
+                    responseObserver.onNext(TradeStatus.newBuilder().setOrderId("order-" + i).build());
+                }
+                return new StreamObserver<>() {
+                    @Override
+                    public void onNext(StockOrder order) {
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                };
+            }
+        });
+
+        // When
+        List<TradeStatus> statuses = service.liveTradingFlux(orders("AAPL"))
+                .take(3)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(statuses).extracting(TradeStatus::getOrderId).containsExactly("order-0", "order-1", "order-2");
+        assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
     // ─── Helper ──────────────────────────────────────────────────────────────────
 
+    /**
+     * Points the service's async stub at an in-process server running {@code implementation}.
+     */
+    private void connectInProcess(StockTradingServiceGrpc.StockTradingServiceImplBase implementation) {
+        String name = InProcessServerBuilder.generateName();
+        try {
+            server = InProcessServerBuilder.forName(name).addService(implementation).build().start();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start in-process server", e);
+        }
+        channel = InProcessChannelBuilder.forName(name).build();
+        injectField(service, "stockTradingServiceStub", StockTradingServiceGrpc.newStub(channel));
+    }
+
+    private static List<StockOrder> orders(String... stockSymbols) {
+        List<StockOrder> orders = new ArrayList<>();
+        for (String stockSymbol : stockSymbols) {
+            orders.add(StockOrder.newBuilder()
+                    .setOrderId("order-" + orders.size())
+                    .setStockSymbol(stockSymbol)
+                    .setOrderType("BUY")
+                    .setPrice(150.0)
+                    .setQuantity(10)
+                    .build());
+        }
+        return orders;
+    }
+
     private void injectField(Object target, String fieldName, Object value) {
         try {
             var field = target.getClass().getDeclaredField(fieldName);
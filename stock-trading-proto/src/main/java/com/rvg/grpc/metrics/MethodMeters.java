@@ -0,0 +1,148 @@
+package com.rvg.grpc.metrics;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Meters of one gRPC method, registered once and reused by all of its calls.
+ * Tagged with {@code service}, {@code method} and {@code type} (unary or streaming).
+ *
+ * Shared by the server's and the client's metrics interceptors, so both sides name
+ * and tag their meters alike and differ only in the prefix: {@code grpc.server} or
+ * {@code grpc.client}.
+ */
+public final class MethodMeters {
+
+    private final MeterRegistry meterRegistry;
+    private final String prefix;
+    private final Tags tags;
+    private final AtomicInteger active = new AtomicInteger();
+    /** Latency timer per status code, registered when the code first occurs. */
+    private final AtomicReferenceArray<Timer> calls = new AtomicReferenceArray<>(Status.Code.values().length);
+    private final DistributionSummary messagesReceived;
+    private final DistributionSummary messagesSent;
+    private final DistributionSummary bytesReceived;
+    private final DistributionSummary bytesSent;
+
+    /**
+     * Registers the meters of a method.
+     *
+     * @param meterRegistry Registry the meters are added to
+     * @param prefix        Side of the call the meters are named after, e.g. {@code grpc.server}
+     * @param method        Method the meters are tagged with
+     */
+    public MethodMeters(MeterRegistry meterRegistry, String prefix, MethodDescriptor<?, ?> method) {
+        this.meterRegistry = meterRegistry;
+        this.prefix = prefix;
+        this.tags = Tags.of(
+                "service", String.valueOf(method.getServiceName()),
+                "method", String.valueOf(method.getBareMethodName()),
+                "type", method.getType().name());
+
+        Gauge.builder(prefix + ".calls.active", active, AtomicInteger::get)
+                .description("Calls and streams in flight")
+                .tags(tags)
+                .register(meterRegistry);
+        messagesReceived = messages("received");
+        messagesSent = messages("sent");
+        bytesReceived = bytes("received");
+        bytesSent = bytes("sent");
+    }
+
+    /**
+     * Starts recording a call; the returned recorder must see every message and
+     * the end of the call.
+     */
+    public Call start() {
+        active.incrementAndGet();
+        return new Call(System.nanoTime());
+    }
+
+    private DistributionSummary messages(String direction) {
+        return DistributionSummary.builder(prefix + ".call.messages")
+                .description("Messages per call")
+                .baseUnit(BaseUnits.MESSAGES)
+                .tags(tags)
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary bytes(String direction) {
+        return DistributionSummary.builder(prefix + ".message.size")
+                .description("Serialized size of a message")
+                .baseUnit(BaseUnits.BYTES)
+                .tags(tags)
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    private Timer calls(Status.Code code) {
+        Timer timer = calls.get(code.value());
+        if (timer == null) {
+            // A racing registration gets the same timer back from the registry
+            timer = Timer.builder(prefix + ".calls")
+                    .description("Call latency, from the start of the call until it is closed")
+                    .tags(tags)
+                    .tag("status", code.name())
+                    .register(meterRegistry);
+            calls.set(code.value(), timer);
+        }
+        return timer;
+    }
+
+    private static void recordSize(DistributionSummary summary, Object message) {
+        if (message instanceof MessageLite protobuf) {
+            // Memoized by generated messages, and needed by the marshaller anyway
+            summary.record(protobuf.getSerializedSize());
+        }
+    }
+
+    /**
+     * One call in flight. Inbound and outbound messages are each counted by a single
+     * thread at a time, as gRPC serializes them per direction; the end of the call is
+     * recorded once, by whichever side sees it first.
+     */
+    public final class Call {
+
+        private final long startNanos;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile long received;
+        private volatile long sent;
+
+        private Call(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        public void received(Object message) {
+            received++;
+            recordSize(bytesReceived, message);
+        }
+
+        public void sent(Object message) {
+            sent++;
+            recordSize(bytesSent, message);
+        }
+
+        public void closed(Status.Code code) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            active.decrementAndGet();
+            calls(code).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            messagesReceived.record(received);
+            messagesSent.record(sent);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.rvg.stocktradingserver.cache;
+
+import com.rvg.stocktradingserver.market.Quote;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest stored price of every stock, indexed by an int id per symbol and read
+ * without locks.
+ *
+ * A symbol is interned to the next free id the first time it is written. Prices
+ * (in ticks) are held in a {@code long[]} and the {@link Quote} each price was
+ * written from in a parallel array, so a risk check reads a primitive and a
+ * GetStockPrice call gets the same prebuilt messages until the row changes.
+ * Both are published with release writes and read with acquire reads; a lookup
+ * is one map probe and one array read, and allocates nothing.
+ *
+ * Writes come from database loads and row changes only, and are serialized on
+ * the store. Every removal advances a generation, and a write made with an older
+ * generation is dropped, so a load that read a row before it changed cannot put
+ * the old price back. Ids are never reused for another symbol: a removed symbol
+ * keeps an empty slot until it is written again.
+ */
+final class PriceStore {
+
+    /** Price reported for a symbol the store does not hold. */
+    static final long NO_PRICE = Long.MIN_VALUE;
+
+    private static final VarHandle PRICES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle QUOTES = MethodHandles.arrayElementVarHandle(Quote[].class);
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int maximumSize;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile Slots slots;
+    private volatile long generation;
+    private int size;
+
+    /**
+     * @param maximumSize Maximum number of symbols held; writes of further symbols are dropped
+     */
+    PriceStore(long maximumSize) {
+        this.maximumSize = (int) Math.min(maximumSize, Integer.MAX_VALUE - 8);
+        this.slots = new Slots(Math.min(INITIAL_CAPACITY, this.maximumSize));
+    }
+
+    /**
+     * Returns the quote of a symbol, or null if the store does not hold it.
+     */
+    Quote quote(String stockSymbol) {
+        Integer id = ids.get(stockSymbol);
+        return id == null ? null : (Quote) QUOTES.getAcquire(slots.quotes, id.intValue());
+    }
+
+    /**
+     * Returns the price of a symbol in ticks, or {@link #NO_PRICE} if the store does not hold it.
+     */
+    long price(String stockSymbol) {
+        Integer id = ids.get(stockSymbol);
+        return id == null ? NO_PRICE : (long) PRICES.getAcquire(slots.prices, id.intValue());
+    }
+
+    /**
+     * Current generation. Read it before loading from the database and pass it to
+     * {@link #put} with the result.
+     */
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * Stores a quote loaded from the database. A quote with the same price and
+     * timestamp as the stored one is ignored, so its messages stay shared.
+     *
+     * @param quote      Quote built from the row
+     * @param generation Generation read before the row was loaded
+     * @return false if a symbol was removed since {@code generation} or the store is full
+     */
+    synchronized boolean put(Quote quote, long generation) {
+        if (generation != this.generation) {
+            return false;
+        }
+        Integer id = ids.get(quote.stockSymbol());
+        if (id != null) {
+            Quote stored = (Quote) QUOTES.getAcquire(slots.quotes, id.intValue());
+            if (stored == null || stored.price() != quote.price()
+                    || stored.timestampNanos() != quote.timestampNanos()) {
+                write(id, quote);
+            }
+            return true;
+        }
+        if (size == maximumSize) {
+            return false;
+        }
+        if (size == slots.prices.length) {
+            slots = slots.copyOf((int) Math.min(2L * size, maximumSize));
+        }
+        write(size, quote);
+        // Published only once its slot is written and the slots are large enough
+        ids.put(quote.stockSymbol(), size++);
+        return true;
+    }
+
+    /**
+     * Empties the slot of a symbol and drops every load started before this call.
+     */
+    synchronized void remove(String stockSymbol) {
+        generation++;
+        Integer id = ids.get(stockSymbol);
+        if (id != null) {
+            write(id, null);
+        }
+    }
+
+    /**
+     * Empties the slots of every symbol not in {@code stockSymbols}, unless a symbol
+     * was removed since {@code generation}.
+     */
+    synchronized void retainAll(Set<String> stockSymbols, long generation) {
+        if (generation != this.generation) {
+            return;
+        }
+        ids.forEach((stockSymbol, id) -> {
+            if (!stockSymbols.contains(stockSymbol)) {
+                write(id, null);
+            }
+        });
+    }
+
+    private void write(int id, Quote quote) {
+        Slots current = slots;
+        PRICES.setRelease(current.prices, id, quote == null ? NO_PRICE : quote.price());
+        QUOTES.setRelease(current.quotes, id, quote);
+    }
+
+    /**
+     * Parallel slot arrays. Replaced by a larger copy when full; readers holding
+     * the old one still see a consistent, if briefly stale, price.
+     */
+    private static final class Slots {
+
+        final long[] prices;
+        final Quote[] quotes;
+
+        Slots(int capacity) {
+            this(new long[capacity], new Quote[capacity]);
+        }
+
+        private Slots(long[] prices, Quote[] quotes) {
+            this.prices = prices;
+            this.quotes = quotes;
+        }
+
+        Slots copyOf(int capacity) {
+            return new Slots(Arrays.copyOf(prices, capacity), Arrays.copyOf(quotes, capacity));
+        }
+    }
+}
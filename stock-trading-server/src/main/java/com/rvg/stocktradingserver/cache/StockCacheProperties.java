@@ -0,0 +1,19 @@
+package com.rvg.stocktradingserver.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the in-memory stock price cache.
+ *
+ * @param maximumSize Maximum number of symbols kept on heap, in the price store and in the read-through cache each
+ * @param ttl         Interval at which the price store is reloaded from the stocks table, and after which
+ *                    a quote held only by the read-through cache expires
+ */
+@ConfigurationProperties(prefix = "stock.cache")
+public record StockCacheProperties(
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("30s") Duration ttl) {
+}
@@ -0,0 +1,293 @@
+package com.rvg.stocktradingserver.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.rvg.stocktradingserver.entity.Stock;
+import com.rvg.stocktradingserver.entity.StockChangedEvent;
+import com.rvg.stocktradingserver.execution.DatabaseBusyException;
+import com.rvg.stocktradingserver.execution.DatabaseGate;
+import com.rvg.stocktradingserver.market.Quote;
+import com.rvg.stocktradingserver.repository.StockRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Prices of the stocks table held in memory for the serving path.
+ *
+ * Reads are served from a {@link PriceStore}: symbols interned to int ids, prices
+ * in a primitive array and a {@link Quote} per symbol, which builds each protocol
+ * version's message once. A hit takes no lock and allocates nothing. The store is
+ * loaded with the whole table once the application is ready, reloaded every TTL
+ * so rows written by other processes show up, and updated on every write to a
+ * {@link Stock} row made here (see {@link StockChangedEvent}). Every change of a
+ * stored price is also passed to the registered price listeners.
+ *
+ * Symbols the store does not hold go through a read-through cache in front of
+ * {@link StockRepository}, which also fills the store. Its entries are bounded by
+ * size and expire after the TTL. Misses are loaded through the {@link DatabaseGate},
+ * on the executor it provides, and concurrent misses for one symbol share a single
+ * load. In both execution modes a caller only waits on the load's future, never
+ * inside the cache's own locks, so a slow load does not hold up misses on other
+ * symbols. A load runs outside of the gRPC call that started it: a caller that is
+ * cancelled or past its deadline fails on its own thread, before joining a load,
+ * and never fails the load for the others.
+ */
+@Component
+public class StockPriceCache {
+
+    /** Price reported by {@link #price} for an unknown symbol. */
+    public static final long NO_PRICE = PriceStore.NO_PRICE;
+
+    private static final Logger log = LoggerFactory.getLogger(StockPriceCache.class);
+
+    private final StockRepository stockRepository;
+    private final DatabaseGate databaseGate;
+    private final PriceStore priceStore;
+    private final AsyncLoadingCache<String, Quote> cache;
+    private final ScheduledExecutorService scheduler;
+    private final List<Consumer<Quote>> priceListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor for dependency injection. Schedules the periodic reload of the store.
+     *
+     * @param stockRepository Repository used to load the table and missing symbols
+     * @param properties      Cache size and TTL settings
+     * @param databaseGate    Admission control and executor for database loads
+     */
+    public StockPriceCache(StockRepository stockRepository, StockCacheProperties properties,
+                           DatabaseGate databaseGate) {
+        this.stockRepository = stockRepository;
+        this.databaseGate = databaseGate;
+        this.priceStore = new PriceStore(properties.maximumSize());
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.ttl())
+                .executor(databaseGate.executor())
+                .recordStats()
+                .buildAsync(new CacheLoader<String, Quote>() {
+                    @Override
+                    public Quote load(String symbol) {
+                        long generation = priceStore.generation();
+                        Quote quote = databaseGate.callShared(
+                                () -> toQuote(stockRepository.findByStockSymbol(symbol)));
+                        if (quote != null) {
+                            priceStore.put(quote, generation);
+                        }
+                        return quote;
+                    }
+
+                    @Override
+                    public Map<String, Quote> loadAll(Set<? extends String> symbols) {
+                        long generation = priceStore.generation();
+                        List<Stock> stocks = databaseGate.callShared(
+                                () -> stockRepository.findByStockSymbolIn(Set.copyOf(symbols)));
+                        Map<String, Quote> loaded = new HashMap<>();
+                        for (Stock stock : stocks) {
+                            Quote quote = toQuote(stock);
+                            priceStore.put(quote, generation);
+                            loaded.put(stock.getStockSymbol(), quote);
+                        }
+                        return loaded;
+                    }
+                });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("price-store-reload").daemon().factory());
+        long ttlMillis = properties.ttl().toMillis();
+        scheduler.scheduleWithFixedDelay(this::reload, ttlMillis, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the current quote for a symbol, loading it from the database on a miss.
+     *
+     * @param stockSymbol Stock ticker symbol
+     * @return Cached quote, or null if the symbol does not exist
+     * @throws DatabaseBusyException if a miss could not be admitted to the database
+     */
+    public Quote get(String stockSymbol) {
+        Quote quote = priceStore.quote(stockSymbol);
+        if (quote != null) {
+            return quote;
+        }
+        databaseGate.checkCaller();
+        return databaseGate.await(cache.get(stockSymbol));
+    }
+
+    /**
+     * Returns the current price of a symbol in ticks, loading it from the database
+     * if the store does not hold it.
+     *
+     * @param stockSymbol Stock ticker symbol
+     * @return Price in ticks, or {@link #NO_PRICE} if the symbol does not exist
+     * @throws DatabaseBusyException if a miss could not be admitted to the database
+     */
+    public long price(String stockSymbol) {
+        long price = priceStore.price(stockSymbol);
+        if (price != NO_PRICE) {
+            return price;
+        }
+        databaseGate.checkCaller();
+        Quote quote = databaseGate.await(cache.get(stockSymbol));
+        return quote != null ? quote.price() : NO_PRICE;
+    }
+
+    /**
+     * Returns the price of a symbol in ticks as held by the store, without ever going
+     * to the database. The store holds the whole table once the application is
+     * ready, so this misses only for symbols the table does not have.
+     *
+     * @param stockSymbol Stock ticker symbol
+     * @return Price in ticks, or {@link #NO_PRICE} if the store does not hold the symbol
+     */
+    public long storedPrice(String stockSymbol) {
+        return priceStore.price(stockSymbol);
+    }
+
+    /**
+     * Returns the current quotes for several symbols. All misses are loaded
+     * together with a single IN query.
+     *
+     * @param stockSymbols Stock ticker symbols
+     * @return Quotes keyed by symbol; unknown symbols are absent
+     * @throws DatabaseBusyException if the misses could not be admitted to the database
+     */
+    public Map<String, Quote> getAll(Collection<String> stockSymbols) {
+        Map<String, Quote> quotes = new HashMap<>();
+        List<String> missing = null;
+        for (String stockSymbol : stockSymbols) {
+            Quote quote = priceStore.quote(stockSymbol);
+            if (quote != null) {
+                quotes.put(stockSymbol, quote);
+            } else {
+                if (missing == null) {
+                    missing = new ArrayList<>();
+                }
+                missing.add(stockSymbol);
+            }
+        }
+        if (missing != null) {
+            databaseGate.checkCaller();
+            quotes.putAll(databaseGate.await(cache.getAll(missing)));
+        }
+        return quotes;
+    }
+
+    /**
+     * Drops the stored quote for a symbol so the next read goes to the database.
+     *
+     * @param stockSymbol Stock ticker symbol
+     */
+    public void invalidate(String stockSymbol) {
+        priceStore.remove(stockSymbol);
+        cache.synchronous().invalidate(stockSymbol);
+    }
+
+    /**
+     * Loads the whole stocks table into the store once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        reload();
+    }
+
+    /**
+     * Reloads the store from the stocks table: changed rows are updated and
+     * symbols no longer in the table are dropped. On failure the store keeps its
+     * prices until the next run.
+     */
+    public void reload() {
+        try {
+            long generation = priceStore.generation();
+            List<Stock> stocks = databaseGate.call(stockRepository::findAll);
+            Set<String> stockSymbols = new HashSet<>();
+            for (Stock stock : stocks) {
+                Quote quote = toQuote(stock);
+                if (priceStore.put(quote, generation) && priceStore.quote(quote.stockSymbol()) == quote) {
+                    // Written elsewhere since the last reload
+                    notifyPriceListeners(quote);
+                }
+                stockSymbols.add(stock.getStockSymbol());
+            }
+            priceStore.retainAll(stockSymbols, generation);
+        } catch (RuntimeException e) {
+            log.warn("Error reloading stock prices; keeping the stored prices until the next run", e);
+        }
+    }
+
+    /**
+     * Drops the entry as soon as the change is flushed.
+     */
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        invalidate(event.stockSymbol());
+    }
+
+    /**
+     * Drops the entry again after commit, so a reader that reloaded the old row
+     * between flush and commit cannot keep a stale price, then stores the
+     * committed price and passes it to the price listeners.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStockChangeCommitted(StockChangedEvent event) {
+        invalidate(event.stockSymbol());
+        if (!event.deleted()) {
+            Quote quote = Quote.of(event.stockSymbol(), event.price(), event.lastUpdated());
+            priceStore.put(quote, priceStore.generation());
+            notifyPriceListeners(quote);
+        }
+    }
+
+    /**
+     * Registers a callback for every change of a stored price: committed writes
+     * made here, and rows found changed by the periodic reload. Callbacks run on
+     * the committing or reloading thread and must not block.
+     *
+     * @param listener Receives the new quote
+     */
+    public void addPriceListener(Consumer<Quote> listener) {
+        priceListeners.add(listener);
+    }
+
+    /**
+     * Hit, miss, load and eviction counters of the read-through cache since startup.
+     * Reads served by the store are not counted.
+     */
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void notifyPriceListeners(Quote quote) {
+        for (Consumer<Quote> listener : priceListeners) {
+            listener.accept(quote);
+        }
+    }
+
+    private static Quote toQuote(Stock stock) {
+        return stock == null ? null : Quote.of(stock.getStockSymbol(), stock.getPrice(), stock.getLastUpdated());
+    }
+}
@@ -0,0 +1,92 @@
+package com.rvg.stocktradingserver.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class representing an order received through BulkStockOrder.
+ *
+ * Ids come from a pooled sequence rather than an identity column, so Hibernate
+ * can assign them without a round trip per row and batch the inserts.
+ */
+@Entity
+@Table(name = "stock_orders")
+public class Order {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_order_seq")
+    @SequenceGenerator(name = "stock_order_seq", sequenceName = "stock_order_seq", allocationSize = 500)
+    private Long id;
+
+    @Column(name = "order_id")
+    private String orderId;
+
+    @Column(name = "stock_symbol", nullable = false)
+    private String stockSymbol;
+
+    @Column(name = "order_type")
+    private String orderType;
+
+    private int quantity;
+
+    private double price;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getStockSymbol() {
+        return stockSymbol;
+    }
+
+    public void setStockSymbol(String stockSymbol) {
+        this.stockSymbol = stockSymbol;
+    }
+
+    public String getOrderType() {
+        return orderType;
+    }
+
+    public void setOrderType(String orderType) {
+        this.orderType = orderType;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(LocalDateTime receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+}
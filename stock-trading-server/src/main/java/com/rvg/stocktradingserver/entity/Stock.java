@@ -9,6 +9,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "stocks")
+@EntityListeners(StockEntityListener.class)
 public class Stock {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
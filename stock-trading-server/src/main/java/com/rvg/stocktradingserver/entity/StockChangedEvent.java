@@ -0,0 +1,30 @@
+package com.rvg.stocktradingserver.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Application event published whenever a {@link Stock} row is inserted, updated or deleted.
+ * Carries the row as it was written, so listeners can act on the new price
+ * without reading it back.
+ *
+ * @param stockSymbol Symbol of the changed stock
+ * @param price       Price as written
+ * @param lastUpdated Time the row was written
+ * @param deleted     Whether the row was deleted
+ */
+public record StockChangedEvent(String stockSymbol, double price, LocalDateTime lastUpdated, boolean deleted) {
+
+    /**
+     * Event for an inserted or updated row.
+     */
+    public static StockChangedEvent saved(Stock stock) {
+        return new StockChangedEvent(stock.getStockSymbol(), stock.getPrice(), stock.getLastUpdated(), false);
+    }
+
+    /**
+     * Event for a deleted row.
+     */
+    public static StockChangedEvent removed(Stock stock) {
+        return new StockChangedEvent(stock.getStockSymbol(), stock.getPrice(), stock.getLastUpdated(), true);
+    }
+}
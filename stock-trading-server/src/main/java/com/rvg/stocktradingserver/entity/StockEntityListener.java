@@ -0,0 +1,31 @@
+package com.rvg.stocktradingserver.entity;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that turns writes to the stocks table into {@link StockChangedEvent}s,
+ * so components holding derived state (e.g. the price cache) can react without
+ * depending on the persistence layer.
+ */
+public class StockEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onStockSaved(Stock stock) {
+        eventPublisher.publishEvent(StockChangedEvent.saved(stock));
+    }
+
+    @PostRemove
+    public void onStockRemoved(Stock stock) {
+        eventPublisher.publishEvent(StockChangedEvent.removed(stock));
+    }
+}
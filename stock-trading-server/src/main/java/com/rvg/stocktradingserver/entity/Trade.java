@@ -0,0 +1,103 @@
+package com.rvg.stocktradingserver.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class representing an execution of the matching engine.
+ *
+ * Rows are written behind the trading flow from the trade journal; the journal
+ * sequence number is unique so a replay after a restart cannot insert a trade twice.
+ */
+@Entity
+@Table(name = "trades")
+public class Trade {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_seq")
+    @SequenceGenerator(name = "trade_seq", sequenceName = "trade_seq", allocationSize = 500)
+    private Long id;
+
+    @Column(name = "journal_sequence", nullable = false, unique = true)
+    private long journalSequence;
+
+    @Column(name = "stock_symbol", nullable = false)
+    private String stockSymbol;
+
+    private double price;
+
+    private int quantity;
+
+    @Column(name = "buy_order_id")
+    private String buyOrderId;
+
+    @Column(name = "sell_order_id")
+    private String sellOrderId;
+
+    @Column(name = "executed_at", nullable = false)
+    private LocalDateTime executedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public void setJournalSequence(long journalSequence) {
+        this.journalSequence = journalSequence;
+    }
+
+    public String getStockSymbol() {
+        return stockSymbol;
+    }
+
+    public void setStockSymbol(String stockSymbol) {
+        this.stockSymbol = stockSymbol;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public String getBuyOrderId() {
+        return buyOrderId;
+    }
+
+    public void setBuyOrderId(String buyOrderId) {
+        this.buyOrderId = buyOrderId;
+    }
+
+    public String getSellOrderId() {
+        return sellOrderId;
+    }
+
+    public void setSellOrderId(String sellOrderId) {
+        this.sellOrderId = sellOrderId;
+    }
+
+    public LocalDateTime getExecutedAt() {
+        return executedAt;
+    }
+
+    public void setExecutedAt(LocalDateTime executedAt) {
+        this.executedAt = executedAt;
+    }
+}
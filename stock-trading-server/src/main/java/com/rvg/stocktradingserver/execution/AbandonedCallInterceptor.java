@@ -0,0 +1,47 @@
+package com.rvg.stocktradingserver.execution;
+
+import io.grpc.Context;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import org.springframework.grpc.server.GlobalServerInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the service from working on calls nobody waits for any more.
+ *
+ * A call whose client cancelled it, or whose deadline passed, while its callbacks
+ * were still queued on the server's executor gets no further messages and no
+ * half-close: a unary handler is never invoked, and a client-streaming handler sees
+ * {@code onError(CANCELLED)} instead of {@code onCompleted()}, so the work it would
+ * do at the end, such as saving a bulk order batch, is skipped. gRPC closes such a
+ * call with CANCELLED or DEADLINE_EXCEEDED on its own; this only drops the work.
+ */
+@Component
+@GlobalServerInterceptor
+public class AbandonedCallInterceptor implements ServerInterceptor {
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        // Callbacks run attached to the call's context, which is cancelled with the call
+        Context context = Context.current();
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(call, headers)) {
+            @Override
+            public void onMessage(ReqT message) {
+                if (!context.isCancelled()) {
+                    super.onMessage(message);
+                }
+            }
+
+            @Override
+            public void onHalfClose() {
+                if (!context.isCancelled()) {
+                    super.onHalfClose();
+                }
+            }
+        };
+    }
+}
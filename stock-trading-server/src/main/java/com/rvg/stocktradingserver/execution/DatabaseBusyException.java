@@ -0,0 +1,12 @@
+package com.rvg.stocktradingserver.execution;
+
+/**
+ * Thrown when a database call is not admitted within the admission timeout.
+ * Services report it as RESOURCE_EXHAUSTED so clients back off and retry.
+ */
+public class DatabaseBusyException extends RuntimeException {
+
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+}
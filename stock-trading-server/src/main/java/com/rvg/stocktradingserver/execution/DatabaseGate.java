@@ -0,0 +1,180 @@
+package com.rvg.stocktradingserver.execution;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for the blocking database calls made on the request path.
+ *
+ * At most {@code maxDatabaseCalls} calls run at once, so a burst of requests queues
+ * here, in arrival order, instead of piling onto the Hikari pool and MySQL. A call
+ * that is not admitted within the admission timeout fails fast with
+ * {@link DatabaseBusyException}. Made from a gRPC call, the wait also ends at the
+ * call's deadline, and a call that has been cancelled is not admitted at all, so
+ * abandoned requests give up their place in the queue instead of taking a
+ * connection. A load shared by several callers runs with {@link #callShared}
+ * instead, outside of any one caller's gRPC call, and each caller is checked with
+ * {@link #checkCaller()} before joining it.
+ *
+ * Loads handed to {@link #executor()} run off the caller's thread, and callers wait
+ * on their future with {@link #await}, outside of any lock or monitor. In
+ * {@link ExecutionMode#VIRTUAL} mode each load runs on a virtual thread of its own,
+ * so neither waiting for a permit nor waiting on JDBC pins a carrier thread. In
+ * platform mode loads run on a pool of as many platform threads as there are
+ * permits.
+ */
+@Component
+public class DatabaseGate {
+
+    private final Semaphore permits;
+    private final long admissionTimeoutNanos;
+    private final ExecutorService loadExecutor;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param properties Execution mode, permit count and admission timeout
+     */
+    public DatabaseGate(ExecutionProperties properties) {
+        int permitCount = Math.max(1, properties.maxDatabaseCalls());
+        this.permits = new Semaphore(permitCount, true);
+        this.admissionTimeoutNanos = properties.admissionTimeout().toNanos();
+        this.loadExecutor = properties.mode() == ExecutionMode.VIRTUAL
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("db-load-", 0).factory())
+                : Executors.newFixedThreadPool(permitCount,
+                        Thread.ofPlatform().name("db-load-", 0).daemon().factory());
+    }
+
+    /**
+     * Runs a database call once a permit is available.
+     *
+     * @param call Blocking repository call
+     * @return the call's result
+     * @throws DatabaseBusyException if no permit becomes available within the admission timeout
+     *                               or the deadline of the current gRPC call, or that call is cancelled
+     */
+    public <T> T call(Supplier<T> call) {
+        acquire();
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Runs a database call whose result several callers wait on, once a permit is
+     * available. It runs outside of the gRPC call of whichever caller started it, so
+     * only the admission timeout applies: that caller's cancellation or deadline
+     * does not fail the others.
+     *
+     * @param call Blocking repository call
+     * @return the call's result
+     * @throws DatabaseBusyException if no permit becomes available within the admission timeout
+     */
+    public <T> T callShared(Supplier<T> call) {
+        Context previous = Context.ROOT.attach();
+        try {
+            return call(call);
+        } finally {
+            Context.ROOT.detach(previous);
+        }
+    }
+
+    /**
+     * Fails if the current gRPC call has been cancelled or is past its deadline, on
+     * the caller's thread, before it waits on a load run with {@link #callShared}.
+     *
+     * @throws DatabaseBusyException if the current gRPC call is cancelled
+     */
+    public void checkCaller() {
+        if (Context.current().isCancelled()) {
+            throw new DatabaseBusyException("Call was cancelled before reaching the database.");
+        }
+    }
+
+    /**
+     * Executor database loads are handed to: a virtual thread per load in virtual
+     * mode, a pool of platform threads otherwise.
+     */
+    public Executor executor() {
+        return loadExecutor;
+    }
+
+    /**
+     * Waits for a load handed to {@link #executor()}, no longer than the deadline of
+     * the current gRPC call if it has one.
+     *
+     * @param load Future of the load
+     * @return the load's result
+     * @throws DatabaseBusyException if the load was not admitted to the database, or the
+     *                               deadline passed first
+     */
+    public <T> T await(CompletableFuture<T> load) {
+        Deadline deadline = Context.current().getDeadline();
+        try {
+            return deadline == null
+                    ? load.get()
+                    : load.get(deadline.timeRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DatabaseBusyException("Deadline passed while waiting for the database.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Interrupted while waiting for the database.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Database load failed", e.getCause());
+        }
+    }
+
+    /**
+     * Permits not currently held by a database call.
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loadExecutor.shutdownNow();
+    }
+
+    private void acquire() {
+        // Context.ROOT, never cancelled and without a deadline, outside of a gRPC call
+        Context context = Context.current();
+        if (context.isCancelled()) {
+            throw new DatabaseBusyException("Call was cancelled before reaching the database.");
+        }
+        long timeoutNanos = admissionTimeoutNanos;
+        Deadline deadline = context.getDeadline();
+        if (deadline != null) {
+            timeoutNanos = Math.min(timeoutNanos, deadline.timeRemaining(TimeUnit.NANOSECONDS));
+        }
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new DatabaseBusyException("Database is busy, retry later.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Interrupted while waiting for the database.");
+        }
+        if (context.isCancelled()) {
+            permits.release();
+            throw new DatabaseBusyException("Call was cancelled before reaching the database.");
+        }
+    }
+}
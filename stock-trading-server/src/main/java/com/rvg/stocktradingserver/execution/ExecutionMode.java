@@ -0,0 +1,18 @@
+package com.rvg.stocktradingserver.execution;
+
+/**
+ * Threads the gRPC service callbacks, and the blocking database calls they make, run on.
+ */
+public enum ExecutionMode {
+
+    /**
+     * gRPC's default executor, a cached pool of platform threads.
+     */
+    PLATFORM,
+
+    /**
+     * A new virtual thread per callback; blocking JDBC parks the virtual thread
+     * instead of holding a platform thread.
+     */
+    VIRTUAL
+}
@@ -0,0 +1,21 @@
+package com.rvg.stocktradingserver.execution;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the execution mode of the gRPC server.
+ *
+ * @param mode             Platform or virtual threads for service callbacks
+ * @param maxDatabaseCalls Database calls on the request path allowed at once;
+ *                         keep it below the Hikari {@code maximum-pool-size}
+ * @param admissionTimeout Longest a request waits for a database call before it is rejected
+ */
+@ConfigurationProperties(prefix = "stock.execution")
+public record ExecutionProperties(
+        @DefaultValue("platform") ExecutionMode mode,
+        @DefaultValue("8") int maxDatabaseCalls,
+        @DefaultValue("2s") Duration admissionTimeout) {
+}
@@ -0,0 +1,31 @@
+package com.rvg.stocktradingserver.execution;
+
+import io.grpc.ServerBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.grpc.server.ServerBuilderCustomizer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs gRPC service callbacks on virtual threads when {@code stock.execution.mode}
+ * is {@code virtual}. Without it the server keeps gRPC's default executor.
+ *
+ * A blocking call such as a cache miss in GetStockPrice then parks its virtual
+ * thread instead of tying up a platform thread for the whole round trip to MySQL;
+ * how many of those calls reach the database at once is left to the {@link DatabaseGate}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "stock.execution", name = "mode", havingValue = "virtual")
+public class VirtualThreadServerConfiguration {
+
+    @Bean
+    <T extends ServerBuilder<T>> ServerBuilderCustomizer<T> virtualThreadExecutorCustomizer() {
+        // Not a bean of its own, so Boot's applicationTaskExecutor is left alone;
+        // thread per task, nothing pooled, so there is nothing to shut down
+        Executor executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("grpc-", 0).factory());
+        return serverBuilder -> serverBuilder.executor(executor);
+    }
+}
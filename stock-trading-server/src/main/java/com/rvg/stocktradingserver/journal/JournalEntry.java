@@ -0,0 +1,16 @@
+package com.rvg.stocktradingserver.journal;
+
+/**
+ * One execution as recorded in the {@link TradeJournal}.
+ *
+ * @param sequence         Journal sequence number, strictly increasing across restarts
+ * @param stockSymbol      Symbol traded
+ * @param priceTicks       Execution price in ticks (see {@code Prices})
+ * @param quantity         Executed quantity
+ * @param buyOrderId       Client order id of the buy side
+ * @param sellOrderId      Client order id of the sell side
+ * @param executedAtMicros Execution time in microseconds since the epoch
+ */
+public record JournalEntry(long sequence, String stockSymbol, long priceTicks, int quantity,
+                           String buyOrderId, String sellOrderId, long executedAtMicros) {
+}
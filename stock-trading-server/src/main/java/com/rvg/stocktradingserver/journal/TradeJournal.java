@@ -0,0 +1,315 @@
+package com.rvg.stocktradingserver.journal;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local write-ahead journal of executed trades, backed by a memory-mapped file.
+ *
+ * Appending an execution is a copy into the mapped file, so the matching engine
+ * only pays for local memory latency; the {@link TradeJournalWriter} reads the
+ * journal in the background and saves the trades to the database in batches.
+ *
+ * File layout: an 8 byte header holding the sequence number of the last trade
+ * known to be in the database, followed by length-prefixed records. A record is
+ * made visible by writing its length last, and a zero length always follows the
+ * newest record, so a crash mid-append leaves no half record behind. Once the
+ * writer has caught up, the journal is rewound to the start of the file. On
+ * startup the records still in the file are scanned and every trade past the
+ * header's sequence number is replayed to the database.
+ *
+ * An append never waits for the writer, since it runs on a matching shard. While
+ * less than an eighth of the file is free, e.g. during a database outage,
+ * {@link #hasHeadroom()} is false and the matching engine rejects new orders; fills
+ * of orders already accepted that no longer fit the file are held in memory, in
+ * sequence, and copied into it once the writer has drained it. Those trades are
+ * only durable from then on.
+ *
+ * Appends may come from any thread; reading and acknowledging is reserved to a
+ * single writer thread.
+ */
+@Component
+public class TradeJournal {
+
+    private static final int HEADER_SIZE = Long.BYTES;
+    private static final int LENGTH_SIZE = Integer.BYTES;
+    private static final int FIXED_RECORD_SIZE = 3 * Long.BYTES + Integer.BYTES + 3 * Short.BYTES;
+    private static final int MAX_FIELD_SIZE = 0xFFFF;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int headroom;
+
+    // Guarded by this
+    private final ArrayDeque<JournalEntry> spilled = new ArrayDeque<>();
+    private int writePosition;
+    private long lastSequence;
+    private boolean closed;
+
+    // Written under the lock by appenders, read by the writer thread and order admission
+    private volatile int publishedPosition;
+    private volatile boolean spilling;
+
+    // Writer thread only
+    private int readPosition;
+    private int batchEnd;
+    private long batchLastSequence;
+    private long flushedSequence;
+
+    /**
+     * Constructor for dependency injection. Opens (or creates) the journal file and
+     * recovers the records left in it.
+     *
+     * @param properties Journal file and capacity
+     */
+    public TradeJournal(TradeJournalProperties properties) {
+        this.file = properties.file().toAbsolutePath();
+        this.capacity = (int) Math.min(Integer.MAX_VALUE, properties.capacity().toBytes());
+        this.headroom = capacity / 8;
+        try {
+            Files.createDirectories(file.getParent());
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open trade journal " + file, e);
+        }
+        recover();
+    }
+
+    /**
+     * Appends an execution. If the file is full, the trade is held in memory until
+     * the background writer has made room; the call never waits.
+     *
+     * @return the trade's journal sequence number
+     */
+    public synchronized long append(String stockSymbol, long priceTicks, int quantity,
+                                    String buyOrderId, String sellOrderId) {
+        byte[] symbol = stockSymbol.getBytes(StandardCharsets.UTF_8);
+        byte[] buyer = buyOrderId.getBytes(StandardCharsets.UTF_8);
+        byte[] seller = sellOrderId.getBytes(StandardCharsets.UTF_8);
+        int required = LENGTH_SIZE + FIXED_RECORD_SIZE + symbol.length + buyer.length + seller.length;
+        if (HEADER_SIZE + required + LENGTH_SIZE > capacity) {
+            throw new IllegalArgumentException("Trade record of " + required + " bytes does not fit the journal");
+        }
+
+        long sequence = ++lastSequence;
+        long executedAtMicros = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+        // Once one trade is held back, later ones queue behind it to keep the sequence
+        if (!spilling && write(sequence, executedAtMicros, priceTicks, quantity, symbol, buyer, seller)) {
+            return sequence;
+        }
+        spilled.add(new JournalEntry(sequence, stockSymbol, priceTicks, quantity, buyOrderId, sellOrderId,
+                executedAtMicros));
+        spilling = true;
+        return sequence;
+    }
+
+    /**
+     * Whether the journal has room for the trades of new orders. False while less
+     * than an eighth of the file is free or trades are held in memory.
+     */
+    public boolean hasHeadroom() {
+        return !spilling && capacity - publishedPosition >= headroom;
+    }
+
+    /**
+     * Reads the next trades not yet in the database, without consuming them.
+     * Writer thread only; call {@link #acknowledge()} once they are saved.
+     *
+     * @param maxEntries Maximum number of trades to return
+     */
+    public List<JournalEntry> read(int maxEntries) {
+        int end = publishedPosition;
+        // Records replayed on startup that the database already has
+        while (readPosition < end && buffer.getLong(readPosition + LENGTH_SIZE) <= flushedSequence) {
+            readPosition += LENGTH_SIZE + buffer.getInt(readPosition);
+        }
+
+        List<JournalEntry> entries = new ArrayList<>();
+        int position = readPosition;
+        while (position < end && entries.size() < maxEntries) {
+            int length = buffer.getInt(position);
+            entries.add(decode(position + LENGTH_SIZE));
+            position += LENGTH_SIZE + length;
+        }
+        batchEnd = position;
+        batchLastSequence = entries.isEmpty() ? flushedSequence : entries.get(entries.size() - 1).sequence();
+        return entries;
+    }
+
+    /**
+     * Marks the trades returned by the last {@link #read(int)} as saved, and rewinds
+     * the journal if the writer has caught up. Writer thread only.
+     */
+    public void acknowledge() {
+        if (batchEnd > readPosition) {
+            flushedSequence = batchLastSequence;
+            buffer.putLong(0, flushedSequence);
+            readPosition = batchEnd;
+        }
+        rewindIfDrained();
+    }
+
+    /**
+     * Skips trades up to a sequence number already found in the database, e.g. after
+     * a crash between the database commit and the header update, and keeps new
+     * sequence numbers above it. Writer thread only.
+     */
+    public void skipThrough(long sequence) {
+        if (sequence > flushedSequence) {
+            flushedSequence = sequence;
+        }
+        synchronized (this) {
+            if (sequence > lastSequence) {
+                lastSequence = sequence;
+            }
+        }
+    }
+
+    /**
+     * Sequence number of the newest trade appended.
+     */
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Sequence number of the newest trade known to be in the database.
+     */
+    public long flushedSequence() {
+        return buffer.getLong(0);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        buffer.force();
+        channel.close();
+    }
+
+    private void recover() {
+        flushedSequence = buffer.getLong(0);
+        long sequence = flushedSequence;
+        int position = HEADER_SIZE;
+        while (position + LENGTH_SIZE <= capacity) {
+            int length = buffer.getInt(position);
+            if (length < FIXED_RECORD_SIZE || position + LENGTH_SIZE + length + LENGTH_SIZE > capacity) {
+                break;
+            }
+            sequence = Math.max(sequence, buffer.getLong(position + LENGTH_SIZE));
+            position += LENGTH_SIZE + length;
+        }
+        if (position + LENGTH_SIZE <= capacity) {
+            buffer.putInt(position, 0);
+        }
+        lastSequence = sequence;
+        writePosition = position;
+        publishedPosition = position;
+        readPosition = HEADER_SIZE;
+        batchEnd = HEADER_SIZE;
+    }
+
+    private synchronized void rewindIfDrained() {
+        boolean drained = readPosition == writePosition;
+        if (drained && writePosition > HEADER_SIZE && (spilling || writePosition > capacity / 2)) {
+            buffer.putInt(HEADER_SIZE, 0);
+            writePosition = HEADER_SIZE;
+            publishedPosition = HEADER_SIZE;
+            readPosition = HEADER_SIZE;
+            batchEnd = HEADER_SIZE;
+            while (!spilled.isEmpty() && write(spilled.peek())) {
+                spilled.poll();
+            }
+            spilling = !spilled.isEmpty();
+        }
+    }
+
+    /**
+     * Writes a record at the write position and publishes it, if it fits.
+     */
+    private boolean write(long sequence, long executedAtMicros, long priceTicks, int quantity,
+                          byte[] symbol, byte[] buyer, byte[] seller) {
+        int length = FIXED_RECORD_SIZE + symbol.length + buyer.length + seller.length;
+        if (writePosition + LENGTH_SIZE + length + LENGTH_SIZE > capacity) {
+            return false;
+        }
+
+        int position = writePosition;
+        int cursor = position + LENGTH_SIZE;
+        buffer.putLong(cursor, sequence);
+        buffer.putLong(cursor + Long.BYTES, executedAtMicros);
+        buffer.putLong(cursor + 2 * Long.BYTES, priceTicks);
+        buffer.putInt(cursor + 3 * Long.BYTES, quantity);
+        cursor += 3 * Long.BYTES + Integer.BYTES;
+        cursor = putBytes(cursor, symbol);
+        cursor = putBytes(cursor, buyer);
+        cursor = putBytes(cursor, seller);
+
+        // Terminate first, then publish the record by writing its length
+        buffer.putInt(cursor, 0);
+        buffer.putInt(position, length);
+        writePosition = cursor;
+        publishedPosition = cursor;
+        return true;
+    }
+
+    private boolean write(JournalEntry entry) {
+        return write(entry.sequence(), entry.executedAtMicros(), entry.priceTicks(), entry.quantity(),
+                entry.stockSymbol().getBytes(StandardCharsets.UTF_8),
+                entry.buyOrderId().getBytes(StandardCharsets.UTF_8),
+                entry.sellOrderId().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private JournalEntry decode(int position) {
+        long sequence = buffer.getLong(position);
+        long executedAtMicros = buffer.getLong(position + Long.BYTES);
+        long priceTicks = buffer.getLong(position + 2 * Long.BYTES);
+        int quantity = buffer.getInt(position + 3 * Long.BYTES);
+        int cursor = position + 3 * Long.BYTES + Integer.BYTES;
+        String stockSymbol = getString(cursor);
+        cursor += Short.BYTES + Short.toUnsignedInt(buffer.getShort(cursor));
+        String buyOrderId = getString(cursor);
+        cursor += Short.BYTES + Short.toUnsignedInt(buffer.getShort(cursor));
+        String sellOrderId = getString(cursor);
+        return new JournalEntry(sequence, stockSymbol, priceTicks, quantity, buyOrderId, sellOrderId, executedAtMicros);
+    }
+
+    private int putBytes(int position, byte[] bytes) {
+        if (bytes.length > MAX_FIELD_SIZE) {
+            throw new IllegalArgumentException("Trade field of " + bytes.length + " bytes is too long for the journal");
+        }
+        buffer.putShort(position, (short) bytes.length);
+        buffer.put(position + Short.BYTES, bytes);
+        return position + Short.BYTES + bytes.length;
+    }
+
+    private String getString(int position) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort(position))];
+        buffer.get(position + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
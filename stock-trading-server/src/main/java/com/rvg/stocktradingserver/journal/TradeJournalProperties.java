@@ -0,0 +1,25 @@
+package com.rvg.stocktradingserver.journal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration properties for the write-behind trade journal.
+ *
+ * @param file          Memory-mapped journal file executions are appended to
+ * @param capacity      Size of the journal file; new orders are rejected while less than
+ *                      an eighth of it is free
+ * @param flushInterval Delay between two runs of the background database writer
+ * @param batchSize     Maximum number of trades saved per database transaction
+ */
+@ConfigurationProperties(prefix = "stock.trade-journal")
+public record TradeJournalProperties(
+        @DefaultValue("data/trade-journal.dat") Path file,
+        @DefaultValue("64MB") DataSize capacity,
+        @DefaultValue("200ms") Duration flushInterval,
+        @DefaultValue("500") int batchSize) {
+}
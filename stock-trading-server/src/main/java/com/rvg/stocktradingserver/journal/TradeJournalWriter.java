@@ -0,0 +1,102 @@
+package com.rvg.stocktradingserver.journal;
+
+import com.rvg.stocktradingserver.entity.Trade;
+import com.rvg.stocktradingserver.matching.Prices;
+import com.rvg.stocktradingserver.repository.TradeRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background writer draining the {@link TradeJournal} into the trades table.
+ *
+ * Runs on its own thread every {@code flushInterval}, saving up to
+ * {@code batchSize} trades per transaction until the journal is caught up. A
+ * failed batch stays in the journal and is retried on the next run, so a
+ * database outage only delays persistence. On its first run the writer skips
+ * whatever the database already holds and replays the rest.
+ */
+@Component
+public class TradeJournalWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeJournalWriter.class);
+
+    private final TradeJournal tradeJournal;
+    private final TradeRepository tradeRepository;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+    private boolean recovered;
+
+    /**
+     * Constructor for dependency injection. Starts the background writer.
+     *
+     * @param tradeJournal    Journal to drain
+     * @param tradeRepository Repository the trades are saved through
+     * @param properties      Flush interval and batch size
+     */
+    public TradeJournalWriter(TradeJournal tradeJournal, TradeRepository tradeRepository,
+                              TradeJournalProperties properties) {
+        this.tradeJournal = tradeJournal;
+        this.tradeRepository = tradeRepository;
+        this.batchSize = Math.max(1, properties.batchSize());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("trade-journal-writer").daemon().factory());
+        long intervalMillis = properties.flushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Saves everything appended to the journal so far. Must only run on the writer
+     * thread, or after it has stopped.
+     */
+    void flush() {
+        try {
+            if (!recovered) {
+                tradeJournal.skipThrough(tradeRepository.findMaxJournalSequence());
+                recovered = true;
+            }
+            List<JournalEntry> entries;
+            while (!(entries = tradeJournal.read(batchSize)).isEmpty()) {
+                tradeRepository.saveAll(entries.stream().map(TradeJournalWriter::toEntity).toList());
+                tradeJournal.acknowledge();
+            }
+            tradeJournal.acknowledge();
+        } catch (RuntimeException e) {
+            log.error("Error writing trades from journal; retrying on the next flush", e);
+        }
+    }
+
+    /**
+     * Stops the background writer and makes a last attempt to save pending trades.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        if (scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+            flush();
+        }
+    }
+
+    private static Trade toEntity(JournalEntry entry) {
+        Trade trade = new Trade();
+        trade.setJournalSequence(entry.sequence());
+        trade.setStockSymbol(entry.stockSymbol());
+        trade.setPrice(Prices.toDouble(entry.priceTicks()));
+        trade.setQuantity(entry.quantity());
+        trade.setBuyOrderId(entry.buyOrderId());
+        trade.setSellOrderId(entry.sellOrderId());
+        trade.setExecutedAt(LocalDateTime.ofInstant(
+                Instant.EPOCH.plus(entry.executedAtMicros(), ChronoUnit.MICROS), ZoneId.systemDefault()));
+        return trade;
+    }
+}
@@ -0,0 +1,36 @@
+package com.rvg.stocktradingserver.logging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Configuration properties for logging of individual orders, per streaming method
+ * (keyed {@code bulk-stock-order}, {@code live-trading}).
+ *
+ * @param orders Sampling per method; methods not listed use {@link Sampling#DEFAULT}
+ */
+@ConfigurationProperties(prefix = "stock.logging")
+public record OrderLogProperties(@DefaultValue Map<String, Sampling> orders) {
+
+    /**
+     * Sampling of the orders received on one method.
+     *
+     * @param sampleEvery  Log about one order in this many (1 = every order)
+     * @param maxPerSecond Most orders logged per second over all streams of the method; 0 disables the limit
+     */
+    public record Sampling(
+            @DefaultValue("1") int sampleEvery,
+            @DefaultValue("10") int maxPerSecond) {
+
+        public static final Sampling DEFAULT = new Sampling(1, 10);
+    }
+
+    /**
+     * Sampling of a method, or the default if it is not configured.
+     */
+    public Sampling sampling(String method) {
+        return orders.getOrDefault(method, Sampling.DEFAULT);
+    }
+}
@@ -0,0 +1,63 @@
+package com.rvg.stocktradingserver.logging;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which events of a hot path are logged: about one in {@code sampleEvery},
+ * and at most {@code maxPerSecond} per second.
+ *
+ * Sampling is random per thread, so an event that is not logged touches no shared
+ * state at all; only sampled events reach the per-second limit. Callers build the
+ * log event only after {@link #sample()} returned true:
+ *
+ * <pre>{@code
+ * if (orderLog.sample()) {
+ *     log.atInfo().addKeyValue("symbol", order.getStockSymbol()).log("Received order");
+ * }
+ * }</pre>
+ */
+public final class SampledLog {
+
+    private final Logger logger;
+    private final int sampleEvery;
+    private final int maxPerSecond;
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicInteger loggedInWindow = new AtomicInteger();
+
+    /**
+     * @param logger   Logger the events are written to; nothing is sampled while its INFO level is off
+     * @param sampling Sampling rate and limit
+     */
+    public SampledLog(Logger logger, OrderLogProperties.Sampling sampling) {
+        this.logger = logger;
+        this.sampleEvery = Math.max(1, sampling.sampleEvery());
+        this.maxPerSecond = sampling.maxPerSecond();
+    }
+
+    /**
+     * Whether the current event should be logged at INFO.
+     */
+    public boolean sample() {
+        if (!logger.isInfoEnabled()) {
+            return false;
+        }
+        if (sampleEvery > 1 && ThreadLocalRandom.current().nextInt(sampleEvery) != 0) {
+            return false;
+        }
+        return maxPerSecond <= 0 || withinLimit();
+    }
+
+    private boolean withinLimit() {
+        long second = System.nanoTime() / 1_000_000_000L;
+        long current = window.get();
+        if (second != current && window.compareAndSet(current, second)) {
+            // First sampled event of a new second; a racing event may still count against the old one
+            loggedInWindow.set(0);
+        }
+        return loggedInWindow.incrementAndGet() <= maxPerSecond;
+    }
+}
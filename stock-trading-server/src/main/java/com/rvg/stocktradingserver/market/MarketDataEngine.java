@@ -0,0 +1,200 @@
+package com.rvg.stocktradingserver.market;
+
+import com.rvg.grpc.StockResponse;
+import com.rvg.stocktradingserver.cache.StockPriceCache;
+import com.rvg.stocktradingserver.execution.DatabaseBusyException;
+import com.rvg.stocktradingserver.matching.Prices;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Shared market-data fan-out engine behind SubscribeStockPrice.
+ *
+ * Keeps one {@link SymbolFeed} per subscribed symbol. A feed starts from the
+ * stored price and carries every change of it: the {@link StockPriceCache} hands
+ * each committed or reloaded price to {@link #publish} once, and it is written to
+ * every subscriber of the symbol, so no subscriber polls the database and no gRPC
+ * thread is parked per stream. With a tick interval set, feeds also tick a
+ * simulated random walk on a small scheduler pool. Feeds are created on the first
+ * subscription and stopped when their last subscriber leaves.
+ */
+@Component
+public class MarketDataEngine {
+
+    private final StockPriceCache stockPriceCache;
+    private final MarketDataProperties properties;
+    private final StreamMetrics streamMetrics;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentMap<String, SymbolFeed> feeds = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param stockPriceCache Source of the stored price of a new feed and of its changes
+     * @param properties      Tick interval, update budget and scheduler size
+     * @param streamMetrics   Flow-control counters shared by all subscription streams
+     */
+    public MarketDataEngine(StockPriceCache stockPriceCache, MarketDataProperties properties,
+                            StreamMetrics streamMetrics) {
+        this.stockPriceCache = stockPriceCache;
+        this.properties = properties;
+        this.streamMetrics = streamMetrics;
+        this.scheduler = Executors.newScheduledThreadPool(properties.schedulerThreads(),
+                Thread.ofPlatform().name("market-data-", 0).daemon().factory());
+        stockPriceCache.addPriceListener(this::publish);
+    }
+
+    /**
+     * Attaches a stream to the feed of a symbol. Returns immediately; updates are
+     * written as prices change until the update budget is used up or the
+     * client cancels. Slow streams receive only the latest price (see {@link PriceSubscriber}).
+     *
+     * @throws DatabaseBusyException if the symbol's stored price had to be loaded and
+     *                               the database did not admit the load
+     *
+     * @param stockSymbol      Symbol to subscribe to
+     * @param responseObserver Stream receiving the price updates
+     */
+    public void subscribe(String stockSymbol, StreamObserver<StockResponse> responseObserver) {
+        subscribe(stockSymbol, responseObserver, Quote::toResponse);
+    }
+
+    /**
+     * Attaches a stream to the feed of a symbol, writing each quote as the message
+     * picked by the encoder (e.g. the v2 StockQuote).
+     *
+     * @param stockSymbol      Symbol to subscribe to
+     * @param responseObserver Stream receiving the price updates
+     * @param encoder          Message a quote is written as
+     */
+    public <T> void subscribe(String stockSymbol, StreamObserver<T> responseObserver, Function<Quote, T> encoder) {
+        PriceSubscriber<T> subscriber = new PriceSubscriber<>(responseObserver, encoder,
+                properties.updatesPerSubscription(), streamMetrics);
+        SymbolFeed feed = attach(stockSymbol, subscriber);
+
+        if (responseObserver instanceof ServerCallStreamObserver<T> serverObserver) {
+            serverObserver.setOnCancelHandler(() -> {
+                subscriber.cancel();
+                feed.remove(subscriber);
+            });
+        }
+    }
+
+    /**
+     * Opens a multiplexed stream whose symbols are added and removed through the
+     * returned {@link PriceStream}. The stream has no update budget; it stays open
+     * until it is completed or the client cancels.
+     *
+     * @param responseObserver Stream receiving the price updates of all its symbols
+     * @return Handle used to manage the stream's symbols
+     */
+    public PriceStream openStream(StreamObserver<StockResponse> responseObserver) {
+        return openStream(responseObserver, Quote::toResponse);
+    }
+
+    /**
+     * Opens a multiplexed stream writing each quote as the message picked by the encoder.
+     *
+     * @param responseObserver Stream receiving the price updates of all its symbols
+     * @param encoder          Message a quote is written as
+     * @return Handle used to manage the stream's symbols
+     */
+    public <T> PriceStream openStream(StreamObserver<T> responseObserver, Function<Quote, T> encoder) {
+        PriceStream priceStream = new PriceStream(this,
+                new PriceSubscriber<>(responseObserver, encoder, 0, streamMetrics));
+
+        if (responseObserver instanceof ServerCallStreamObserver<T> serverObserver) {
+            serverObserver.setOnCancelHandler(priceStream::cancel);
+        }
+        return priceStream;
+    }
+
+    /**
+     * Attaches a subscriber to the feed of a symbol, starting the feed if needed.
+     */
+    SymbolFeed attach(String stockSymbol, PriceSubscriber<?> subscriber) {
+        while (true) {
+            SymbolFeed feed = feeds.get(stockSymbol);
+            if (feed == null) {
+                SymbolFeed created = new SymbolFeed(stockSymbol, stopped -> feeds.remove(stockSymbol, stopped));
+                feed = feeds.putIfAbsent(stockSymbol, created);
+                if (feed == null) {
+                    feed = created;
+                    seed(stockSymbol, created);
+                }
+            }
+            if (feed.add(subscriber)) {
+                return feed;
+            }
+        }
+    }
+
+    /**
+     * Pushes a new stored price to the subscribers of its symbol, if it has a feed.
+     *
+     * @param quote New price of the symbol
+     */
+    public void publish(Quote quote) {
+        SymbolFeed feed = feeds.get(quote.stockSymbol());
+        if (feed != null) {
+            feed.publish(quote);
+        }
+    }
+
+    /**
+     * Number of symbols that currently have an active feed.
+     */
+    public int activeFeeds() {
+        return feeds.size();
+    }
+
+    /**
+     * Number of streams currently attached to the feed of a symbol.
+     */
+    public int subscriberCount(String stockSymbol) {
+        SymbolFeed feed = feeds.get(stockSymbol);
+        return feed == null ? 0 : feed.subscriberCount();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        feeds.values().forEach(SymbolFeed::completeAll);
+    }
+
+    /**
+     * Loads the stored price of a feed that was just registered. The feed is
+     * registered first so a price committed during the load is published to it
+     * rather than lost; the load itself may take a database round trip, so it
+     * runs outside the map's lock.
+     */
+    private void seed(String stockSymbol, SymbolFeed feed) {
+        Quote initial;
+        try {
+            initial = stockPriceCache.get(stockSymbol);
+        } catch (RuntimeException e) {
+            feed.stopIfUnused();
+            throw e;
+        }
+        long intervalNanos = properties.tickInterval().toNanos();
+        if (initial == null && intervalNanos > 0) {
+            // Unknown symbol: the simulation needs a price to walk from
+            initial = Quote.now(stockSymbol,
+                    Prices.toTicks(Math.round(ThreadLocalRandom.current().nextDouble(100, 20_000)) / 100.0));
+        }
+        feed.seed(initial);
+        if (intervalNanos > 0) {
+            feed.start(scheduler.scheduleAtFixedRate(feed::tick, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.rvg.stocktradingserver.market;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the shared market-data fan-out engine.
+ *
+ * @param tickInterval           Interval between two simulated price ticks of the same symbol
+ *                               (0 = none; feeds only carry changes of the stored price)
+ * @param updatesPerSubscription Number of updates sent before a subscription completes
+ *                               (0 = unlimited; the stream stays open until the client cancels it)
+ * @param schedulerThreads       Number of scheduler threads generating ticks for all symbols
+ */
+@ConfigurationProperties(prefix = "stock.market-data")
+public record MarketDataProperties(
+        @DefaultValue("0s") Duration tickInterval,
+        @DefaultValue("0") int updatesPerSubscription,
+        @DefaultValue("1") int schedulerThreads) {
+}
@@ -0,0 +1,74 @@
+package com.rvg.stocktradingserver.market;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A multiplexed price stream: one response stream attached to the feeds of any
+ * number of symbols, which can be added and removed while the stream is open.
+ * Obtained from {@link MarketDataEngine#openStream}.
+ */
+public class PriceStream {
+
+    private final MarketDataEngine marketDataEngine;
+    private final PriceSubscriber<?> subscriber;
+    private final Map<String, SymbolFeed> feeds = new HashMap<>();
+    private boolean closed;
+
+    PriceStream(MarketDataEngine marketDataEngine, PriceSubscriber<?> subscriber) {
+        this.marketDataEngine = marketDataEngine;
+        this.subscriber = subscriber;
+    }
+
+    /**
+     * Starts streaming a symbol; the latest price is sent right away.
+     * Subscribing to a symbol that is already streamed is a no-op.
+     */
+    public synchronized void subscribe(String stockSymbol) {
+        if (closed || feeds.containsKey(stockSymbol)) {
+            return;
+        }
+        feeds.put(stockSymbol, marketDataEngine.attach(stockSymbol, subscriber));
+    }
+
+    /**
+     * Stops streaming a symbol and discards any pending update for it.
+     */
+    public synchronized void unsubscribe(String stockSymbol) {
+        SymbolFeed feed = feeds.remove(stockSymbol);
+        if (feed != null) {
+            feed.remove(subscriber);
+            subscriber.discard(stockSymbol);
+        }
+    }
+
+    /**
+     * Symbols currently streamed.
+     */
+    public synchronized Set<String> symbols() {
+        return Set.copyOf(feeds.keySet());
+    }
+
+    /**
+     * Detaches from all feeds and completes the response stream.
+     */
+    public synchronized void complete() {
+        detachAll();
+        subscriber.complete();
+    }
+
+    /**
+     * Detaches from all feeds without writing to the response stream, e.g. after a client cancel.
+     */
+    public synchronized void cancel() {
+        subscriber.cancel();
+        detachAll();
+    }
+
+    private void detachAll() {
+        closed = true;
+        feeds.forEach((stockSymbol, feed) -> feed.remove(subscriber));
+        feeds.clear();
+    }
+}
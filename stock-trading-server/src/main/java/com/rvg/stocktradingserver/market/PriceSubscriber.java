@@ -0,0 +1,163 @@
+package com.rvg.stocktradingserver.market;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A single subscription stream attached to one or more {@link SymbolFeed}s.
+ *
+ * Writes go straight to the transport only while it reports {@code isReady()}.
+ * When the client falls behind, updates are parked per symbol and a newer price
+ * replaces the parked one (last-value conflation), so a slow consumer costs at
+ * most one pending message per symbol. Parked updates are flushed from the
+ * transport's on-ready callback.
+ *
+ * Writes are serialized because ticks, the initial snapshot and the on-ready
+ * callback may arrive on different threads.
+ *
+ * @param <T> Message type of the stream, v1 StockResponse or v2 StockQuote
+ */
+class PriceSubscriber<T> {
+
+    private final StreamObserver<T> responseObserver;
+    private final Function<Quote, T> encoder;
+    private final ServerCallStreamObserver<T> serverObserver;
+    private final StreamMetrics streamMetrics;
+    private final Map<String, Quote> pending = new LinkedHashMap<>();
+
+    private int remainingUpdates;
+    private boolean closed;
+    private long sent;
+    private long conflated;
+
+    /**
+     * @param responseObserver Stream the updates are written to
+     * @param encoder          Picks the message a quote is written as
+     * @param maxUpdates       Updates to send before completing the stream (0 = unlimited)
+     * @param streamMetrics    Aggregated flow-control counters
+     */
+    PriceSubscriber(StreamObserver<T> responseObserver, Function<Quote, T> encoder, int maxUpdates,
+                    StreamMetrics streamMetrics) {
+        this.responseObserver = responseObserver;
+        this.encoder = encoder;
+        this.streamMetrics = streamMetrics;
+        this.remainingUpdates = maxUpdates > 0 ? maxUpdates : -1;
+
+        if (responseObserver instanceof ServerCallStreamObserver<T> callObserver) {
+            this.serverObserver = callObserver;
+            callObserver.setOnReadyHandler(this::drain);
+        } else {
+            this.serverObserver = null;
+        }
+    }
+
+    /**
+     * Writes one update if the transport is ready, otherwise parks it as the
+     * latest pending price of its symbol.
+     *
+     * @param quote Price update shared by all subscribers of the symbol
+     * @return false if the subscriber is finished and must be detached from its feeds
+     */
+    synchronized boolean deliver(Quote quote) {
+        if (closed) {
+            return false;
+        }
+        if (!pending.isEmpty() || !isReady()) {
+            if (pending.put(quote.stockSymbol(), quote) != null) {
+                conflated++;
+                streamMetrics.recordConflated();
+            }
+            return true;
+        }
+        return write(quote);
+    }
+
+    /**
+     * Flushes parked updates while the transport stays ready.
+     * Registered as the stream's on-ready handler.
+     */
+    synchronized void drain() {
+        Iterator<Quote> iterator = pending.values().iterator();
+        while (!closed && isReady() && iterator.hasNext()) {
+            Quote next = iterator.next();
+            iterator.remove();
+            write(next);
+        }
+    }
+
+    /**
+     * Completes the stream if it is still open.
+     */
+    synchronized void complete() {
+        if (closed) {
+            return;
+        }
+        close();
+        try {
+            responseObserver.onCompleted();
+        } catch (RuntimeException ignored) {
+            // Already cancelled by the client
+        }
+    }
+
+    /**
+     * Marks the subscriber as closed without writing to the stream, e.g. after a client cancel.
+     */
+    synchronized void cancel() {
+        if (!closed) {
+            close();
+        }
+    }
+
+    /**
+     * Drops the pending update of a symbol the stream no longer follows.
+     */
+    synchronized void discard(String stockSymbol) {
+        pending.remove(stockSymbol);
+    }
+
+    synchronized long sent() {
+        return sent;
+    }
+
+    synchronized long conflated() {
+        return conflated;
+    }
+
+    synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    private boolean write(Quote quote) {
+        try {
+            responseObserver.onNext(encoder.apply(quote));
+        } catch (RuntimeException e) {
+            // The call was cancelled or closed underneath us; nothing left to write to
+            close();
+            return false;
+        }
+        sent++;
+        streamMetrics.recordSent();
+
+        if (remainingUpdates > 0 && --remainingUpdates == 0) {
+            complete();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isReady() {
+        return serverObserver == null || serverObserver.isReady();
+    }
+
+    private void close() {
+        closed = true;
+        streamMetrics.recordClosed(conflated, pending.size());
+        pending.clear();
+    }
+}
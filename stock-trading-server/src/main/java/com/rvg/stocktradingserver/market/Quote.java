@@ -0,0 +1,119 @@
+package com.rvg.stocktradingserver.market;
+
+import com.rvg.grpc.StockResponse;
+import com.rvg.grpc.v2.StockQuote;
+import com.rvg.stocktradingserver.matching.Prices;
+import com.rvg.stocktradingserver.matching.Timestamps;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * A price of one symbol at one point in time, as held by the price cache and the
+ * market-data feeds.
+ *
+ * The price is kept in fixed-point ticks and the timestamp in epoch nanoseconds.
+ * The v1 {@link StockResponse} and the v2 {@link StockQuote} are each built once,
+ * on first use, and then shared by every stream the quote is written to, so a
+ * tick fanned out to v2 subscribers never formats a timestamp string.
+ */
+public final class Quote {
+
+    private final String stockSymbol;
+    private final long price;
+    private final long timestampNanos;
+    private final String legacyTimestamp;
+
+    private volatile StockResponse response;
+    private volatile StockQuote stockQuote;
+
+    /**
+     * @param stockSymbol     Stock ticker symbol
+     * @param price           Price in ticks (see {@link Prices})
+     * @param timestampNanos  Time of the price, in nanoseconds since the epoch
+     * @param legacyTimestamp Timestamp text for v1 responses, or null to format {@code timestampNanos}
+     */
+    public Quote(String stockSymbol, long price, long timestampNanos, String legacyTimestamp) {
+        this.stockSymbol = stockSymbol;
+        this.price = price;
+        this.timestampNanos = timestampNanos;
+        this.legacyTimestamp = legacyTimestamp;
+    }
+
+    /**
+     * A quote of a row of the stocks table. The v1 timestamp is the row's local
+     * time, as it is stored.
+     *
+     * @param stockSymbol Stock ticker symbol
+     * @param price       Stored price
+     * @param lastUpdated Time the row was last written, in the server's time zone
+     */
+    public static Quote of(String stockSymbol, double price, LocalDateTime lastUpdated) {
+        return new Quote(stockSymbol, Prices.toTicks(price),
+                Timestamps.toNanos(lastUpdated.atZone(ZoneId.systemDefault()).toInstant()),
+                lastUpdated.toString());
+    }
+
+    /**
+     * A quote timestamped now.
+     */
+    public static Quote now(String stockSymbol, long price) {
+        return new Quote(stockSymbol, price, Timestamps.now(), null);
+    }
+
+    public String stockSymbol() {
+        return stockSymbol;
+    }
+
+    public long price() {
+        return price;
+    }
+
+    public long timestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * The quote as a v1 message, with a double price and an ISO-8601 timestamp.
+     */
+    public StockResponse toResponse() {
+        StockResponse built = response;
+        if (built == null) {
+            synchronized (this) {
+                built = response;
+                if (built == null) {
+                    built = StockResponse.newBuilder()
+                            .setStockSymbol(stockSymbol)
+                            .setPrice(Prices.toDouble(price))
+                            .setTimestamp(legacyTimestamp != null
+                                    ? legacyTimestamp
+                                    : Timestamps.toInstant(timestampNanos).toString())
+                            .build();
+                    response = built;
+                }
+            }
+        }
+        return built;
+    }
+
+    /**
+     * The quote as a v2 message.
+     */
+    public StockQuote toStockQuote() {
+        StockQuote built = stockQuote;
+        if (built == null) {
+            synchronized (this) {
+                built = stockQuote;
+                if (built == null) {
+                    built = StockQuote.newBuilder()
+                            .setStockSymbol(stockSymbol)
+                            .setPrice(price)
+                            .setTimestampNanos(timestampNanos)
+                            .build();
+                    stockQuote = built;
+                }
+            }
+        }
+        return built;
+    }
+}
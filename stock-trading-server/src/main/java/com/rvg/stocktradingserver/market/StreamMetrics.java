@@ -0,0 +1,91 @@
+package com.rvg.stocktradingserver.market;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated flow-control counters for price subscription streams.
+ * Every {@link PriceSubscriber} keeps its own per-stream counts and reports
+ * into these totals, so a single slow consumer shows up as conflation rather
+ * than as heap growth. The totals are published to Micrometer as
+ * {@code stock.price.stream.*}.
+ */
+@Component
+public class StreamMetrics implements MeterBinder {
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder closedStreams = new LongAdder();
+    private final AtomicLong maxConflatedPerStream = new AtomicLong();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("stock.price.stream.sent", this, StreamMetrics::sent)
+                .description("Updates written to subscription streams")
+                .register(registry);
+        FunctionCounter.builder("stock.price.stream.conflated", this, StreamMetrics::conflated)
+                .description("Updates replaced by a newer price before they could be written")
+                .register(registry);
+        FunctionCounter.builder("stock.price.stream.dropped", this, StreamMetrics::dropped)
+                .description("Pending updates discarded because their stream was closed")
+                .register(registry);
+        FunctionCounter.builder("stock.price.stream.closed", this, StreamMetrics::closedStreams)
+                .description("Subscription streams that have been completed or cancelled")
+                .register(registry);
+        Gauge.builder("stock.price.stream.conflated.max", this, StreamMetrics::maxConflatedPerStream)
+                .description("Highest number of conflated updates seen on a single closed stream")
+                .register(registry);
+    }
+
+    void recordSent() {
+        sent.increment();
+    }
+
+    void recordConflated() {
+        conflated.increment();
+    }
+
+    /**
+     * Records the final counts of a stream once it is completed or cancelled.
+     *
+     * @param streamConflated Updates replaced by a newer price while the stream was not ready
+     * @param streamDropped   Pending updates discarded because the stream closed first
+     */
+    void recordClosed(long streamConflated, long streamDropped) {
+        dropped.add(streamDropped);
+        closedStreams.increment();
+        maxConflatedPerStream.accumulateAndGet(streamConflated, Math::max);
+    }
+
+    /** Updates written to subscription streams. */
+    public long sent() {
+        return sent.sum();
+    }
+
+    /** Updates replaced by a newer price of the same symbol before they could be written. */
+    public long conflated() {
+        return conflated.sum();
+    }
+
+    /** Pending updates discarded because their stream was closed. */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /** Subscription streams that have been completed or cancelled. */
+    public long closedStreams() {
+        return closedStreams.sum();
+    }
+
+    /** Highest number of conflated updates seen on a single closed stream. */
+    public long maxConflatedPerStream() {
+        return maxConflatedPerStream.get();
+    }
+}
@@ -0,0 +1,142 @@
+package com.rvg.stocktradingserver.market;
+
+import com.rvg.stocktradingserver.matching.Prices;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Price source for one symbol. Each change of the stored price, and each
+ * simulated tick if enabled, pushes the same {@link Quote} once to every
+ * attached {@link PriceSubscriber}. The feed stops itself when its last
+ * subscriber detaches.
+ */
+class SymbolFeed {
+
+    /** Maximum relative move of a single tick (±0.5%). */
+    private static final double MAX_TICK_MOVE = 0.005;
+
+    /** Generated prices are rounded to whole cents. */
+    private static final long CENT = Prices.SCALE / 100;
+
+    private final String stockSymbol;
+    private final Consumer<SymbolFeed> onStop;
+    private final CopyOnWriteArrayList<PriceSubscriber<?>> subscribers = new CopyOnWriteArrayList<>();
+
+    private volatile Quote latest;
+    private ScheduledFuture<?> ticker;
+    private boolean stopped;
+
+    /**
+     * @param stockSymbol Symbol this feed produces prices for
+     * @param onStop      Callback used to unregister the feed from the engine
+     */
+    SymbolFeed(String stockSymbol, Consumer<SymbolFeed> onStop) {
+        this.stockSymbol = stockSymbol;
+        this.onStop = onStop;
+    }
+
+    /**
+     * Sends the price a new feed starts from to the subscribers attached so far.
+     * Skipped if a stored price change was published first, as that one is newer.
+     *
+     * @param initial Price to start from, or null to wait for the first update
+     */
+    synchronized void seed(Quote initial) {
+        if (latest == null && initial != null) {
+            publish(initial);
+        }
+    }
+
+    /**
+     * Hands the feed its tick schedule, cancelled when the feed stops; a feed that
+     * stopped before it got one cancels it right away.
+     */
+    synchronized void start(ScheduledFuture<?> ticker) {
+        if (stopped) {
+            ticker.cancel(false);
+            return;
+        }
+        this.ticker = ticker;
+    }
+
+    /**
+     * Attaches a subscriber and sends it the latest price, if any, right away.
+     *
+     * @return false if the feed has already stopped and a new one must be created
+     */
+    synchronized boolean add(PriceSubscriber<?> subscriber) {
+        if (stopped) {
+            return false;
+        }
+        subscribers.add(subscriber);
+        if (latest != null && !subscriber.deliver(latest)) {
+            remove(subscriber);
+        }
+        return true;
+    }
+
+    /**
+     * Detaches a subscriber; stops the feed if nobody is left.
+     */
+    synchronized void remove(PriceSubscriber<?> subscriber) {
+        subscribers.remove(subscriber);
+        stopIfUnused();
+    }
+
+    /**
+     * Stops the feed if it has no subscribers, e.g. because the one that started
+     * it failed before attaching.
+     */
+    synchronized void stopIfUnused() {
+        if (subscribers.isEmpty() && !stopped) {
+            stopped = true;
+            if (ticker != null) {
+                ticker.cancel(false);
+            }
+            onStop.accept(this);
+        }
+    }
+
+    /**
+     * Generates the next simulated price, a random walk from the latest one, and
+     * fans it out to all subscribers. Runs on the engine's scheduler thread.
+     */
+    synchronized void tick() {
+        if (latest == null) {
+            return;
+        }
+        double move = ThreadLocalRandom.current().nextDouble(-MAX_TICK_MOVE, MAX_TICK_MOVE);
+        double next = latest.price() * (1 + move);
+        publish(Quote.now(stockSymbol, Math.round(next / CENT) * CENT));
+    }
+
+    /**
+     * Makes a quote the latest price and fans it out to all subscribers.
+     * Serialized with ticks, so a tick never overwrites a newer stored price.
+     */
+    synchronized void publish(Quote quote) {
+        latest = quote;
+        for (PriceSubscriber<?> subscriber : subscribers) {
+            if (!subscriber.deliver(quote)) {
+                remove(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Completes every subscriber, used on engine shutdown.
+     */
+    void completeAll() {
+        for (PriceSubscriber<?> subscriber : subscribers) {
+            subscriber.complete();
+            remove(subscriber);
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+}
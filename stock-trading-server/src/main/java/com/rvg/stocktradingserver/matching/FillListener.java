@@ -0,0 +1,21 @@
+package com.rvg.stocktradingserver.matching;
+
+/**
+ * Callback invoked by {@link OrderBook} for every fill while an incoming order is matched.
+ * Invoked in the middle of matching, so implementations must not call back into the book.
+ *
+ * @param <T> Type of the caller-supplied tag attached to each order
+ */
+@FunctionalInterface
+public interface FillListener<T> {
+
+    /**
+     * @param maker          Tag of the resting order that was hit
+     * @param taker          Tag of the incoming order
+     * @param price          Fill price in ticks (always the resting order's price)
+     * @param quantity       Filled quantity
+     * @param makerRemaining Open quantity of the resting order after this fill
+     * @param takerRemaining Open quantity of the incoming order after this fill
+     */
+    void onFill(T maker, T taker, long price, int quantity, int makerRemaining, int takerRemaining);
+}
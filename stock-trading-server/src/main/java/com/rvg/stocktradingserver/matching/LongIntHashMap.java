@@ -0,0 +1,136 @@
+package com.rvg.stocktradingserver.matching;
+
+/**
+ * Open-addressing hash map from primitive long keys to primitive int values.
+ * Used by {@link OrderBook} to find the pool slot of an order by its reference
+ * without boxing. Linear probing with backward-shift deletion, so no tombstones
+ * accumulate under insert/cancel churn. Key 0 is reserved as the empty marker.
+ *
+ * Not thread-safe.
+ */
+final class LongIntHashMap {
+
+    static final int MISSING = -1;
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    int get(long key) {
+        int index = indexOf(key);
+        while (true) {
+            long current = keys[index];
+            if (current == key) {
+                return values[index];
+            }
+            if (current == EMPTY) {
+                return MISSING;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    void put(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int index = indexOf(key);
+        while (true) {
+            long current = keys[index];
+            if (current == key) {
+                values[index] = value;
+                return;
+            }
+            if (current == EMPTY) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size * 2 > keys.length) {
+                    rehash(keys.length << 1);
+                }
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    int remove(long key) {
+        int index = indexOf(key);
+        while (true) {
+            long current = keys[index];
+            if (current == EMPTY) {
+                return MISSING;
+            }
+            if (current == key) {
+                int value = values[index];
+                shiftBack(index);
+                size--;
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Closes the gap left at {@code hole} by moving later entries of the same
+     * probe run back, keeping every key reachable from its home slot.
+     */
+    private void shiftBack(int hole) {
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            long key = keys[index];
+            if (key == EMPTY) {
+                break;
+            }
+            int home = indexOf(key);
+            boolean reachable = hole <= index
+                    ? hole < home && home <= index
+                    : hole < home || home <= index;
+            if (!reachable) {
+                keys[hole] = key;
+                values[hole] = values[index];
+                hole = index;
+            }
+        }
+        keys[hole] = EMPTY;
+    }
+
+    private int indexOf(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = indexOf(oldKeys[i]);
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,277 @@
+package com.rvg.stocktradingserver.matching;
+
+import com.rvg.grpc.OrderSummary;
+import com.rvg.grpc.TradeStatus;
+import com.rvg.stocktradingserver.journal.TradeJournal;
+import com.rvg.stocktradingserver.risk.Exposure;
+import com.rvg.stocktradingserver.risk.RiskEngine;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory matching engine behind LiveTrading and BulkStockOrder.
+ *
+ * Keeps one price-time priority {@link OrderBook} per symbol. Incoming orders are
+ * matched against the opposite side; every fill is reported as a TradeStatus to
+ * both the incoming order's session and the resting order's session, and any
+ * remainder rests in the book as PENDING until it is filled or cancelled.
+ *
+ * Symbols are spread by hash over a fixed set of {@link OrderShard}s. The gRPC
+ * thread only validates an order and queues it; matching and all status writes
+ * happen on the shard's own thread, so books are never locked and the statuses of
+ * one symbol reach each stream in the order its requests arrived.
+ *
+ * Every execution is appended to the {@link TradeJournal} before it is reported;
+ * saving it to the database is left to the journal's background writer. While the
+ * journal is nearly full, new orders fail instead of adding more trades to it.
+ *
+ * New orders pass the {@link RiskEngine} on the gRPC thread before they are
+ * queued; the quantity it reserves is settled here on every fill and cancel.
+ *
+ * The engine works on {@link OrderRequest}s and {@link OrderEvent}s; each session
+ * and batch turns them into the v1 or v2 messages of its own stream.
+ */
+@Component
+public class MatchingEngine {
+
+    private final OrderShard[] shards;
+    private final TradeJournal tradeJournal;
+    private final RiskEngine riskEngine;
+    private final AtomicLong nextRef = new AtomicLong();
+    private final AtomicLong nextSession = new AtomicLong();
+    private final FillListener<OrderContext> fillListener = this::onFill;
+
+    /**
+     * Constructor for dependency injection. Starts one thread per shard.
+     *
+     * @param properties   Shard count and queue capacity
+     * @param tradeJournal Local journal every execution is appended to
+     * @param riskEngine   Pre-trade checks every new order has to pass
+     */
+    public MatchingEngine(MatchingProperties properties, TradeJournal tradeJournal, RiskEngine riskEngine) {
+        this.tradeJournal = tradeJournal;
+        this.riskEngine = riskEngine;
+        ThreadFactory threadFactory = Thread.ofPlatform().name("matching-shard-", 0).daemon().factory();
+        this.shards = new OrderShard[Math.max(1, properties.shards())];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new OrderShard(i, properties.ringBufferSize(), threadFactory);
+        }
+        for (OrderShard shard : shards) {
+            shard.start();
+        }
+    }
+
+    /**
+     * Opens a trading session for one LiveTrading stream.
+     *
+     * @param responseObserver Stream receiving the session's trade statuses
+     */
+    public TradingSession<TradeStatus> openSession(StreamObserver<TradeStatus> responseObserver) {
+        return openSession(responseObserver, OrderEvent::toTradeStatus);
+    }
+
+    /**
+     * Opens a trading session writing each order event as the message picked by the encoder.
+     *
+     * @param responseObserver Stream receiving the session's trade statuses
+     * @param encoder          Message an order event is written as
+     */
+    public <T> TradingSession<T> openSession(StreamObserver<T> responseObserver, Function<OrderEvent, T> encoder) {
+        return new TradingSession<>(this, responseObserver, encoder, "session-" + nextSession.incrementAndGet());
+    }
+
+    /**
+     * Opens a batch for one BulkStockOrder stream.
+     *
+     * @param responseObserver Stream receiving the batch summary
+     */
+    public OrderBatch<OrderSummary> openBatch(StreamObserver<OrderSummary> responseObserver) {
+        return openBatch(responseObserver, OrderBatch.Totals::toSummary);
+    }
+
+    /**
+     * Opens a batch writing its summary as the message picked by the encoder.
+     *
+     * @param responseObserver Stream receiving the batch summary
+     * @param encoder          Message the batch totals are written as
+     */
+    public <T> OrderBatch<T> openBatch(StreamObserver<T> responseObserver, Function<OrderBatch.Totals, T> encoder) {
+        return new OrderBatch<>(this, responseObserver, encoder, shards.length);
+    }
+
+    /**
+     * Number of single-writer shards.
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Stops the shard threads once their queued commands have run.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (OrderShard shard : shards) {
+            shard.stop();
+        }
+    }
+
+    void submit(TradingSession<?> session, OrderRequest orderRequest) {
+        if (orderRequest.cancel()) {
+            cancel(session, orderRequest);
+            return;
+        }
+
+        String orderId = orderRequest.orderId();
+        String stockSymbol = orderRequest.stockSymbol();
+        String rejection = validate(orderRequest);
+        if (rejection == null && !tradeJournal.hasHeadroom()) {
+            // The database is behind; the rest of the file is kept for orders already accepted
+            rejection = "Trade journal is full, retry later.";
+        }
+        OrderContext orderContext = null;
+        if (rejection == null) {
+            Exposure exposure = riskEngine.exposure(session.accountFor(orderRequest), stockSymbol);
+            rejection = riskEngine.check(exposure, orderRequest);
+            if (rejection == null) {
+                orderContext = new OrderContext(orderId, stockSymbol, orderRequest.side(), nextRef.incrementAndGet(),
+                        session, exposure);
+                // Tracked before it is queued, so a CANCEL sent right behind it finds its shard
+                if (!session.track(orderContext)) {
+                    exposure.release(orderRequest.side(), orderRequest.quantity());
+                    rejection = "Duplicate order id.";
+                }
+            }
+        }
+
+        if (rejection != null) {
+            OrderEvent failed = OrderEvent.failed(orderId, stockSymbol, rejection);
+            dispatch(stockSymbol, shard -> session.send(failed));
+            return;
+        }
+
+        OrderContext accepted = orderContext;
+        long price = orderRequest.price();
+        int quantity = orderRequest.quantity();
+        dispatch(stockSymbol, shard -> match(shard, accepted, price, quantity));
+    }
+
+    /**
+     * Pulls all resting orders of a session from the books, then runs the callback
+     * once every shard has also worked off the session's earlier orders.
+     */
+    void close(TradingSession<?> session, Runnable onClosed) {
+        broadcast(shard -> {
+            for (OrderContext orderContext : session.openOrders()) {
+                if (shardFor(orderContext.stockSymbol()) == shard) {
+                    int cancelled = shard.book(orderContext.stockSymbol()).cancel(orderContext.ref());
+                    orderContext.exposure().release(orderContext.side(), cancelled);
+                    session.untrack(orderContext);
+                }
+            }
+        }, () -> {
+            riskEngine.closeAccount(session.sessionAccountId());
+            onClosed.run();
+        });
+    }
+
+    /**
+     * Runs a command on the shard owning a symbol.
+     */
+    void dispatch(String stockSymbol, Consumer<OrderShard> command) {
+        OrderShard shard = shardFor(stockSymbol);
+        shard.execute(() -> command.accept(shard));
+    }
+
+    /**
+     * Runs a command on every shard, then the callback on whichever shard finishes last.
+     * Shards are FIFO, so everything queued before the broadcast has run by then.
+     */
+    void broadcast(Consumer<OrderShard> command, Runnable whenDone) {
+        AtomicInteger remaining = new AtomicInteger(shards.length);
+        for (OrderShard shard : shards) {
+            shard.execute(() -> {
+                command.accept(shard);
+                if (remaining.decrementAndGet() == 0) {
+                    whenDone.run();
+                }
+            });
+        }
+    }
+
+    private void match(OrderShard shard, OrderContext orderContext, long price, int quantity) {
+        OrderBook<OrderContext> book = shard.book(orderContext.stockSymbol());
+        int open = book.submit(orderContext.ref(), orderContext.side(), price, quantity, orderContext, fillListener);
+        if (open > 0) {
+            orderContext.session().send(OrderEvent.pending(orderContext, price, open));
+        } else {
+            orderContext.session().untrack(orderContext);
+        }
+    }
+
+    private void cancel(TradingSession<?> session, OrderRequest orderRequest) {
+        String orderId = orderRequest.orderId();
+        OrderContext orderContext = session.lookup(orderId);
+        if (orderContext == null) {
+            dispatch(orderRequest.stockSymbol(), shard -> session.send(notFound(orderId, orderRequest.stockSymbol())));
+            return;
+        }
+
+        dispatch(orderContext.stockSymbol(), shard -> {
+            int cancelled = shard.book(orderContext.stockSymbol()).cancel(orderContext.ref());
+            orderContext.exposure().release(orderContext.side(), cancelled);
+            session.untrack(orderContext);
+            session.send(cancelled > 0
+                    ? OrderEvent.cancelled(orderContext, cancelled)
+                    : notFound(orderId, orderContext.stockSymbol()));
+        });
+    }
+
+    private void onFill(OrderContext maker, OrderContext taker, long price, int quantity,
+                        int makerRemaining, int takerRemaining) {
+        // Journaled before either side hears about it; the database write happens behind
+        OrderContext buyer = taker.side() == Side.BUY ? taker : maker;
+        OrderContext seller = taker.side() == Side.BUY ? maker : taker;
+        tradeJournal.append(taker.stockSymbol(), price, quantity, buyer.orderId(), seller.orderId());
+        maker.exposure().fill(maker.side(), quantity);
+        taker.exposure().fill(taker.side(), quantity);
+
+        if (makerRemaining == 0) {
+            maker.session().untrack(maker);
+        }
+        maker.session().send(OrderEvent.fill(maker, price, quantity, makerRemaining));
+        taker.session().send(OrderEvent.fill(taker, price, quantity, takerRemaining));
+    }
+
+    private OrderShard shardFor(String stockSymbol) {
+        int hash = stockSymbol.hashCode();
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
+
+    private static String validate(OrderRequest orderRequest) {
+        if (orderRequest.quantity() <= 0) {
+            return "Quantity must be greater than zero.";
+        }
+        if (orderRequest.price() <= 0) {
+            return "Price must be greater than zero.";
+        }
+        if (orderRequest.stockSymbol().isEmpty()) {
+            return "Stock symbol is required.";
+        }
+        if (orderRequest.side() == null) {
+            return "Order type must be BUY, SELL or CANCEL.";
+        }
+        return null;
+    }
+
+    private static OrderEvent notFound(String orderId, String stockSymbol) {
+        return OrderEvent.failed(orderId, stockSymbol, "Order not found or already completed.");
+    }
+}
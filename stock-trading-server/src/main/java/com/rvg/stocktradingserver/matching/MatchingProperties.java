@@ -0,0 +1,16 @@
+package com.rvg.stocktradingserver.matching;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration properties for the sharded matching engine.
+ *
+ * @param shards         Number of single-writer shards (one thread each); symbols are spread by hash
+ * @param ringBufferSize Capacity of each shard's inbound queue, rounded up to a power of two
+ */
+@ConfigurationProperties(prefix = "stock.matching")
+public record MatchingProperties(
+        @DefaultValue("4") int shards,
+        @DefaultValue("4096") int ringBufferSize) {
+}
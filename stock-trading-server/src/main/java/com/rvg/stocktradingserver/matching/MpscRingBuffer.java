@@ -0,0 +1,90 @@
+package com.rvg.stocktradingserver.matching;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free multi-producer / single-consumer ring buffer.
+ *
+ * Every slot carries a sequence number telling whose turn it is: a producer claims
+ * a slot by advancing the shared tail with a CAS and publishes the element by
+ * bumping the slot's sequence; the single consumer reads slots in order and hands
+ * them back to producers one lap later. Producers never wait on each other beyond
+ * a failed CAS, and the consumer never writes shared state other than the slot
+ * sequence.
+ *
+ * @param <E> Element type
+ */
+final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    MpscRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element; safe to call from any thread.
+     *
+     * @return false if the buffer is full
+     */
+    boolean offer(E element) {
+        long claimed;
+        int index;
+        while (true) {
+            claimed = tail.get();
+            index = (int) claimed & mask;
+            long gap = sequences.get(index) - claimed;
+            if (gap == 0) {
+                if (tail.compareAndSet(claimed, claimed + 1)) {
+                    break;
+                }
+            } else if (gap < 0) {
+                return false;
+            }
+        }
+        elements[index] = element;
+        // Volatile publish: pairs with the consumer's sleep check in OrderShard
+        sequences.set(index, claimed + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest element; must only be called from the consumer thread.
+     *
+     * @return the element, or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = (E) elements[index];
+        elements[index] = null;
+        sequences.lazySet(index, head + mask + 1);
+        head++;
+        return element;
+    }
+
+    /**
+     * Whether the consumer has nothing to read; must only be called from the consumer thread.
+     */
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,123 @@
+package com.rvg.stocktradingserver.matching;
+
+import com.rvg.grpc.OrderSummary;
+import com.rvg.grpc.StockOrder;
+import io.grpc.stub.StreamObserver;
+
+import java.util.function.Function;
+
+/**
+ * One BulkStockOrder stream as seen by the {@link MatchingEngine}.
+ *
+ * Orders are tallied on the shard owning their symbol, each shard into its own
+ * slot, so no counter is shared between threads. The summary is sent once every
+ * shard has worked off the orders queued before the stream completed.
+ *
+ * @param <T> Summary message type of the stream, v1 or v2 OrderSummary
+ */
+public class OrderBatch<T> {
+
+    private final MatchingEngine matchingEngine;
+    private final StreamObserver<T> responseObserver;
+    private final Function<Totals, T> encoder;
+    private final Tally[] tallies;
+
+    OrderBatch(MatchingEngine matchingEngine, StreamObserver<T> responseObserver, Function<Totals, T> encoder,
+               int shards) {
+        this.matchingEngine = matchingEngine;
+        this.responseObserver = responseObserver;
+        this.encoder = encoder;
+        this.tallies = new Tally[shards];
+        for (int i = 0; i < shards; i++) {
+            tallies[i] = new Tally();
+        }
+    }
+
+    /**
+     * Queues an order on the shard owning its symbol.
+     *
+     * @param stockOrder Order received on the stream
+     */
+    public void add(StockOrder stockOrder) {
+        add(OrderRequest.of(stockOrder));
+    }
+
+    /**
+     * Queues an order on the shard owning its symbol.
+     *
+     * @param orderRequest Order received on the stream
+     */
+    public void add(OrderRequest orderRequest) {
+        matchingEngine.dispatch(orderRequest.stockSymbol(), shard -> tallies[shard.index()].add(orderRequest));
+    }
+
+    /**
+     * Sends the summary once all queued orders have been processed.
+     */
+    public void complete() {
+        matchingEngine.broadcast(shard -> {
+        }, this::sendSummary);
+    }
+
+    private void sendSummary() {
+        int totalOrders = 0;
+        long totalAmount = 0;
+        int successCount = 0;
+        for (Tally tally : tallies) {
+            totalOrders += tally.totalOrders;
+            totalAmount += tally.totalAmount;
+            successCount += tally.successCount;
+        }
+
+        responseObserver.onNext(encoder.apply(new Totals(totalOrders, totalAmount, successCount)));
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Totals of a completed batch.
+     *
+     * @param totalOrders  Orders received
+     * @param totalAmount  Sum of quantity times price, in ticks
+     * @param successCount Orders accepted
+     */
+    public record Totals(int totalOrders, long totalAmount, int successCount) {
+
+        /**
+         * The totals as a v1 summary, with a double amount.
+         */
+        public OrderSummary toSummary() {
+            return OrderSummary.newBuilder()
+                    .setTotalOrders(totalOrders)
+                    .setTotalAmount(Prices.toDouble(totalAmount))
+                    .setSuccessCount(successCount)
+                    .build();
+        }
+
+        /**
+         * The totals as a v2 summary.
+         */
+        public com.rvg.grpc.v2.OrderSummary toSummaryV2() {
+            return com.rvg.grpc.v2.OrderSummary.newBuilder()
+                    .setTotalOrders(totalOrders)
+                    .setTotalAmount(totalAmount)
+                    .setSuccessCount(successCount)
+                    .build();
+        }
+    }
+
+    /**
+     * Per-shard counters, written only by the owning shard thread and read after
+     * the completion barrier.
+     */
+    private static final class Tally {
+        private int totalOrders;
+        private long totalAmount;
+        private int successCount;
+
+        void add(OrderRequest orderRequest) {
+            totalOrders++;
+            totalAmount += orderRequest.quantity() * orderRequest.price();
+            successCount++;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.rvg.stocktradingserver.matching;
+
+import java.util.Arrays;
+
+/**
+ * Price-time priority limit order book for a single symbol.
+ *
+ * Orders live in a slab of parallel primitive arrays (the order pool) and are
+ * linked into a FIFO list per price level; price levels are kept in
+ * {@link PriceLevels}. Freed slots are recycled through a free list and orders
+ * are found by reference through a primitive {@link LongIntHashMap}, so steady
+ * state insert, cancel and match allocate nothing.
+ *
+ * Prices are fixed-point ticks (see {@link Prices}). The book is single-writer
+ * and not thread-safe: each book must only be touched by the thread that owns it.
+ *
+ * @param <T> Type of the caller-supplied tag attached to each order and handed
+ *            back in fills (e.g. who to notify)
+ */
+public final class OrderBook<T> {
+
+    static final int NIL = -1;
+
+    private static final int INITIAL_ORDERS = 1024;
+    private static final int INITIAL_LEVELS = 64;
+
+    private final String stockSymbol;
+    private final PriceLevels bids = new PriceLevels(true, INITIAL_LEVELS);
+    private final PriceLevels asks = new PriceLevels(false, INITIAL_LEVELS);
+    private final LongIntHashMap slotsByRef = new LongIntHashMap(INITIAL_ORDERS);
+
+    // Order pool, indexed by slot
+    private long[] refs = new long[INITIAL_ORDERS];
+    private long[] prices = new long[INITIAL_ORDERS];
+    private int[] remaining = new int[INITIAL_ORDERS];
+    private boolean[] buys = new boolean[INITIAL_ORDERS];
+    private int[] next = new int[INITIAL_ORDERS];
+    private int[] prev = new int[INITIAL_ORDERS];
+    private Object[] tags = new Object[INITIAL_ORDERS];
+    private int freeHead = NIL;
+    private int highWater;
+
+    public OrderBook(String stockSymbol) {
+        this.stockSymbol = stockSymbol;
+    }
+
+    public String getStockSymbol() {
+        return stockSymbol;
+    }
+
+    /**
+     * Matches an incoming limit order against the opposite side and rests any remainder.
+     *
+     * @param ref      Unique, non-zero reference of the order, used for cancels
+     * @param side     Side of the incoming order
+     * @param price    Limit price in ticks
+     * @param quantity Quantity, must be positive
+     * @param tag      Caller data returned in fills involving this order
+     * @param listener Receives one callback per fill
+     * @return quantity left resting in the book (0 if fully filled)
+     */
+    public int submit(long ref, Side side, long price, int quantity, T tag, FillListener<T> listener) {
+        boolean buy = side == Side.BUY;
+        int open = match(buy, price, quantity, tag, listener);
+        if (open > 0) {
+            rest(ref, buy, price, open, tag);
+        }
+        return open;
+    }
+
+    /**
+     * Removes a resting order.
+     *
+     * @param ref Reference the order was submitted with
+     * @return open quantity that was cancelled, or 0 if the order is no longer in the book
+     */
+    public int cancel(long ref) {
+        int slot = slotsByRef.remove(ref);
+        if (slot == LongIntHashMap.MISSING) {
+            return 0;
+        }
+        PriceLevels levels = buys[slot] ? bids : asks;
+        int level = levels.find(prices[slot]);
+        int open = remaining[slot];
+
+        if (prev[slot] == NIL) {
+            levels.heads[level] = next[slot];
+        } else {
+            next[prev[slot]] = next[slot];
+        }
+        if (next[slot] == NIL) {
+            levels.tails[level] = prev[slot];
+        } else {
+            prev[next[slot]] = prev[slot];
+        }
+        levels.quantities[level] -= open;
+        if (levels.heads[level] == NIL) {
+            levels.remove(level);
+        }
+        release(slot);
+        return open;
+    }
+
+    /**
+     * Best bid price in ticks, or {@link Long#MIN_VALUE} if there are no bids.
+     */
+    public long bestBid() {
+        return bids.size == 0 ? Long.MIN_VALUE : bids.price(bids.best());
+    }
+
+    /**
+     * Best ask price in ticks, or {@link Long#MAX_VALUE} if there are no asks.
+     */
+    public long bestAsk() {
+        return asks.size == 0 ? Long.MAX_VALUE : asks.price(asks.best());
+    }
+
+    /**
+     * Total open quantity resting at a price on one side.
+     */
+    public long quantityAt(Side side, long price) {
+        PriceLevels levels = side == Side.BUY ? bids : asks;
+        int level = levels.find(price);
+        return level < 0 ? 0 : levels.quantities[level];
+    }
+
+    /**
+     * Number of price levels on one side.
+     */
+    public int depth(Side side) {
+        return side == Side.BUY ? bids.size : asks.size;
+    }
+
+    /**
+     * Number of orders resting in the book.
+     */
+    public int orderCount() {
+        return slotsByRef.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private int match(boolean buy, long limitPrice, int quantity, T takerTag, FillListener<T> listener) {
+        PriceLevels opposite = buy ? asks : bids;
+
+        while (quantity > 0 && opposite.size > 0) {
+            int level = opposite.best();
+            long levelPrice = opposite.price(level);
+            if (buy ? levelPrice > limitPrice : levelPrice < limitPrice) {
+                break;
+            }
+
+            int slot = opposite.heads[level];
+            while (quantity > 0 && slot != NIL) {
+                int fill = Math.min(quantity, remaining[slot]);
+                quantity -= fill;
+                remaining[slot] -= fill;
+                opposite.quantities[level] -= fill;
+
+                int nextSlot = next[slot];
+                T makerTag = (T) tags[slot];
+                int makerRemaining = remaining[slot];
+                if (makerRemaining == 0) {
+                    slotsByRef.remove(refs[slot]);
+                    release(slot);
+                    slot = nextSlot;
+                }
+                listener.onFill(makerTag, takerTag, levelPrice, fill, makerRemaining, quantity);
+            }
+
+            if (slot == NIL) {
+                opposite.remove(level);
+            } else {
+                opposite.heads[level] = slot;
+                prev[slot] = NIL;
+            }
+        }
+        return quantity;
+    }
+
+    private void rest(long ref, boolean buy, long price, int quantity, T tag) {
+        PriceLevels levels = buy ? bids : asks;
+        int level = levels.find(price);
+        if (level < 0) {
+            level = levels.insert(-level - 1, price);
+        }
+
+        int slot = allocate();
+        refs[slot] = ref;
+        prices[slot] = price;
+        remaining[slot] = quantity;
+        buys[slot] = buy;
+        tags[slot] = tag;
+        next[slot] = NIL;
+        prev[slot] = levels.tails[level];
+
+        if (levels.tails[level] == NIL) {
+            levels.heads[level] = slot;
+        } else {
+            next[levels.tails[level]] = slot;
+        }
+        levels.tails[level] = slot;
+        levels.quantities[level] += quantity;
+        slotsByRef.put(ref, slot);
+    }
+
+    private int allocate() {
+        if (freeHead != NIL) {
+            int slot = freeHead;
+            freeHead = next[slot];
+            return slot;
+        }
+        if (highWater == refs.length) {
+            grow();
+        }
+        return highWater++;
+    }
+
+    private void release(int slot) {
+        tags[slot] = null;
+        next[slot] = freeHead;
+        freeHead = slot;
+    }
+
+    private void grow() {
+        int capacity = refs.length << 1;
+        refs = Arrays.copyOf(refs, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        remaining = Arrays.copyOf(remaining, capacity);
+        buys = Arrays.copyOf(buys, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        tags = Arrays.copyOf(tags, capacity);
+    }
+}
@@ -0,0 +1,18 @@
+package com.rvg.stocktradingserver.matching;
+
+import com.rvg.stocktradingserver.risk.Exposure;
+
+/**
+ * Engine-side identity of an order, attached to it in the {@link OrderBook}
+ * and handed back on every fill.
+ *
+ * @param orderId     Client order id
+ * @param stockSymbol Symbol of the book the order lives in
+ * @param side        Side of the order
+ * @param ref         Engine-wide unique reference used by the book
+ * @param session     Trading session that placed the order and receives its statuses
+ * @param exposure    Risk exposure the order's quantity is reserved on
+ */
+record OrderContext(String orderId, String stockSymbol, Side side, long ref, TradingSession<?> session,
+                    Exposure exposure) {
+}
@@ -0,0 +1,99 @@
+package com.rvg.stocktradingserver.matching;
+
+import com.rvg.grpc.TradeStatus;
+import com.rvg.grpc.v2.OrderStatus;
+
+/**
+ * A status change of one order, produced by the {@link MatchingEngine} and written
+ * to the order's session as a v1 or v2 TradeStatus.
+ *
+ * @param orderId           Client order id
+ * @param stockSymbol       Symbol the order trades
+ * @param state             New state of the order
+ * @param quantity          Filled quantity for a fill, cancelled quantity for a cancel, 0 otherwise
+ * @param price             Fill price for a fill, limit price for a resting order, in ticks
+ * @param remainingQuantity Open quantity left in the book
+ * @param reason            Why the order failed, or null
+ * @param timestampNanos    Time of the change, in nanoseconds since the epoch
+ */
+public record OrderEvent(String orderId, String stockSymbol, OrderState state, int quantity, long price,
+                         int remainingQuantity, String reason, long timestampNanos) {
+
+    static OrderEvent pending(OrderContext orderContext, long price, int open) {
+        return new OrderEvent(orderContext.orderId(), orderContext.stockSymbol(), OrderState.PENDING,
+                0, price, open, null, Timestamps.now());
+    }
+
+    static OrderEvent fill(OrderContext orderContext, long price, int quantity, int remaining) {
+        return new OrderEvent(orderContext.orderId(), orderContext.stockSymbol(),
+                remaining == 0 ? OrderState.EXECUTED : OrderState.PARTIALLY_FILLED,
+                quantity, price, remaining, null, Timestamps.now());
+    }
+
+    static OrderEvent cancelled(OrderContext orderContext, int cancelled) {
+        return new OrderEvent(orderContext.orderId(), orderContext.stockSymbol(), OrderState.CANCELLED,
+                cancelled, 0, 0, null, Timestamps.now());
+    }
+
+    static OrderEvent failed(String orderId, String stockSymbol, String reason) {
+        return new OrderEvent(orderId, stockSymbol, OrderState.FAILED, 0, 0, 0, reason, Timestamps.now());
+    }
+
+    /**
+     * The event as a v1 status, with a human-readable message and an ISO-8601 timestamp.
+     */
+    public TradeStatus toTradeStatus() {
+        boolean fill = isFill();
+        return TradeStatus.newBuilder()
+                .setOrderId(orderId)
+                .setStatus(state.name())
+                .setMessage(message())
+                .setTimestamp(Timestamps.toInstant(timestampNanos).toString())
+                .setFilledQuantity(fill ? quantity : 0)
+                .setFillPrice(fill ? Prices.toDouble(price) : 0)
+                .setRemainingQuantity(remainingQuantity)
+                .build();
+    }
+
+    /**
+     * The event as a v2 status. Only a failure carries text.
+     */
+    public com.rvg.grpc.v2.TradeStatus toTradeStatusV2() {
+        boolean fill = isFill();
+        com.rvg.grpc.v2.TradeStatus.Builder status = com.rvg.grpc.v2.TradeStatus.newBuilder()
+                .setOrderId(orderId)
+                .setStatus(switch (state) {
+                    case PENDING -> OrderStatus.ORDER_STATUS_PENDING;
+                    case PARTIALLY_FILLED -> OrderStatus.ORDER_STATUS_PARTIALLY_FILLED;
+                    case EXECUTED -> OrderStatus.ORDER_STATUS_EXECUTED;
+                    case CANCELLED -> OrderStatus.ORDER_STATUS_CANCELLED;
+                    case FAILED -> OrderStatus.ORDER_STATUS_FAILED;
+                })
+                .setTimestampNanos(timestampNanos)
+                .setFilledQuantity(fill ? quantity : 0)
+                .setFillPrice(fill ? price : 0)
+                .setRemainingQuantity(remainingQuantity);
+        if (reason != null) {
+            status.setReason(reason);
+        }
+        return status.build();
+    }
+
+    private boolean isFill() {
+        return state == OrderState.EXECUTED || state == OrderState.PARTIALLY_FILLED;
+    }
+
+    private String message() {
+        double displayPrice = Prices.toDouble(price);
+        return switch (state) {
+            case PENDING -> "Order " + orderId + " for " + stockSymbol + " resting: "
+                    + remainingQuantity + " @ " + displayPrice + " open.";
+            case PARTIALLY_FILLED -> "Order " + orderId + " for " + stockSymbol + " partially filled: "
+                    + quantity + " @ " + displayPrice + ", " + remainingQuantity + " remaining.";
+            case EXECUTED -> "Order " + orderId + " for " + stockSymbol + " executed successfully: "
+                    + quantity + " @ " + displayPrice + ".";
+            case CANCELLED -> "Order " + orderId + " cancelled, " + quantity + " unfilled.";
+            case FAILED -> "Order " + orderId + " failed: " + reason;
+        };
+    }
+}
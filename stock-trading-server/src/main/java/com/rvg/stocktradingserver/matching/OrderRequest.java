@@ -0,0 +1,55 @@
+package com.rvg.stocktradingserver.matching;
+
+import com.rvg.grpc.StockOrder;
+import com.rvg.grpc.v2.OrderType;
+
+/**
+ * An order as received on a v1 or v2 stream, with a fixed-point price.
+ *
+ * @param orderId     Client order id
+ * @param stockSymbol Symbol the order trades
+ * @param side        Side of the order, or null for a cancel or an unknown order type
+ * @param cancel      Whether the order cancels the resting order with the same id
+ * @param quantity    Order quantity
+ * @param price       Limit price in ticks (see {@link Prices})
+ * @param accountId   Account the risk limits apply to, or empty for the account of the stream
+ */
+public record OrderRequest(String orderId, String stockSymbol, Side side, boolean cancel, int quantity, long price,
+                           String accountId) {
+
+    private static final String CANCEL = "CANCEL";
+
+    /**
+     * Reads a v1 order, whose order type is free-form text and price a double.
+     */
+    public static OrderRequest of(StockOrder stockOrder) {
+        return new OrderRequest(stockOrder.getOrderId(), stockOrder.getStockSymbol(),
+                Side.parse(stockOrder.getOrderType()), CANCEL.equalsIgnoreCase(stockOrder.getOrderType()),
+                stockOrder.getQuantity(), Prices.toTicks(stockOrder.getPrice()), stockOrder.getAccountId());
+    }
+
+    /**
+     * Reads a v2 order.
+     */
+    public static OrderRequest of(com.rvg.grpc.v2.StockOrder stockOrder) {
+        OrderType orderType = stockOrder.getOrderType();
+        Side side = switch (orderType) {
+            case ORDER_TYPE_BUY -> Side.BUY;
+            case ORDER_TYPE_SELL -> Side.SELL;
+            default -> null;
+        };
+        return new OrderRequest(stockOrder.getOrderId(), stockOrder.getStockSymbol(), side,
+                orderType == OrderType.ORDER_TYPE_CANCEL, stockOrder.getQuantity(), stockOrder.getPrice(),
+                stockOrder.getAccountId());
+    }
+
+    /**
+     * "BUY", "SELL" or "CANCEL", or null if the order type was not recognized.
+     */
+    public String orderType() {
+        if (cancel) {
+            return CANCEL;
+        }
+        return side == null ? null : side.name();
+    }
+}
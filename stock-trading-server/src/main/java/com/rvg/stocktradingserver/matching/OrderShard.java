@@ -0,0 +1,113 @@
+package com.rvg.stocktradingserver.matching;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-writer partition of the matching engine.
+ *
+ * Owns the order books of the symbols hashed to it and a dedicated thread that
+ * drains commands from an {@link MpscRingBuffer} in arrival order. Books are only
+ * ever touched by that thread, so they need no locking. The thread spins briefly
+ * when the queue runs dry and then parks until a producer wakes it.
+ */
+final class OrderShard implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderShard.class);
+
+    private static final int IDLE_SPINS = 200;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final int index;
+    private final MpscRingBuffer<Runnable> queue;
+    private final Map<String, OrderBook<OrderContext>> books = new HashMap<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean sleeping;
+
+    OrderShard(int index, int queueCapacity, ThreadFactory threadFactory) {
+        this.index = index;
+        this.queue = new MpscRingBuffer<>(queueCapacity);
+        this.thread = threadFactory.newThread(this);
+    }
+
+    int index() {
+        return index;
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Queues a command for the shard thread. Blocks the caller while the queue is
+     * full, which pushes back on the inbound stream.
+     *
+     * @return false if the shard has been stopped and the command was dropped
+     */
+    boolean execute(Runnable command) {
+        while (!queue.offer(command)) {
+            if (!running) {
+                return false;
+            }
+            LockSupport.parkNanos(FULL_BACKOFF_NANOS);
+        }
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    /**
+     * Book of a symbol owned by this shard; shard thread only.
+     */
+    OrderBook<OrderContext> book(String stockSymbol) {
+        return books.computeIfAbsent(stockSymbol, OrderBook::new);
+    }
+
+    @Override
+    public void run() {
+        int idle = 0;
+        while (running || !queue.isEmpty()) {
+            Runnable command = queue.poll();
+            if (command != null) {
+                idle = 0;
+                runSafely(command);
+            } else if (++idle < IDLE_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                sleeping = true;
+                if (running && queue.isEmpty()) {
+                    LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                }
+                sleeping = false;
+                idle = 0;
+            }
+        }
+    }
+
+    /**
+     * Stops the shard once the commands already queued have run.
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private static void runSafely(Runnable command) {
+        try {
+            command.run();
+        } catch (RuntimeException e) {
+            // One bad command must not take the shard and all its books down
+            log.error("Error in matching shard", e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.rvg.stocktradingserver.matching;
+
+/**
+ * State of an order reported in a trade status.
+ */
+public enum OrderState {
+    PENDING,
+    PARTIALLY_FILLED,
+    EXECUTED,
+    CANCELLED,
+    FAILED
+}
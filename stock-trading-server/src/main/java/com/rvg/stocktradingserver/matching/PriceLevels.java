@@ -0,0 +1,102 @@
+package com.rvg.stocktradingserver.matching;
+
+import java.util.Arrays;
+
+/**
+ * One side of an {@link OrderBook}: the price levels held in parallel primitive arrays.
+ *
+ * Levels are kept sorted by a key so that the best level is always the last one;
+ * bids use the price itself as key (highest last), asks use the negated price
+ * (lowest last). Removing the best level after it is fully matched is therefore
+ * O(1), and new levels near the top of the book need only a short array copy.
+ *
+ * Each level points at the head and tail slot of a FIFO list of orders in the
+ * book's order pool and tracks the total open quantity.
+ *
+ * Not thread-safe.
+ */
+final class PriceLevels {
+
+    private final boolean bids;
+
+    long[] keys;
+    int[] heads;
+    int[] tails;
+    long[] quantities;
+    int size;
+
+    PriceLevels(boolean bids, int initialCapacity) {
+        this.bids = bids;
+        this.keys = new long[initialCapacity];
+        this.heads = new int[initialCapacity];
+        this.tails = new int[initialCapacity];
+        this.quantities = new long[initialCapacity];
+    }
+
+    /**
+     * Price of the level at an index, in ticks.
+     */
+    long price(int level) {
+        return bids ? keys[level] : -keys[level];
+    }
+
+    /**
+     * Index of the best level, or -1 if this side is empty.
+     */
+    int best() {
+        return size - 1;
+    }
+
+    /**
+     * Index of the level at a price, or {@code -(insertionPoint + 1)} if there is none.
+     */
+    int find(long price) {
+        return Arrays.binarySearch(keys, 0, size, bids ? price : -price);
+    }
+
+    /**
+     * Inserts an empty level at the insertion point returned by {@link #find}.
+     *
+     * @return index of the new level
+     */
+    int insert(int insertionPoint, long price) {
+        if (size == keys.length) {
+            grow();
+        }
+        int moved = size - insertionPoint;
+        if (moved > 0) {
+            System.arraycopy(keys, insertionPoint, keys, insertionPoint + 1, moved);
+            System.arraycopy(heads, insertionPoint, heads, insertionPoint + 1, moved);
+            System.arraycopy(tails, insertionPoint, tails, insertionPoint + 1, moved);
+            System.arraycopy(quantities, insertionPoint, quantities, insertionPoint + 1, moved);
+        }
+        keys[insertionPoint] = bids ? price : -price;
+        heads[insertionPoint] = OrderBook.NIL;
+        tails[insertionPoint] = OrderBook.NIL;
+        quantities[insertionPoint] = 0;
+        size++;
+        return insertionPoint;
+    }
+
+    /**
+     * Removes the level at an index.
+     */
+    void remove(int level) {
+        int moved = size - level - 1;
+        if (moved > 0) {
+            System.arraycopy(keys, level + 1, keys, level, moved);
+            System.arraycopy(heads, level + 1, heads, level, moved);
+            System.arraycopy(tails, level + 1, tails, level, moved);
+            System.arraycopy(quantities, level + 1, quantities, level, moved);
+        }
+        size--;
+    }
+
+    private void grow() {
+        int capacity = keys.length << 1;
+        keys = Arrays.copyOf(keys, capacity);
+        heads = Arrays.copyOf(heads, capacity);
+        tails = Arrays.copyOf(tails, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+    }
+}
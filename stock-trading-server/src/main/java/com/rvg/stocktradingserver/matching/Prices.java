@@ -0,0 +1,23 @@
+package com.rvg.stocktradingserver.matching;
+
+/**
+ * Fixed-point price conversion. Prices inside the matching engine are held as
+ * long ticks of 1/10,000 of a currency unit, so comparisons and level lookups
+ * never touch floating point.
+ */
+public final class Prices {
+
+    /** Ticks per currency unit. */
+    public static final long SCALE = 10_000L;
+
+    private Prices() {
+    }
+
+    public static long toTicks(double price) {
+        return Math.round(price * SCALE);
+    }
+
+    public static double toDouble(long ticks) {
+        return (double) ticks / SCALE;
+    }
+}
@@ -0,0 +1,25 @@
+package com.rvg.stocktradingserver.matching;
+
+/**
+ * Side of an order in the book.
+ */
+public enum Side {
+    BUY,
+    SELL;
+
+    /**
+     * Parses the free-form {@code order_type} of a StockOrder.
+     *
+     * @param orderType "BUY" or "SELL", case-insensitive
+     * @return the side, or null if the order type is not a side
+     */
+    public static Side parse(String orderType) {
+        if ("BUY".equalsIgnoreCase(orderType)) {
+            return BUY;
+        }
+        if ("SELL".equalsIgnoreCase(orderType)) {
+            return SELL;
+        }
+        return null;
+    }
+}
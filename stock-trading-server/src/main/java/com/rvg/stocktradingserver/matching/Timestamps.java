@@ -0,0 +1,26 @@
+package com.rvg.stocktradingserver.matching;
+
+import java.time.Instant;
+
+/**
+ * Epoch-nanosecond timestamps, as carried by v2 messages.
+ */
+public final class Timestamps {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private Timestamps() {
+    }
+
+    public static long now() {
+        return toNanos(Instant.now());
+    }
+
+    public static long toNanos(Instant instant) {
+        return instant.getEpochSecond() * NANOS_PER_SECOND + instant.getNano();
+    }
+
+    public static Instant toInstant(long nanos) {
+        return Instant.ofEpochSecond(0, nanos);
+    }
+}
@@ -0,0 +1,172 @@
+package com.rvg.stocktradingserver.matching;
+
+import com.rvg.grpc.StockOrder;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * One LiveTrading stream as seen by the {@link MatchingEngine}.
+ *
+ * Tracks the session's working orders so they can be cancelled by client order id
+ * and swept when the stream ends. Statuses for this session are written from the
+ * shard threads of the symbols it trades, so writes to the response stream are
+ * serialized.
+ *
+ * A shard thread never writes past the transport's flow control window: statuses are
+ * queued per session and written while the call reports {@code isReady()}; whatever
+ * is left is written from the call's on-ready callback via {@link #drain()}. The queue
+ * is not capped, since a status must not be dropped, but the caller stops reading
+ * orders while it is long (see {@link #pendingStatuses()}), so it grows only with the
+ * statuses of orders already accepted.
+ *
+ * Orders without an account id are risk-checked against an account of the
+ * session's own, which is dropped when the session closes.
+ *
+ * @param <T> Status message type of the stream, v1 or v2 TradeStatus
+ */
+public class TradingSession<T> {
+
+    private final MatchingEngine matchingEngine;
+    private final StreamObserver<T> responseObserver;
+    private final ServerCallStreamObserver<T> serverObserver;
+    private final Function<OrderEvent, T> encoder;
+    private final String sessionAccountId;
+    private final Map<String, OrderContext> openOrders = new ConcurrentHashMap<>();
+    private final ArrayDeque<T> outbound = new ArrayDeque<>();
+    private boolean completing;
+    private boolean closed;
+
+    TradingSession(MatchingEngine matchingEngine, StreamObserver<T> responseObserver,
+                   Function<OrderEvent, T> encoder, String sessionAccountId) {
+        this.matchingEngine = matchingEngine;
+        this.responseObserver = responseObserver;
+        this.serverObserver = responseObserver instanceof ServerCallStreamObserver<T> callObserver
+                ? callObserver
+                : null;
+        this.encoder = encoder;
+        this.sessionAccountId = sessionAccountId;
+    }
+
+    /**
+     * Submits a new order, or cancels a resting one when the order type is CANCEL.
+     *
+     * @param stockOrder Order received on the stream
+     */
+    public void submit(StockOrder stockOrder) {
+        submit(OrderRequest.of(stockOrder));
+    }
+
+    /**
+     * Submits a new order, or cancels a resting one when the order type is CANCEL.
+     *
+     * @param orderRequest Order received on the stream
+     */
+    public void submit(OrderRequest orderRequest) {
+        matchingEngine.submit(this, orderRequest);
+    }
+
+    /**
+     * Cancels all resting orders of the session and completes the response stream
+     * once the statuses of all orders already submitted have been sent.
+     */
+    public void complete() {
+        matchingEngine.close(this, this::completeStream);
+    }
+
+    /**
+     * Cancels all resting orders of the session without writing to the response stream,
+     * e.g. after the client went away.
+     */
+    public void abort() {
+        synchronized (this) {
+            closed = true;
+            outbound.clear();
+        }
+        matchingEngine.close(this, () -> {
+        });
+    }
+
+    /**
+     * Number of orders of this session queued or resting in the books.
+     */
+    public int openOrderCount() {
+        return openOrders.size();
+    }
+
+    /**
+     * Number of statuses queued but not yet written to the response stream.
+     */
+    public synchronized int pendingStatuses() {
+        return outbound.size();
+    }
+
+    /**
+     * Writes queued statuses while the response stream can take them, and completes
+     * the stream once the last one is out if the session is completing. Called from
+     * the shard threads and from the call's on-ready callback.
+     */
+    public synchronized void drain() {
+        if (closed) {
+            return;
+        }
+        try {
+            while (!outbound.isEmpty() && (serverObserver == null || serverObserver.isReady())) {
+                responseObserver.onNext(outbound.poll());
+            }
+            if (completing && outbound.isEmpty()) {
+                closed = true;
+                responseObserver.onCompleted();
+            }
+        } catch (RuntimeException e) {
+            // The call was cancelled underneath us; the session is swept on cancel
+            closed = true;
+            outbound.clear();
+        }
+    }
+
+    synchronized void send(OrderEvent orderEvent) {
+        if (closed) {
+            return;
+        }
+        outbound.add(encoder.apply(orderEvent));
+        drain();
+    }
+
+    String sessionAccountId() {
+        return sessionAccountId;
+    }
+
+    /**
+     * Account an order is risk-checked against.
+     */
+    String accountFor(OrderRequest orderRequest) {
+        return orderRequest.accountId().isEmpty() ? sessionAccountId : orderRequest.accountId();
+    }
+
+    boolean track(OrderContext orderContext) {
+        return openOrders.putIfAbsent(orderContext.orderId(), orderContext) == null;
+    }
+
+    OrderContext lookup(String orderId) {
+        return openOrders.get(orderId);
+    }
+
+    void untrack(OrderContext orderContext) {
+        openOrders.remove(orderContext.orderId(), orderContext);
+    }
+
+    Collection<OrderContext> openOrders() {
+        return openOrders.values();
+    }
+
+    private synchronized void completeStream() {
+        completing = true;
+        drain();
+    }
+}
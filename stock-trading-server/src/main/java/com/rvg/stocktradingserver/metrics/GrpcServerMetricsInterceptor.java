@@ -0,0 +1,91 @@
+package com.rvg.stocktradingserver.metrics;
+
+import com.rvg.grpc.metrics.MethodMeters;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.grpc.server.GlobalServerInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records Micrometer metrics for every call the gRPC server handles:
+ *
+ * <ul>
+ *   <li>{@code grpc.server.calls}: latency timer per method and status code; its count
+ *       is the number of calls that ended with that status</li>
+ *   <li>{@code grpc.server.calls.active}: calls and streams in flight</li>
+ *   <li>{@code grpc.server.call.messages}: messages received and sent per call</li>
+ *   <li>{@code grpc.server.message.size}: serialized message size in bytes</li>
+ * </ul>
+ *
+ * The meters of a method are registered on its first call and cached, so a message
+ * costs a counter increment and a summary update rather than a registry lookup.
+ */
+@Component
+@GlobalServerInterceptor
+public class GrpcServerMetricsInterceptor implements ServerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, MethodMeters> methods = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param meterRegistry Registry the meters are published to
+     */
+    public GrpcServerMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        MethodMeters meters = methods.computeIfAbsent(call.getMethodDescriptor().getFullMethodName(),
+                name -> new MethodMeters(meterRegistry, "grpc.server", call.getMethodDescriptor()));
+        MethodMeters.Call recorder = meters.start();
+
+        ServerCall<ReqT, RespT> recordedCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void sendMessage(RespT message) {
+                recorder.sent(message);
+                super.sendMessage(message);
+            }
+
+            @Override
+            public void close(Status status, Metadata trailers) {
+                recorder.closed(status.getCode());
+                super.close(status, trailers);
+            }
+        };
+
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(recordedCall, headers);
+        } catch (RuntimeException e) {
+            recorder.closed(Status.Code.UNKNOWN);
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                recorder.received(message);
+                super.onMessage(message);
+            }
+
+            @Override
+            public void onCancel() {
+                // Client cancelled or the deadline passed before the service closed the call
+                recorder.closed(Status.Code.CANCELLED);
+                super.onCancel();
+            }
+        };
+    }
+}
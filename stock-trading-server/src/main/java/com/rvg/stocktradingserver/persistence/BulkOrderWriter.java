@@ -0,0 +1,254 @@
+package com.rvg.stocktradingserver.persistence;
+
+import com.rvg.stocktradingserver.entity.Order;
+import com.rvg.stocktradingserver.execution.DatabaseBusyException;
+import com.rvg.stocktradingserver.execution.DatabaseGate;
+import com.rvg.stocktradingserver.execution.ExecutionMode;
+import com.rvg.stocktradingserver.execution.ExecutionProperties;
+import com.rvg.stocktradingserver.matching.OrderRequest;
+import com.rvg.stocktradingserver.matching.Prices;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves the orders of a BulkStockOrder stream in a single transaction while the
+ * stream is still being received.
+ *
+ * Every {@code flushInterval} orders are handed to a writer thread of the stream as
+ * one chunk, persisted directly through the EntityManager, flushed and cleared. With
+ * pooled sequence ids and {@code hibernate.jdbc.batch_size} set to the same value,
+ * each chunk goes out as one JDBC batch. At most two chunks wait for the writer; past
+ * that, the thread handing over the next chunk waits too, so a stream is held in
+ * memory a few chunks at a time however long it is.
+ *
+ * The writer holds its transaction's connection from the first chunk until the
+ * stream completes or is aborted, however slowly the client sends. It is therefore
+ * not admitted by the {@link DatabaseGate}, whose permits are for short calls on the
+ * request path, but by a permit of its own: at most {@code maxWritingStreams}
+ * streams are written at once, and a stream not admitted within the admission
+ * timeout fails with {@link DatabaseBusyException}. Stalled bulk clients can thus
+ * hold up other bulk streams, never price reads.
+ */
+@Component
+public class BulkOrderWriter {
+
+    // Markers compared by identity
+    private static final List<OrderRequest> END = new ArrayList<>();
+    private static final List<OrderRequest> ABORT = new ArrayList<>();
+    private static final long HAND_OVER_POLL_MILLIS = 100;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderPersistenceProperties properties;
+    private final Semaphore writers;
+    private final long admissionTimeoutNanos;
+    private final ExecutorService writerExecutor;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param entityManager       Shared, transaction-bound entity manager
+     * @param transactionManager  Transaction manager of the order tables
+     * @param executionProperties Platform or virtual writer threads, admission timeout
+     * @param properties          Flush interval and most streams written at once
+     */
+    public BulkOrderWriter(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                           ExecutionProperties executionProperties, OrderPersistenceProperties properties) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.writers = new Semaphore(Math.max(1, properties.maxWritingStreams()), true);
+        this.admissionTimeoutNanos = executionProperties.admissionTimeout().toNanos();
+        ThreadFactory threadFactory = executionProperties.mode() == ExecutionMode.VIRTUAL
+                ? Thread.ofVirtual().name("bulk-order-writer-", 0).factory()
+                : Thread.ofPlatform().name("bulk-order-writer-", 0).daemon().factory();
+        this.writerExecutor = Executors.newThreadPerTaskExecutor(threadFactory);
+    }
+
+    /**
+     * Opens the persistence side of one BulkStockOrder stream. Nothing touches the
+     * database until the first chunk is full or the stream completes.
+     */
+    public OrderStream open() {
+        return new OrderStream(Math.max(1, properties.flushInterval()));
+    }
+
+    /**
+     * Streams that can start writing without waiting for another to complete.
+     */
+    public int availableWriters() {
+        return writers.availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writerExecutor.shutdownNow();
+    }
+
+    private static Order toEntity(OrderRequest orderRequest, LocalDateTime receivedAt) {
+        Order order = new Order();
+        order.setOrderId(orderRequest.orderId());
+        order.setStockSymbol(orderRequest.stockSymbol());
+        order.setOrderType(orderRequest.orderType());
+        order.setQuantity(orderRequest.quantity());
+        order.setPrice(Prices.toDouble(orderRequest.price()));
+        order.setReceivedAt(receivedAt);
+        return order;
+    }
+
+    /**
+     * Orders of one stream on their way to the database, all or nothing. Called from
+     * the stream's callbacks, one at a time.
+     */
+    public class OrderStream {
+
+        private final int chunkSize;
+        private final BlockingQueue<List<OrderRequest>> chunks = new ArrayBlockingQueue<>(2);
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+        private final LocalDateTime receivedAt = LocalDateTime.now();
+        private List<OrderRequest> chunk;
+        private int orderCount;
+        private boolean started;
+
+        protected OrderStream(int chunkSize) {
+            this.chunkSize = chunkSize;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        /**
+         * Adds an order, handing the current chunk to the writer once it is full.
+         *
+         * @param orderRequest Order received on the stream
+         */
+        public void add(OrderRequest orderRequest) {
+            orderCount++;
+            chunk.add(orderRequest);
+            if (chunk.size() == chunkSize) {
+                handOver(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+
+        /**
+         * Number of orders added so far.
+         */
+        public int orderCount() {
+            return orderCount;
+        }
+
+        /**
+         * Writes the remaining orders and commits the stream's transaction.
+         *
+         * @throws DatabaseBusyException if the writer was not admitted to the database
+         * @throws RuntimeException      if the orders could not be saved; none of them are
+         */
+        public void complete() {
+            if (!chunk.isEmpty()) {
+                handOver(chunk);
+            }
+            handOver(END);
+            try {
+                written.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        /**
+         * Rolls back whatever the writer has persisted so far, without waiting for it,
+         * e.g. after the client went away.
+         */
+        public void abort() {
+            if (!started) {
+                written.cancel(false);
+                return;
+            }
+            // Only the writer takes from the queue, so there is room once it is cleared
+            chunks.clear();
+            chunks.offer(ABORT);
+        }
+
+        private void handOver(List<OrderRequest> orders) {
+            if (!started) {
+                started = true;
+                writerExecutor.execute(this::write);
+            }
+            try {
+                // A writer that failed takes no more chunks; complete() reports why
+                while (!written.isDone() && !chunks.offer(orders, HAND_OVER_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    // The writer is behind
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                written.completeExceptionally(new IllegalStateException("Interrupted while saving orders", e));
+            }
+        }
+
+        private void write() {
+            try {
+                admit();
+            } catch (RuntimeException e) {
+                written.completeExceptionally(e);
+                return;
+            }
+            try {
+                transactionTemplate.execute(status -> {
+                    List<OrderRequest> orders;
+                    while ((orders = takeChunk()) != END) {
+                        if (orders == ABORT) {
+                            status.setRollbackOnly();
+                            return null;
+                        }
+                        for (OrderRequest orderRequest : orders) {
+                            entityManager.persist(toEntity(orderRequest, receivedAt));
+                        }
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                    return null;
+                });
+                written.complete(null);
+            } catch (RuntimeException e) {
+                written.completeExceptionally(e);
+            } finally {
+                writers.release();
+            }
+        }
+
+        private void admit() {
+            try {
+                if (!writers.tryAcquire(admissionTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    throw new DatabaseBusyException("Too many bulk order streams are being saved, retry later.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DatabaseBusyException("Interrupted while waiting for the database.");
+            }
+        }
+
+        private List<OrderRequest> takeChunk() {
+            try {
+                return chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while saving orders", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.rvg.stocktradingserver.persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration properties for persisting bulk orders.
+ *
+ * @param flushInterval     Number of orders persisted between two flush/clear cycles;
+ *                          keep it equal to {@code hibernate.jdbc.batch_size}
+ * @param maxWritingStreams Most BulkStockOrder streams written at once, each holding a
+ *                          connection until it completes; these come on top of
+ *                          {@code stock.execution.max-database-calls}
+ */
+@ConfigurationProperties(prefix = "stock.orders")
+public record OrderPersistenceProperties(
+        @DefaultValue("500") int flushInterval,
+        @DefaultValue("2") int maxWritingStreams) {
+}
@@ -0,0 +1,53 @@
+package com.rvg.stocktradingserver.persistence;
+
+import com.rvg.stocktradingserver.entity.Stock;
+import com.rvg.stocktradingserver.entity.StockChangedEvent;
+import com.rvg.stocktradingserver.market.Quote;
+import com.rvg.stocktradingserver.matching.Prices;
+import com.rvg.stocktradingserver.repository.StockRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Writes new prices to the stocks table.
+ *
+ * Nothing is pushed from here: the update fires a {@link StockChangedEvent}, and
+ * once the transaction commits the price cache stores the new price and
+ * hands it to the market-data feed of the symbol.
+ */
+@Component
+public class StockPriceWriter {
+
+    private final StockRepository stockRepository;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param stockRepository Repository the stock is loaded and updated through
+     */
+    public StockPriceWriter(StockRepository stockRepository) {
+        this.stockRepository = stockRepository;
+    }
+
+    /**
+     * Sets the price of a stock and stamps it with the current time.
+     *
+     * @param stockSymbol Stock ticker symbol
+     * @param price       New price in ticks (see {@link Prices})
+     * @return Quote of the updated row, or null if the symbol does not exist
+     */
+    @Transactional
+    public Quote update(String stockSymbol, long price) {
+        Stock stock = stockRepository.findByStockSymbol(stockSymbol);
+        if (stock == null) {
+            return null;
+        }
+        stock.setPrice(Prices.toDouble(price));
+        // DATETIME(6) keeps microseconds; the reload then sees the same timestamp
+        stock.setLastUpdated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        return Quote.of(stock.getStockSymbol(), stock.getPrice(), stock.getLastUpdated());
+    }
+}
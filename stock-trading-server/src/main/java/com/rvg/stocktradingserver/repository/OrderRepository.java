@@ -0,0 +1,11 @@
+package com.rvg.stocktradingserver.repository;
+
+import com.rvg.stocktradingserver.entity.Order;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for managing Order entities.
+ */
+public interface OrderRepository extends JpaRepository<Order, Long> {
+    long countByStockSymbol(String stockSymbol);
+}
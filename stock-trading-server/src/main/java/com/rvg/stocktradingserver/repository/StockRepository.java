@@ -3,9 +3,14 @@ package com.rvg.stocktradingserver.repository;
 import com.rvg.stocktradingserver.entity.Stock;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Repository interface for managing Stock entities.
  */
 public interface StockRepository extends JpaRepository<Stock, Long> {
     Stock findByStockSymbol(String stockSymbol);
+
+    List<Stock> findByStockSymbolIn(Collection<String> stockSymbols);
 }
@@ -0,0 +1,13 @@
+package com.rvg.stocktradingserver.repository;
+
+import com.rvg.stocktradingserver.entity.Trade;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * Repository interface for managing Trade entities.
+ */
+public interface TradeRepository extends JpaRepository<Trade, Long> {
+    @Query("select coalesce(max(t.journalSequence), 0) from Trade t")
+    long findMaxJournalSequence();
+}
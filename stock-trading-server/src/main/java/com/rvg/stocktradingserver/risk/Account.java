@@ -0,0 +1,42 @@
+package com.rvg.stocktradingserver.risk;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Risk state of one account: an {@link Exposure} per symbol and an order rate window.
+ *
+ * The rate window is a single word holding the current second in the high half
+ * and the orders counted in it in the low half, so counting an order is one
+ * compare-and-set.
+ */
+final class Account {
+
+    private final ConcurrentMap<String, Exposure> exposures = new ConcurrentHashMap<>();
+    private final AtomicLong window = new AtomicLong();
+
+    Exposure exposure(String stockSymbol) {
+        Exposure exposure = exposures.get(stockSymbol);
+        return exposure != null ? exposure : exposures.computeIfAbsent(stockSymbol, symbol -> new Exposure(this));
+    }
+
+    /**
+     * Counts an order against the rate limit of the current second.
+     *
+     * @return false if the account already sent {@code limit} orders this second
+     */
+    boolean tryAcquire(long epochSecond, int limit) {
+        while (true) {
+            long current = window.get();
+            boolean sameSecond = current >>> 32 == epochSecond;
+            if (sameSecond && (int) current >= limit) {
+                return false;
+            }
+            long next = sameSecond ? current + 1 : epochSecond << 32 | 1;
+            if (window.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
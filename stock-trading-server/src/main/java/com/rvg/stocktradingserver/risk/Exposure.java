@@ -0,0 +1,87 @@
+package com.rvg.stocktradingserver.risk;
+
+import com.rvg.stocktradingserver.matching.Side;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Position and open order quantity of one account in one symbol.
+ *
+ * Quantity is reserved when an order is accepted and handed back when it fills
+ * or is cancelled. Reserving adds first and backs out if the limit is exceeded,
+ * so concurrent orders never need a lock and can never pass the limit together;
+ * at worst one of them is rejected while another is backing out.
+ */
+public final class Exposure {
+
+    private final Account account;
+    private final AtomicLong position = new AtomicLong();
+    private final AtomicLong openBuy = new AtomicLong();
+    private final AtomicLong openSell = new AtomicLong();
+
+    Exposure(Account account) {
+        this.account = account;
+    }
+
+    /**
+     * Books a fill: the quantity moves from open orders into the position.
+     */
+    public void fill(Side side, int quantity) {
+        if (side == Side.BUY) {
+            openBuy.addAndGet(-quantity);
+            position.addAndGet(quantity);
+        } else {
+            openSell.addAndGet(-quantity);
+            position.addAndGet(-quantity);
+        }
+    }
+
+    /**
+     * Hands back the quantity of an order that will not fill, e.g. after a cancel.
+     */
+    public void release(Side side, int quantity) {
+        (side == Side.BUY ? openBuy : openSell).addAndGet(-quantity);
+    }
+
+    /**
+     * Net filled position; positive is long.
+     */
+    public long position() {
+        return position.get();
+    }
+
+    /**
+     * Quantity of accepted orders on a side that has not filled yet.
+     */
+    public long open(Side side) {
+        return (side == Side.BUY ? openBuy : openSell).get();
+    }
+
+    Account account() {
+        return account;
+    }
+
+    /**
+     * Reserves an order's quantity if the worst-case position stays within the limit.
+     */
+    boolean reserve(Side side, int quantity, long maxPosition) {
+        if (maxPosition <= 0) {
+            (side == Side.BUY ? openBuy : openSell).addAndGet(quantity);
+            return true;
+        }
+        if (side == Side.BUY) {
+            long worstCase = position.get() + openBuy.addAndGet(quantity);
+            if (worstCase > maxPosition) {
+                openBuy.addAndGet(-quantity);
+                return false;
+            }
+        } else {
+            long worstCase = openSell.addAndGet(quantity) - position.get();
+            if (worstCase > maxPosition) {
+                openSell.addAndGet(-quantity);
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,115 @@
+package com.rvg.stocktradingserver.risk;
+
+import com.rvg.stocktradingserver.cache.StockPriceCache;
+import com.rvg.stocktradingserver.matching.OrderRequest;
+import com.rvg.stocktradingserver.matching.Prices;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-trade risk checks run on every LiveTrading order before it reaches a book.
+ *
+ * Checks, in order: the account's orders-per-second throttle, the order's
+ * notional, a fat-finger band around the stored price of the symbol, and the
+ * account's position limit in the symbol counting all its open orders. Passing
+ * the last check reserves the order's quantity on the account's {@link Exposure},
+ * which the matching engine settles on every fill and cancel.
+ *
+ * All per-account state lives in atomics, so any number of concurrent streams
+ * are checked without a shared lock. The reference price is the one the
+ * {@link StockPriceCache} holds in memory; a symbol it does not hold skips the
+ * band check rather than wait on the database.
+ */
+@Component
+public class RiskEngine {
+
+    private final StockPriceCache stockPriceCache;
+    private final long maxNotional;
+    private final long maxPosition;
+    private final double priceBand;
+    private final int maxOrdersPerSecond;
+    private final ConcurrentMap<String, Account> accounts = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param stockPriceCache Source of the reference price for the price band
+     * @param properties      Risk limits
+     */
+    public RiskEngine(StockPriceCache stockPriceCache, RiskProperties properties) {
+        this.stockPriceCache = stockPriceCache;
+        this.maxNotional = Prices.toTicks(properties.maxNotional());
+        this.maxPosition = properties.maxPosition();
+        this.priceBand = properties.priceBand();
+        this.maxOrdersPerSecond = properties.maxOrdersPerSecond();
+    }
+
+    /**
+     * Exposure of an account in a symbol, created on first use.
+     */
+    public Exposure exposure(String accountId, String stockSymbol) {
+        Account account = accounts.get(accountId);
+        if (account == null) {
+            account = accounts.computeIfAbsent(accountId, id -> new Account());
+        }
+        return account.exposure(stockSymbol);
+    }
+
+    /**
+     * Runs the pre-trade checks for a new order and reserves its quantity if it passes.
+     *
+     * @param exposure     Exposure of the ordering account in the order's symbol
+     * @param orderRequest Validated BUY or SELL order
+     * @return the reason the order is rejected, or null if it was accepted
+     */
+    public String check(Exposure exposure, OrderRequest orderRequest) {
+        String rejection = evaluate(exposure, orderRequest);
+        if (rejection != null) {
+            rejected.increment();
+        }
+        return rejection;
+    }
+
+    /**
+     * Drops the state of an account, e.g. the implicit account of a stream that has ended.
+     */
+    public void closeAccount(String accountId) {
+        accounts.remove(accountId);
+    }
+
+    /**
+     * Orders rejected since startup.
+     */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    private String evaluate(Exposure exposure, OrderRequest orderRequest) {
+        if (maxOrdersPerSecond > 0
+                && !exposure.account().tryAcquire(System.currentTimeMillis() / 1000, maxOrdersPerSecond)) {
+            return "Order rate limit of " + maxOrdersPerSecond + " per second exceeded.";
+        }
+
+        long price = orderRequest.price();
+        if (maxNotional > 0 && price > maxNotional / orderRequest.quantity()) {
+            return "Order notional exceeds the limit of " + Prices.toDouble(maxNotional) + ".";
+        }
+
+        if (priceBand > 0) {
+            long reference = stockPriceCache.storedPrice(orderRequest.stockSymbol());
+            if (reference != StockPriceCache.NO_PRICE && Math.abs(price - reference) > reference * priceBand) {
+                return "Price is more than " + Math.round(priceBand * 100) + "% away from the reference price "
+                        + Prices.toDouble(reference) + ".";
+            }
+        }
+
+        if (!exposure.reserve(orderRequest.side(), orderRequest.quantity(), maxPosition)) {
+            return "Position limit of " + maxPosition + " in " + orderRequest.stockSymbol() + " exceeded.";
+        }
+        return null;
+    }
+}
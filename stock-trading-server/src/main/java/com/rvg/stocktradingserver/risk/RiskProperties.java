@@ -0,0 +1,20 @@
+package com.rvg.stocktradingserver.risk;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration properties for the pre-trade risk checks. A limit of 0 disables its check.
+ *
+ * @param maxNotional        Largest quantity times price of a single order
+ * @param maxPosition        Largest absolute position per account and symbol, counting open orders
+ * @param priceBand          Largest relative distance of a limit price from the stored price (0.1 = 10%)
+ * @param maxOrdersPerSecond Orders an account may submit per second
+ */
+@ConfigurationProperties(prefix = "stock.risk")
+public record RiskProperties(
+        @DefaultValue("1000000") double maxNotional,
+        @DefaultValue("100000") long maxPosition,
+        @DefaultValue("0.1") double priceBand,
+        @DefaultValue("1000") int maxOrdersPerSecond) {
+}
@@ -0,0 +1,79 @@
+package com.rvg.stocktradingserver.service;
+
+import com.rvg.stocktradingserver.matching.TradingSession;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * Manual inbound flow control for a LiveTrading stream.
+ *
+ * Automatic request of inbound messages is disabled and the next client message is
+ * only pulled once the previous one has been handled, the outbound side reports
+ * {@code isReady()} and the session's queue of unwritten statuses is at most
+ * {@link #OUTBOUND_LOW_WATERMARK}. The on-ready callback first drains that queue and
+ * then releases the deferred request. A client that does not read its responses
+ * therefore stops being read from, and HTTP/2 flow control pushes back on it instead
+ * of statuses piling up in the server.
+ */
+class InboundFlowControl {
+
+    /**
+     * Unwritten statuses of a session up to which the next order is still read.
+     */
+    static final int OUTBOUND_LOW_WATERMARK = 32;
+
+    private final ServerCallStreamObserver<?> serverObserver;
+    private final TradingSession<?> session;
+    private boolean awaitingReady = true;
+
+    private InboundFlowControl(ServerCallStreamObserver<?> serverObserver, TradingSession<?> session) {
+        this.serverObserver = serverObserver;
+        this.session = session;
+        if (serverObserver != null) {
+            serverObserver.disableAutoRequest();
+            serverObserver.setOnReadyHandler(this::onReady);
+        }
+    }
+
+    /**
+     * Takes over inbound flow control of a call and the writing of its queued statuses.
+     * Must be called before the service method returns. Plain observers (e.g. in unit
+     * tests) get a no-op instance.
+     *
+     * @param responseObserver Outbound side of the call
+     * @param session          Session writing its statuses to the call
+     */
+    static InboundFlowControl attach(StreamObserver<?> responseObserver, TradingSession<?> session) {
+        return new InboundFlowControl(responseObserver instanceof ServerCallStreamObserver<?> serverObserver
+                ? serverObserver
+                : null, session);
+    }
+
+    /**
+     * Signals that an inbound message has been fully handled. Requests the next message
+     * now if the outbound side can take more, otherwise defers the request to the
+     * on-ready callback.
+     */
+    synchronized void onMessageHandled() {
+        if (serverObserver == null) {
+            return;
+        }
+        if (canRead()) {
+            serverObserver.request(1);
+        } else {
+            awaitingReady = true;
+        }
+    }
+
+    private synchronized void onReady() {
+        session.drain();
+        if (awaitingReady && canRead()) {
+            awaitingReady = false;
+            serverObserver.request(1);
+        }
+    }
+
+    private boolean canRead() {
+        return serverObserver.isReady() && session.pendingStatuses() <= OUTBOUND_LOW_WATERMARK;
+    }
+}
@@ -1,37 +1,76 @@
 package com.rvg.stocktradingserver.service;
 
 import com.rvg.grpc.*;
-import com.rvg.stocktradingserver.entity.Stock;
-import com.rvg.stocktradingserver.repository.StockRepository;
+import com.rvg.stocktradingserver.cache.StockPriceCache;
+import com.rvg.stocktradingserver.execution.DatabaseBusyException;
+import com.rvg.stocktradingserver.logging.OrderLogProperties;
+import com.rvg.stocktradingserver.logging.SampledLog;
+import com.rvg.stocktradingserver.market.MarketDataEngine;
+import com.rvg.stocktradingserver.market.PriceStream;
+import com.rvg.stocktradingserver.market.Quote;
+import com.rvg.stocktradingserver.matching.MatchingEngine;
+import com.rvg.stocktradingserver.matching.OrderBatch;
+import com.rvg.stocktradingserver.matching.OrderRequest;
+import com.rvg.stocktradingserver.matching.TradingSession;
+import com.rvg.stocktradingserver.matching.Prices;
+import com.rvg.stocktradingserver.persistence.BulkOrderWriter;
+import com.rvg.stocktradingserver.persistence.StockPriceWriter;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.grpc.server.service.GrpcService;
 
-import java.time.Instant;
-import java.util.Random;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
 
 /**
  * gRPC service implementation for stock trading operations.
  * Handles unary, server-streaming, client-streaming, and bidirectional streaming RPCs.
+ * This is the v1 schema; {@link StockTradingV2Impl} serves the same engines with
+ * numeric timestamps, fixed-point prices and enums.
  *
  * @author Your Name
  */
 @GrpcService
 public class StockTradingImpl extends StockTradingServiceGrpc.StockTradingServiceImplBase {
 
-    private final StockRepository stockRepository;
+    private static final Logger log = LoggerFactory.getLogger(StockTradingImpl.class);
+
+    private final StockPriceCache stockPriceCache;
+    private final MarketDataEngine marketDataEngine;
+    private final MatchingEngine matchingEngine;
+    private final BulkOrderWriter bulkOrderWriter;
+    private final StockPriceWriter stockPriceWriter;
+    private final SampledLog bulkOrderLog;
+    private final SampledLog liveOrderLog;
 
     /**
      * Constructor for dependency injection.
      *
-     * @param stockRepository Repository for stock data access
+     * @param stockPriceCache  Read-through cache in front of the stock repository
+     * @param marketDataEngine Shared per-symbol price feeds behind price subscriptions
+     * @param matchingEngine   Per-symbol order books behind live trading
+     * @param bulkOrderWriter  Batched persistence for bulk orders
+     * @param stockPriceWriter Writes price updates to the stocks table
+     * @param orderLog         Sampling of the per-order log lines
      */
-    public StockTradingImpl(StockRepository stockRepository) {
-        this.stockRepository = stockRepository;
+    public StockTradingImpl(StockPriceCache stockPriceCache, MarketDataEngine marketDataEngine,
+                            MatchingEngine matchingEngine, BulkOrderWriter bulkOrderWriter,
+                            StockPriceWriter stockPriceWriter, OrderLogProperties orderLog) {
+        this.stockPriceCache = stockPriceCache;
+        this.marketDataEngine = marketDataEngine;
+        this.matchingEngine = matchingEngine;
+        this.bulkOrderWriter = bulkOrderWriter;
+        this.stockPriceWriter = stockPriceWriter;
+        this.bulkOrderLog = new SampledLog(log, orderLog.sampling("bulk-stock-order"));
+        this.liveOrderLog = new SampledLog(log, orderLog.sampling("live-trading"));
     }
 
     /**
      * Unary RPC: Get current price for a specific stock symbol.
+     * Served from the price cache; the database is only hit on a miss, and a miss
+     * the database cannot admit in time fails with RESOURCE_EXHAUSTED.
      *
      * @param request Stock symbol request
      * @param responseObserver Single StockResponse observer
@@ -39,74 +78,192 @@ public class StockTradingImpl extends StockTradingServiceGrpc.StockTradingServic
     @Override
     public void getStockPrice(StockRequest request, StreamObserver<StockResponse> responseObserver) {
         String stockSymbol = request.getStockSymbol();
-        Stock stockEntity = stockRepository.findByStockSymbol(stockSymbol);
+        Quote quote;
+        try {
+            quote = stockPriceCache.get(stockSymbol);
+        } catch (DatabaseBusyException e) {
+            responseObserver.onError(busy(e));
+            return;
+        }
+
+        if (quote == null) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription("Unknown stock symbol: " + stockSymbol)
+                    .asRuntimeException());
+            return;
+        }
+
+        responseObserver.onNext(quote.toResponse());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Unary RPC: Get current prices for a list of stock symbols.
+     * Cached symbols are served from heap; all misses are resolved with one repository query.
+     * Prices are returned in request order; unknown symbols are omitted.
+     *
+     * @param request List of stock symbols
+     * @param responseObserver Single StockListResponse observer
+     */
+    @Override
+    public void getStockPrices(StockListRequest request, StreamObserver<StockListResponse> responseObserver) {
+        Map<String, Quote> quotes;
+        try {
+            quotes = stockPriceCache.getAll(request.getStockSymbolsList());
+        } catch (DatabaseBusyException e) {
+            responseObserver.onError(busy(e));
+            return;
+        }
+
+        StockListResponse.Builder response = StockListResponse.newBuilder();
+        for (String stockSymbol : request.getStockSymbolsList()) {
+            Quote quote = quotes.get(stockSymbol);
+            if (quote != null) {
+                response.addPrices(quote.toResponse());
+            }
+        }
+
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Unary RPC: Set the stored price of an existing stock.
+     * Once the update commits, the new price is served by GetStockPrice and pushed
+     * to the symbol's subscribers.
+     *
+     * @param request Stock symbol and new price
+     * @param responseObserver Single StockResponse observer with the stored price
+     */
+    @Override
+    public void updateStockPrice(StockPriceUpdate request, StreamObserver<StockResponse> responseObserver) {
+        String stockSymbol = request.getStockSymbol();
+        double price = request.getPrice();
+        if (!Double.isFinite(price) || price <= 0) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Price must be positive.")
+                    .asRuntimeException());
+            return;
+        }
+
+        Quote quote;
+        try {
+            quote = stockPriceWriter.update(stockSymbol, Prices.toTicks(price));
+        } catch (RuntimeException e) {
+            log.error("Error updating the price of {}", stockSymbol, e);
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Price could not be saved")
+                    .asRuntimeException());
+            return;
+        }
 
-        StockResponse stockResponse = StockResponse.newBuilder()
-                .setStockSymbol(stockEntity.getStockSymbol())
-                .setPrice(stockEntity.getPrice())
-                .setTimestamp(stockEntity.getLastUpdated().toString())
-                .build();
+        if (quote == null) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription("Unknown stock symbol: " + stockSymbol)
+                    .asRuntimeException());
+            return;
+        }
 
-        responseObserver.onNext(stockResponse);
+        responseObserver.onNext(quote.toResponse());
         responseObserver.onCompleted();
     }
 
     /**
      * Server-streaming RPC: Subscribe to real-time stock price updates.
-     * Streams 11 random price updates every second for 10 seconds.
+     * Attaches the stream to the shared feed of the symbol and returns immediately;
+     * the feed pushes the stored price on subscribe and every change of it until
+     * the configured number of updates has been sent. If the stored price has to be
+     * loaded and the database does not admit the load, the call fails with
+     * RESOURCE_EXHAUSTED.
      *
      * @param request Stock symbol request
      * @param responseObserver Multiple StockResponse observer
      */
     @Override
     public void subscribeStockPrice(StockRequest request, StreamObserver<StockResponse> responseObserver) {
-        String stockSymbol = request.getStockSymbol();
-        for (int i = 0; i <= 10; i++) {
-            StockResponse stockResponse = StockResponse.newBuilder()
-                    .setStockSymbol(stockSymbol)
-                    .setPrice(new Random().nextDouble(200.0))
-                    .setTimestamp(Instant.now().toString())
-                    .build();
-            responseObserver.onNext(stockResponse);
-            try {
-                TimeUnit.SECONDS.sleep(1);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
+        try {
+            marketDataEngine.subscribe(request.getStockSymbol(), responseObserver);
+        } catch (DatabaseBusyException e) {
+            responseObserver.onError(busy(e));
         }
-        responseObserver.onCompleted();
+    }
+
+    /**
+     * Bidirectional streaming RPC: Multiplexed price subscription.
+     * Client sends SUBSCRIBE/UNSUBSCRIBE control messages for any number of symbols
+     * and receives the updates of all its symbols on a single response stream.
+     *
+     * @param responseObserver Combined StockResponse observer for all subscribed symbols
+     * @return StreamObserver for SubscriptionRequest control messages
+     */
+    @Override
+    public StreamObserver<SubscriptionRequest> streamStockPrices(StreamObserver<StockResponse> responseObserver) {
+        PriceStream priceStream = marketDataEngine.openStream(responseObserver);
+
+        return new StreamObserver<SubscriptionRequest>() {
+            /**
+             * Apply a subscribe or unsubscribe request to the stream.
+             */
+            @Override
+            public void onNext(SubscriptionRequest subscriptionRequest) {
+                for (String stockSymbol : subscriptionRequest.getStockSymbolsList()) {
+                    if (subscriptionRequest.getAction() == SubscriptionRequest.Action.UNSUBSCRIBE) {
+                        priceStream.unsubscribe(stockSymbol);
+                    } else {
+                        priceStream.subscribe(stockSymbol);
+                    }
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                priceStream.cancel();
+            }
+
+            /**
+             * Client is done sending control messages; close the price stream.
+             */
+            @Override
+            public void onCompleted() {
+                priceStream.complete();
+            }
+        };
     }
 
     /**
      * Client-streaming RPC: Process multiple bulk stock orders and return summary.
-     * Accumulates total orders, amount, and success count.
+     * Accumulates total orders, amount, and success count on the matching shards
+     * owning each order's symbol. Orders are saved in JDBC batches while they arrive,
+     * all in one transaction that commits when the stream completes and rolls back if
+     * it fails; the summary is sent once all of them are counted.
      *
      * @param responseObserver Single OrderSummary observer
      * @return StreamObserver for multiple StockOrder requests
      */
     @Override
     public StreamObserver<StockOrder> bulkStockOrder(StreamObserver<OrderSummary> responseObserver) {
-        return new StreamObserver<StockOrder>() {
-            private int totalOrders = 0;
-            private double totalAmount = 0.0;
-            private int successCount = 0;
+        OrderBatch<OrderSummary> batch = matchingEngine.openBatch(responseObserver);
+        BulkOrderWriter.OrderStream saved = bulkOrderWriter.open();
 
+        return new StreamObserver<StockOrder>() {
             /**
-             * Process each incoming stock order.
-             * Updates counters and total amount.
+             * Route each incoming stock order to its shard for counting
+             * and keep it for saving.
              */
             @Override
             public void onNext(StockOrder stockOrder) {
-                System.out.println("Received order: " + stockOrder);
-                totalOrders++;
-                totalAmount += stockOrder.getQuantity() * stockOrder.getPrice();
-                successCount++;
+                if (bulkOrderLog.sample()) {
+                    logOrder("BulkStockOrder", stockOrder);
+                }
+                OrderRequest orderRequest = OrderRequest.of(stockOrder);
+                saved.add(orderRequest);
+                batch.add(orderRequest);
             }
 
             @Override
             public void onError(Throwable t) {
-                System.err.println("Error receiving stock orders: " + t.getMessage());
+                log.warn("Error receiving stock orders: {}", t.getMessage());
+                saved.abort();
             }
 
             /**
@@ -114,69 +271,95 @@ public class StockTradingImpl extends StockTradingServiceGrpc.StockTradingServic
              */
             @Override
             public void onCompleted() {
-                System.out.println("Completed receiving stock orders.");
-                OrderSummary orderSummary = OrderSummary.newBuilder()
-                        .setTotalOrders(totalOrders)
-                        .setTotalAmount(totalAmount)
-                        .setSuccessCount(successCount)
-                        .build();
-
-                responseObserver.onNext(orderSummary);
-                responseObserver.onCompleted();
+                log.debug("Completed receiving {} stock orders", saved.orderCount());
+                try {
+                    saved.complete();
+                } catch (DatabaseBusyException e) {
+                    responseObserver.onError(busy(e));
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Error saving {} stock orders", saved.orderCount(), e);
+                    responseObserver.onError(Status.INTERNAL
+                            .withDescription("Orders could not be saved")
+                            .asRuntimeException());
+                    return;
+                }
+                batch.complete();
             }
         };
     }
 
     /**
-     * Bidirectional streaming RPC: Live trading with immediate response per order.
-     * Client sends orders continuously, server responds with TradeStatus for each.
+     * Bidirectional streaming RPC: Live trading against the per-symbol order books.
+     * Each order is matched with price-time priority; the client receives a TradeStatus
+     * per fill (PARTIALLY_FILLED / EXECUTED), PENDING for a resting remainder, CANCELLED
+     * for an order_type CANCEL request, and FAILED for invalid orders. Fills of resting
+     * orders are reported whenever another session trades against them. Orders are
+     * matched on the engine's shard threads; statuses of one symbol arrive in request order.
+     * Statuses the client is not ready for are queued on the session, and the next order
+     * is only read once that queue is short (see {@link InboundFlowControl}).
      *
      * @param responseObserver Multiple TradeStatus observer
      * @return StreamObserver for continuous StockOrder requests
      */
     @Override
     public StreamObserver<StockOrder> liveTrading(StreamObserver<TradeStatus> responseObserver) {
+        TradingSession<TradeStatus> session = matchingEngine.openSession(responseObserver);
+        InboundFlowControl flowControl = InboundFlowControl.attach(responseObserver, session);
+
         return new StreamObserver<StockOrder>() {
             /**
-             * Process live trading order and send immediate status response.
-             * Validates quantity > 0.
+             * Match the order and report its status.
              */
             @Override
             public void onNext(StockOrder stockOrder) {
-                System.out.println("Received live order: " + stockOrder);
-                String status = "EXECUTED";
-                String message = "Order " + stockOrder.getOrderId() +
-                        " for " + stockOrder.getStockSymbol() +
-                        " executed successfully.";
-
-                if (stockOrder.getQuantity() <= 0) {
-                    status = "FAILED";
-                    message = "Order " + stockOrder.getOrderId() +
-                            " failed: Quantity must be greater than zero.";
+                if (liveOrderLog.sample()) {
+                    logOrder("LiveTrading", stockOrder);
                 }
-
-                TradeStatus tradeStatus = TradeStatus.newBuilder()
-                        .setOrderId(stockOrder.getOrderId())
-                        .setStatus(status)
-                        .setMessage(message)
-                        .setTimestamp(Instant.now().toString())
-                        .build();
-                responseObserver.onNext(tradeStatus);
+                session.submit(stockOrder);
+                flowControl.onMessageHandled();
             }
 
+            /**
+             * Client went away: pull its resting orders from the books.
+             */
             @Override
             public void onError(Throwable t) {
-                System.err.println("Error in live trading: " + t.getMessage());
+                log.warn("Error in live trading: {}", t.getMessage());
+                session.abort();
             }
 
             /**
-             * Complete live trading session.
+             * Complete live trading session. Resting orders are cancelled.
              */
             @Override
             public void onCompleted() {
-                System.out.println("Live trading completed.");
-                responseObserver.onCompleted();
+                log.debug("Live trading completed");
+                session.complete();
             }
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Logs a received order field by field, as key-value pairs for structured output,
+     * instead of through the message's toString().
+     */
+    private static void logOrder(String method, StockOrder stockOrder) {
+        log.atInfo()
+                .addKeyValue("method", method)
+                .addKeyValue("orderId", stockOrder.getOrderId())
+                .addKeyValue("symbol", stockOrder.getStockSymbol())
+                .addKeyValue("type", stockOrder.getOrderType())
+                .addKeyValue("quantity", stockOrder.getQuantity())
+                .addKeyValue("price", stockOrder.getPrice())
+                .addKeyValue("account", stockOrder.getAccountId())
+                .log("Received order");
+    }
+
+    /**
+     * Status for a request whose cache miss was not admitted to the database.
+     */
+    private static StatusRuntimeException busy(DatabaseBusyException e) {
+        return Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage()).asRuntimeException();
+    }
+}
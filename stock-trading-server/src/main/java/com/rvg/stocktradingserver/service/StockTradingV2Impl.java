@@ -0,0 +1,329 @@
+package com.rvg.stocktradingserver.service;
+
+import com.rvg.grpc.StockListRequest;
+import com.rvg.grpc.StockRequest;
+import com.rvg.grpc.SubscriptionRequest;
+import com.rvg.grpc.v2.OrderSummary;
+import com.rvg.grpc.v2.StockOrder;
+import com.rvg.grpc.v2.StockPriceUpdate;
+import com.rvg.grpc.v2.StockQuote;
+import com.rvg.grpc.v2.StockQuoteList;
+import com.rvg.grpc.v2.StockTradingServiceGrpc;
+import com.rvg.grpc.v2.TradeStatus;
+import com.rvg.stocktradingserver.cache.StockPriceCache;
+import com.rvg.stocktradingserver.execution.DatabaseBusyException;
+import com.rvg.stocktradingserver.logging.OrderLogProperties;
+import com.rvg.stocktradingserver.logging.SampledLog;
+import com.rvg.stocktradingserver.market.MarketDataEngine;
+import com.rvg.stocktradingserver.market.PriceStream;
+import com.rvg.stocktradingserver.market.Quote;
+import com.rvg.stocktradingserver.matching.MatchingEngine;
+import com.rvg.stocktradingserver.matching.OrderBatch;
+import com.rvg.stocktradingserver.matching.OrderEvent;
+import com.rvg.stocktradingserver.matching.OrderRequest;
+import com.rvg.stocktradingserver.matching.Prices;
+import com.rvg.stocktradingserver.matching.TradingSession;
+import com.rvg.stocktradingserver.persistence.BulkOrderWriter;
+import com.rvg.stocktradingserver.persistence.StockPriceWriter;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.grpc.server.service.GrpcService;
+
+import java.util.Map;
+
+/**
+ * gRPC service implementation for the v2 stock trading schema.
+ *
+ * Shares the price cache, market-data feeds and matching engine with the v1
+ * {@link StockTradingImpl}; only the messages differ. Timestamps are epoch
+ * nanoseconds, prices are fixed-point ticks and order types and statuses are
+ * enums, so nothing on the request or response path is formatted or parsed as text.
+ */
+@GrpcService
+public class StockTradingV2Impl extends StockTradingServiceGrpc.StockTradingServiceImplBase {
+
+    private static final Logger log = LoggerFactory.getLogger(StockTradingV2Impl.class);
+
+    private final StockPriceCache stockPriceCache;
+    private final MarketDataEngine marketDataEngine;
+    private final MatchingEngine matchingEngine;
+    private final BulkOrderWriter bulkOrderWriter;
+    private final StockPriceWriter stockPriceWriter;
+    private final SampledLog bulkOrderLog;
+    private final SampledLog liveOrderLog;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param stockPriceCache  Read-through cache in front of the stock repository
+     * @param marketDataEngine Shared per-symbol price feeds behind price subscriptions
+     * @param matchingEngine   Per-symbol order books behind live trading
+     * @param bulkOrderWriter  Batched persistence for bulk orders
+     * @param stockPriceWriter Writes price updates to the stocks table
+     * @param orderLog         Sampling of the per-order log lines, the same as v1's
+     */
+    public StockTradingV2Impl(StockPriceCache stockPriceCache, MarketDataEngine marketDataEngine,
+                              MatchingEngine matchingEngine, BulkOrderWriter bulkOrderWriter,
+                              StockPriceWriter stockPriceWriter, OrderLogProperties orderLog) {
+        this.stockPriceCache = stockPriceCache;
+        this.marketDataEngine = marketDataEngine;
+        this.matchingEngine = matchingEngine;
+        this.bulkOrderWriter = bulkOrderWriter;
+        this.stockPriceWriter = stockPriceWriter;
+        this.bulkOrderLog = new SampledLog(log, orderLog.sampling("bulk-stock-order"));
+        this.liveOrderLog = new SampledLog(log, orderLog.sampling("live-trading"));
+    }
+
+    /**
+     * Unary RPC: Get current price for a specific stock symbol.
+     *
+     * @param request Stock symbol request
+     * @param responseObserver Single StockQuote observer
+     */
+    @Override
+    public void getStockPrice(StockRequest request, StreamObserver<StockQuote> responseObserver) {
+        String stockSymbol = request.getStockSymbol();
+        Quote quote;
+        try {
+            quote = stockPriceCache.get(stockSymbol);
+        } catch (DatabaseBusyException e) {
+            responseObserver.onError(busy(e));
+            return;
+        }
+
+        if (quote == null) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription("Unknown stock symbol: " + stockSymbol)
+                    .asRuntimeException());
+            return;
+        }
+
+        responseObserver.onNext(quote.toStockQuote());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Unary RPC: Get current prices for a list of stock symbols, in request order.
+     * Unknown symbols are omitted.
+     *
+     * @param request List of stock symbols
+     * @param responseObserver Single StockQuoteList observer
+     */
+    @Override
+    public void getStockPrices(StockListRequest request, StreamObserver<StockQuoteList> responseObserver) {
+        Map<String, Quote> quotes;
+        try {
+            quotes = stockPriceCache.getAll(request.getStockSymbolsList());
+        } catch (DatabaseBusyException e) {
+            responseObserver.onError(busy(e));
+            return;
+        }
+
+        StockQuoteList.Builder response = StockQuoteList.newBuilder();
+        for (String stockSymbol : request.getStockSymbolsList()) {
+            Quote quote = quotes.get(stockSymbol);
+            if (quote != null) {
+                response.addQuotes(quote.toStockQuote());
+            }
+        }
+
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Unary RPC: Set the stored price of an existing stock, given in ticks.
+     *
+     * @param request Stock symbol and new price
+     * @param responseObserver Single StockQuote observer with the stored price
+     */
+    @Override
+    public void updateStockPrice(StockPriceUpdate request, StreamObserver<StockQuote> responseObserver) {
+        String stockSymbol = request.getStockSymbol();
+        if (request.getPrice() <= 0) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Price must be positive.")
+                    .asRuntimeException());
+            return;
+        }
+
+        Quote quote;
+        try {
+            quote = stockPriceWriter.update(stockSymbol, request.getPrice());
+        } catch (RuntimeException e) {
+            log.error("Error updating the price of {}", stockSymbol, e);
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Price could not be saved")
+                    .asRuntimeException());
+            return;
+        }
+
+        if (quote == null) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription("Unknown stock symbol: " + stockSymbol)
+                    .asRuntimeException());
+            return;
+        }
+
+        responseObserver.onNext(quote.toStockQuote());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Server-streaming RPC: Subscribe to real-time stock price updates.
+     *
+     * @param request Stock symbol request
+     * @param responseObserver Multiple StockQuote observer
+     */
+    @Override
+    public void subscribeStockPrice(StockRequest request, StreamObserver<StockQuote> responseObserver) {
+        try {
+            marketDataEngine.subscribe(request.getStockSymbol(), responseObserver, Quote::toStockQuote);
+        } catch (DatabaseBusyException e) {
+            responseObserver.onError(busy(e));
+        }
+    }
+
+    /**
+     * Bidirectional streaming RPC: Multiplexed price subscription.
+     *
+     * @param responseObserver Combined StockQuote observer for all subscribed symbols
+     * @return StreamObserver for SubscriptionRequest control messages
+     */
+    @Override
+    public StreamObserver<SubscriptionRequest> streamStockPrices(StreamObserver<StockQuote> responseObserver) {
+        PriceStream priceStream = marketDataEngine.openStream(responseObserver, Quote::toStockQuote);
+
+        return new StreamObserver<SubscriptionRequest>() {
+            @Override
+            public void onNext(SubscriptionRequest subscriptionRequest) {
+                for (String stockSymbol : subscriptionRequest.getStockSymbolsList()) {
+                    if (subscriptionRequest.getAction() == SubscriptionRequest.Action.UNSUBSCRIBE) {
+                        priceStream.unsubscribe(stockSymbol);
+                    } else {
+                        priceStream.subscribe(stockSymbol);
+                    }
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                priceStream.cancel();
+            }
+
+            @Override
+            public void onCompleted() {
+                priceStream.complete();
+            }
+        };
+    }
+
+    /**
+     * Client-streaming RPC: Process multiple bulk stock orders and return summary.
+     * The total amount is returned in ticks.
+     *
+     * @param responseObserver Single OrderSummary observer
+     * @return StreamObserver for multiple StockOrder requests
+     */
+    @Override
+    public StreamObserver<StockOrder> bulkStockOrder(StreamObserver<OrderSummary> responseObserver) {
+        OrderBatch<OrderSummary> batch = matchingEngine.openBatch(responseObserver, OrderBatch.Totals::toSummaryV2);
+        BulkOrderWriter.OrderStream saved = bulkOrderWriter.open();
+
+        return new StreamObserver<StockOrder>() {
+            @Override
+            public void onNext(StockOrder stockOrder) {
+                if (bulkOrderLog.sample()) {
+                    logOrder("BulkStockOrder", stockOrder);
+                }
+                OrderRequest orderRequest = OrderRequest.of(stockOrder);
+                saved.add(orderRequest);
+                batch.add(orderRequest);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.warn("Error receiving stock orders: {}", t.getMessage());
+                saved.abort();
+            }
+
+            @Override
+            public void onCompleted() {
+                try {
+                    saved.complete();
+                } catch (DatabaseBusyException e) {
+                    responseObserver.onError(busy(e));
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Error saving {} stock orders", saved.orderCount(), e);
+                    responseObserver.onError(Status.INTERNAL
+                            .withDescription("Orders could not be saved")
+                            .asRuntimeException());
+                    return;
+                }
+                batch.complete();
+            }
+        };
+    }
+
+    /**
+     * Bidirectional streaming RPC: Live trading against the per-symbol order books.
+     * Same matching and flow control as v1; statuses carry an enum and only a
+     * FAILED status carries text.
+     *
+     * @param responseObserver Multiple TradeStatus observer
+     * @return StreamObserver for continuous StockOrder requests
+     */
+    @Override
+    public StreamObserver<StockOrder> liveTrading(StreamObserver<TradeStatus> responseObserver) {
+        TradingSession<TradeStatus> session = matchingEngine.openSession(responseObserver, OrderEvent::toTradeStatusV2);
+        InboundFlowControl flowControl = InboundFlowControl.attach(responseObserver, session);
+
+        return new StreamObserver<StockOrder>() {
+            @Override
+            public void onNext(StockOrder stockOrder) {
+                if (liveOrderLog.sample()) {
+                    logOrder("LiveTrading", stockOrder);
+                }
+                session.submit(OrderRequest.of(stockOrder));
+                flowControl.onMessageHandled();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.warn("Error in live trading: {}", t.getMessage());
+                session.abort();
+            }
+
+            @Override
+            public void onCompleted() {
+                session.complete();
+            }
+        };
+    }
+
+    /**
+     * Logs a received order with the same keys as v1, the price converted from ticks.
+     */
+    private static void logOrder(String method, StockOrder stockOrder) {
+        log.atInfo()
+                .addKeyValue("method", method)
+                .addKeyValue("orderId", stockOrder.getOrderId())
+                .addKeyValue("symbol", stockOrder.getStockSymbol())
+                .addKeyValue("type", stockOrder.getOrderType())
+                .addKeyValue("quantity", stockOrder.getQuantity())
+                .addKeyValue("price", Prices.toDouble(stockOrder.getPrice()))
+                .addKeyValue("account", stockOrder.getAccountId())
+                .log("Received order");
+    }
+
+    /**
+     * Status for a request whose cache miss was not admitted to the database.
+     */
+    private static StatusRuntimeException busy(DatabaseBusyException e) {
+        return Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage()).asRuntimeException();
+    }
+}
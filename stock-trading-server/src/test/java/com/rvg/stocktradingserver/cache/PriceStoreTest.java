@@ -0,0 +1,98 @@
+package com.rvg.stocktradingserver.cache;
+
+import com.rvg.stocktradingserver.market.Quote;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceStoreTest {
+
+    @Test
+    void put_shouldKeepTheStoredQuoteWhenThePriceIsUnchanged() {
+        // Arrange
+        PriceStore priceStore = new PriceStore(100);
+        Quote stored = new Quote("AAPL", 1_505_000, 1L, null);
+        priceStore.put(stored, priceStore.generation());
+
+        // Act
+        priceStore.put(new Quote("AAPL", 1_505_000, 1L, null), priceStore.generation());
+
+        // Assert - the messages already built for the first quote stay shared
+        assertThat(priceStore.quote("AAPL")).isSameAs(stored);
+        assertThat(priceStore.price("AAPL")).isEqualTo(1_505_000);
+        assertThat(priceStore.quote("TSLA")).isNull();
+        assertThat(priceStore.price("TSLA")).isEqualTo(PriceStore.NO_PRICE);
+    }
+
+    @Test
+    void put_shouldDropALoadStartedBeforeARemoval() {
+        // Arrange
+        PriceStore priceStore = new PriceStore(100);
+        long generation = priceStore.generation();
+
+        // Act
+        priceStore.remove("AAPL");
+        boolean stored = priceStore.put(new Quote("AAPL", 1_505_000, 1L, null), generation);
+        priceStore.retainAll(Set.of(), generation);
+
+        // Assert
+        assertThat(stored).isFalse();
+        assertThat(priceStore.quote("AAPL")).isNull();
+    }
+
+    @Test
+    void put_shouldGrowUpToTheMaximumSize() {
+        // Arrange
+        PriceStore priceStore = new PriceStore(1_000);
+
+        // Act
+        for (int i = 0; i < 1_001; i++) {
+            priceStore.put(new Quote("S" + i, i, 1L, null), priceStore.generation());
+        }
+        priceStore.retainAll(Set.of("S0", "S999"), priceStore.generation());
+
+        // Assert
+        assertThat(priceStore.price("S0")).isZero();
+        assertThat(priceStore.price("S999")).isEqualTo(999);
+        assertThat(priceStore.price("S500")).isEqualTo(PriceStore.NO_PRICE);
+        assertThat(priceStore.price("S1000")).isEqualTo(PriceStore.NO_PRICE);
+    }
+
+    @Test
+    void price_shouldNeverLagTheQuoteReadBeforeItWhileAWriterRuns() throws InterruptedException {
+        // Arrange
+        PriceStore priceStore = new PriceStore(1_000);
+        priceStore.put(new Quote("AAPL", 0, 0L, null), priceStore.generation());
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = Thread.ofPlatform().start(() -> {
+            long last = 0;
+            while (running.get()) {
+                long quoted = priceStore.quote("AAPL").price();
+                long price = priceStore.price("AAPL");
+                if (price < quoted || quoted < last) {
+                    failure.set("read " + price + " after quote " + quoted + " and " + last);
+                }
+                last = quoted;
+            }
+        });
+
+        // Act - grow the slots while the price of AAPL keeps moving
+        for (int i = 1; i <= 100_000; i++) {
+            priceStore.put(new Quote("AAPL", i, i, null), priceStore.generation());
+            if (i % 1_000 == 0) {
+                priceStore.put(new Quote("S" + i, i, i, null), priceStore.generation());
+            }
+        }
+        running.set(false);
+        reader.join();
+
+        // Assert
+        assertThat(failure.get()).isNull();
+        assertThat(priceStore.price("AAPL")).isEqualTo(100_000);
+    }
+}
@@ -0,0 +1,339 @@
+package com.rvg.stocktradingserver.cache;
+
+import com.rvg.stocktradingserver.entity.Stock;
+import com.rvg.stocktradingserver.entity.StockChangedEvent;
+import com.rvg.stocktradingserver.execution.DatabaseBusyException;
+import com.rvg.stocktradingserver.execution.DatabaseGate;
+import com.rvg.stocktradingserver.execution.ExecutionMode;
+import com.rvg.stocktradingserver.execution.ExecutionProperties;
+import com.rvg.stocktradingserver.market.Quote;
+import com.rvg.stocktradingserver.matching.Timestamps;
+import com.rvg.stocktradingserver.repository.StockRepository;
+import io.grpc.Context;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class StockPriceCacheTest {
+
+    private StockRepository stockRepository;
+    private StockPriceCache stockPriceCache;
+
+    @BeforeEach
+    void setUp() {
+        stockRepository = mock(StockRepository.class);
+        stockPriceCache = new StockPriceCache(stockRepository, new StockCacheProperties(100, Duration.ofMinutes(1)),
+                new DatabaseGate(new ExecutionProperties(ExecutionMode.PLATFORM, 8, Duration.ofSeconds(1))));
+    }
+
+    @Test
+    void get_shouldHitRepositoryOnlyOnceForRepeatedReads() {
+        // Arrange
+        when(stockRepository.findByStockSymbol("AAPL")).thenReturn(stock("AAPL", 150.5));
+
+        // Act
+        Quote first = stockPriceCache.get("AAPL");
+        Quote second = stockPriceCache.get("AAPL");
+
+        // Assert - the second read is served by the price store, not the read-through cache
+        verify(stockRepository, times(1)).findByStockSymbol("AAPL");
+        assertThat(second).isSameAs(first);
+        assertThat(stockPriceCache.price("AAPL")).isEqualTo(1_505_000);
+        assertThat(stockPriceCache.stats().hitCount()).isZero();
+        assertThat(stockPriceCache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reload_shouldServeTheWholeTableAndDropDeletedRows() {
+        // Arrange
+        when(stockRepository.findAll()).thenReturn(List.of(stock("AAPL", 150.5), stock("TSLA", 300.0)));
+        stockPriceCache.reload();
+
+        // Act
+        when(stockRepository.findAll()).thenReturn(List.of(stock("AAPL", 151.0)));
+        stockPriceCache.reload();
+
+        // Assert
+        assertThat(stockPriceCache.price("AAPL")).isEqualTo(1_510_000);
+        assertThat(stockPriceCache.price("TSLA")).isEqualTo(StockPriceCache.NO_PRICE);
+        verify(stockRepository, never()).findByStockSymbol("AAPL");
+    }
+
+    @Test
+    void reload_shouldNotRestoreAPriceThatChangedWhileTheTableWasRead() {
+        // Arrange - the row changes after findAll has read it
+        when(stockRepository.findAll()).thenAnswer(invocation -> {
+            stockPriceCache.onStockChanged(StockChangedEvent.saved(stock("AAPL", 151.0)));
+            return List.of(stock("AAPL", 150.5));
+        });
+        when(stockRepository.findByStockSymbol("AAPL")).thenReturn(stock("AAPL", 151.0));
+
+        // Act
+        stockPriceCache.reload();
+
+        // Assert
+        assertThat(stockPriceCache.price("AAPL")).isEqualTo(1_510_000);
+    }
+
+    @Test
+    void get_shouldReturnNullAndNotCacheUnknownSymbol() {
+        // Arrange
+        when(stockRepository.findByStockSymbol("NOPE")).thenReturn(null);
+
+        // Act
+        stockPriceCache.get("NOPE");
+        Quote response = stockPriceCache.get("NOPE");
+
+        // Assert
+        assertThat(response).isNull();
+        verify(stockRepository, times(2)).findByStockSymbol("NOPE");
+    }
+
+    @Test
+    void getAll_shouldLoadOnlyMissingSymbolsWithOneQuery() {
+        // Arrange
+        when(stockRepository.findByStockSymbol("AAPL")).thenReturn(stock("AAPL", 150.5));
+        when(stockRepository.findByStockSymbolIn(anyCollection()))
+                .thenReturn(List.of(stock("GOOGL", 2500.5), stock("TSLA", 300.0)));
+        stockPriceCache.get("AAPL");
+
+        // Act
+        Map<String, Quote> quotes = stockPriceCache.getAll(List.of("AAPL", "GOOGL", "TSLA"));
+
+        // Assert
+        assertThat(quotes).containsOnlyKeys("AAPL", "GOOGL", "TSLA");
+        verify(stockRepository, times(1)).findByStockSymbolIn(argThat(symbols ->
+                symbols.size() == 2 && symbols.containsAll(List.of("GOOGL", "TSLA"))));
+    }
+
+    @Test
+    void onStockChanged_shouldReloadPriceAfterStockIsUpdated() {
+        // Arrange
+        Stock stock = stock("AAPL", 150.5);
+        when(stockRepository.findByStockSymbol("AAPL")).thenReturn(stock);
+        assertThat(stockPriceCache.get("AAPL").toResponse().getPrice()).isEqualTo(150.5);
+
+        // Act
+        stock.setPrice(151.0);
+        stockPriceCache.onStockChanged(StockChangedEvent.saved(stock));
+
+        // Assert
+        assertThat(stockPriceCache.get("AAPL").toResponse().getPrice()).isEqualTo(151.0);
+        verify(stockRepository, times(2)).findByStockSymbol("AAPL");
+    }
+
+    @Test
+    void onStockChangeCommitted_shouldStoreAndPublishTheCommittedPrice() {
+        // Arrange
+        List<Quote> published = new ArrayList<>();
+        stockPriceCache.addPriceListener(published::add);
+        when(stockRepository.findAll()).thenReturn(List.of(stock("AAPL", 150.5)));
+        stockPriceCache.reload();
+        published.clear();
+
+        // Act
+        stockPriceCache.onStockChangeCommitted(StockChangedEvent.saved(stock("AAPL", 151.0)));
+        when(stockRepository.findAll()).thenReturn(List.of(stock("AAPL", 151.0)));
+        stockPriceCache.reload();
+
+        // Assert - served without a query, and published once: the reload finds nothing new
+        assertThat(stockPriceCache.get("AAPL").toResponse().getPrice()).isEqualTo(151.0);
+        assertThat(published).extracting(Quote::price).containsExactly(1_510_000L);
+        verify(stockRepository, never()).findByStockSymbol("AAPL");
+    }
+
+    @Test
+    void reload_shouldPublishRowsChangedElsewhere() {
+        // Arrange
+        List<Quote> published = new ArrayList<>();
+        stockPriceCache.addPriceListener(published::add);
+        when(stockRepository.findAll()).thenReturn(List.of(stock("AAPL", 150.5), stock("TSLA", 300.0)));
+        stockPriceCache.reload();
+        published.clear();
+
+        // Act
+        when(stockRepository.findAll()).thenReturn(List.of(stock("AAPL", 150.5), stock("TSLA", 301.0)));
+        stockPriceCache.reload();
+
+        // Assert
+        assertThat(published).extracting(Quote::stockSymbol).containsExactly("TSLA");
+        assertThat(published.get(0).price()).isEqualTo(3_010_000);
+    }
+
+    @Test
+    void get_shouldServeV1AndV2MessagesFromOneEntry() {
+        // Arrange
+        when(stockRepository.findByStockSymbol("AAPL")).thenReturn(stock("AAPL", 150.5));
+
+        // Act
+        Quote quote = stockPriceCache.get("AAPL");
+
+        // Assert - v1 keeps its text timestamp, v2 carries ticks and epoch nanos
+        assertThat(quote.toResponse().getPrice()).isEqualTo(150.5);
+        assertThat(quote.toResponse().getTimestamp()).isEqualTo("2024-01-01T10:00");
+        assertThat(quote.toStockQuote().getPrice()).isEqualTo(1_505_000);
+        assertThat(quote.toStockQuote().getTimestampNanos()).isEqualTo(Timestamps.toNanos(
+                LocalDateTime.parse("2024-01-01T10:00:00").atZone(ZoneId.systemDefault()).toInstant()));
+        assertThat(stockPriceCache.get("AAPL").toStockQuote()).isSameAs(quote.toStockQuote());
+    }
+
+    @Test
+    void get_shouldFailFastAndNotCacheTheMissWhenTheDatabaseIsBusy() throws InterruptedException {
+        // Arrange - the only permit is held by another database call
+        DatabaseGate databaseGate = new DatabaseGate(
+                new ExecutionProperties(ExecutionMode.PLATFORM, 1, Duration.ofMillis(50)));
+        StockPriceCache gatedCache = new StockPriceCache(stockRepository,
+                new StockCacheProperties(100, Duration.ofMinutes(1)), databaseGate);
+        when(stockRepository.findByStockSymbol("AAPL")).thenReturn(stock("AAPL", 150.5));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofPlatform().start(() -> databaseGate.call(() -> {
+            holding.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        holding.await();
+
+        // Act & Assert
+        assertThatThrownBy(() -> gatedCache.get("AAPL")).isInstanceOf(DatabaseBusyException.class);
+        release.countDown();
+        holder.join();
+        assertThat(gatedCache.get("AAPL").toResponse().getPrice()).isEqualTo(150.5);
+        verify(stockRepository, times(1)).findByStockSymbol("AAPL");
+    }
+
+    @Test
+    void get_shouldFailACancelledCallerWithoutLoading() {
+        // Arrange
+        Context.CancellableContext call = Context.current().withCancellation();
+        call.cancel(null);
+
+        // Act & Assert
+        assertThatThrownBy(() -> call.call(() -> stockPriceCache.get("AAPL")))
+                .isInstanceOf(DatabaseBusyException.class);
+        verify(stockRepository, never()).findByStockSymbol("AAPL");
+    }
+
+    @Test
+    void get_shouldServeALiveCallerJoiningALoadStartedByACancelledOne() throws Exception {
+        // Arrange - the only permit is held, so the first caller's load waits for admission
+        DatabaseGate databaseGate = new DatabaseGate(
+                new ExecutionProperties(ExecutionMode.PLATFORM, 1, Duration.ofSeconds(5)));
+        StockPriceCache gatedCache = new StockPriceCache(stockRepository,
+                new StockCacheProperties(100, Duration.ofMinutes(1)), databaseGate);
+        when(stockRepository.findByStockSymbol("AAPL")).thenReturn(stock("AAPL", 150.5));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofPlatform().start(() -> databaseGate.call(() -> {
+            holding.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        holding.await();
+        Context.CancellableContext cancelled = Context.current().withCancellation();
+        Thread first = Thread.ofPlatform().start(cancelled.wrap(() -> {
+            try {
+                gatedCache.get("AAPL");
+            } catch (DatabaseBusyException e) {
+                // Not what is under test
+            }
+        }));
+        awaitParked(first);
+        cancelled.cancel(null);
+
+        // Act - a live caller joins the load, given a moment to block on it, then the permit is freed
+        CompletableFuture<Quote> live = CompletableFuture.supplyAsync(() -> gatedCache.get("AAPL"));
+        Thread.sleep(50);
+        release.countDown();
+
+        // Assert
+        assertThat(live.get(5, TimeUnit.SECONDS).toResponse().getPrice()).isEqualTo(150.5);
+        verify(stockRepository, times(1)).findByStockSymbol("AAPL");
+        holder.join();
+        first.join();
+    }
+
+    @Test
+    void get_shouldNotHoldUpAMissBehindASlowLoadInPlatformMode() throws Exception {
+        // Arrange - the load of AAPL blocks until released
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(stockRepository.findByStockSymbol("AAPL")).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return stock("AAPL", 150.5);
+        });
+        when(stockRepository.findByStockSymbol("TSLA")).thenReturn(stock("TSLA", 300.0));
+        CompletableFuture<Quote> slow = CompletableFuture.supplyAsync(() -> stockPriceCache.get("AAPL"));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act
+        Quote other = stockPriceCache.get("TSLA");
+
+        // Assert
+        assertThat(other.toResponse().getPrice()).isEqualTo(300.0);
+        assertThat(slow).isNotDone();
+        release.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS).toResponse().getPrice()).isEqualTo(150.5);
+    }
+
+    @Test
+    void get_shouldLoadOnAVirtualThreadInVirtualMode() {
+        // Arrange
+        DatabaseGate databaseGate = new DatabaseGate(
+                new ExecutionProperties(ExecutionMode.VIRTUAL, 8, Duration.ofSeconds(1)));
+        StockPriceCache virtualCache = new StockPriceCache(stockRepository,
+                new StockCacheProperties(100, Duration.ofMinutes(1)), databaseGate);
+        AtomicBoolean loadedOnVirtualThread = new AtomicBoolean();
+        when(stockRepository.findByStockSymbol("AAPL")).thenAnswer(invocation -> {
+            loadedOnVirtualThread.set(Thread.currentThread().isVirtual());
+            return stock("AAPL", 150.5);
+        });
+
+        // Act
+        Quote quote = virtualCache.get("AAPL");
+
+        // Assert
+        assertThat(quote.toResponse().getPrice()).isEqualTo(150.5);
+        assertThat(loadedOnVirtualThread).isTrue();
+        databaseGate.shutdown();
+    }
+
+    /**
+     * Waits for up to five seconds until {@code thread} is parked.
+     */
+    private static void awaitParked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static Stock stock(String symbol, double price) {
+        Stock stock = new Stock();
+        stock.setStockSymbol(symbol);
+        stock.setPrice(price);
+        stock.setLastUpdated(LocalDateTime.parse("2024-01-01T10:00:00"));
+        return stock;
+    }
+}
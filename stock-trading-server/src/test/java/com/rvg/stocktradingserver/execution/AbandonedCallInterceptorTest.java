@@ -0,0 +1,173 @@
+package com.rvg.stocktradingserver.execution;
+
+import com.rvg.grpc.OrderSummary;
+import com.rvg.grpc.StockOrder;
+import com.rvg.grpc.StockRequest;
+import com.rvg.grpc.StockResponse;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AbandonedCallInterceptorTest {
+
+    /** The server's only thread, held busy so calls queue behind it. */
+    private final ExecutorService serverExecutor = Executors.newSingleThreadExecutor();
+    private final CountDownLatch serverBusy = new CountDownLatch(1);
+    private final AtomicInteger quotes = new AtomicInteger();
+    private final AtomicInteger batchesCompleted = new AtomicInteger();
+    private final CountDownLatch batchAborted = new CountDownLatch(1);
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StockTradingServiceGrpc.StockTradingServiceImplBase service = new StockTradingServiceGrpc.StockTradingServiceImplBase() {
+            @Override
+            public void getStockPrice(StockRequest request, StreamObserver<StockResponse> responseObserver) {
+                quotes.incrementAndGet();
+                responseObserver.onNext(StockResponse.newBuilder().setStockSymbol(request.getStockSymbol()).build());
+                responseObserver.onCompleted();
+            }
+
+            @Override
+            public StreamObserver<StockOrder> bulkStockOrder(StreamObserver<OrderSummary> responseObserver) {
+                return new StreamObserver<>() {
+                    @Override
+                    public void onNext(StockOrder order) {
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        batchAborted.countDown();
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        batchesCompleted.incrementAndGet();
+                        responseObserver.onNext(OrderSummary.getDefaultInstance());
+                        responseObserver.onCompleted();
+                    }
+                };
+            }
+        };
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .executor(serverExecutor)
+                .addService(ServerInterceptors.intercept(service, new AbandonedCallInterceptor()))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        serverBusy.countDown();
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void unaryCall_whoseDeadlinePassedWhileQueued_shouldNeverReachTheService() throws Exception {
+        // Arrange
+        holdServerBusy();
+
+        // Act
+        assertThatThrownBy(() -> StockTradingServiceGrpc.newBlockingStub(channel)
+                .withDeadlineAfter(100, TimeUnit.MILLISECONDS)
+                .getStockPrice(StockRequest.newBuilder().setStockSymbol("AAPL").build()))
+                .isInstanceOf(StatusRuntimeException.class)
+                .extracting(e -> ((StatusRuntimeException) e).getStatus().getCode())
+                .isEqualTo(Status.Code.DEADLINE_EXCEEDED);
+        serverBusy.countDown();
+        drainServer();
+
+        // Assert
+        assertThat(quotes.get()).isZero();
+    }
+
+    @Test
+    void unaryCall_withinItsDeadline_shouldBeServed() {
+        // Act
+        StockResponse response = StockTradingServiceGrpc.newBlockingStub(channel)
+                .withDeadlineAfter(5, TimeUnit.SECONDS)
+                .getStockPrice(StockRequest.newBuilder().setStockSymbol("AAPL").build());
+
+        // Assert
+        assertThat(response.getStockSymbol()).isEqualTo("AAPL");
+        assertThat(quotes.get()).isEqualTo(1);
+    }
+
+    @Test
+    void clientStream_cancelledBeforeItsEndWasHandled_shouldBeAbortedInsteadOfCompleted() throws Exception {
+        // Arrange
+        holdServerBusy();
+
+        // Act - the whole batch is sent, but the deadline passes before the server gets to it
+        StreamObserver<StockOrder> orders = StockTradingServiceGrpc.newStub(channel)
+                .withDeadlineAfter(100, TimeUnit.MILLISECONDS)
+                .bulkStockOrder(new NoOpObserver<>());
+        orders.onNext(StockOrder.newBuilder().setStockSymbol("AAPL").setQuantity(1).build());
+        orders.onCompleted();
+        Thread.sleep(200);
+        serverBusy.countDown();
+
+        // Assert
+        assertThat(batchAborted.await(5, TimeUnit.SECONDS)).isTrue();
+        drainServer();
+        assertThat(batchesCompleted.get()).isZero();
+    }
+
+    private void holdServerBusy() {
+        serverExecutor.execute(() -> {
+            try {
+                serverBusy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * Waits until everything queued on the server's thread so far has run.
+     */
+    private void drainServer() throws Exception {
+        serverExecutor.submit(() -> {
+        }).get(5, TimeUnit.SECONDS);
+    }
+
+    private static final class NoOpObserver<T> implements StreamObserver<T> {
+
+        @Override
+        public void onNext(T value) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
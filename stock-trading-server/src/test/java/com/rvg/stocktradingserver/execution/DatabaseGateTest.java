@@ -0,0 +1,116 @@
+package com.rvg.stocktradingserver.execution;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatabaseGateTest {
+
+    @Test
+    void call_shouldNeverRunMoreCallsAtOnceThanItHasPermits() throws InterruptedException {
+        // Arrange
+        DatabaseGate databaseGate = new DatabaseGate(
+                new ExecutionProperties(ExecutionMode.VIRTUAL, 4, Duration.ofSeconds(10)));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // Act - a burst of 1,000 virtual threads, each making a 1 ms database call
+        try (ExecutorService burst = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1_000; i++) {
+                burst.submit(() -> databaseGate.call(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return running.decrementAndGet();
+                }));
+            }
+            burst.shutdown();
+            assertThat(burst.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+
+        // Assert
+        assertThat(maxRunning.get()).isBetween(1, 4);
+        assertThat(databaseGate.availablePermits()).isEqualTo(4);
+        databaseGate.shutdown();
+    }
+
+    @Test
+    void call_shouldReleaseThePermitWhenTheCallFails() {
+        // Arrange
+        DatabaseGate databaseGate = new DatabaseGate(
+                new ExecutionProperties(ExecutionMode.PLATFORM, 1, Duration.ofMillis(10)));
+
+        // Act
+        assertThatThrownBy(() -> databaseGate.call(() -> {
+            throw new IllegalStateException("connection reset");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // Assert
+        assertThat(databaseGate.availablePermits()).isEqualTo(1);
+        assertThat(databaseGate.call(() -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void call_shouldWaitNoLongerThanTheDeadlineOfTheGrpcCall() throws Exception {
+        // Arrange - the only permit is taken and admission would wait ten seconds
+        DatabaseGate databaseGate = new DatabaseGate(
+                new ExecutionProperties(ExecutionMode.PLATFORM, 1, Duration.ofSeconds(10)));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> databaseGate.call(() -> {
+            holding.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }));
+        holder.start();
+        holding.await();
+        Context.CancellableContext call = Context.current().withDeadline(
+                Deadline.after(100, TimeUnit.MILLISECONDS), Executors.newSingleThreadScheduledExecutor());
+
+        // Act
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> call.call(() -> databaseGate.call(() -> "too late")))
+                .isInstanceOf(DatabaseBusyException.class);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertThat(waitedMillis).isLessThan(2_000);
+        release.countDown();
+        holder.join();
+        call.cancel(null);
+    }
+
+    @Test
+    void call_shouldNotAdmitACancelledGrpcCall() {
+        // Arrange
+        DatabaseGate databaseGate = new DatabaseGate(
+                new ExecutionProperties(ExecutionMode.PLATFORM, 1, Duration.ofSeconds(10)));
+        Context.CancellableContext call = Context.current().withCancellation();
+        call.cancel(null);
+        AtomicInteger reached = new AtomicInteger();
+
+        // Act
+        assertThatThrownBy(() -> call.call(() -> databaseGate.call(reached::incrementAndGet)))
+                .isInstanceOf(DatabaseBusyException.class);
+
+        // Assert
+        assertThat(reached.get()).isZero();
+        assertThat(databaseGate.availablePermits()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,128 @@
+package com.rvg.stocktradingserver.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TradeJournalTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private TradeJournal tradeJournal;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        tradeJournal.close();
+    }
+
+    @Test
+    void read_shouldReturnAppendedTradesUntilAcknowledged() {
+        // Arrange
+        tradeJournal = open(DataSize.ofKilobytes(64));
+        tradeJournal.append("AAPL", 1_500_000, 10, "B1", "S1");
+        tradeJournal.append("GOOGL", 2_000_000, 5, "B2", "S2");
+
+        // Act
+        List<JournalEntry> firstRead = tradeJournal.read(10);
+        List<JournalEntry> rereadBeforeAck = tradeJournal.read(10);
+        tradeJournal.acknowledge();
+        List<JournalEntry> afterAck = tradeJournal.read(10);
+
+        // Assert
+        assertThat(firstRead).hasSize(2);
+        JournalEntry first = firstRead.get(0);
+        assertThat(first.sequence()).isEqualTo(1);
+        assertThat(first.stockSymbol()).isEqualTo("AAPL");
+        assertThat(first.priceTicks()).isEqualTo(1_500_000);
+        assertThat(first.quantity()).isEqualTo(10);
+        assertThat(first.buyOrderId()).isEqualTo("B1");
+        assertThat(first.sellOrderId()).isEqualTo("S1");
+        assertThat(first.executedAtMicros()).isPositive();
+        assertThat(rereadBeforeAck).isEqualTo(firstRead);
+        assertThat(afterAck).isEmpty();
+        assertThat(tradeJournal.flushedSequence()).isEqualTo(2);
+    }
+
+    @Test
+    void open_shouldReplayTradesNotYetFlushedAndContinueSequence() throws IOException {
+        // Arrange - three trades, only the first one made it to the database
+        tradeJournal = open(DataSize.ofKilobytes(64));
+        tradeJournal.append("AAPL", 1_500_000, 10, "B1", "S1");
+        tradeJournal.read(1);
+        tradeJournal.acknowledge();
+        tradeJournal.append("AAPL", 1_510_000, 20, "B2", "S2");
+        tradeJournal.append("AAPL", 1_520_000, 30, "B3", "S3");
+        tradeJournal.close();
+
+        // Act
+        tradeJournal = open(DataSize.ofKilobytes(64));
+        List<JournalEntry> replayed = tradeJournal.read(10);
+        long nextSequence = tradeJournal.append("AAPL", 1_530_000, 40, "B4", "S4");
+
+        // Assert
+        assertThat(replayed).extracting(JournalEntry::sequence).containsExactly(2L, 3L);
+        assertThat(nextSequence).isEqualTo(4);
+    }
+
+    @Test
+    void skipThrough_shouldNotReplayTradesAlreadyInDatabase() throws IOException {
+        // Arrange - the database committed trade 2 but the journal header still says 1
+        tradeJournal = open(DataSize.ofKilobytes(64));
+        tradeJournal.append("AAPL", 1_500_000, 10, "B1", "S1");
+        tradeJournal.read(1);
+        tradeJournal.acknowledge();
+        tradeJournal.append("AAPL", 1_510_000, 20, "B2", "S2");
+        tradeJournal.append("AAPL", 1_520_000, 30, "B3", "S3");
+        tradeJournal.close();
+        tradeJournal = open(DataSize.ofKilobytes(64));
+
+        // Act
+        tradeJournal.skipThrough(2);
+        List<JournalEntry> replayed = tradeJournal.read(10);
+
+        // Assert
+        assertThat(replayed).extracting(JournalEntry::sequence).containsExactly(3L);
+    }
+
+    @Test
+    void append_shouldHoldTradesInMemoryWhenFullAndWriteThemOnceDrained() {
+        // Arrange - a journal that only holds a handful of records, and no writer yet
+        tradeJournal = open(DataSize.ofBytes(256));
+        int trades = 50;
+
+        // Act - appending never waits for the writer
+        for (int i = 0; i < trades; i++) {
+            tradeJournal.append("AAPL", 1_500_000 + i, 1, "B" + i, "S" + i);
+        }
+        boolean headroomWhileFull = tradeJournal.hasHeadroom();
+        long expected = 1;
+        boolean inOrder = true;
+        for (int round = 0; round < 1_000 && expected <= trades; round++) {
+            for (JournalEntry entry : tradeJournal.read(2)) {
+                inOrder &= entry.sequence() == expected++;
+            }
+            tradeJournal.acknowledge();
+        }
+
+        // Assert
+        assertThat(headroomWhileFull).isFalse();
+        assertThat(inOrder).isTrue();
+        assertThat(expected - 1).isEqualTo(trades);
+        assertThat(tradeJournal.lastSequence()).isEqualTo(trades);
+        assertThat(tradeJournal.hasHeadroom()).isTrue();
+    }
+
+    private TradeJournal open(DataSize capacity) {
+        return new TradeJournal(new TradeJournalProperties(tempDir.resolve("trades.dat"),
+                capacity, Duration.ofHours(1), 500));
+    }
+}
@@ -0,0 +1,108 @@
+package com.rvg.stocktradingserver.journal;
+
+import com.rvg.stocktradingserver.entity.Trade;
+import com.rvg.stocktradingserver.repository.TradeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class TradeJournalWriterTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private TradeJournal tradeJournal;
+    private TradeRepository tradeRepository;
+    private TradeJournalWriter tradeJournalWriter;
+
+    @BeforeEach
+    void setUp() {
+        // Hour-long interval: the test drives flush() itself
+        TradeJournalProperties properties = new TradeJournalProperties(tempDir.resolve("trades.dat"),
+                DataSize.ofKilobytes(64), Duration.ofHours(1), 2);
+        tradeJournal = new TradeJournal(properties);
+        tradeRepository = mock(TradeRepository.class);
+        tradeJournalWriter = new TradeJournalWriter(tradeJournal, tradeRepository, properties);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        tradeJournalWriter.shutdown();
+        tradeJournal.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldSaveJournaledTradesInBatches() {
+        // Arrange
+        tradeJournal.append("AAPL", 1_505_000, 10, "B1", "S1");
+        tradeJournal.append("AAPL", 1_510_000, 20, "B2", "S2");
+        tradeJournal.append("GOOGL", 2_000_000, 5, "B3", "S3");
+
+        // Act
+        tradeJournalWriter.flush();
+
+        // Assert - batch size 2: two transactions
+        ArgumentCaptor<List<Trade>> captor = ArgumentCaptor.forClass(List.class);
+        verify(tradeRepository, times(2)).saveAll(captor.capture());
+        List<Trade> saved = captor.getAllValues().stream().flatMap(List::stream).toList();
+        assertThat(saved).extracting(Trade::getJournalSequence).containsExactly(1L, 2L, 3L);
+        Trade first = saved.get(0);
+        assertThat(first.getStockSymbol()).isEqualTo("AAPL");
+        assertThat(first.getPrice()).isEqualTo(150.5);
+        assertThat(first.getQuantity()).isEqualTo(10);
+        assertThat(first.getBuyOrderId()).isEqualTo("B1");
+        assertThat(first.getSellOrderId()).isEqualTo("S1");
+        assertThat(first.getExecutedAt()).isNotNull();
+        assertThat(tradeJournal.flushedSequence()).isEqualTo(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldRetryTradesWhenDatabaseWriteFails() {
+        // Arrange
+        tradeJournal.append("AAPL", 1_505_000, 10, "B1", "S1");
+        when(tradeRepository.saveAll(anyList()))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(List.of());
+
+        // Act
+        tradeJournalWriter.flush();
+        long flushedAfterFailure = tradeJournal.flushedSequence();
+        tradeJournalWriter.flush();
+
+        // Assert
+        ArgumentCaptor<List<Trade>> captor = ArgumentCaptor.forClass(List.class);
+        verify(tradeRepository, times(2)).saveAll(captor.capture());
+        assertThat(captor.getAllValues()).allSatisfy(batch ->
+                assertThat(batch).extracting(Trade::getJournalSequence).containsExactly(1L));
+        assertThat(flushedAfterFailure).isZero();
+        assertThat(tradeJournal.flushedSequence()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldSkipTradesTheDatabaseAlreadyHas() {
+        // Arrange
+        tradeJournal.append("AAPL", 1_505_000, 10, "B1", "S1");
+        tradeJournal.append("AAPL", 1_510_000, 20, "B2", "S2");
+        when(tradeRepository.findMaxJournalSequence()).thenReturn(1L);
+
+        // Act
+        tradeJournalWriter.flush();
+
+        // Assert
+        verify(tradeRepository).saveAll(argThat(batch ->
+                ((List<Trade>) batch).stream().map(Trade::getJournalSequence).toList().equals(List.of(2L))));
+    }
+}
@@ -0,0 +1,64 @@
+package com.rvg.stocktradingserver.logging;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SampledLogTest {
+
+    @Test
+    void sample_shouldLogAboutOneInSampleEvery() {
+        // Arrange
+        SampledLog sampledLog = new SampledLog(infoLogger(), new OrderLogProperties.Sampling(100, 0));
+
+        // Act
+        long sampled = IntStream.range(0, 100_000).filter(i -> sampledLog.sample()).count();
+
+        // Assert
+        assertThat(sampled).isBetween(700L, 1_300L);
+    }
+
+    @Test
+    void sample_shouldStopAtTheLimitPerSecond() {
+        // Arrange
+        SampledLog sampledLog = new SampledLog(infoLogger(), new OrderLogProperties.Sampling(1, 5));
+
+        // Act
+        long sampled = IntStream.range(0, 1_000).filter(i -> sampledLog.sample()).count();
+
+        // Assert - 5, or 10 if the burst straddles a second boundary
+        assertThat(sampled).isBetween(5L, 10L);
+    }
+
+    @Test
+    void sample_shouldLogNothingWhileInfoIsOff() {
+        // Arrange
+        SampledLog sampledLog = new SampledLog(mock(Logger.class), new OrderLogProperties.Sampling(1, 0));
+
+        // Act & Assert
+        assertThat(sampledLog.sample()).isFalse();
+    }
+
+    @Test
+    void sampling_shouldFallBackToTheDefaultForUnconfiguredMethods() {
+        // Arrange
+        OrderLogProperties properties = new OrderLogProperties(
+                Map.of("bulk-stock-order", new OrderLogProperties.Sampling(1000, 10)));
+
+        // Act & Assert
+        assertThat(properties.sampling("bulk-stock-order").sampleEvery()).isEqualTo(1000);
+        assertThat(properties.sampling("live-trading")).isEqualTo(OrderLogProperties.Sampling.DEFAULT);
+    }
+
+    private static Logger infoLogger() {
+        Logger logger = mock(Logger.class);
+        when(logger.isInfoEnabled()).thenReturn(true);
+        return logger;
+    }
+}
@@ -0,0 +1,218 @@
+package com.rvg.stocktradingserver.market;
+
+import com.rvg.grpc.StockResponse;
+import com.rvg.stocktradingserver.cache.StockPriceCache;
+import com.rvg.stocktradingserver.execution.DatabaseBusyException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MarketDataEngineTest {
+
+    private StockPriceCache stockPriceCache;
+    private MarketDataEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        stockPriceCache = mock(StockPriceCache.class);
+        engine = new MarketDataEngine(stockPriceCache,
+                new MarketDataProperties(Duration.ofMillis(10), 5, 1), new StreamMetrics());
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void subscribe_shouldShareOneFeedBetweenSubscribersOfTheSameSymbol() {
+        // Arrange
+        StreamObserver<StockResponse> first = mock(StreamObserver.class);
+        StreamObserver<StockResponse> second = mock(StreamObserver.class);
+
+        // Act
+        engine.subscribe("AAPL", first);
+        engine.subscribe("AAPL", second);
+
+        // Assert
+        assertThat(engine.activeFeeds()).isEqualTo(1);
+        verify(first, timeout(5000)).onCompleted();
+        verify(second, timeout(5000)).onCompleted();
+
+        ArgumentCaptor<StockResponse> firstCaptor = ArgumentCaptor.forClass(StockResponse.class);
+        ArgumentCaptor<StockResponse> secondCaptor = ArgumentCaptor.forClass(StockResponse.class);
+        verify(first, times(5)).onNext(firstCaptor.capture());
+        verify(second, times(5)).onNext(secondCaptor.capture());
+
+        // The second stream joined later, so it also saw the first stream's last tick,
+        // as the very same message instance
+        StockResponse lastOfFirst = firstCaptor.getValue();
+        assertThat(secondCaptor.getAllValues())
+                .anySatisfy(response -> assertThat(response).isSameAs(lastOfFirst));
+    }
+
+    @Test
+    void publish_shouldPushStoredPriceChangesWithoutSimulatedTicks() {
+        // Arrange - no tick interval: the feed only carries changes of the stored price
+        MarketDataEngine storedOnly = new MarketDataEngine(stockPriceCache,
+                new MarketDataProperties(Duration.ZERO, 3, 1), new StreamMetrics());
+        when(stockPriceCache.get("AAPL")).thenReturn(Quote.now("AAPL", 1_500_000));
+        StreamObserver<StockResponse> observer = mock(StreamObserver.class);
+        storedOnly.subscribe("AAPL", observer);
+
+        // Act
+        storedOnly.publish(Quote.now("AAPL", 1_510_000));
+        storedOnly.publish(Quote.now("TSLA", 3_000_000));
+        storedOnly.publish(Quote.now("AAPL", 1_520_000));
+
+        // Assert - the snapshot, then each change of AAPL, and nothing else
+        ArgumentCaptor<StockResponse> captor = ArgumentCaptor.forClass(StockResponse.class);
+        verify(observer, times(3)).onNext(captor.capture());
+        verify(observer).onCompleted();
+        assertThat(captor.getAllValues()).extracting(StockResponse::getPrice).containsExactly(150.0, 151.0, 152.0);
+        assertThat(storedOnly.activeFeeds()).isZero();
+        storedOnly.shutdown();
+    }
+
+    @Test
+    void subscribe_shouldWaitForTheFirstStoredPriceOfAnUnknownSymbol() {
+        // Arrange
+        MarketDataEngine storedOnly = new MarketDataEngine(stockPriceCache,
+                new MarketDataProperties(Duration.ZERO, 0, 1), new StreamMetrics());
+        StreamObserver<StockResponse> observer = mock(StreamObserver.class);
+
+        // Act
+        storedOnly.subscribe("NEW", observer);
+        verify(observer, never()).onNext(any());
+        storedOnly.publish(Quote.now("NEW", 100_000));
+
+        // Assert
+        ArgumentCaptor<StockResponse> captor = ArgumentCaptor.forClass(StockResponse.class);
+        verify(observer).onNext(captor.capture());
+        assertThat(captor.getValue().getPrice()).isEqualTo(10.0);
+        storedOnly.shutdown();
+    }
+
+    @Test
+    void subscribe_shouldLeaveNoFeedBehindWhenTheStoredPriceCannotBeLoaded() {
+        // Arrange
+        when(stockPriceCache.get("AAPL"))
+                .thenThrow(new DatabaseBusyException("Database is busy, retry later."))
+                .thenReturn(null);
+        StreamObserver<StockResponse> observer = mock(StreamObserver.class);
+
+        // Act
+        assertThatThrownBy(() -> engine.subscribe("AAPL", observer)).isInstanceOf(DatabaseBusyException.class);
+
+        // Assert - nothing registered, and the next subscriber starts a feed
+        assertThat(engine.activeFeeds()).isZero();
+        engine.subscribe("AAPL", observer);
+        assertThat(engine.subscriberCount("AAPL")).isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_shouldKeepAPriceCommittedWhileTheStoredPriceLoads() {
+        // Arrange - the change to 155 is committed and published after the load read 150
+        when(stockPriceCache.get("AAPL")).thenAnswer(invocation -> {
+            engine.publish(Quote.now("AAPL", 1_550_000));
+            return Quote.now("AAPL", 1_500_000);
+        });
+        StreamObserver<StockResponse> observer = mock(StreamObserver.class);
+
+        // Act
+        engine.subscribe("AAPL", observer);
+
+        // Assert - the stale load does not replace the newer price
+        ArgumentCaptor<StockResponse> captor = ArgumentCaptor.forClass(StockResponse.class);
+        verify(observer).onNext(captor.capture());
+        assertThat(captor.getValue().getPrice()).isEqualTo(155.0);
+    }
+
+    @Test
+    void subscribe_shouldSeedFeedWithStoredPrice() {
+        // Arrange
+        when(stockPriceCache.get("AAPL")).thenReturn(Quote.now("AAPL", 1_500_000));
+        StreamObserver<StockResponse> observer = mock(StreamObserver.class);
+
+        // Act
+        engine.subscribe("AAPL", observer);
+
+        // Assert - the snapshot sent on subscribe carries the stored price
+        ArgumentCaptor<StockResponse> captor = ArgumentCaptor.forClass(StockResponse.class);
+        verify(observer, atLeastOnce()).onNext(captor.capture());
+        assertThat(captor.getAllValues().get(0).getPrice()).isEqualTo(150.0);
+    }
+
+    @Test
+    void feed_shouldStopWhenLastSubscriberCompletes() {
+        // Arrange
+        StreamObserver<StockResponse> observer = mock(StreamObserver.class);
+
+        // Act
+        engine.subscribe("TSLA", observer);
+        verify(observer, timeout(5000)).onCompleted();
+
+        // Assert
+        assertThat(engine.activeFeeds()).isZero();
+    }
+
+    @Test
+    void cancel_shouldDetachSubscriberWithoutCompletingIt() {
+        // Arrange
+        ServerCallStreamObserver<StockResponse> observer = mock(ServerCallStreamObserver.class);
+        engine.subscribe("GOOGL", observer);
+        ArgumentCaptor<Runnable> cancelHandler = ArgumentCaptor.forClass(Runnable.class);
+        verify(observer).setOnCancelHandler(cancelHandler.capture());
+
+        // Act
+        cancelHandler.getValue().run();
+
+        // Assert
+        assertThat(engine.subscriberCount("GOOGL")).isZero();
+        assertThat(engine.activeFeeds()).isZero();
+        verify(observer, never()).onCompleted();
+        verify(observer, atMost(5)).onNext(any());
+    }
+
+    @Test
+    void openStream_shouldMultiplexSymbolsAndStopFeedOnUnsubscribe() {
+        // Arrange
+        StreamObserver<StockResponse> observer = mock(StreamObserver.class);
+        PriceStream priceStream = engine.openStream(observer);
+
+        // Act
+        priceStream.subscribe("AAPL");
+        priceStream.subscribe("TSLA");
+
+        // Assert - both symbols arrive on the same stream, beyond the per-subscription budget
+        ArgumentCaptor<StockResponse> captor = ArgumentCaptor.forClass(StockResponse.class);
+        verify(observer, timeout(5000).atLeast(12)).onNext(captor.capture());
+        assertThat(captor.getAllValues())
+                .extracting(StockResponse::getStockSymbol)
+                .contains("AAPL", "TSLA");
+
+        // Act
+        priceStream.unsubscribe("TSLA");
+
+        // Assert
+        assertThat(priceStream.symbols()).containsExactly("AAPL");
+        assertThat(engine.subscriberCount("TSLA")).isZero();
+
+        // Act
+        priceStream.complete();
+
+        // Assert
+        verify(observer).onCompleted();
+        assertThat(engine.activeFeeds()).isZero();
+    }
+}
@@ -0,0 +1,100 @@
+package com.rvg.stocktradingserver.market;
+
+import com.rvg.grpc.StockResponse;
+import com.rvg.stocktradingserver.matching.Prices;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PriceSubscriberTest {
+
+    private ServerCallStreamObserver<StockResponse> responseObserver;
+    private StreamMetrics streamMetrics;
+    private PriceSubscriber<StockResponse> subscriber;
+    private Runnable onReadyHandler;
+
+    @BeforeEach
+    void setUp() {
+        responseObserver = mock(ServerCallStreamObserver.class);
+        streamMetrics = new StreamMetrics();
+        subscriber = new PriceSubscriber<>(responseObserver, Quote::toResponse, 0, streamMetrics);
+
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(responseObserver).setOnReadyHandler(captor.capture());
+        onReadyHandler = captor.getValue();
+    }
+
+    @Test
+    void deliver_shouldWriteDirectlyWhenTransportIsReady() {
+        // Arrange
+        when(responseObserver.isReady()).thenReturn(true);
+
+        // Act
+        subscriber.deliver(quote("AAPL", 150.0));
+
+        // Assert
+        verify(responseObserver).onNext(any());
+        assertThat(subscriber.sent()).isEqualTo(1);
+        assertThat(streamMetrics.sent()).isEqualTo(1);
+    }
+
+    @Test
+    void deliver_shouldKeepOnlyLatestPriceWhileTransportIsNotReady() {
+        // Arrange
+        when(responseObserver.isReady()).thenReturn(false);
+
+        // Act
+        subscriber.deliver(quote("AAPL", 150.0));
+        subscriber.deliver(quote("AAPL", 151.0));
+        subscriber.deliver(quote("AAPL", 152.0));
+
+        // Assert
+        verify(responseObserver, never()).onNext(any());
+        assertThat(subscriber.pendingCount()).isEqualTo(1);
+        assertThat(subscriber.conflated()).isEqualTo(2);
+        assertThat(streamMetrics.conflated()).isEqualTo(2);
+    }
+
+    @Test
+    void onReady_shouldFlushLatestPendingPrice() {
+        // Arrange
+        when(responseObserver.isReady()).thenReturn(false);
+        subscriber.deliver(quote("AAPL", 150.0));
+        subscriber.deliver(quote("AAPL", 152.0));
+
+        // Act
+        when(responseObserver.isReady()).thenReturn(true);
+        onReadyHandler.run();
+
+        // Assert
+        ArgumentCaptor<StockResponse> captor = ArgumentCaptor.forClass(StockResponse.class);
+        verify(responseObserver).onNext(captor.capture());
+        assertThat(captor.getValue().getPrice()).isEqualTo(152.0);
+        assertThat(subscriber.pendingCount()).isZero();
+    }
+
+    @Test
+    void cancel_shouldCountPendingUpdatesAsDropped() {
+        // Arrange
+        when(responseObserver.isReady()).thenReturn(false);
+        subscriber.deliver(quote("AAPL", 150.0));
+
+        // Act
+        subscriber.cancel();
+
+        // Assert
+        assertThat(subscriber.deliver(quote("AAPL", 151.0))).isFalse();
+        assertThat(streamMetrics.dropped()).isEqualTo(1);
+        assertThat(streamMetrics.closedStreams()).isEqualTo(1);
+        verify(responseObserver, never()).onCompleted();
+    }
+
+    private static Quote quote(String symbol, double price) {
+        return Quote.now(symbol, Prices.toTicks(price));
+    }
+}
@@ -0,0 +1,269 @@
+package com.rvg.stocktradingserver.matching;
+
+import com.rvg.grpc.StockOrder;
+import com.rvg.grpc.TradeStatus;
+import com.rvg.stocktradingserver.cache.StockPriceCache;
+import com.rvg.stocktradingserver.journal.TradeJournal;
+import com.rvg.stocktradingserver.journal.TradeJournalProperties;
+import com.rvg.stocktradingserver.risk.RiskEngine;
+import com.rvg.stocktradingserver.risk.RiskProperties;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MatchingEngineTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private TradeJournal tradeJournal;
+    private MatchingEngine matchingEngine;
+
+    @BeforeEach
+    void setUp() {
+        tradeJournal = new TradeJournal(new TradeJournalProperties(tempDir.resolve("trades.dat"),
+                DataSize.ofMegabytes(4), Duration.ofHours(1), 500));
+        matchingEngine = new MatchingEngine(new MatchingProperties(4, 16), tradeJournal,
+                new RiskEngine(mock(StockPriceCache.class), new RiskProperties(0, 0, 0, 0)));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        matchingEngine.shutdown();
+        tradeJournal.close();
+    }
+
+    @Test
+    void submit_shouldMatchConcurrentSessionsAcrossShardsWithoutLosingQuantity() throws InterruptedException {
+        // Arrange - every buyer has a seller with the same quantity on the same symbol
+        List<String> symbols = List.of("AAPL", "GOOGL", "MSFT", "AMZN", "TSLA", "NVDA");
+        int ordersPerSession = 2_000;
+        RecordingObserver buyer = new RecordingObserver();
+        RecordingObserver seller = new RecordingObserver();
+        TradingSession<TradeStatus> buyerSession = matchingEngine.openSession(buyer);
+        TradingSession<TradeStatus> sellerSession = matchingEngine.openSession(seller);
+
+        // Act
+        Thread buying = Thread.ofPlatform().start(() -> submitAll(buyerSession, "BUY", symbols, ordersPerSession));
+        Thread selling = Thread.ofPlatform().start(() -> submitAll(sellerSession, "SELL", symbols, ordersPerSession));
+        buying.join();
+        selling.join();
+        buyerSession.complete();
+        sellerSession.complete();
+
+        // Assert - all fills reach both sides and nothing is left resting
+        assertThat(buyer.awaitCompleted()).isTrue();
+        assertThat(seller.awaitCompleted()).isTrue();
+        assertThat(buyer.filledQuantity()).isEqualTo(seller.filledQuantity());
+        assertThat(buyer.filledQuantity() + buyer.cancelledOnClose())
+                .isEqualTo((long) ordersPerSession * 10);
+        assertThat(buyerSession.openOrderCount()).isZero();
+        assertThat(sellerSession.openOrderCount()).isZero();
+        // One journal record per execution
+        assertThat(tradeJournal.lastSequence()).isEqualTo(buyer.fillCount());
+    }
+
+    @Test
+    void complete_shouldSendStatusesOfQueuedOrdersBeforeCompleting() {
+        // Arrange
+        RecordingObserver observer = new RecordingObserver();
+        TradingSession<TradeStatus> session = matchingEngine.openSession(observer);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            session.submit(order("o" + i, "AAPL", "BUY", 1, 100.0 - i * 0.01));
+        }
+        session.complete();
+
+        // Assert - every order was acknowledged, in submission order, before completion
+        assertThat(observer.awaitCompleted()).isTrue();
+        assertThat(observer.statuses)
+                .extracting(TradeStatus::getOrderId)
+                .containsExactlyElementsOf(IntStream.range(0, 100).mapToObj(i -> "o" + i).toList());
+        assertThat(session.openOrderCount()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void send_shouldQueueStatusesUntilTheCallIsReady() throws InterruptedException {
+        // Arrange - a call whose transport cannot take more
+        AtomicBoolean ready = new AtomicBoolean(false);
+        ServerCallStreamObserver<TradeStatus> call = mock(ServerCallStreamObserver.class);
+        when(call.isReady()).thenAnswer(invocation -> ready.get());
+        TradingSession<TradeStatus> session = matchingEngine.openSession(call);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            session.submit(order("o" + i, "AAPL", "BUY", 1, 100.0));
+        }
+        session.complete();
+        awaitPendingStatuses(session, 3);
+
+        // Assert - nothing is written by the shard thread, the on-ready drain writes all and completes
+        verify(call, never()).onNext(any());
+        verify(call, never()).onCompleted();
+        ready.set(true);
+        session.drain();
+        verify(call, times(3)).onNext(any());
+        // The shard may only now be marking the session as completing
+        verify(call, timeout(5_000)).onCompleted();
+        assertThat(session.pendingStatuses()).isZero();
+    }
+
+    @Test
+    void submit_shouldRejectNewOrdersWhileTheTradeJournalIsFull() throws Exception {
+        // Arrange - a journal the database writer has fallen behind on
+        TradeJournal fullJournal = new TradeJournal(new TradeJournalProperties(tempDir.resolve("full.dat"),
+                DataSize.ofBytes(256), Duration.ofHours(1), 500));
+        for (int i = 0; i < 5; i++) {
+            fullJournal.append("AAPL", 1_000_000, 1, "B" + i, "S" + i);
+        }
+        MatchingEngine blockedEngine = new MatchingEngine(new MatchingProperties(1, 16), fullJournal,
+                new RiskEngine(mock(StockPriceCache.class), new RiskProperties(0, 0, 0, 0)));
+        RecordingObserver observer = new RecordingObserver();
+        TradingSession<TradeStatus> session = blockedEngine.openSession(observer);
+
+        // Act
+        session.submit(order("o1", "AAPL", "BUY", 1, 100.0));
+        session.complete();
+
+        // Assert
+        assertThat(observer.awaitCompleted()).isTrue();
+        blockedEngine.shutdown();
+        fullJournal.close();
+        assertThat(observer.statuses)
+                .extracting(TradeStatus::getOrderId, TradeStatus::getStatus)
+                .containsExactly(tuple("o1", OrderState.FAILED.name()));
+        assertThat(observer.statuses.get(0).getMessage()).isEqualTo("Order o1 failed: Trade journal is full, retry later.");
+    }
+
+    @Test
+    void submit_shouldRejectOrdersOverThePositionLimitOfTheAccountAcrossSessions() throws InterruptedException {
+        // Arrange - two streams trading for the same account with a position limit of 10
+        MatchingEngine limitedEngine = new MatchingEngine(new MatchingProperties(2, 16), tradeJournal,
+                new RiskEngine(mock(StockPriceCache.class), new RiskProperties(0, 10, 0, 0)));
+        RecordingObserver first = new RecordingObserver();
+        RecordingObserver second = new RecordingObserver();
+        TradingSession<TradeStatus> firstSession = limitedEngine.openSession(first);
+        TradingSession<TradeStatus> secondSession = limitedEngine.openSession(second);
+
+        // Act - the second order is over the limit until the first one is swept
+        firstSession.submit(order("A1", "AAPL", "BUY", 8, 100.0).toBuilder().setAccountId("acct").build());
+        secondSession.submit(order("B1", "AAPL", "BUY", 5, 100.0).toBuilder().setAccountId("acct").build());
+        firstSession.complete();
+        assertThat(first.awaitCompleted()).isTrue();
+        secondSession.submit(order("B2", "AAPL", "BUY", 5, 100.0).toBuilder().setAccountId("acct").build());
+        secondSession.complete();
+
+        // Assert
+        assertThat(second.awaitCompleted()).isTrue();
+        limitedEngine.shutdown();
+        assertThat(second.statuses)
+                .extracting(TradeStatus::getOrderId, TradeStatus::getStatus)
+                .containsExactly(
+                        tuple("B1", OrderState.FAILED.name()),
+                        tuple("B2", OrderState.PENDING.name()));
+        assertThat(second.statuses.get(0).getMessage()).isEqualTo("Order B1 failed: Position limit of 10 in AAPL exceeded.");
+    }
+
+    private static void submitAll(TradingSession<?> session, String side, List<String> symbols, int count) {
+        for (int i = 0; i < count; i++) {
+            session.submit(order(side + i, symbols.get(i % symbols.size()), side, 10, 100.0));
+        }
+    }
+
+    private static void awaitPendingStatuses(TradingSession<?> session, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (session.pendingStatuses() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(session.pendingStatuses()).isEqualTo(count);
+    }
+
+    private static StockOrder order(String orderId, String stockSymbol, String orderType, int quantity, double price) {
+        return StockOrder.newBuilder()
+                .setOrderId(orderId)
+                .setStockSymbol(stockSymbol)
+                .setOrderType(orderType)
+                .setQuantity(quantity)
+                .setPrice(price)
+                .build();
+    }
+
+    private static final class RecordingObserver implements StreamObserver<TradeStatus> {
+        private final List<TradeStatus> statuses = new ArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public synchronized void onNext(TradeStatus value) {
+            statuses.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+            completed.countDown();
+        }
+
+        boolean awaitCompleted() {
+            try {
+                return completed.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        synchronized long fillCount() {
+            return statuses.stream().filter(status -> status.getFilledQuantity() > 0).count();
+        }
+
+        synchronized long filledQuantity() {
+            return statuses.stream().mapToLong(TradeStatus::getFilledQuantity).sum();
+        }
+
+        /**
+         * Quantity still resting when the session ended: the last PENDING of an order
+         * that never got to EXECUTED.
+         */
+        synchronized long cancelledOnClose() {
+            Map<String, Integer> open = new HashMap<>();
+            for (TradeStatus status : statuses) {
+                if (status.getStatus().equals(OrderState.EXECUTED.name())) {
+                    open.remove(status.getOrderId());
+                } else {
+                    open.put(status.getOrderId(), status.getRemainingQuantity());
+                }
+            }
+            return open.values().stream().mapToLong(Integer::longValue).sum();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.rvg.stocktradingserver.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MpscRingBufferTest {
+
+    @Test
+    void offer_shouldRejectWhenFullAndAcceptAgainAfterPoll() {
+        // Arrange
+        MpscRingBuffer<Integer> ringBuffer = new MpscRingBuffer<>(3);
+
+        // Act
+        List<Boolean> accepted = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            accepted.add(ringBuffer.offer(i));
+        }
+        Integer first = ringBuffer.poll();
+        boolean acceptedAfterPoll = ringBuffer.offer(99);
+
+        // Assert - capacity is rounded up to 4
+        assertThat(ringBuffer.capacity()).isEqualTo(4);
+        assertThat(accepted).containsExactly(true, true, true, true, false);
+        assertThat(first).isZero();
+        assertThat(acceptedAfterPoll).isTrue();
+    }
+
+    @Test
+    void poll_shouldReturnElementsInOrderAcrossWrapAround() {
+        // Arrange
+        MpscRingBuffer<Integer> ringBuffer = new MpscRingBuffer<>(4);
+        List<Integer> polled = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            ringBuffer.offer(i);
+            polled.add(ringBuffer.poll());
+        }
+
+        // Assert
+        assertThat(polled).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(ringBuffer.poll()).isNull();
+        assertThat(ringBuffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void offer_shouldKeepEachProducersOrderUnderContention() throws InterruptedException {
+        // Arrange
+        int producers = 4;
+        int perProducer = 20_000;
+        MpscRingBuffer<long[]> ringBuffer = new MpscRingBuffer<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                awaitQuietly(start);
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!ringBuffer.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+
+        // Act
+        start.countDown();
+        long[] nextExpected = new long[producers];
+        int received = 0;
+        boolean inOrder = true;
+        while (received < producers * perProducer) {
+            long[] element = ringBuffer.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            inOrder &= element[1] == nextExpected[(int) element[0]]++;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertThat(inOrder).isTrue();
+        assertThat(nextExpected).containsOnly(perProducer);
+        assertThat(ringBuffer.poll()).isNull();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
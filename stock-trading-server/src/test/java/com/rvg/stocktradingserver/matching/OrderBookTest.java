@@ -0,0 +1,130 @@
+package com.rvg.stocktradingserver.matching;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderBookTest {
+
+    private record Fill(String maker, String taker, long price, int quantity, int makerRemaining) {
+    }
+
+    private OrderBook<String> book;
+    private List<Fill> fills;
+    private FillListener<String> listener;
+
+    @BeforeEach
+    void setUp() {
+        book = new OrderBook<>("AAPL");
+        fills = new ArrayList<>();
+        listener = (maker, taker, price, quantity, makerRemaining, takerRemaining) ->
+                fills.add(new Fill(maker, taker, price, quantity, makerRemaining));
+    }
+
+    @Test
+    void submit_shouldRestOrderWhenBookDoesNotCross() {
+        // Act
+        int bidOpen = book.submit(1, Side.BUY, 100, 10, "b1", listener);
+        int askOpen = book.submit(2, Side.SELL, 101, 5, "s1", listener);
+
+        // Assert
+        assertThat(bidOpen).isEqualTo(10);
+        assertThat(askOpen).isEqualTo(5);
+        assertThat(fills).isEmpty();
+        assertThat(book.bestBid()).isEqualTo(100);
+        assertThat(book.bestAsk()).isEqualTo(101);
+        assertThat(book.orderCount()).isEqualTo(2);
+    }
+
+    @Test
+    void submit_shouldMatchAtBestPriceFirstThenByTimePriority() {
+        // Arrange
+        book.submit(1, Side.SELL, 102, 5, "s-102", listener);
+        book.submit(2, Side.SELL, 101, 3, "s-101-first", listener);
+        book.submit(3, Side.SELL, 101, 4, "s-101-second", listener);
+
+        // Act
+        int open = book.submit(4, Side.BUY, 102, 10, "buyer", listener);
+
+        // Assert
+        assertThat(open).isZero();
+        assertThat(fills).containsExactly(
+                new Fill("s-101-first", "buyer", 101, 3, 0),
+                new Fill("s-101-second", "buyer", 101, 4, 0),
+                new Fill("s-102", "buyer", 102, 3, 2));
+        assertThat(book.bestAsk()).isEqualTo(102);
+        assertThat(book.quantityAt(Side.SELL, 102)).isEqualTo(2);
+        assertThat(book.depth(Side.SELL)).isEqualTo(1);
+    }
+
+    @Test
+    void submit_shouldRestRemainderAfterPartialMatch() {
+        // Arrange
+        book.submit(1, Side.BUY, 100, 4, "b1", listener);
+
+        // Act
+        int open = book.submit(2, Side.SELL, 99, 10, "s1", listener);
+
+        // Assert
+        assertThat(open).isEqualTo(6);
+        assertThat(fills).containsExactly(new Fill("b1", "s1", 100, 4, 0));
+        assertThat(book.bestBid()).isEqualTo(Long.MIN_VALUE);
+        assertThat(book.bestAsk()).isEqualTo(99);
+    }
+
+    @Test
+    void cancel_shouldRemoveOrderFromMiddleOfLevel() {
+        // Arrange
+        book.submit(1, Side.BUY, 100, 1, "b1", listener);
+        book.submit(2, Side.BUY, 100, 2, "b2", listener);
+        book.submit(3, Side.BUY, 100, 3, "b3", listener);
+
+        // Act
+        int cancelled = book.cancel(2);
+        book.submit(4, Side.SELL, 100, 4, "s1", listener);
+
+        // Assert
+        assertThat(cancelled).isEqualTo(2);
+        assertThat(book.cancel(2)).isZero();
+        assertThat(fills).extracting(Fill::maker).containsExactly("b1", "b3");
+        assertThat(book.quantityAt(Side.BUY, 100)).isZero();
+        assertThat(book.orderCount()).isZero();
+    }
+
+    @Test
+    void book_shouldStayConsistentUnderRandomInsertCancelAndMatch() {
+        // Arrange - enough orders to grow the pool, the index and the level arrays
+        Random random = new Random(42);
+        long submittedQuantity = 0;
+        long filledQuantity = 0;
+        long cancelledQuantity = 0;
+        long restingQuantity = 0;
+
+        // Act
+        for (long ref = 1; ref <= 50_000; ref++) {
+            if (ref > 10 && random.nextInt(4) == 0) {
+                cancelledQuantity += book.cancel(1 + random.nextLong(ref - 1));
+            }
+            Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+            long price = 10_000 + random.nextInt(200) - (side == Side.BUY ? 5 : -5);
+            int quantity = 1 + random.nextInt(100);
+            submittedQuantity += quantity;
+            book.submit(ref, side, price, quantity, "o" + ref, listener);
+        }
+        for (Fill fill : fills) {
+            filledQuantity += 2L * fill.quantity();
+        }
+        for (long price = 9_000; price <= 11_000; price++) {
+            restingQuantity += book.quantityAt(Side.BUY, price) + book.quantityAt(Side.SELL, price);
+        }
+
+        // Assert - quantity is conserved and the book never stays crossed
+        assertThat(filledQuantity + cancelledQuantity + restingQuantity).isEqualTo(submittedQuantity);
+        assertThat(book.bestBid()).isLessThan(book.bestAsk());
+    }
+}
@@ -0,0 +1,130 @@
+package com.rvg.stocktradingserver.metrics;
+
+import com.rvg.grpc.StockRequest;
+import com.rvg.grpc.StockResponse;
+import com.rvg.grpc.StockTradingServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GrpcServerMetricsInterceptorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Server server;
+    private ManagedChannel channel;
+    private StockTradingServiceGrpc.StockTradingServiceBlockingStub stub;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StockTradingServiceGrpc.StockTradingServiceImplBase service = new StockTradingServiceGrpc.StockTradingServiceImplBase() {
+            @Override
+            public void getStockPrice(StockRequest request, StreamObserver<StockResponse> responseObserver) {
+                if (request.getStockSymbol().isEmpty()) {
+                    responseObserver.onError(Status.INVALID_ARGUMENT.asRuntimeException());
+                    return;
+                }
+                responseObserver.onNext(quote(request.getStockSymbol()));
+                responseObserver.onCompleted();
+            }
+
+            @Override
+            public void subscribeStockPrice(StockRequest request, StreamObserver<StockResponse> responseObserver) {
+                for (int i = 0; i < 3; i++) {
+                    responseObserver.onNext(quote(request.getStockSymbol()));
+                }
+                responseObserver.onCompleted();
+            }
+        };
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(service, new GrpcServerMetricsInterceptor(meterRegistry)))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        stub = StockTradingServiceGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void interceptCall_shouldRecordLatencyPerStatusAndPayloadSizes() {
+        // Act
+        stub.getStockPrice(StockRequest.newBuilder().setStockSymbol("AAPL").build());
+        stub.getStockPrice(StockRequest.newBuilder().setStockSymbol("AAPL").build());
+        assertThatThrownBy(() -> stub.getStockPrice(StockRequest.getDefaultInstance()))
+                .isInstanceOf(StatusRuntimeException.class);
+
+        // Assert
+        assertThat(calls("GetStockPrice", "OK").count()).isEqualTo(2);
+        assertThat(calls("GetStockPrice", "INVALID_ARGUMENT").count()).isEqualTo(1);
+        assertThat(active("GetStockPrice")).isZero();
+
+        DistributionSummary sentSizes = meterRegistry.get("grpc.server.message.size")
+                .tag("method", "GetStockPrice").tag("direction", "sent").summary();
+        assertThat(sentSizes.count()).isEqualTo(2);
+        assertThat(sentSizes.totalAmount()).isEqualTo(2 * quote("AAPL").getSerializedSize());
+    }
+
+    @Test
+    void interceptCall_shouldCountTheMessagesOfAStream() {
+        // Act
+        Iterator<StockResponse> prices = stub.subscribeStockPrice(
+                StockRequest.newBuilder().setStockSymbol("AAPL").build());
+        prices.forEachRemaining(price -> { });
+
+        // Assert
+        assertThat(calls("SubscribeStockPrice", "OK").count()).isEqualTo(1);
+        DistributionSummary sent = meterRegistry.get("grpc.server.call.messages")
+                .tag("method", "SubscribeStockPrice").tag("direction", "sent").summary();
+        DistributionSummary received = meterRegistry.get("grpc.server.call.messages")
+                .tag("method", "SubscribeStockPrice").tag("direction", "received").summary();
+        assertThat(sent.totalAmount()).isEqualTo(3);
+        assertThat(received.totalAmount()).isEqualTo(1);
+        assertThat(meterRegistry.get("grpc.server.calls.active")
+                .tag("method", "SubscribeStockPrice").tag("type", "SERVER_STREAMING").gauge().value()).isZero();
+    }
+
+    private Timer calls(String method, String status) {
+        return meterRegistry.get("grpc.server.calls")
+                .tag("service", StockTradingServiceGrpc.SERVICE_NAME)
+                .tag("method", method)
+                .tag("status", status)
+                .timer();
+    }
+
+    private double active(String method) {
+        return meterRegistry.get("grpc.server.calls.active").tag("method", method).gauge().value();
+    }
+
+    private static StockResponse quote(String stockSymbol) {
+        return StockResponse.newBuilder()
+                .setStockSymbol(stockSymbol)
+                .setPrice(150.25)
+                .setTimestamp("2026-01-01T10:15:30")
+                .build();
+    }
+}
@@ -0,0 +1,141 @@
+package com.rvg.stocktradingserver.persistence;
+
+import com.rvg.stocktradingserver.cache.StockPriceCache;
+import com.rvg.stocktradingserver.execution.DatabaseGate;
+import com.rvg.stocktradingserver.matching.OrderRequest;
+import com.rvg.stocktradingserver.matching.Prices;
+import com.rvg.stocktradingserver.matching.Side;
+import com.rvg.stocktradingserver.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BulkOrderWriterTest {
+
+    @Autowired
+    private BulkOrderWriter bulkOrderWriter;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DatabaseGate databaseGate;
+
+    @Autowired
+    private StockPriceCache stockPriceCache;
+
+    private Statistics statistics;
+    private int permits;
+    private int writers;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAllInBatch();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        permits = databaseGate.availablePermits();
+        writers = bulkOrderWriter.availableWriters();
+    }
+
+    @Test
+    void complete_shouldInsertOrdersInJdbcBatchesInOneTransaction() {
+        // Arrange
+        List<OrderRequest> orderRequests = IntStream.range(0, 2_000)
+                .mapToObj(i -> new OrderRequest("order-" + i, i % 2 == 0 ? "AAPL" : "GOOGL",
+                        Side.BUY, false, 1 + i % 10, Prices.toTicks(100.0 + i % 7), ""))
+                .toList();
+
+        // Act
+        BulkOrderWriter.OrderStream orderStream = bulkOrderWriter.open();
+        orderRequests.forEach(orderStream::add);
+        orderStream.complete();
+        long transactions = statistics.getTransactionCount();
+        long preparedStatements = statistics.getPrepareStatementCount();
+
+        // Assert - 2,000 rows go out as 4 batches of 500 plus a few sequence calls
+        assertThat(transactions).isEqualTo(1);
+        assertThat(preparedStatements).isLessThan(20);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2_000);
+        assertThat(orderRepository.count()).isEqualTo(2_000);
+        assertThat(orderRepository.countByStockSymbol("AAPL")).isEqualTo(1_000);
+    }
+
+    @Test
+    void complete_shouldAcceptEmptyStream() {
+        // Act
+        bulkOrderWriter.open().complete();
+
+        // Assert
+        assertThat(orderRepository.count()).isZero();
+    }
+
+    @Test
+    void abort_shouldRollBackOrdersAlreadyWritten() throws InterruptedException {
+        // Arrange - more orders than one chunk, so the writer has already flushed some
+        BulkOrderWriter.OrderStream orderStream = bulkOrderWriter.open();
+        IntStream.range(0, 1_200)
+                .mapToObj(i -> new OrderRequest("order-" + i, "AAPL", Side.BUY, false, 1, Prices.toTicks(100.0), ""))
+                .forEach(orderStream::add);
+
+        // Act
+        orderStream.abort();
+
+        // Assert - the writer gives back its permit once it has rolled back
+        awaitWriters();
+        assertThat(bulkOrderWriter.availableWriters()).isEqualTo(writers);
+        assertThat(orderRepository.count()).isZero();
+    }
+
+    @Test
+    void openStreams_shouldNotHoldUpAPriceLoad() throws InterruptedException {
+        // Arrange - as many stalled streams as the request path has database permits,
+        // each past its first chunk
+        List<BulkOrderWriter.OrderStream> stalled = new ArrayList<>();
+        for (int s = 0; s < permits; s++) {
+            BulkOrderWriter.OrderStream orderStream = bulkOrderWriter.open();
+            IntStream.range(0, 500)
+                    .mapToObj(i -> new OrderRequest("order-" + i, "AAPL", Side.BUY, false, 1, Prices.toTicks(100.0), ""))
+                    .forEach(orderStream::add);
+            stalled.add(orderStream);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (statistics.getEntityInsertCount() < 500L * writers && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        try {
+            // Act
+            Object quote = stockPriceCache.get("NOPE");
+
+            // Assert - the miss was admitted and answered while every writer holds its connection
+            assertThat(quote).isNull();
+            assertThat(bulkOrderWriter.availableWriters()).isZero();
+            assertThat(databaseGate.availablePermits()).isEqualTo(permits);
+        } finally {
+            stalled.forEach(BulkOrderWriter.OrderStream::abort);
+            awaitWriters();
+        }
+    }
+
+    private void awaitWriters() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (bulkOrderWriter.availableWriters() < writers && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.rvg.stocktradingserver.persistence;
+
+import com.rvg.grpc.StockResponse;
+import com.rvg.stocktradingserver.cache.StockPriceCache;
+import com.rvg.stocktradingserver.entity.Stock;
+import com.rvg.stocktradingserver.market.MarketDataEngine;
+import com.rvg.stocktradingserver.market.Quote;
+import com.rvg.stocktradingserver.matching.Prices;
+import com.rvg.stocktradingserver.repository.StockRepository;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class StockPriceWriterTest {
+
+    @Autowired
+    private StockPriceWriter stockPriceWriter;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockPriceCache stockPriceCache;
+
+    @Autowired
+    private MarketDataEngine marketDataEngine;
+
+    @BeforeEach
+    void setUp() {
+        stockRepository.deleteAll();
+        Stock stock = new Stock();
+        stock.setStockSymbol("AAPL");
+        stock.setPrice(150.0);
+        stock.setLastUpdated(LocalDateTime.parse("2024-01-01T10:00:00"));
+        stockRepository.save(stock);
+    }
+
+    @Test
+    void update_shouldPushTheCommittedPriceToSubscribers() {
+        // Arrange
+        StreamObserver<StockResponse> observer = mock(StreamObserver.class);
+        marketDataEngine.subscribe("AAPL", observer);
+
+        // Act
+        Quote updated = stockPriceWriter.update("AAPL", Prices.toTicks(151.25));
+
+        // Assert - the subscriber got the stored price, then the update, without polling
+        ArgumentCaptor<StockResponse> captor = ArgumentCaptor.forClass(StockResponse.class);
+        verify(observer, times(2)).onNext(captor.capture());
+        assertThat(captor.getAllValues()).extracting(StockResponse::getPrice).containsExactly(150.0, 151.25);
+        assertThat(captor.getAllValues().get(1).getTimestamp()).isEqualTo(updated.toResponse().getTimestamp());
+        assertThat(stockPriceCache.price("AAPL")).isEqualTo(Prices.toTicks(151.25));
+        assertThat(stockRepository.findByStockSymbol("AAPL").getPrice()).isEqualTo(151.25);
+    }
+
+    @Test
+    void update_shouldReturnNullForUnknownSymbol() {
+        // Act
+        Quote updated = stockPriceWriter.update("NOPE", Prices.toTicks(10.0));
+
+        // Assert
+        assertThat(updated).isNull();
+        assertThat(stockRepository.findByStockSymbol("NOPE")).isNull();
+    }
+}
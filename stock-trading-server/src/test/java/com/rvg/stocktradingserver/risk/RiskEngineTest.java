@@ -0,0 +1,158 @@
+package com.rvg.stocktradingserver.risk;
+
+import com.rvg.stocktradingserver.cache.StockCacheProperties;
+import com.rvg.stocktradingserver.cache.StockPriceCache;
+import com.rvg.stocktradingserver.execution.DatabaseGate;
+import com.rvg.stocktradingserver.execution.ExecutionMode;
+import com.rvg.stocktradingserver.execution.ExecutionProperties;
+import com.rvg.stocktradingserver.matching.OrderRequest;
+import com.rvg.stocktradingserver.matching.Prices;
+import com.rvg.stocktradingserver.matching.Side;
+import com.rvg.stocktradingserver.repository.StockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class RiskEngineTest {
+
+    private StockPriceCache stockPriceCache;
+
+    @BeforeEach
+    void setUp() {
+        stockPriceCache = mock(StockPriceCache.class);
+        when(stockPriceCache.storedPrice("AAPL")).thenReturn(Prices.toTicks(100.0));
+    }
+
+    @Test
+    void check_shouldRejectOrderOverTheNotionalLimit() {
+        // Arrange
+        RiskEngine riskEngine = new RiskEngine(stockPriceCache, new RiskProperties(10_000, 0, 0, 0));
+        Exposure exposure = riskEngine.exposure("acct", "AAPL");
+
+        // Act
+        String atLimit = riskEngine.check(exposure, order(Side.BUY, 100, 100.0));
+        String overLimit = riskEngine.check(exposure, order(Side.BUY, 101, 100.0));
+
+        // Assert
+        assertThat(atLimit).isNull();
+        assertThat(overLimit).isEqualTo("Order notional exceeds the limit of 10000.0.");
+        assertThat(riskEngine.rejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void check_shouldRejectPriceOutsideTheBandAroundTheStoredPrice() {
+        // Arrange
+        RiskEngine riskEngine = new RiskEngine(stockPriceCache, new RiskProperties(0, 0, 0.1, 0));
+        Exposure exposure = riskEngine.exposure("acct", "AAPL");
+
+        // Act & Assert
+        assertThat(riskEngine.check(exposure, order(Side.BUY, 1, 110.0))).isNull();
+        assertThat(riskEngine.check(exposure, order(Side.SELL, 1, 90.0))).isNull();
+        assertThat(riskEngine.check(exposure, order(Side.BUY, 1, 1100.0)))
+                .isEqualTo("Price is more than 10% away from the reference price 100.0.");
+    }
+
+    @Test
+    void check_shouldSkipTheBandForAnUnknownSymbolWithoutQueryingTheDatabase() {
+        // Arrange
+        StockRepository stockRepository = mock(StockRepository.class);
+        DatabaseGate databaseGate = new DatabaseGate(
+                new ExecutionProperties(ExecutionMode.PLATFORM, 8, Duration.ofSeconds(1)));
+        RiskEngine riskEngine = new RiskEngine(new StockPriceCache(stockRepository,
+                new StockCacheProperties(100, Duration.ofMinutes(1)), databaseGate), new RiskProperties(0, 0, 0.1, 0));
+        Exposure exposure = riskEngine.exposure("acct", "NOPE");
+
+        // Act
+        String first = riskEngine.check(exposure, new OrderRequest("o-1", "NOPE", Side.BUY, false, 1,
+                Prices.toTicks(100.0), "acct"));
+        String second = riskEngine.check(exposure, new OrderRequest("o-2", "NOPE", Side.BUY, false, 1,
+                Prices.toTicks(100.0), "acct"));
+
+        // Assert
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        verifyNoInteractions(stockRepository);
+        databaseGate.shutdown();
+    }
+
+    @Test
+    void check_shouldCountOpenOrdersAndFillsAgainstThePositionLimit() {
+        // Arrange
+        RiskEngine riskEngine = new RiskEngine(stockPriceCache, new RiskProperties(0, 10, 0, 0));
+        Exposure exposure = riskEngine.exposure("acct", "AAPL");
+        assertThat(riskEngine.check(exposure, order(Side.BUY, 6, 100.0))).isNull();
+
+        // Act - 6 open, then 4 of them fill and 2 are cancelled
+        String overLimit = riskEngine.check(exposure, order(Side.BUY, 5, 100.0));
+        exposure.fill(Side.BUY, 4);
+        exposure.release(Side.BUY, 2);
+        String afterCancel = riskEngine.check(exposure, order(Side.BUY, 6, 100.0));
+        String shortSale = riskEngine.check(exposure, order(Side.SELL, 14, 100.0));
+
+        // Assert - selling is limited by the long position it can offset
+        assertThat(overLimit).isEqualTo("Position limit of 10 in AAPL exceeded.");
+        assertThat(afterCancel).isNull();
+        assertThat(shortSale).isNull();
+        assertThat(exposure.position()).isEqualTo(4);
+        assertThat(exposure.open(Side.BUY)).isEqualTo(6);
+        assertThat(exposure.open(Side.SELL)).isEqualTo(14);
+        assertThat(riskEngine.check(exposure, order(Side.SELL, 1, 100.0))).isNotNull();
+    }
+
+    @Test
+    void check_shouldThrottleOrdersPerAccount() {
+        // Arrange
+        RiskEngine riskEngine = new RiskEngine(stockPriceCache, new RiskProperties(0, 0, 0, 5));
+        Exposure throttled = riskEngine.exposure("acct", "AAPL");
+        Exposure otherSymbol = riskEngine.exposure("acct", "GOOGL");
+        Exposure otherAccount = riskEngine.exposure("other", "AAPL");
+
+        // Act
+        long accepted = IntStream.range(0, 20)
+                .mapToObj(i -> riskEngine.check(i % 2 == 0 ? throttled : otherSymbol, order(Side.BUY, 1, 100.0)))
+                .filter(rejection -> rejection == null)
+                .count();
+
+        // Assert - the limit is per account, across symbols; a second can roll over mid-test
+        assertThat(accepted).isBetween(5L, 10L);
+        assertThat(riskEngine.check(otherAccount, order(Side.BUY, 1, 100.0))).isNull();
+    }
+
+    @Test
+    void check_shouldNeverLetConcurrentOrdersPassThePositionLimitTogether() throws InterruptedException {
+        // Arrange
+        RiskEngine riskEngine = new RiskEngine(stockPriceCache, new RiskProperties(0, 1_000, 0, 0));
+        AtomicInteger accepted = new AtomicInteger();
+        Runnable trader = () -> {
+            Exposure exposure = riskEngine.exposure("acct", "AAPL");
+            for (int i = 0; i < 10_000; i++) {
+                if (riskEngine.check(exposure, order(Side.BUY, 1, 100.0)) == null) {
+                    accepted.incrementAndGet();
+                }
+            }
+        };
+
+        // Act
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = Thread.ofPlatform().start(trader);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertThat(accepted.get()).isEqualTo(1_000);
+        assertThat(riskEngine.exposure("acct", "AAPL").open(Side.BUY)).isEqualTo(1_000);
+    }
+
+    private static OrderRequest order(Side side, int quantity, double price) {
+        return new OrderRequest("1", "AAPL", side, false, quantity, Prices.toTicks(price), "acct");
+    }
+}
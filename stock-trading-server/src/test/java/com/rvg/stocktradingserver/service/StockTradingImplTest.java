@@ -1,14 +1,43 @@
 package com.rvg.stocktradingserver.service;
 
 import com.rvg.grpc.*;
+import com.rvg.stocktradingserver.cache.StockCacheProperties;
+import com.rvg.stocktradingserver.cache.StockPriceCache;
 import com.rvg.stocktradingserver.entity.Stock;
+import com.rvg.stocktradingserver.execution.DatabaseBusyException;
+import com.rvg.stocktradingserver.execution.DatabaseGate;
+import com.rvg.stocktradingserver.execution.ExecutionMode;
+import com.rvg.stocktradingserver.execution.ExecutionProperties;
+import com.rvg.stocktradingserver.journal.TradeJournal;
+import com.rvg.stocktradingserver.journal.TradeJournalProperties;
+import com.rvg.stocktradingserver.logging.OrderLogProperties;
+import com.rvg.stocktradingserver.market.MarketDataEngine;
+import com.rvg.stocktradingserver.market.MarketDataProperties;
+import com.rvg.stocktradingserver.market.Quote;
+import com.rvg.stocktradingserver.market.StreamMetrics;
+import com.rvg.stocktradingserver.matching.MatchingEngine;
+import com.rvg.stocktradingserver.matching.MatchingProperties;
+import com.rvg.stocktradingserver.matching.OrderRequest;
+import com.rvg.stocktradingserver.persistence.BulkOrderWriter;
+import com.rvg.stocktradingserver.persistence.StockPriceWriter;
 import com.rvg.stocktradingserver.repository.StockRepository;
+import com.rvg.stocktradingserver.risk.RiskEngine;
+import com.rvg.stocktradingserver.risk.RiskProperties;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -16,12 +45,42 @@ import static org.mockito.Mockito.*;
 class StockTradingImplTest {
 
     private StockRepository stockRepository;
+    private MarketDataEngine marketDataEngine;
+    private TradeJournal tradeJournal;
+    private MatchingEngine matchingEngine;
+    private BulkOrderWriter bulkOrderWriter;
+    private BulkOrderWriter.OrderStream savedOrders;
+    private StockPriceWriter stockPriceWriter;
     private StockTradingImpl stockTradingImpl;
 
+    @TempDir
+    private Path tempDir;
+
     @BeforeEach
     void setUp() {
         stockRepository = mock(StockRepository.class);
-        stockTradingImpl = new StockTradingImpl(stockRepository);
+        StockPriceCache stockPriceCache =
+                new StockPriceCache(stockRepository, new StockCacheProperties(100, Duration.ofMinutes(1)),
+                        new DatabaseGate(new ExecutionProperties(ExecutionMode.PLATFORM, 8, Duration.ofSeconds(1))));
+        marketDataEngine = new MarketDataEngine(stockPriceCache,
+                new MarketDataProperties(Duration.ofMillis(10), 11, 1), new StreamMetrics());
+        tradeJournal = new TradeJournal(new TradeJournalProperties(tempDir.resolve("trades.dat"),
+                DataSize.ofMegabytes(1), Duration.ofHours(1), 500));
+        matchingEngine = new MatchingEngine(new MatchingProperties(2, 64), tradeJournal,
+                new RiskEngine(stockPriceCache, new RiskProperties(0, 0, 0, 0)));
+        bulkOrderWriter = mock(BulkOrderWriter.class);
+        savedOrders = mock(BulkOrderWriter.OrderStream.class);
+        when(bulkOrderWriter.open()).thenReturn(savedOrders);
+        stockPriceWriter = mock(StockPriceWriter.class);
+        stockTradingImpl = new StockTradingImpl(stockPriceCache, marketDataEngine, matchingEngine, bulkOrderWriter,
+                stockPriceWriter, new OrderLogProperties(Map.of()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        marketDataEngine.shutdown();
+        matchingEngine.shutdown();
+        tradeJournal.close();
     }
 
     @Test
@@ -54,6 +113,125 @@ class StockTradingImplTest {
         assertThat(response.getTimestamp()).isEqualTo("2024-01-01T10:00");
     }
 
+    @Test
+    void getStockPrice_shouldReturnNotFoundForUnknownSymbol() {
+        // Arrange
+        when(stockRepository.findByStockSymbol("NOPE")).thenReturn(null);
+
+        StreamObserver<StockResponse> responseObserver = mock(StreamObserver.class);
+        StockRequest request = StockRequest.newBuilder()
+                .setStockSymbol("NOPE")
+                .build();
+
+        // Act
+        stockTradingImpl.getStockPrice(request, responseObserver);
+
+        // Assert
+        ArgumentCaptor<Throwable> captor = ArgumentCaptor.forClass(Throwable.class);
+        verify(responseObserver).onError(captor.capture());
+        verify(responseObserver, never()).onNext(any());
+        assertThat(Status.fromThrowable(captor.getValue()).getCode()).isEqualTo(Status.Code.NOT_FOUND);
+    }
+
+    @Test
+    void updateStockPrice_shouldReturnTheStoredPrice() {
+        // Arrange
+        when(stockPriceWriter.update("AAPL", 1_512_500))
+                .thenReturn(Quote.of("AAPL", 151.25, LocalDateTime.parse("2024-01-01T10:00:00.123456")));
+        StreamObserver<StockResponse> responseObserver = mock(StreamObserver.class);
+
+        // Act
+        stockTradingImpl.updateStockPrice(StockPriceUpdate.newBuilder()
+                .setStockSymbol("AAPL")
+                .setPrice(151.25)
+                .build(), responseObserver);
+
+        // Assert
+        ArgumentCaptor<StockResponse> captor = ArgumentCaptor.forClass(StockResponse.class);
+        verify(responseObserver).onNext(captor.capture());
+        verify(responseObserver).onCompleted();
+        assertThat(captor.getValue().getPrice()).isEqualTo(151.25);
+        assertThat(captor.getValue().getTimestamp()).isEqualTo("2024-01-01T10:00:00.123456");
+    }
+
+    @Test
+    void updateStockPrice_shouldRejectNonPositivePricesAndUnknownSymbols() {
+        // Arrange
+        StreamObserver<StockResponse> negative = mock(StreamObserver.class);
+        StreamObserver<StockResponse> unknown = mock(StreamObserver.class);
+
+        // Act
+        stockTradingImpl.updateStockPrice(StockPriceUpdate.newBuilder()
+                .setStockSymbol("AAPL")
+                .setPrice(-1.0)
+                .build(), negative);
+        stockTradingImpl.updateStockPrice(StockPriceUpdate.newBuilder()
+                .setStockSymbol("NOPE")
+                .setPrice(10.0)
+                .build(), unknown);
+
+        // Assert
+        ArgumentCaptor<Throwable> captor = ArgumentCaptor.forClass(Throwable.class);
+        verify(negative).onError(captor.capture());
+        assertThat(Status.fromThrowable(captor.getValue()).getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+        verify(unknown).onError(captor.capture());
+        assertThat(Status.fromThrowable(captor.getValue()).getCode()).isEqualTo(Status.Code.NOT_FOUND);
+        verify(stockPriceWriter, times(1)).update(anyString(), anyLong());
+    }
+
+    @Test
+    void getStockPrices_shouldResolveAllSymbolsWithOneQueryInRequestOrder() {
+        // Arrange
+        Stock apple = new Stock();
+        apple.setStockSymbol("AAPL");
+        apple.setPrice(150.5);
+        apple.setLastUpdated(LocalDateTime.parse("2024-01-01T10:00:00"));
+        Stock google = new Stock();
+        google.setStockSymbol("GOOGL");
+        google.setPrice(2500.5);
+        google.setLastUpdated(LocalDateTime.parse("2024-01-01T10:00:00"));
+
+        when(stockRepository.findByStockSymbolIn(anyCollection())).thenReturn(List.of(apple, google));
+
+        StreamObserver<StockListResponse> responseObserver = mock(StreamObserver.class);
+        StockListRequest request = StockListRequest.newBuilder()
+                .addAllStockSymbols(List.of("GOOGL", "NOPE", "AAPL"))
+                .build();
+
+        // Act
+        stockTradingImpl.getStockPrices(request, responseObserver);
+
+        // Assert
+        ArgumentCaptor<StockListResponse> captor = ArgumentCaptor.forClass(StockListResponse.class);
+        verify(responseObserver).onNext(captor.capture());
+        verify(responseObserver).onCompleted();
+        verify(stockRepository, times(1)).findByStockSymbolIn(anyCollection());
+        verify(stockRepository, never()).findByStockSymbol(any());
+
+        assertThat(captor.getValue().getPricesList())
+                .extracting(StockResponse::getStockSymbol)
+                .containsExactly("GOOGL", "AAPL");
+    }
+
+    @Test
+    void subscribeStockPrice_whenDatabaseIsBusy_shouldFailWithResourceExhausted() {
+        // Arrange
+        MarketDataEngine busyEngine = mock(MarketDataEngine.class);
+        doThrow(new DatabaseBusyException("Database is busy, retry later."))
+                .when(busyEngine).subscribe(eq("AAPL"), any());
+        StockTradingImpl busyImpl = new StockTradingImpl(mock(StockPriceCache.class), busyEngine, matchingEngine,
+                bulkOrderWriter, stockPriceWriter, new OrderLogProperties(Map.of()));
+        StreamObserver<StockResponse> responseObserver = mock(StreamObserver.class);
+
+        // Act
+        busyImpl.subscribeStockPrice(StockRequest.newBuilder().setStockSymbol("AAPL").build(), responseObserver);
+
+        // Assert
+        ArgumentCaptor<Throwable> captor = ArgumentCaptor.forClass(Throwable.class);
+        verify(responseObserver).onError(captor.capture());
+        assertThat(Status.fromThrowable(captor.getValue()).getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+    }
+
     @Test
     void subscribeStockPrice_shouldEmitMultiplePricesAndComplete() {
         // Arrange
@@ -66,10 +244,10 @@ class StockTradingImplTest {
         // Act
         stockTradingImpl.subscribeStockPrice(request, responseObserver);
 
-        // Assert
+        // Assert - updates are pushed asynchronously by the market data engine
+        verify(responseObserver, timeout(5000)).onCompleted();
         ArgumentCaptor<StockResponse> captor = ArgumentCaptor.forClass(StockResponse.class);
-        verify(responseObserver, atLeastOnce()).onNext(captor.capture());
-        verify(responseObserver).onCompleted();
+        verify(responseObserver, times(11)).onNext(captor.capture());
 
         // Simple sanity check: all messages have the same symbol
         assertThat(captor.getAllValues())
@@ -77,6 +255,37 @@ class StockTradingImplTest {
                 .allMatch(r -> r.getStockSymbol().equals(symbol));
     }
 
+    @Test
+    void streamStockPrices_shouldApplySubscribeAndUnsubscribeRequests() {
+        // Arrange
+        StreamObserver<StockResponse> responseObserver = mock(StreamObserver.class);
+        StreamObserver<SubscriptionRequest> requestObserver =
+                stockTradingImpl.streamStockPrices(responseObserver);
+
+        // Act
+        requestObserver.onNext(SubscriptionRequest.newBuilder()
+                .setAction(SubscriptionRequest.Action.SUBSCRIBE)
+                .addStockSymbols("AAPL")
+                .addStockSymbols("GOOGL")
+                .build());
+
+        // Assert
+        assertThat(marketDataEngine.subscriberCount("AAPL")).isEqualTo(1);
+        assertThat(marketDataEngine.subscriberCount("GOOGL")).isEqualTo(1);
+
+        // Act
+        requestObserver.onNext(SubscriptionRequest.newBuilder()
+                .setAction(SubscriptionRequest.Action.UNSUBSCRIBE)
+                .addStockSymbols("GOOGL")
+                .build());
+        requestObserver.onCompleted();
+
+        // Assert
+        assertThat(marketDataEngine.subscriberCount("GOOGL")).isZero();
+        assertThat(marketDataEngine.activeFeeds()).isZero();
+        verify(responseObserver).onCompleted();
+    }
+
     @Test
     void bulkStockOrder_shouldAggregateOrdersAndReturnSummary() {
         // Arrange
@@ -105,19 +314,79 @@ class StockTradingImplTest {
 
         // Assert
         ArgumentCaptor<OrderSummary> captor = ArgumentCaptor.forClass(OrderSummary.class);
+        verify(responseObserver, timeout(5000)).onCompleted();
         verify(responseObserver).onNext(captor.capture());
-        verify(responseObserver).onCompleted();
 
         OrderSummary summary = captor.getValue();
         assertThat(summary.getTotalOrders()).isEqualTo(2);
         assertThat(summary.getSuccessCount()).isEqualTo(2);
         // 2 * 100 + 3 * 200 = 800
         assertThat(summary.getTotalAmount()).isEqualTo(800.0);
+        verify(savedOrders).add(OrderRequest.of(order1));
+        verify(savedOrders).add(OrderRequest.of(order2));
+        verify(savedOrders).complete();
     }
 
     @Test
-    void liveTrading_shouldReturnExecutedWhenQuantityIsPositive() {
+    void bulkStockOrder_shouldAbortSavingWhenTheStreamFails() {
+        // Arrange
+        StreamObserver<OrderSummary> responseObserver = mock(StreamObserver.class);
+        StreamObserver<StockOrder> requestObserver =
+                stockTradingImpl.bulkStockOrder(responseObserver);
+
+        // Act
+        requestObserver.onNext(StockOrder.newBuilder()
+                .setOrderId("1")
+                .setStockSymbol("AAPL")
+                .setPrice(100.0)
+                .setQuantity(2)
+                .build());
+        requestObserver.onError(Status.CANCELLED.asRuntimeException());
+
+        // Assert
+        verify(savedOrders).abort();
+        verify(savedOrders, never()).complete();
+        verify(responseObserver, never()).onNext(any());
+    }
+
+    @Test
+    void bulkStockOrder_shouldFailWithInternalWhenOrdersCannotBeSaved() {
         // Arrange
+        doThrow(new IllegalStateException("connection refused")).when(savedOrders).complete();
+        StreamObserver<OrderSummary> responseObserver = mock(StreamObserver.class);
+        StreamObserver<StockOrder> requestObserver =
+                stockTradingImpl.bulkStockOrder(responseObserver);
+
+        // Act
+        requestObserver.onNext(StockOrder.newBuilder()
+                .setOrderId("1")
+                .setStockSymbol("AAPL")
+                .setPrice(100.0)
+                .setQuantity(2)
+                .build());
+        requestObserver.onCompleted();
+
+        // Assert
+        ArgumentCaptor<Throwable> captor = ArgumentCaptor.forClass(Throwable.class);
+        verify(responseObserver).onError(captor.capture());
+        verify(responseObserver, never()).onNext(any());
+        verify(responseObserver, never()).onCompleted();
+        assertThat(Status.fromThrowable(captor.getValue()).getCode()).isEqualTo(Status.Code.INTERNAL);
+    }
+
+    @Test
+    void liveTrading_shouldReturnExecutedWhenQuantityIsPositive() {
+        // Arrange - a seller rests liquidity for the buyer to trade against
+        StreamObserver<TradeStatus> sellerObserver = mock(StreamObserver.class);
+        StreamObserver<StockOrder> sellerRequests = stockTradingImpl.liveTrading(sellerObserver);
+        sellerRequests.onNext(StockOrder.newBuilder()
+                .setOrderId("S1")
+                .setStockSymbol("AAPL")
+                .setOrderType("SELL")
+                .setQuantity(5)
+                .setPrice(100.0)
+                .build());
+
         StreamObserver<TradeStatus> responseObserver = mock(StreamObserver.class);
         StreamObserver<StockOrder> requestObserver =
                 stockTradingImpl.liveTrading(responseObserver);
@@ -125,6 +394,7 @@ class StockTradingImplTest {
         StockOrder order = StockOrder.newBuilder()
                 .setOrderId("1")
                 .setStockSymbol("AAPL")
+                .setOrderType("BUY")
                 .setQuantity(5)
                 .setPrice(100.0)
                 .build();
@@ -135,13 +405,53 @@ class StockTradingImplTest {
 
         // Assert
         ArgumentCaptor<TradeStatus> captor = ArgumentCaptor.forClass(TradeStatus.class);
+        verify(responseObserver, timeout(5000)).onCompleted();
         verify(responseObserver, atLeastOnce()).onNext(captor.capture());
-        verify(responseObserver).onCompleted();
 
         TradeStatus status = captor.getValue();
         assertThat(status.getOrderId()).isEqualTo("1");
         assertThat(status.getStatus()).isEqualTo("EXECUTED");
         assertThat(status.getMessage()).contains("executed successfully");
+        assertThat(status.getFilledQuantity()).isEqualTo(5);
+        assertThat(status.getFillPrice()).isEqualTo(100.0);
+
+        // The resting seller is notified of the fill on its own stream
+        ArgumentCaptor<TradeStatus> sellerCaptor = ArgumentCaptor.forClass(TradeStatus.class);
+        verify(sellerObserver, times(2)).onNext(sellerCaptor.capture());
+        assertThat(sellerCaptor.getAllValues())
+                .extracting(TradeStatus::getStatus)
+                .containsExactly("PENDING", "EXECUTED");
+    }
+
+    @Test
+    void liveTrading_shouldRestOrderAsPendingAndCancelOnRequest() {
+        // Arrange
+        StreamObserver<TradeStatus> responseObserver = mock(StreamObserver.class);
+        StreamObserver<StockOrder> requestObserver =
+                stockTradingImpl.liveTrading(responseObserver);
+
+        // Act
+        requestObserver.onNext(StockOrder.newBuilder()
+                .setOrderId("1")
+                .setStockSymbol("AAPL")
+                .setOrderType("BUY")
+                .setQuantity(5)
+                .setPrice(100.0)
+                .build());
+        requestObserver.onNext(StockOrder.newBuilder()
+                .setOrderId("1")
+                .setOrderType("CANCEL")
+                .build());
+        requestObserver.onCompleted();
+
+        // Assert
+        ArgumentCaptor<TradeStatus> captor = ArgumentCaptor.forClass(TradeStatus.class);
+        verify(responseObserver, timeout(5000)).onCompleted();
+        verify(responseObserver, times(2)).onNext(captor.capture());
+        assertThat(captor.getAllValues())
+                .extracting(TradeStatus::getStatus)
+                .containsExactly("PENDING", "CANCELLED");
+        assertThat(captor.getAllValues().get(0).getRemainingQuantity()).isEqualTo(5);
     }
 
     @Test
@@ -164,12 +474,50 @@ class StockTradingImplTest {
 
         // Assert
         ArgumentCaptor<TradeStatus> captor = ArgumentCaptor.forClass(TradeStatus.class);
+        verify(responseObserver, timeout(5000)).onCompleted();
         verify(responseObserver, atLeastOnce()).onNext(captor.capture());
-        verify(responseObserver).onCompleted();
 
         TradeStatus status = captor.getValue();
         assertThat(status.getOrderId()).isEqualTo("2");
         assertThat(status.getStatus()).isEqualTo("FAILED");
         assertThat(status.getMessage()).contains("Quantity must be greater than zero");
     }
+
+    @Test
+    void liveTrading_shouldPullNextOrderOnlyWhenClientIsReady() {
+        // Arrange
+        ServerCallStreamObserver<TradeStatus> responseObserver = mock(ServerCallStreamObserver.class);
+        StreamObserver<StockOrder> requestObserver =
+                stockTradingImpl.liveTrading(responseObserver);
+
+        ArgumentCaptor<Runnable> onReady = ArgumentCaptor.forClass(Runnable.class);
+        verify(responseObserver).disableAutoRequest();
+        verify(responseObserver).setOnReadyHandler(onReady.capture());
+
+        // Act - first order is requested once the call becomes ready
+        when(responseObserver.isReady()).thenReturn(true);
+        onReady.getValue().run();
+
+        // Assert
+        verify(responseObserver, times(1)).request(1);
+
+        // Act - client stops reading, so no further order is requested
+        when(responseObserver.isReady()).thenReturn(false);
+        requestObserver.onNext(StockOrder.newBuilder()
+                .setOrderId("1")
+                .setStockSymbol("AAPL")
+                .setQuantity(5)
+                .setPrice(100.0)
+                .build());
+
+        // Assert
+        verify(responseObserver, times(1)).request(1);
+
+        // Act - client catches up
+        when(responseObserver.isReady()).thenReturn(true);
+        onReady.getValue().run();
+
+        // Assert
+        verify(responseObserver, times(2)).request(1);
+    }
 }
@@ -0,0 +1,192 @@
+package com.rvg.stocktradingserver.service;
+
+import com.rvg.grpc.StockRequest;
+import com.rvg.grpc.v2.*;
+import com.rvg.stocktradingserver.cache.StockCacheProperties;
+import com.rvg.stocktradingserver.cache.StockPriceCache;
+import com.rvg.stocktradingserver.entity.Stock;
+import com.rvg.stocktradingserver.execution.DatabaseGate;
+import com.rvg.stocktradingserver.execution.ExecutionMode;
+import com.rvg.stocktradingserver.execution.ExecutionProperties;
+import com.rvg.stocktradingserver.journal.TradeJournal;
+import com.rvg.stocktradingserver.journal.TradeJournalProperties;
+import com.rvg.stocktradingserver.logging.OrderLogProperties;
+import com.rvg.stocktradingserver.market.MarketDataEngine;
+import com.rvg.stocktradingserver.market.MarketDataProperties;
+import com.rvg.stocktradingserver.market.StreamMetrics;
+import com.rvg.stocktradingserver.matching.MatchingEngine;
+import com.rvg.stocktradingserver.matching.MatchingProperties;
+import com.rvg.stocktradingserver.matching.OrderRequest;
+import com.rvg.stocktradingserver.matching.Side;
+import com.rvg.stocktradingserver.persistence.BulkOrderWriter;
+import com.rvg.stocktradingserver.persistence.StockPriceWriter;
+import com.rvg.stocktradingserver.repository.StockRepository;
+import com.rvg.stocktradingserver.risk.RiskEngine;
+import com.rvg.stocktradingserver.risk.RiskProperties;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class StockTradingV2ImplTest {
+
+    private StockRepository stockRepository;
+    private MarketDataEngine marketDataEngine;
+    private TradeJournal tradeJournal;
+    private MatchingEngine matchingEngine;
+    private BulkOrderWriter bulkOrderWriter;
+    private BulkOrderWriter.OrderStream savedOrders;
+    private StockTradingV2Impl stockTradingV2Impl;
+
+    @TempDir
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        stockRepository = mock(StockRepository.class);
+        StockPriceCache stockPriceCache =
+                new StockPriceCache(stockRepository, new StockCacheProperties(100, Duration.ofMinutes(1)),
+                        new DatabaseGate(new ExecutionProperties(ExecutionMode.PLATFORM, 8, Duration.ofSeconds(1))));
+        marketDataEngine = new MarketDataEngine(stockPriceCache,
+                new MarketDataProperties(Duration.ofMillis(10), 11, 1), new StreamMetrics());
+        tradeJournal = new TradeJournal(new TradeJournalProperties(tempDir.resolve("trades.dat"),
+                DataSize.ofMegabytes(1), Duration.ofHours(1), 500));
+        matchingEngine = new MatchingEngine(new MatchingProperties(2, 64), tradeJournal,
+                new RiskEngine(stockPriceCache, new RiskProperties(0, 0, 0, 0)));
+        bulkOrderWriter = mock(BulkOrderWriter.class);
+        savedOrders = mock(BulkOrderWriter.OrderStream.class);
+        when(bulkOrderWriter.open()).thenReturn(savedOrders);
+        stockTradingV2Impl = new StockTradingV2Impl(stockPriceCache, marketDataEngine, matchingEngine, bulkOrderWriter,
+                mock(StockPriceWriter.class), new OrderLogProperties(Map.of()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        marketDataEngine.shutdown();
+        matchingEngine.shutdown();
+        tradeJournal.close();
+    }
+
+    @Test
+    void getStockPrice_shouldReturnFixedPointPriceAndEpochNanos() {
+        // Arrange
+        LocalDateTime lastUpdated = LocalDateTime.parse("2024-01-01T10:00:00.123456789");
+        Stock stock = new Stock();
+        stock.setStockSymbol("AAPL");
+        stock.setPrice(150.25);
+        stock.setLastUpdated(lastUpdated);
+        when(stockRepository.findByStockSymbol("AAPL")).thenReturn(stock);
+        StreamObserver<StockQuote> responseObserver = mock(StreamObserver.class);
+
+        // Act
+        stockTradingV2Impl.getStockPrice(StockRequest.newBuilder().setStockSymbol("AAPL").build(), responseObserver);
+
+        // Assert
+        ArgumentCaptor<StockQuote> captor = ArgumentCaptor.forClass(StockQuote.class);
+        verify(responseObserver).onNext(captor.capture());
+        verify(responseObserver).onCompleted();
+        StockQuote quote = captor.getValue();
+        assertThat(quote.getStockSymbol()).isEqualTo("AAPL");
+        assertThat(quote.getPrice()).isEqualTo(1_502_500);
+        assertThat(quote.getTimestampNanos() % 1_000_000_000L).isEqualTo(123_456_789);
+        assertThat(quote.getTimestampNanos() / 1_000_000_000L)
+                .isEqualTo(lastUpdated.atZone(ZoneId.systemDefault()).toEpochSecond());
+    }
+
+    @Test
+    void bulkStockOrder_shouldReturnTotalAmountInTicks() {
+        // Arrange
+        StreamObserver<OrderSummary> responseObserver = mock(StreamObserver.class);
+        StreamObserver<StockOrder> requestObserver = stockTradingV2Impl.bulkStockOrder(responseObserver);
+
+        // Act
+        requestObserver.onNext(order("1", OrderType.ORDER_TYPE_BUY, 2, 1_000_500));
+        requestObserver.onNext(order("2", OrderType.ORDER_TYPE_SELL, 3, 2_000_000));
+        requestObserver.onCompleted();
+
+        // Assert
+        ArgumentCaptor<OrderSummary> captor = ArgumentCaptor.forClass(OrderSummary.class);
+        verify(responseObserver, timeout(5000)).onCompleted();
+        verify(responseObserver).onNext(captor.capture());
+        OrderSummary summary = captor.getValue();
+        assertThat(summary.getTotalOrders()).isEqualTo(2);
+        assertThat(summary.getSuccessCount()).isEqualTo(2);
+        // 2 * 100.05 + 3 * 200 = 800.10
+        assertThat(summary.getTotalAmount()).isEqualTo(8_001_000);
+        verify(savedOrders).add(new OrderRequest("1", "AAPL", Side.BUY, false, 2, 1_000_500, ""));
+        verify(savedOrders).add(new OrderRequest("2", "AAPL", Side.SELL, false, 3, 2_000_000, ""));
+        verify(savedOrders).complete();
+    }
+
+    @Test
+    void liveTrading_shouldReportFillsWithEnumStatusAndTicks() {
+        // Arrange
+        StreamObserver<TradeStatus> sellerObserver = mock(StreamObserver.class);
+        StreamObserver<StockOrder> sellerRequests = stockTradingV2Impl.liveTrading(sellerObserver);
+        sellerRequests.onNext(order("S1", OrderType.ORDER_TYPE_SELL, 5, 1_000_000));
+        StreamObserver<TradeStatus> buyerObserver = mock(StreamObserver.class);
+        StreamObserver<StockOrder> buyerRequests = stockTradingV2Impl.liveTrading(buyerObserver);
+
+        // Act
+        buyerRequests.onNext(order("B1", OrderType.ORDER_TYPE_BUY, 5, 1_010_000));
+        buyerRequests.onCompleted();
+
+        // Assert - fills at the resting price, no text on a successful status
+        ArgumentCaptor<TradeStatus> captor = ArgumentCaptor.forClass(TradeStatus.class);
+        verify(buyerObserver, timeout(5000)).onCompleted();
+        verify(buyerObserver).onNext(captor.capture());
+        TradeStatus status = captor.getValue();
+        assertThat(status.getOrderId()).isEqualTo("B1");
+        assertThat(status.getStatus()).isEqualTo(OrderStatus.ORDER_STATUS_EXECUTED);
+        assertThat(status.getFilledQuantity()).isEqualTo(5);
+        assertThat(status.getFillPrice()).isEqualTo(1_000_000);
+        assertThat(status.getReason()).isEmpty();
+        assertThat(status.getTimestampNanos()).isPositive();
+
+        ArgumentCaptor<TradeStatus> sellerCaptor = ArgumentCaptor.forClass(TradeStatus.class);
+        verify(sellerObserver, timeout(5000).times(2)).onNext(sellerCaptor.capture());
+        assertThat(sellerCaptor.getAllValues())
+                .extracting(TradeStatus::getStatus)
+                .containsExactly(OrderStatus.ORDER_STATUS_PENDING, OrderStatus.ORDER_STATUS_EXECUTED);
+    }
+
+    @Test
+    void liveTrading_shouldFailOrderWithoutOrderType() {
+        // Arrange
+        StreamObserver<TradeStatus> responseObserver = mock(StreamObserver.class);
+        StreamObserver<StockOrder> requestObserver = stockTradingV2Impl.liveTrading(responseObserver);
+
+        // Act
+        requestObserver.onNext(order("1", OrderType.ORDER_TYPE_UNSPECIFIED, 5, 1_000_000));
+        requestObserver.onCompleted();
+
+        // Assert
+        ArgumentCaptor<TradeStatus> captor = ArgumentCaptor.forClass(TradeStatus.class);
+        verify(responseObserver, timeout(5000)).onCompleted();
+        verify(responseObserver).onNext(captor.capture());
+        assertThat(captor.getValue().getStatus()).isEqualTo(OrderStatus.ORDER_STATUS_FAILED);
+        assertThat(captor.getValue().getReason()).isEqualTo("Order type must be BUY, SELL or CANCEL.");
+    }
+
+    private static StockOrder order(String orderId, OrderType orderType, int quantity, long price) {
+        return StockOrder.newBuilder()
+                .setOrderId(orderId)
+                .setStockSymbol("AAPL")
+                .setOrderType(orderType)
+                .setQuantity(quantity)
+                .setPrice(price)
+                .build();
+    }
+}